@@ -0,0 +1,119 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.RequestType;
+import com.invisiblecollector.connection.response.ResponseLeakDetector;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.model.Company;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import com.invisiblecollector.model.builder.FindDebtsBuilderBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncApiFacadeIT extends IcFacadeTestBase {
+
+  private static final String COMPANIES_ENDPOINT = "companies";
+
+  private IcAsyncApiFacade initAsyncMockServer(MockResponse response, Executor parseExecutor)
+      throws Exception {
+    this.mockServer.addMockResponse(response);
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withParseExecutor(parseExecutor)
+        .buildAsync();
+  }
+
+  @Test
+  public void requestCompanyInfo_parsesOnExecutor() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    AtomicInteger parseCount = new AtomicInteger();
+    Executor countingExecutor =
+        command -> {
+          parseCount.incrementAndGet();
+          command.run();
+        };
+    IcAsyncApiFacade icFacade =
+        initAsyncMockServer(
+            buildBodiedJsonMockResponse(companyBuilder.buildJson()), countingExecutor);
+
+    Company company = icFacade.requestCompanyInfo().get(10, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(companyBuilder.buildObject(), company.getFields());
+    Assertions.assertEquals(1, parseCount.get());
+    RecordedRequest request = this.mockServer.getRequest();
+    this.assertSentCorrectCoreHeaders(
+        request, COMPANIES_ENDPOINT, this.mockServer.getBaseUri(), RequestType.GET);
+  }
+
+  @Test
+  public void registerNewCustomer_conflict() throws Exception {
+    int statusCode = 409;
+    MockResponse mockResponse =
+        buildBodiedJsonMockResponse(buildConflictErrorJson(statusCode)).setResponseCode(statusCode);
+    IcAsyncApiFacade icFacade = initAsyncMockServer(mockResponse, Runnable::run);
+    Customer customer = CustomerBuilder.buildTestCustomerBuilder().buildModel();
+
+    CompletableFuture<Customer> future = icFacade.registerNewCustomer(customer);
+
+    ExecutionException exception =
+        Assertions.assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcConflictingException);
+    Assertions.assertEquals(CONFLICT_GID, ((IcConflictingException) exception.getCause()).getGid());
+  }
+
+  @Test
+  public void findDebts_success() throws Exception {
+    Pair<List<Debt>, String> pair = DebtBuilder.buildTestDebtList();
+    IcAsyncApiFacade icFacade =
+        initAsyncMockServer(buildBodiedJsonMockResponse(pair.second), Runnable::run);
+    FindDebtsBuilderBuilder builderBuilder = FindDebtsBuilderBuilder.buildTestBuilder();
+
+    List<Debt> debts = icFacade.findDebts(builderBuilder.buildModel()).get(10, TimeUnit.SECONDS);
+
+    assertObjectsEquals(pair.first, debts);
+    RecordedRequest request = this.mockServer.getRequest();
+    String endpoint = String.format("debts/find?%s", builderBuilder.buildSendableUrlQuery());
+    this.assertSentCorrectCoreHeaders(
+        request, endpoint, this.mockServer.getBaseUri(), RequestType.GET);
+  }
+
+  @Test
+  public void requestDebtInfo_cancel() throws Exception {
+    String json = DebtBuilder.buildTestDebtBuilder().buildJson();
+    this.mockServer.addMockResponse(
+        buildBodiedJsonMockResponse(json).setBodyDelay(500, TimeUnit.MILLISECONDS));
+    this.mockServer.start();
+    ResponseLeakDetector leakDetector = new ResponseLeakDetector(true);
+    IcAsyncApiFacade icFacade =
+        IcApiFacade.builder(TEST_API_TOKEN)
+            .withBaseUrl(this.mockServer.getBaseUri())
+            .withResponseLeakDetector(leakDetector)
+            .buildAsync();
+
+    CompletableFuture<Debt> future = icFacade.requestDebtInfo("1234");
+    Assertions.assertTrue(future.cancel(true));
+
+    Assertions.assertTrue(future.isCancelled());
+    Assertions.assertThrows(CancellationException.class, future::join);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> icFacade.requestDebtInfo(""));
+
+    // the late response must still be released
+    this.mockServer.getRequest();
+    Thread.sleep(1000);
+    Assertions.assertEquals(0, leakDetector.getUnreleasedCount());
+  }
+}
@@ -0,0 +1,96 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.AttributeCache;
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import com.invisiblecollector.model.serialization.JsonSingleton;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class AttributeCacheIT extends IcFacadeTestBase {
+
+  private static final String CUSTOMER_ID = "1234";
+
+  private final AttributeCache attributeCache = new AttributeCache(100);
+  private final Caches caches = new Caches().withAttributeCache(attributeCache);
+
+  private static Map<String, String> buildAttributes(String segment) {
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put("segment", segment);
+    attributes.put("region", "north");
+    return attributes;
+  }
+
+  private MockResponse buildAttributesResponse(Map<String, String> attributes) throws Exception {
+    return buildBodiedJsonMockResponse(JsonSingleton.getInstance().writeValueAsString(attributes));
+  }
+
+  @Test
+  public void requestCustomerAttributes_readThrough() throws Exception {
+    Map<String, String> attributes = buildAttributes("retail");
+    IcApiFacade icFacade = initMockServer(caches, buildAttributesResponse(attributes));
+
+    Assertions.assertEquals(attributes, icFacade.requestCustomerAttributes(CUSTOMER_ID));
+    Assertions.assertEquals(attributes, icFacade.requestCustomerAttributes(CUSTOMER_ID));
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void setCustomerAttributes_writeThrough() throws Exception {
+    Map<String, String> before = buildAttributes("retail");
+    Map<String, String> after = buildAttributes("wholesale");
+    IcApiFacade icFacade =
+        initMockServer(caches, buildAttributesResponse(before), buildAttributesResponse(after));
+
+    icFacade.requestCustomerAttributes(CUSTOMER_ID);
+    icFacade.setCustomerAttributes(CUSTOMER_ID, buildAttributes("wholesale"));
+
+    Assertions.assertEquals(after, icFacade.requestCustomerAttributes(CUSTOMER_ID));
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+
+    attributeCache.invalidate(CUSTOMER_ID);
+    Assertions.assertNull(attributeCache.get(CUSTOMER_ID));
+  }
+
+  @Test
+  public void setCustomerAttributes_updatesOtherId() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    Customer customer = customerBuilder.buildModel();
+    this.mockServer.addMockResponse(buildBodiedJsonMockResponse(customerBuilder.buildJson()));
+    Map<String, String> after = buildAttributes("wholesale");
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildAttributesResponse(buildAttributes("retail")),
+            buildAttributesResponse(after));
+
+    icFacade.requestCustomerInfo(customer.getExternalId());
+    icFacade.requestCustomerAttributes(customer.getExternalId());
+    icFacade.setCustomerAttributes(customer.getId(), after);
+
+    Assertions.assertEquals(after, icFacade.requestCustomerAttributes(customer.getExternalId()));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void setCustomerAttributes_unknownOtherIdRefetched() throws Exception {
+    Map<String, String> after = buildAttributes("wholesale");
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildAttributesResponse(buildAttributes("retail")),
+            buildAttributesResponse(after),
+            buildAttributesResponse(after));
+
+    icFacade.requestCustomerAttributes("external-id");
+    icFacade.setCustomerAttributes(CUSTOMER_ID, after);
+
+    Assertions.assertEquals(after, icFacade.requestCustomerAttributes("external-id"));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+}
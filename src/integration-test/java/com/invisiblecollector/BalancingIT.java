@@ -0,0 +1,84 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.balance.BaseUrlBalancer;
+import com.invisiblecollector.connection.balance.OutlierEjection;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class BalancingIT extends IcFacadeTestBase {
+
+  private static final int REQUESTS = 20;
+
+  private final MockServerFacade otherServer = new MockServerFacade();
+  private final CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+
+  @AfterEach
+  private void closeOtherServer() throws IOException {
+    otherServer.close();
+  }
+
+  private Dispatcher buildDispatcher(int status) {
+    return new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        return status == 200
+            ? buildBodiedJsonMockResponse(companyBuilder.buildJson())
+            : buildBodiedJsonMockResponse(buildErrorJson(status)).setResponseCode(status);
+      }
+    };
+  }
+
+  private BaseUrlBalancer initBalancer(int status, int otherStatus, OutlierEjection ejection)
+      throws Exception {
+    this.mockServer.setDispatcher(buildDispatcher(status));
+    this.mockServer.start();
+    otherServer.setDispatcher(buildDispatcher(otherStatus));
+    otherServer.start();
+    return new BaseUrlBalancer(
+        Arrays.asList(this.mockServer.getBaseUri(), otherServer.getBaseUri()), ejection);
+  }
+
+  @Test
+  public void requestCompanyInfo_spreadAcrossBaseUrls() throws Exception {
+    BaseUrlBalancer balancer = initBalancer(200, 200, new OutlierEjection());
+    IcApiFacade icFacade = IcApiFacade.builder(TEST_API_TOKEN).withBaseUrlBalancer(balancer).build();
+
+    for (int i = 0; i < REQUESTS; i++) {
+      this.assertCorrectModelReturned(companyBuilder, (unused) -> icFacade.requestCompanyInfo());
+    }
+
+    Assertions.assertTrue(this.mockServer.getRequestCount() > 0);
+    Assertions.assertTrue(otherServer.getRequestCount() > 0);
+    Assertions.assertEquals(
+        REQUESTS, this.mockServer.getRequestCount() + otherServer.getRequestCount());
+  }
+
+  @Test
+  public void requestCompanyInfo_failingBaseUrlEjected() throws Exception {
+    BaseUrlBalancer balancer =
+        initBalancer(503, 200, new OutlierEjection().withConsecutiveFailures(2));
+    IcApiFacade icFacade =
+        IcApiFacade.builder(TEST_API_TOKEN)
+            .withBaseUrlBalancer(balancer)
+            .withRetryPolicy(new RetryPolicy().withDelay(1, 1, TimeUnit.MILLISECONDS))
+            .build();
+
+    for (int i = 0; i < REQUESTS; i++) {
+      this.assertCorrectModelReturned(companyBuilder, (unused) -> icFacade.requestCompanyInfo());
+    }
+
+    Assertions.assertTrue(balancer.getBackends().get(0).isEjected());
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+    Assertions.assertEquals(REQUESTS, otherServer.getRequestCount());
+  }
+}
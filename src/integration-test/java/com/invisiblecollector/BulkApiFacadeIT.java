@@ -0,0 +1,88 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkApiFacadeIT extends IcFacadeTestBase {
+
+  private static final String MISSING_ID = "missing";
+  private static final int MAX_CONCURRENCY = 3;
+
+  @Test
+  public void requestDebtsInfo_resultsInOrderAndBounded() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            TimeUnit.MILLISECONDS.sleep(20);
+            inFlight.decrementAndGet();
+
+            String id = request.getPath().substring("/debts/".length());
+            if (MISSING_ID.equals(id)) {
+              return buildBodiedJsonMockResponse(buildErrorJson(404)).setResponseCode(404);
+            }
+
+            return buildBodiedJsonMockResponse(
+                DebtBuilder.buildTestDebtBuilder().setId(id).buildJson());
+          }
+        });
+    this.mockServer.start();
+
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      ids.add(i == 5 ? MISSING_ID : "id" + i);
+    }
+
+    try (IcBulkApiFacade bulkFacade =
+        IcApiFacade.builder(TEST_API_TOKEN)
+            .withBaseUrl(this.mockServer.getBaseUri())
+            .buildBulk(MAX_CONCURRENCY)) {
+      List<BulkResult<Debt>> results = bulkFacade.requestDebtsInfo(ids);
+
+      Assertions.assertEquals(ids.size(), results.size());
+      for (int i = 0; i < ids.size(); i++) {
+        BulkResult<Debt> result = results.get(i);
+        if (i == 5) {
+          Assertions.assertFalse(result.isSuccess());
+          Assertions.assertTrue(result.getException() instanceof IcException);
+        } else {
+          Assertions.assertTrue(result.isSuccess(), result.toString());
+          Assertions.assertEquals(ids.get(i), result.getValue().getId());
+        }
+      }
+    }
+
+    Assertions.assertTrue(maxInFlight.get() <= MAX_CONCURRENCY, "" + maxInFlight.get());
+  }
+
+  @Test
+  public void registerNewDebts_invalidArgumentIsPerItem() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    IcApiFacade icFacade = initJsonResponseMock(debtBuilder);
+    List<Debt> debts = new ArrayList<>();
+    debts.add(debtBuilder.buildModel());
+    debts.add(new Debt());
+
+    try (IcBulkApiFacade bulkFacade = new IcBulkApiFacade(icFacade, 1)) {
+      List<BulkResult<Debt>> results = bulkFacade.registerNewDebts(debts);
+
+      Assertions.assertTrue(results.get(0).isSuccess());
+      Assertions.assertEquals(debtBuilder.buildObject(), results.get(0).getValue().getFields());
+      Assertions.assertTrue(results.get(1).getException() instanceof IllegalArgumentException);
+    }
+  }
+}
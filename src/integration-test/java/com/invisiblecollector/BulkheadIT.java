@@ -0,0 +1,121 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.bulkhead.Bulkheads;
+import com.invisiblecollector.connection.bulkhead.TrafficClass;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.pool.ConnectionPoolConfig;
+import com.invisiblecollector.exceptions.IcRejectedException;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadIT extends IcFacadeTestBase {
+
+  private static final long WRITE_DELAY_MILLIS = 500;
+
+  private void initSlowWriteServer() throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            if (!"GET".equals(request.getMethod())) {
+              TimeUnit.MILLISECONDS.sleep(WRITE_DELAY_MILLIS);
+            }
+            return buildBodiedJsonMockResponse(DebtBuilder.buildTestDebtBuilder().buildJson());
+          }
+        });
+    this.mockServer.start();
+  }
+
+  private IcApiFacadeBuilder buildFacadeBuilder(Bulkheads bulkheads) {
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withBulkheads(bulkheads);
+  }
+
+  @Test
+  public void requestDebtInfo_notBlockedBySaturatedWrites() throws Exception {
+    initSlowWriteServer();
+    Bulkheads bulkheads =
+        new Bulkheads()
+            .withBulkhead(TrafficClass.WRITE, 1, 10, 10, TimeUnit.SECONDS)
+            .withBulkhead(TrafficClass.READ, 2, 10, 10, TimeUnit.SECONDS);
+    IcAsyncApiFacade asyncFacade = buildFacadeBuilder(bulkheads).buildAsync();
+    IcApiFacade icFacade = buildFacadeBuilder(bulkheads).build();
+    Debt debt = DebtBuilder.buildTestDebtBuilder().buildModel();
+
+    List<CompletableFuture<Debt>> writes = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      writes.add(asyncFacade.registerNewDebt(debt));
+    }
+    Assertions.assertEquals(2, bulkheads.getLimiter(TrafficClass.WRITE).getQueueDepth());
+
+    long start = System.nanoTime();
+    Assertions.assertNotNull(icFacade.requestDebtInfo("1"));
+    long readMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    Assertions.assertTrue(readMillis < WRITE_DELAY_MILLIS, "read took " + readMillis + "ms");
+
+    for (CompletableFuture<Debt> write : writes) {
+      Assertions.assertNotNull(write.get(10, TimeUnit.SECONDS));
+    }
+    Assertions.assertEquals(0, bulkheads.getLimiter(TrafficClass.WRITE).getInFlight());
+  }
+
+  @Test
+  public void registerNewDebt_rejectedWhenBulkheadFull() throws Exception {
+    initSlowWriteServer();
+    try (ConnectionPool writePool =
+        new ConnectionPool(new ConnectionPoolConfig().withMaxTotal(1).withMaxPerRoute(1))) {
+      Bulkheads bulkheads =
+          new Bulkheads()
+              .withBulkhead(TrafficClass.WRITE, 1, 0, 0, TimeUnit.SECONDS)
+              .withConnectionPool(TrafficClass.WRITE, writePool);
+      IcAsyncApiFacade icFacade = buildFacadeBuilder(bulkheads).buildAsync();
+      Debt debt = DebtBuilder.buildTestDebtBuilder().buildModel();
+
+      CompletableFuture<Debt> first = icFacade.registerNewDebt(debt);
+      CompletableFuture<Debt> rejected = icFacade.registerNewDebt(debt);
+      CompletableFuture<Debt> read = icFacade.requestDebtInfo("1");
+
+      ExecutionException exception =
+          Assertions.assertThrows(
+              ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(exception.getCause() instanceof IcRejectedException);
+      Assertions.assertNotNull(read.get(10, TimeUnit.SECONDS));
+      Assertions.assertNotNull(first.get(10, TimeUnit.SECONDS));
+      Assertions.assertEquals(1, bulkheads.getLimiter(TrafficClass.WRITE).getRejections());
+      Assertions.assertEquals(1, writePool.getStats().getOpen());
+    }
+  }
+
+  @Test
+  public void warmUp_probesBulkheadPools() throws Exception {
+    initSlowWriteServer();
+    try (ConnectionPool writePool = new ConnectionPool();
+        ConnectionPool searchPool = new ConnectionPool()) {
+      Bulkheads bulkheads =
+          new Bulkheads()
+              .withConnectionPool(TrafficClass.WRITE, writePool)
+              .withConnectionPool(TrafficClass.SEARCH, searchPool);
+      IcApiFacade icFacade = buildFacadeBuilder(bulkheads).build();
+
+      WarmUpReport report = icFacade.warmUp(2, 0);
+
+      Assertions.assertTrue(report.isHealthy(), report.toString());
+      Assertions.assertEquals(6, report.getProbedConnections());
+      Assertions.assertEquals(6, this.mockServer.getRequestCount());
+      Assertions.assertTrue(writePool.getStats().getOpen() > 0);
+      Assertions.assertTrue(searchPool.getStats().getOpen() > 0);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.breaker.CircuitBreakerConfig;
+import com.invisiblecollector.connection.breaker.CircuitBreakers;
+import com.invisiblecollector.connection.breaker.CircuitState;
+import com.invisiblecollector.exceptions.IcCircuitOpenException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.FindDebtsBuilder;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class CircuitBreakerIT extends IcFacadeTestBase {
+
+  private final CircuitBreakers circuitBreakers =
+      new CircuitBreakers(
+          new CircuitBreakerConfig().withWindow(4, 2).withOpenDuration(1, TimeUnit.MINUTES));
+
+  // the find endpoint is down, every other endpoint is healthy
+  private void initServer() throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (request.getPath().startsWith("/debts/find")) {
+              return buildBodiedJsonMockResponse(buildErrorJson(500)).setResponseCode(500);
+            }
+            if (request.getPath().startsWith("/debts")) {
+              return buildBodiedJsonMockResponse(DebtBuilder.buildTestDebtBuilder().buildJson());
+            }
+            return buildBodiedJsonMockResponse(
+                CompanyBuilder.buildTestCompanyBuilder().buildJson());
+          }
+        });
+    this.mockServer.start();
+  }
+
+  private IcApiFacadeBuilder buildFacadeBuilder() {
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withCircuitBreakers(circuitBreakers);
+  }
+
+  @Test
+  public void findDebts_openCircuitFailsFast() throws Exception {
+    initServer();
+    IcApiFacade icFacade = buildFacadeBuilder().build();
+    FindDebtsBuilder query = new FindDebtsBuilder().withNumber("1");
+
+    Assertions.assertThrows(IcException.class, () -> icFacade.findDebts(query));
+    Assertions.assertThrows(IcException.class, () -> icFacade.findDebts(query));
+    IcCircuitOpenException exception =
+        Assertions.assertThrows(IcCircuitOpenException.class, () -> icFacade.findDebts(query));
+
+    Assertions.assertEquals(IcApiFacade.DEBTS_FIND_PATH, exception.getEndpointKey());
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+    Assertions.assertEquals(
+        CircuitState.OPEN, circuitBreakers.getState(IcApiFacade.DEBTS_FIND_PATH));
+  }
+
+  @Test
+  public void findDebts_openCircuitLeavesOtherEndpoints() throws Exception {
+    initServer();
+    IcApiFacade icFacade = buildFacadeBuilder().build();
+    IcAsyncApiFacade asyncFacade = buildFacadeBuilder().buildAsync();
+    FindDebtsBuilder query = new FindDebtsBuilder().withNumber("1");
+
+    for (int i = 0; i < 2; i++) {
+      Assertions.assertThrows(IcException.class, () -> icFacade.findDebts(query));
+    }
+
+    ExecutionException exception =
+        Assertions.assertThrows(
+            ExecutionException.class,
+            () -> asyncFacade.findDebts(query).get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcCircuitOpenException);
+
+    Assertions.assertNotNull(icFacade.requestDebtInfo("1"));
+    Assertions.assertNotNull(icFacade.requestCompanyInfo());
+    Assertions.assertEquals(
+        CircuitState.CLOSED, circuitBreakers.getState(IcApiFacade.DEBTS_ENDPOINT));
+  }
+
+  @Test
+  public void requestDebtInfo_asyncConnectionFailuresOpenCircuit() throws Exception {
+    URI closedUri;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      closedUri = URI.create("http://localhost:" + socket.getLocalPort() + "/");
+    }
+    IcAsyncApiFacade asyncFacade =
+        IcApiFacade.builder(TEST_API_TOKEN)
+            .withBaseUrl(closedUri)
+            .withCircuitBreakers(circuitBreakers)
+            .buildAsync();
+
+    for (int i = 0; i < 2; i++) {
+      ExecutionException exception =
+          Assertions.assertThrows(
+              ExecutionException.class,
+              () -> asyncFacade.requestDebtInfo("1").get(10, TimeUnit.SECONDS));
+      Assertions.assertFalse(exception.getCause() instanceof IcCircuitOpenException);
+    }
+
+    ExecutionException exception =
+        Assertions.assertThrows(
+            ExecutionException.class,
+            () -> asyncFacade.requestDebtInfo("1").get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcCircuitOpenException);
+    Assertions.assertEquals(
+        CircuitState.OPEN, circuitBreakers.getState(IcApiFacade.DEBTS_ENDPOINT));
+  }
+}
@@ -0,0 +1,86 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.FindDebtsBuilder;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class CoalescingIT extends IcFacadeTestBase {
+
+  private static final int CALLERS = 5;
+
+  private IcApiFacadeBuilder initSlowServer() throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(300);
+            if (request.getPath().startsWith("/debts/find")) {
+              return buildBodiedJsonMockResponse("[]");
+            }
+            return buildBodiedJsonMockResponse(
+                CustomerBuilder.buildTestCustomerBuilder().buildJson());
+          }
+        });
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withRequestCoalescing(true);
+  }
+
+  @Test
+  public void requestCustomerInfo_asyncIdenticalReadsShareOneCall() throws Exception {
+    IcAsyncApiFacade icFacade = initSlowServer().buildAsync();
+
+    List<CompletableFuture<Customer>> futures = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      futures.add(icFacade.requestCustomerInfo("1"));
+    }
+
+    Customer first = futures.get(0).get(10, TimeUnit.SECONDS);
+    for (CompletableFuture<Customer> future : futures.subList(1, CALLERS)) {
+      Customer customer = future.get(10, TimeUnit.SECONDS);
+      Assertions.assertEquals(first, customer);
+      Assertions.assertNotSame(first, customer);
+    }
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void requestCustomerInfo_blockingIdenticalReadsShareOneCall() throws Exception {
+    IcApiFacadeBuilder builder = initSlowServer();
+    IcApiFacade icFacade = builder.build();
+
+    try (IcBulkApiFacade bulkFacade = new IcBulkApiFacade(icFacade, CALLERS)) {
+      List<BulkResult<Customer>> results =
+          bulkFacade.fanOut(Collections.nCopies(CALLERS, "1"), icFacade::requestCustomerInfo);
+
+      results.forEach(result -> Assertions.assertTrue(result.isSuccess()));
+    }
+
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+    Assertions.assertEquals(CALLERS - 1, icFacade.getCoalescedRequestCount());
+  }
+
+  @Test
+  public void findDebts_differentQueriesNotShared() throws Exception {
+    IcAsyncApiFacade icFacade = initSlowServer().buildAsync();
+
+    CompletableFuture<?> first = icFacade.findDebts(new FindDebtsBuilder().withNumber("1"));
+    CompletableFuture<?> second = icFacade.findDebts(new FindDebtsBuilder().withNumber("2"));
+    CompletableFuture<?> same = icFacade.findDebts(new FindDebtsBuilder().withNumber("2"));
+    CompletableFuture.allOf(first, second, same).get(10, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+}
@@ -0,0 +1,56 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.CompanyCache;
+import com.invisiblecollector.model.Company;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class CompanyCacheIT extends IcFacadeTestBase {
+
+  @Test
+  public void setCompanyNotifications_updatesHeldCompany() throws Exception {
+    CompanyBuilder held = CompanyBuilder.buildTestCompanyBuilder().setNotificationsEnabled(false);
+    CompanyBuilder updated = CompanyBuilder.buildTestCompanyBuilder().setNotificationsEnabled(true);
+    IcApiFacade icFacade =
+        initMockServer(
+            new Caches().withCompanyCache(new CompanyCache()),
+            buildBodiedJsonMockResponse(held.buildJson()),
+            buildBodiedJsonMockResponse(updated.buildJson()));
+
+    Assertions.assertFalse(icFacade.requestCompanyInfo().isNotificationsEnabled());
+    Assertions.assertFalse(icFacade.requestCompanyInfo().isNotificationsEnabled());
+    icFacade.setCompanyNotifications(true);
+
+    Assertions.assertTrue(icFacade.requestCompanyInfo().isNotificationsEnabled());
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void requestCompanyInfo_refreshedInBackground() throws Exception {
+    CompanyBuilder first = CompanyBuilder.buildTestCompanyBuilder().setName("first");
+    CompanyBuilder second = CompanyBuilder.buildTestCompanyBuilder().setName("second");
+    CompanyCache companyCache =
+        new CompanyCache().withExpiry(50, TimeUnit.HOURS.toMillis(1), TimeUnit.MILLISECONDS);
+    IcApiFacade icFacade =
+        initMockServer(
+            new Caches().withCompanyCache(companyCache),
+            buildBodiedJsonMockResponse(first.buildJson()),
+            buildBodiedJsonMockResponse(second.buildJson()));
+
+    Assertions.assertEquals("first", icFacade.requestCompanyInfo().getName());
+    TimeUnit.MILLISECONDS.sleep(100);
+    Assertions.assertEquals("first", icFacade.requestCompanyInfo().getName());
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (companyCache.getRefreshCount() == 0 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    Company refreshed = icFacade.requestCompanyInfo();
+    Assertions.assertEquals("second", refreshed.getName());
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+}
@@ -0,0 +1,113 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.concurrency.AdaptiveConcurrencyLimiter;
+import com.invisiblecollector.exceptions.IcRejectedException;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyLimitIT extends IcFacadeTestBase {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private void initSlowServer(long delayMillis) throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+            inFlight.decrementAndGet();
+            return buildBodiedJsonMockResponse(DebtBuilder.buildTestDebtBuilder().buildJson());
+          }
+        });
+    this.mockServer.start();
+  }
+
+  private IcApiFacadeBuilder buildFacadeBuilder(AdaptiveConcurrencyLimiter limiter) {
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withConcurrencyLimiter(limiter);
+  }
+
+  @Test
+  public void requestDebtsInfo_bulkBoundedByLimit() throws Exception {
+    initSlowServer(20);
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter().withLimits(2, 2, 2);
+
+    try (IcBulkApiFacade bulkFacade = buildFacadeBuilder(limiter).buildBulk(8)) {
+      List<BulkResult<Debt>> results = bulkFacade.requestDebtsInfo(Collections.nCopies(8, "1"));
+
+      results.forEach(result -> Assertions.assertTrue(result.isSuccess()));
+    }
+
+    Assertions.assertEquals(2, maxInFlight.get());
+    Assertions.assertEquals(0, limiter.getInFlight());
+    Assertions.assertEquals(0, limiter.getRejections());
+  }
+
+  @Test
+  public void requestDebtInfo_asyncQueuedThenSent() throws Exception {
+    initSlowServer(50);
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter().withLimits(1, 1, 1);
+    IcAsyncApiFacade icFacade = buildFacadeBuilder(limiter).buildAsync();
+
+    CompletableFuture<Debt> first = icFacade.requestDebtInfo("1");
+    CompletableFuture<Debt> second = icFacade.requestDebtInfo("2");
+
+    Assertions.assertEquals(1, limiter.getQueueDepth());
+    Assertions.assertNotNull(first.get(10, TimeUnit.SECONDS));
+    Assertions.assertNotNull(second.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, maxInFlight.get());
+  }
+
+  @Test
+  public void requestDebtInfo_rejectedWhenQueueFull() throws Exception {
+    initSlowServer(200);
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter()
+            .withLimits(1, 1, 1)
+            .withQueue(0, 0, TimeUnit.SECONDS);
+    IcAsyncApiFacade icFacade = buildFacadeBuilder(limiter).buildAsync();
+
+    CompletableFuture<Debt> first = icFacade.requestDebtInfo("1");
+    CompletableFuture<Debt> rejected = icFacade.requestDebtInfo("2");
+
+    ExecutionException exception =
+        Assertions.assertThrows(
+            ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcRejectedException);
+    Assertions.assertEquals(1, limiter.getRejections());
+    Assertions.assertNotNull(first.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void requestDebtInfo_rejectedAfterQueueWait() throws Exception {
+    initSlowServer(500);
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter()
+            .withLimits(1, 1, 1)
+            .withQueue(1, 50, TimeUnit.MILLISECONDS);
+    IcAsyncApiFacade asyncFacade = buildFacadeBuilder(limiter).buildAsync();
+    IcApiFacade icFacade = buildFacadeBuilder(limiter).build();
+
+    CompletableFuture<Debt> first = asyncFacade.requestDebtInfo("1");
+
+    Assertions.assertThrows(IcRejectedException.class, () -> icFacade.requestDebtInfo("2"));
+    Assertions.assertEquals(1, limiter.getRejections());
+    Assertions.assertEquals(0, limiter.getQueueDepth());
+    Assertions.assertNotNull(first.get(10, TimeUnit.SECONDS));
+  }
+}
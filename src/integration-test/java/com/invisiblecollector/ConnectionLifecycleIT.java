@@ -0,0 +1,112 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.pool.ConnectionPoolConfig;
+import com.invisiblecollector.connection.pool.ConnectionPoolStats;
+import com.invisiblecollector.connection.response.ResponseLeakDetector;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionLifecycleIT extends IcFacadeTestBase {
+
+  private static final int MAX_CONNECTIONS = 4;
+  private static final int THREAD_COUNT = 8;
+  private static final int REQUESTS_PER_THREAD = 50;
+
+  private final AtomicInteger newConnections = new AtomicInteger();
+
+  private class MixedResponsesDispatcher extends Dispatcher {
+    private final AtomicInteger counter = new AtomicInteger();
+    private final String companyJson = CompanyBuilder.buildTestCompanyBuilder().buildJson();
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+      if (request.getSequenceNumber() == 0) {
+        newConnections.incrementAndGet();
+      }
+
+      switch (counter.getAndIncrement() % 4) {
+        case 0:
+          return buildBodiedJsonMockResponse(companyJson);
+        case 1:
+          return buildBodiedJsonMockResponse(buildErrorJson(400)).setResponseCode(400);
+        case 2:
+          return new MockResponse().setBody(companyJson);
+        default:
+          return buildBodiedJsonMockResponse(companyJson.substring(1));
+      }
+    }
+  }
+
+  @Test
+  public void requestCompanyInfo_connectionsStayBoundedUnderFailures() throws Exception {
+    this.mockServer.setDispatcher(new MixedResponsesDispatcher());
+    this.mockServer.start();
+
+    ResponseLeakDetector leakDetector = new ResponseLeakDetector(true);
+    ConnectionPoolConfig config =
+        new ConnectionPoolConfig().withMaxTotal(MAX_CONNECTIONS).withMaxPerRoute(MAX_CONNECTIONS);
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+    try (ConnectionPool pool = new ConnectionPool(config)) {
+      IcApiFacade icFacade =
+          IcApiFacade.builder(TEST_API_TOKEN)
+              .withBaseUrl(this.mockServer.getBaseUri())
+              .withConnectionPool(pool)
+              .withResponseLeakDetector(leakDetector)
+              .build();
+
+      AtomicInteger failures = new AtomicInteger();
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREAD_COUNT; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                    try {
+                      icFacade.requestCompanyInfo();
+                    } catch (IcException e) {
+                      failures.incrementAndGet();
+                    }
+                  }
+                }));
+      }
+
+      // a leaked connection would eventually block every thread waiting on the pool
+      Assertions.assertTimeoutPreemptively(
+          Duration.ofSeconds(60),
+          () -> {
+            for (Future<?> future : futures) {
+              future.get();
+            }
+          });
+
+      final int total = THREAD_COUNT * REQUESTS_PER_THREAD;
+      Assertions.assertEquals(total, this.mockServer.getRequestCount());
+      Assertions.assertEquals(total * 3 / 4, failures.get());
+
+      ConnectionPoolStats stats = pool.getStats();
+      Assertions.assertEquals(0, stats.getLeased(), stats.toString());
+      Assertions.assertEquals(0, stats.getPending(), stats.toString());
+      Assertions.assertTrue(stats.getOpen() <= MAX_CONNECTIONS, stats.toString());
+      Assertions.assertTrue(newConnections.get() <= MAX_CONNECTIONS, "" + newConnections.get());
+      Assertions.assertEquals(0, leakDetector.getUnreleasedCount());
+      Assertions.assertEquals(0, leakDetector.getLeakCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.RequestType;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.pool.ConnectionPoolConfig;
+import com.invisiblecollector.connection.pool.ConnectionPoolStats;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPoolIT extends IcFacadeTestBase {
+
+  private static final String COMPANIES_ENDPOINT = "companies";
+
+  @Test
+  public void requestCompanyInfo_reusesPooledConnection() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    final int requestCount = 5;
+    for (int i = 0; i < requestCount; i++) {
+      this.mockServer.addMockResponse(buildBodiedJsonMockResponse(companyBuilder.buildJson()));
+    }
+    this.mockServer.start();
+
+    ConnectionPoolConfig config =
+        new ConnectionPoolConfig()
+            .withMaxTotal(4)
+            .withMaxPerRoute(2)
+            .withMaxIdleTime(1, TimeUnit.MINUTES)
+            .withSendBufferSize(16 * 1024)
+            .withReceiveBufferSize(16 * 1024);
+    try (ConnectionPool pool = new ConnectionPool(config)) {
+      IcApiFacade icFacade =
+          IcApiFacade.builder(TEST_API_TOKEN)
+              .withBaseUrl(this.mockServer.getBaseUri())
+              .withConnectionPool(pool)
+              .build();
+
+      for (int i = 0; i < requestCount; i++) {
+        this.assertCorrectModelReturned(companyBuilder, (unused) -> icFacade.requestCompanyInfo());
+        RecordedRequest request = this.mockServer.getRequest();
+        this.assertSentCorrectCoreHeaders(
+            request, COMPANIES_ENDPOINT, this.mockServer.getBaseUri(), RequestType.GET);
+        Assertions.assertEquals(i, request.getSequenceNumber());
+      }
+
+      ConnectionPoolStats stats = icFacade.getConnectionPoolStats();
+      Assertions.assertEquals(4, stats.getMax());
+      Assertions.assertEquals(1, stats.getRoutes());
+      Assertions.assertEquals(0, stats.getLeased());
+      Assertions.assertEquals(1, stats.getOpen());
+    }
+  }
+
+  @Test
+  public void getConnectionPoolStats_failWithoutPool() throws Exception {
+    IcApiFacade icFacade = initMockServer(new MockResponse());
+
+    Assertions.assertThrows(IllegalStateException.class, icFacade::getConnectionPoolStats);
+  }
+}
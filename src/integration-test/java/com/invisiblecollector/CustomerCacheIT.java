@@ -0,0 +1,50 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.CustomerCache;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CustomerCacheIT extends IcFacadeTestBase {
+
+  private final CustomerCache customerCache = new CustomerCache(100);
+  private final Caches caches = new Caches().withCustomerCache(customerCache);
+
+  @Test
+  public void requestCustomerInfo_readThrough() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    IcApiFacade icFacade =
+        initMockServer(caches, buildBodiedJsonMockResponse(customerBuilder.buildJson()));
+    Customer expected = customerBuilder.buildModel();
+
+    Assertions.assertEquals(expected, icFacade.requestCustomerInfo(expected.getId()));
+    Assertions.assertEquals(expected, icFacade.requestCustomerInfo(expected.getId()));
+    Assertions.assertEquals(expected, icFacade.requestCustomerInfo(expected.getExternalId()));
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+    Assertions.assertEquals(2, customerCache.getMetrics().getHits());
+  }
+
+  @Test
+  public void updateCustomerInfo_writeThrough() throws Exception {
+    CustomerBuilder registered = CustomerBuilder.buildTestCustomerBuilder();
+    CustomerBuilder updated = CustomerBuilder.buildTestCustomerBuilder();
+    updated.setName("updated name");
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildBodiedJsonMockResponse(registered.buildJson()),
+            buildBodiedJsonMockResponse(updated.buildJson()));
+
+    icFacade.registerNewCustomer(registered.buildModel());
+    Assertions.assertEquals(
+        "testName", customerCache.getByVatNumber(registered.buildModel().getVatNumber()).getName());
+
+    icFacade.updateCustomerInfo(updated.buildModel());
+    Customer cached = icFacade.requestCustomerInfo(updated.buildModel().getExternalId());
+
+    Assertions.assertEquals(updated.buildModel(), cached);
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+}
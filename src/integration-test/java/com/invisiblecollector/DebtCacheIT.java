@@ -0,0 +1,80 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.DebtCache;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class DebtCacheIT extends IcFacadeTestBase {
+
+  private static final String CUSTOMER_ID = "1";
+
+  private final Caches caches = new Caches().withDebtCache(new DebtCache(100));
+
+  private static DebtBuilder buildDebtBuilder(String gid, String number) {
+    return DebtBuilder.buildTestDebtBuilder().setId(gid).setNumber(number);
+  }
+
+  private MockResponse buildDebtListResponse(DebtBuilder... builders) {
+    StringBuilder json = new StringBuilder("[");
+    for (DebtBuilder builder : builders) {
+      json.append(json.length() > 1 ? "," : "").append(builder.buildJson());
+    }
+    return buildBodiedJsonMockResponse(json.append(']').toString());
+  }
+
+  @Test
+  public void requestCustomerDebts_servedFromCache() throws Exception {
+    DebtBuilder first = buildDebtBuilder("gid-1", "1");
+    DebtBuilder second = buildDebtBuilder("gid-2", "2");
+    IcApiFacade icFacade = initMockServer(caches, buildDebtListResponse(first, second));
+    List<Debt> expected = Arrays.asList(first.buildModel(), second.buildModel());
+
+    assertObjectsEquals(expected, icFacade.requestCustomerDebts(CUSTOMER_ID));
+    assertObjectsEquals(expected, icFacade.requestCustomerDebts(CUSTOMER_ID));
+    Assertions.assertEquals(first.buildModel(), icFacade.requestDebtInfo("gid-1"));
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewDebt_refreshesCustomerDebts() throws Exception {
+    DebtBuilder first = buildDebtBuilder("gid-1", "1");
+    DebtBuilder second = buildDebtBuilder("gid-2", "2");
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildDebtListResponse(first),
+            buildBodiedJsonMockResponse(second.buildJson()),
+            buildDebtListResponse(first, second));
+
+    icFacade.requestCustomerDebts(CUSTOMER_ID);
+    icFacade.registerNewDebt(second.buildModel());
+
+    Assertions.assertEquals(2, icFacade.requestCustomerDebts(CUSTOMER_ID).size());
+    Assertions.assertEquals(second.buildModel(), icFacade.requestDebtInfo("gid-2"));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewDebt_refreshesEmptyCustomerDebtsByExternalId() throws Exception {
+    DebtBuilder debt = buildDebtBuilder("gid-1", "1");
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildDebtListResponse(),
+            buildBodiedJsonMockResponse(debt.buildJson()),
+            buildDebtListResponse(debt));
+
+    Assertions.assertTrue(icFacade.requestCustomerDebts("external-1").isEmpty());
+    icFacade.registerNewDebt(debt.buildModel());
+
+    Assertions.assertEquals(1, icFacade.requestCustomerDebts("external-1").size());
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+}
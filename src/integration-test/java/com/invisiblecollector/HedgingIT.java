@@ -0,0 +1,126 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.hedge.HedgeMetrics;
+import com.invisiblecollector.connection.hedge.HedgingPolicy;
+import com.invisiblecollector.connection.ratelimit.RateLimits;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HedgingIT extends IcFacadeTestBase {
+
+  private static final long SLOW_SECONDS = 2;
+
+  private MockResponse buildDebtResponse() {
+    return buildBodiedJsonMockResponse(DebtBuilder.buildTestDebtBuilder().buildJson());
+  }
+
+  private final AtomicInteger debtRequests = new AtomicInteger();
+
+  // the answer to every debt request after the first, a debt unless a test sets another
+  private volatile MockResponse fastResponse;
+
+  // the first debt request is answered slowly, warm-up probes aren't answered with a debt
+  private IcApiFacadeBuilder initBuilder(HedgingPolicy policy) throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if (!request.getPath().startsWith("/debts")) {
+              return new MockResponse().setResponseCode(404);
+            }
+            return debtRequests.getAndIncrement() == 0
+                ? buildDebtResponse().setBodyDelay(SLOW_SECONDS, TimeUnit.SECONDS)
+                : fastResponse != null ? fastResponse : buildDebtResponse();
+          }
+        });
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withHedgingPolicy(policy);
+  }
+
+  private static HedgingPolicy buildEagerPolicy() {
+    return new HedgingPolicy().withDelay(300, 300, TimeUnit.MILLISECONDS).withBudget(1, 10);
+  }
+
+  @Test
+  public void requestDebtInfo_slowResponseHedged() throws Exception {
+    IcApiFacade icFacade = initBuilder(buildEagerPolicy()).build();
+    // a cold client could let the hedge reach the server first and get the slow response
+    icFacade.warmUp(1, 1);
+
+    long start = System.nanoTime();
+    Debt debt = icFacade.requestDebtInfo("1");
+
+    Assertions.assertNotNull(debt);
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(SLOW_SECONDS));
+    Assertions.assertEquals(2, debtRequests.get());
+    HedgeMetrics metrics = icFacade.getHedgeMetrics();
+    Assertions.assertEquals(1, metrics.getHedges());
+    Assertions.assertEquals(1, metrics.getHedgeWins());
+  }
+
+  @Test
+  public void requestDebtInfo_asyncSlowResponseHedged() throws Exception {
+    IcAsyncApiFacade icFacade = initBuilder(buildEagerPolicy()).buildAsync();
+
+    Debt debt = icFacade.requestDebtInfo("1").get(SLOW_SECONDS - 1, TimeUnit.SECONDS);
+
+    Assertions.assertNotNull(debt);
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void requestDebtInfo_budgetSpentNotHedged() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(new HedgingPolicy().withDelay(300, 300, TimeUnit.MILLISECONDS)).build();
+
+    icFacade.requestDebtInfo("1");
+
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+    Assertions.assertEquals(1, icFacade.getHedgeMetrics().getBudgetDenials());
+  }
+
+  @Test
+  public void registerNewDebt_notHedged() throws Exception {
+    IcApiFacade icFacade = initBuilder(buildEagerPolicy()).build();
+    Debt debt = DebtBuilder.buildTestDebtBuilder().buildModel();
+
+    icFacade.registerNewDebt(debt);
+
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+    Assertions.assertEquals(0, icFacade.getHedgeMetrics().getHedgeableRequests());
+  }
+
+  @Test
+  public void requestDebtInfo_serverErrorHedgeDoesNotWin() throws Exception {
+    fastResponse = new MockResponse().setResponseCode(503);
+    IcApiFacade icFacade = initBuilder(buildEagerPolicy()).build();
+
+    Debt debt = icFacade.requestDebtInfo("1");
+
+    Assertions.assertNotNull(debt);
+    Assertions.assertEquals(2, debtRequests.get());
+    Assertions.assertEquals(0, icFacade.getHedgeMetrics().getHedgeWins());
+  }
+
+  @Test
+  public void requestDebtInfo_noFreePermitNotHedged() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(buildEagerPolicy()).withRateLimits(new RateLimits().withReadRate(1, 1)).build();
+
+    Debt debt = icFacade.requestDebtInfo("1");
+
+    Assertions.assertNotNull(debt);
+    Assertions.assertEquals(1, debtRequests.get());
+    Assertions.assertEquals(0, icFacade.getHedgeMetrics().getHedges());
+  }
+}
@@ -1,5 +1,6 @@
 package com.invisiblecollector;
 
+import com.invisiblecollector.cache.Caches;
 import com.invisiblecollector.connection.RequestType;
 import com.invisiblecollector.exceptions.IcException;
 import com.invisiblecollector.model.Model;
@@ -74,6 +75,19 @@ public class IcFacadeTestBase {
     return new IcApiFacade(TEST_API_TOKEN, baseUri);
   }
 
+  protected IcApiFacade initMockServer(Caches caches, MockResponse... responses)
+      throws Exception {
+    for (MockResponse response : responses) {
+      this.mockServer.addMockResponse(response);
+    }
+
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withCaches(caches)
+        .build();
+  }
+
     protected void assertSentCorrectCoreHeaders(
             RecordedRequest request, String endpoint, URI baseUrl, RequestType requestType) {
         MockServerFacade.assertApiEndpointHit(request, endpoint);
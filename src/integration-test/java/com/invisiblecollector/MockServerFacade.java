@@ -1,5 +1,6 @@
 package com.invisiblecollector;
 
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -43,6 +44,14 @@ public class MockServerFacade implements Closeable {
     server.enqueue(mockResponse);
   }
 
+  public void setDispatcher(Dispatcher dispatcher) {
+    server.setDispatcher(dispatcher);
+  }
+
+  public int getRequestCount() {
+    return server.getRequestCount();
+  }
+
   RecordedRequest getRequest() throws InterruptedException {
     return this.server.takeRequest();
   }
@@ -0,0 +1,155 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.NotFoundCache;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.exceptions.IcNotFoundException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class NotFoundCacheIT extends IcFacadeTestBase {
+
+  private final NotFoundCache notFoundCache = new NotFoundCache(100);
+  private final Caches caches = new Caches().withNotFoundCache(notFoundCache);
+
+  private MockResponse buildNotFoundResponse() {
+    return buildBodiedJsonMockResponse(buildErrorJson(404)).setResponseCode(404);
+  }
+
+  private MockResponse buildConflictResponse() {
+    return buildBodiedJsonMockResponse(buildConflictErrorJson(409)).setResponseCode(409);
+  }
+
+  private IcApiFacadeBuilder buildSharingBuilder() {
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withCaches(caches);
+  }
+
+  @Test
+  public void requestDebtInfo_notFoundCached() throws Exception {
+    IcApiFacade icFacade = initMockServer(caches, buildNotFoundResponse());
+
+    IcNotFoundException first =
+        Assertions.assertThrows(IcNotFoundException.class, () -> icFacade.requestDebtInfo("1"));
+    IcNotFoundException second =
+        Assertions.assertThrows(IcNotFoundException.class, () -> icFacade.requestDebtInfo("1"));
+
+    Assertions.assertEquals(first.getMessage(), second.getMessage());
+    Assertions.assertEquals(0, second.getStackTrace().length);
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewCustomer_invalidatesNotFound() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    Customer customer = customerBuilder.buildModel();
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildNotFoundResponse(),
+            buildBodiedJsonMockResponse(customerBuilder.buildJson()),
+            buildBodiedJsonMockResponse(customerBuilder.buildJson()));
+
+    Assertions.assertThrows(
+        IcNotFoundException.class, () -> icFacade.requestCustomerInfo(customer.getExternalId()));
+    icFacade.registerNewCustomer(customer);
+
+    Assertions.assertEquals(customer, icFacade.requestCustomerInfo(customer.getExternalId()));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewDebt_invalidatesNotFound() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    String debtId = debtBuilder.buildModel().getId();
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildNotFoundResponse(),
+            buildBodiedJsonMockResponse(debtBuilder.buildJson()),
+            buildBodiedJsonMockResponse(debtBuilder.buildJson()));
+
+    Assertions.assertThrows(IcNotFoundException.class, () -> icFacade.requestDebtInfo(debtId));
+    icFacade.registerNewDebt(debtBuilder.buildModel());
+
+    Assertions.assertNotNull(icFacade.requestDebtInfo(debtId));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewDebt_conflictInvalidatesNotFound() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    Debt debt = debtBuilder.buildModel();
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildNotFoundResponse(),
+            buildConflictResponse(),
+            buildBodiedJsonMockResponse(debtBuilder.buildJson()));
+
+    Assertions.assertThrows(
+        IcNotFoundException.class, () -> icFacade.requestDebtInfo(debt.getNumber()));
+    Assertions.assertThrows(IcConflictingException.class, () -> icFacade.registerNewDebt(debt));
+
+    Assertions.assertNotNull(icFacade.requestDebtInfo(debt.getNumber()));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewCustomer_asyncConflictInvalidatesNotFound() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    Customer customer = customerBuilder.buildModel();
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildNotFoundResponse(),
+            buildConflictResponse(),
+            buildBodiedJsonMockResponse(customerBuilder.buildJson()));
+    IcAsyncApiFacade asyncFacade = buildSharingBuilder().buildAsync();
+
+    Assertions.assertThrows(
+        IcNotFoundException.class, () -> icFacade.requestCustomerInfo(customer.getExternalId()));
+    ExecutionException exception =
+        Assertions.assertThrows(
+            ExecutionException.class,
+            () -> asyncFacade.registerNewCustomer(customer).get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcConflictingException);
+
+    Assertions.assertEquals(customer, icFacade.requestCustomerInfo(customer.getExternalId()));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewDebt_writeBehindConflictInvalidatesNotFound() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    Debt debt = debtBuilder.buildModel();
+    IcApiFacade icFacade =
+        initMockServer(
+            caches,
+            buildNotFoundResponse(),
+            buildConflictResponse(),
+            buildBodiedJsonMockResponse(debtBuilder.buildJson()));
+
+    Assertions.assertThrows(
+        IcNotFoundException.class, () -> icFacade.requestDebtInfo(debt.getNumber()));
+    try (IcWriteBehindQueue queue =
+        buildSharingBuilder().buildWriteBehindQueue(new WriteBehindConfig())) {
+      ExecutionException exception =
+          Assertions.assertThrows(
+              ExecutionException.class, () -> queue.submit(debt).get(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(exception.getCause() instanceof IcConflictingException);
+    }
+
+    Assertions.assertNotNull(icFacade.requestDebtInfo(debt.getNumber()));
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+  }
+}
@@ -0,0 +1,130 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import com.invisiblecollector.outbox.OutboxConfig;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class OutboxIT extends IcFacadeTestBase {
+
+  private static final OutboxConfig FAST_RETRIES =
+      new OutboxConfig().withRetryDelay(1, 10, TimeUnit.MILLISECONDS);
+
+  private Path directory;
+  private Path journalPath;
+
+  @BeforeEach
+  public void createDirectory() throws IOException {
+    directory = Files.createTempDirectory("outbox");
+    journalPath = directory.resolve("journal");
+  }
+
+  @AfterEach
+  public void deleteDirectory() throws IOException {
+    Files.deleteIfExists(journalPath);
+    Files.deleteIfExists(directory);
+  }
+
+  private MockResponse buildUnavailableResponse() {
+    return buildBodiedJsonMockResponse(buildErrorJson(503)).setResponseCode(503);
+  }
+
+  private IcApiFacadeBuilder initBuilder(MockResponse... responses) throws Exception {
+    for (MockResponse response : responses) {
+      this.mockServer.addMockResponse(response);
+    }
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN).withBaseUrl(this.mockServer.getBaseUri());
+  }
+
+  @Test
+  public void registerNewDebt_delivered() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    IcApiFacadeBuilder builder = initBuilder(buildBodiedJsonMockResponse(debtBuilder.buildJson()));
+
+    try (IcOutbox outbox = builder.buildOutbox(journalPath, FAST_RETRIES)) {
+      Debt debt = outbox.registerNewDebt(debtBuilder.buildModel()).get(10, TimeUnit.SECONDS);
+
+      Assertions.assertEquals(debtBuilder.buildObject(), debt.getFields());
+      Assertions.assertEquals(1, outbox.getDeliveredCount());
+      Assertions.assertEquals(0, outbox.getPendingCount());
+    }
+  }
+
+  @Test
+  public void registerNewDebt_retriedUntilDelivered() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    IcApiFacadeBuilder builder =
+        initBuilder(
+            buildUnavailableResponse(),
+            buildUnavailableResponse(),
+            buildBodiedJsonMockResponse(debtBuilder.buildJson()));
+
+    try (IcOutbox outbox = builder.buildOutbox(journalPath, FAST_RETRIES)) {
+      Assertions.assertNotNull(
+          outbox.registerNewDebt(debtBuilder.buildModel()).get(10, TimeUnit.SECONDS));
+      Assertions.assertEquals(3, this.mockServer.getRequestCount());
+    }
+  }
+
+  @Test
+  public void registerNewDebt_conflictAbandoned() throws Exception {
+    IcApiFacadeBuilder builder =
+        initBuilder(
+            buildBodiedJsonMockResponse(buildConflictErrorJson(409)).setResponseCode(409));
+
+    try (IcOutbox outbox = builder.buildOutbox(journalPath, FAST_RETRIES)) {
+      CompletableFuture<Debt> result =
+          outbox.registerNewDebt(DebtBuilder.buildTestDebtBuilder().buildModel());
+
+      ExecutionException exception =
+          Assertions.assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(exception.getCause() instanceof IcConflictingException);
+      Assertions.assertEquals(1, outbox.getAbandonedCount());
+      Assertions.assertEquals(0, outbox.getPendingCount());
+      Assertions.assertEquals(1, this.mockServer.getRequestCount());
+    }
+  }
+
+  @Test
+  public void registerNewDebt_sentAfterReopening() throws Exception {
+    DebtBuilder debtBuilder = DebtBuilder.buildTestDebtBuilder();
+    IcApiFacadeBuilder builder =
+        initBuilder(
+            buildUnavailableResponse(), buildBodiedJsonMockResponse(debtBuilder.buildJson()));
+
+    OutboxConfig slowRetries = new OutboxConfig().withRetryDelay(1, 1, TimeUnit.MINUTES);
+    CompletableFuture<Debt> result;
+    try (IcOutbox outbox = builder.buildOutbox(journalPath, slowRetries)) {
+      result = outbox.registerNewDebt(debtBuilder.buildModel());
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (this.mockServer.getRequestCount() == 0 && System.nanoTime() < deadline) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+    }
+    Assertions.assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+
+    try (IcOutbox outbox = builder.buildOutbox(journalPath, slowRetries)) {
+      Assertions.assertEquals(1, outbox.getRecoveredCount());
+      Assertions.assertTrue(outbox.awaitDrained(10, TimeUnit.SECONDS));
+      Assertions.assertEquals(1, outbox.getDeliveredCount());
+      Assertions.assertEquals(2, this.mockServer.getRequestCount());
+    }
+
+    try (IcOutbox outbox = builder.buildOutbox(journalPath, slowRetries)) {
+      Assertions.assertEquals(0, outbox.getRecoveredCount());
+    }
+  }
+}
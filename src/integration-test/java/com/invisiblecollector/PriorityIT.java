@@ -0,0 +1,88 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.priority.Priority;
+import com.invisiblecollector.connection.priority.PriorityScheduler;
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.exceptions.IcDeadlineExceededException;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class PriorityIT extends IcFacadeTestBase {
+
+  private final List<String> sentPaths = new CopyOnWriteArrayList<>();
+
+  private void initSlowServer(long delayMillis) throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            sentPaths.add(request.getPath());
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+            return buildBodiedJsonMockResponse(DebtBuilder.buildTestDebtBuilder().buildJson());
+          }
+        });
+    this.mockServer.start();
+  }
+
+  private IcApiFacadeBuilder buildFacadeBuilder(PriorityScheduler scheduler) {
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withPriorityScheduler(scheduler);
+  }
+
+  private static CompletableFuture<Debt> requestAsBatch(IcAsyncApiFacade icFacade, String id) {
+    try (CallContext.Scope scope = CallContext.none().withPriority(Priority.BATCH).attach()) {
+      return icFacade.requestDebtInfo(id);
+    }
+  }
+
+  @Test
+  public void requestDebtInfo_interactiveSentBeforeBatch() throws Exception {
+    initSlowServer(100);
+    PriorityScheduler scheduler = new PriorityScheduler(1);
+    IcAsyncApiFacade icFacade = buildFacadeBuilder(scheduler).buildAsync();
+
+    CompletableFuture<Debt> first = requestAsBatch(icFacade, "1");
+    CompletableFuture<Debt> batch = requestAsBatch(icFacade, "2");
+    CompletableFuture<Debt> interactive = icFacade.requestDebtInfo("3");
+
+    Assertions.assertNotNull(first.get(10, TimeUnit.SECONDS));
+    Assertions.assertNotNull(interactive.get(10, TimeUnit.SECONDS));
+    Assertions.assertNotNull(batch.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(3, sentPaths.size());
+    Assertions.assertTrue(sentPaths.get(1).endsWith("/3"));
+    Assertions.assertTrue(sentPaths.get(2).endsWith("/2"));
+    Assertions.assertEquals(2, scheduler.getMetrics(Priority.BATCH).getScheduled());
+    Assertions.assertTrue(scheduler.getMetrics(Priority.BATCH).getMaxWaitMillis() >= 100);
+    Assertions.assertEquals(0, scheduler.getInFlight());
+  }
+
+  @Test
+  public void requestDebtInfo_deadlineWhileWaiting() throws Exception {
+    initSlowServer(500);
+    PriorityScheduler scheduler = new PriorityScheduler(1);
+    IcAsyncApiFacade asyncFacade = buildFacadeBuilder(scheduler).buildAsync();
+    IcApiFacade icFacade = buildFacadeBuilder(scheduler).build();
+
+    CompletableFuture<Debt> first = asyncFacade.requestDebtInfo("1");
+    try (CallContext.Scope scope =
+        CallContext.ofTimeout(50, TimeUnit.MILLISECONDS).withPriority(Priority.BATCH).attach()) {
+      Assertions.assertThrows(
+          IcDeadlineExceededException.class, () -> icFacade.requestDebtInfo("2"));
+    }
+
+    Assertions.assertEquals(0, scheduler.getQueueDepth(Priority.BATCH));
+    Assertions.assertNotNull(first.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, sentPaths.size());
+  }
+}
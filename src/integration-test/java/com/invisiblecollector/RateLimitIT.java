@@ -0,0 +1,125 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.ratelimit.RateLimits;
+import com.invisiblecollector.connection.ratelimit.RequestClass;
+import com.invisiblecollector.exceptions.IcRateLimitedException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitIT extends IcFacadeTestBase {
+
+  private MockResponse buildThrottledResponse() {
+    return buildBodiedJsonMockResponse(buildErrorJson(429))
+        .setResponseCode(429)
+        .setHeader("Retry-After", "0");
+  }
+
+  private IcApiFacadeBuilder initBuilder(RateLimits rateLimits, MockResponse... responses)
+      throws Exception {
+    for (MockResponse response : responses) {
+      this.mockServer.addMockResponse(response);
+    }
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withRateLimits(rateLimits);
+  }
+
+  @Test
+  public void registerNewCustomer_throttledResent() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    RateLimits rateLimits = new RateLimits();
+    IcApiFacade icFacade =
+        initBuilder(
+                rateLimits,
+                buildThrottledResponse(),
+                buildBodiedJsonMockResponse(customerBuilder.buildJson()))
+            .build();
+
+    this.assertCorrectModelReturned(customerBuilder, icFacade::registerNewCustomer);
+
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+    Assertions.assertEquals(
+        1, rateLimits.getLimiter(TEST_API_TOKEN, RequestClass.WRITE).getThrottles());
+    Assertions.assertEquals(
+        0, rateLimits.getLimiter(TEST_API_TOKEN, RequestClass.READ).getThrottles());
+  }
+
+  @Test
+  public void requestCompanyInfo_asyncThrottledResent() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    IcAsyncApiFacade icFacade =
+        initBuilder(
+                new RateLimits(),
+                buildThrottledResponse(),
+                buildBodiedJsonMockResponse(companyBuilder.buildJson()))
+            .buildAsync();
+
+    Assertions.assertEquals(
+        companyBuilder.buildObject(),
+        icFacade.requestCompanyInfo().get(10, TimeUnit.SECONDS).getFields());
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void requestCompanyInfo_throttledFailsAfterResends() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(
+                new RateLimits().withMaxThrottledResends(0),
+                buildThrottledResponse().setHeader("Retry-After", "7"))
+            .build();
+
+    IcRateLimitedException exception =
+        Assertions.assertThrows(IcRateLimitedException.class, icFacade::requestCompanyInfo);
+
+    Assertions.assertEquals(7000, exception.getRetryAfterMillis());
+    Assertions.assertTrue(exception.getMessage().contains(JSON_ERROR_MESSAGE));
+  }
+
+  @Test
+  public void requestCompanyInfo_throttledNotRetriedAfterResends() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(
+                new RateLimits().withMaxThrottledResends(1),
+                buildThrottledResponse(),
+                buildThrottledResponse(),
+                buildThrottledResponse(),
+                buildThrottledResponse())
+            .build();
+
+    Assertions.assertThrows(IcRateLimitedException.class, icFacade::requestCompanyInfo);
+
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewCustomers_bulkSpreadOverTime() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    MockResponse response = buildBodiedJsonMockResponse(customerBuilder.buildJson());
+    RateLimits rateLimits = new RateLimits().withWriteRate(20, 1);
+    IcBulkApiFacade bulkFacade =
+        initBuilder(rateLimits, response, response, response, response, response).buildBulk(5);
+    List<Customer> customers = Collections.nCopies(5, customerBuilder.buildModel());
+
+    long start = System.nanoTime();
+    try {
+      bulkFacade
+          .registerNewCustomers(customers)
+          .forEach(result -> Assertions.assertTrue(result.isSuccess()));
+    } finally {
+      bulkFacade.close();
+    }
+
+    // the first request is sent right away, the other four 50ms apart
+    Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190));
+    Assertions.assertEquals(5, this.mockServer.getRequestCount());
+  }
+}
@@ -0,0 +1,146 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.retry.RetryMetrics;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RetryIT extends IcFacadeTestBase {
+
+  private static final RetryPolicy FAST_RETRIES =
+      new RetryPolicy().withDelay(1, 10, TimeUnit.MILLISECONDS);
+
+  private MockResponse buildUnavailableResponse() {
+    return buildBodiedJsonMockResponse(buildErrorJson(503)).setResponseCode(503);
+  }
+
+  private IcApiFacadeBuilder initBuilder(MockResponse... responses) throws Exception {
+    for (MockResponse response : responses) {
+      this.mockServer.addMockResponse(response);
+    }
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withRetryPolicy(FAST_RETRIES);
+  }
+
+  @Test
+  public void requestCompanyInfo_retriesUnavailable() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    IcApiFacade icFacade =
+        initBuilder(
+                buildUnavailableResponse(),
+                buildUnavailableResponse(),
+                buildBodiedJsonMockResponse(companyBuilder.buildJson()))
+            .build();
+
+    this.assertCorrectModelReturned(companyBuilder, (unused) -> icFacade.requestCompanyInfo());
+
+    RetryMetrics metrics = icFacade.getRetryMetrics();
+    Assertions.assertEquals(3, this.mockServer.getRequestCount());
+    Assertions.assertEquals(2, metrics.getRetries());
+    Assertions.assertEquals(1, metrics.getRetriedCalls());
+    Assertions.assertEquals(1, metrics.getRecoveredCalls());
+  }
+
+  @Test
+  public void requestCompanyInfo_asyncRetriesUnavailable() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    IcAsyncApiFacade icFacade =
+        initBuilder(
+                buildUnavailableResponse(),
+                buildBodiedJsonMockResponse(companyBuilder.buildJson()))
+            .buildAsync();
+
+    Assertions.assertEquals(
+        companyBuilder.buildObject(),
+        icFacade.requestCompanyInfo().get(10, TimeUnit.SECONDS).getFields());
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void registerNewCustomer_notRetried() throws Exception {
+    IcApiFacade icFacade = initBuilder(buildUnavailableResponse()).build();
+    Customer customer = CustomerBuilder.buildTestCustomerBuilder().buildModel();
+
+    IcException exception =
+        Assertions.assertThrows(IcException.class, () -> icFacade.registerNewCustomer(customer));
+
+    Assertions.assertTrue(exception.getMessage().contains("503"));
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+    Assertions.assertEquals(0, icFacade.getRetryMetrics().getRetries());
+  }
+
+  @Test
+  public void updateCustomerInfo_idempotentRetriedWithSameBody() throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    IcApiFacade icFacade =
+        initBuilder(
+                buildUnavailableResponse(),
+                buildBodiedJsonMockResponse(customerBuilder.buildJson()))
+            .build();
+
+    this.assertCorrectModelReturned(customerBuilder, icFacade::updateCustomerInfo);
+
+    String firstBody = this.mockServer.getRequest().getBody().readUtf8();
+    String secondBody = this.mockServer.getRequest().getBody().readUtf8();
+    Assertions.assertEquals(firstBody, secondBody);
+  }
+
+  @Test
+  public void requestCompanyInfo_honoursRetryAfter() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    IcApiFacade icFacade =
+        initBuilder(
+                buildUnavailableResponse().setHeader("Retry-After", "1"),
+                buildBodiedJsonMockResponse(companyBuilder.buildJson()))
+            .build();
+
+    long start = System.nanoTime();
+    icFacade.requestCompanyInfo();
+
+    Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1));
+  }
+
+  @Test
+  public void requestCompanyInfo_budgetExhausted() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(
+                buildUnavailableResponse(),
+                buildUnavailableResponse(),
+                buildUnavailableResponse(),
+                buildUnavailableResponse())
+            .build();
+
+    Assertions.assertThrows(IcException.class, icFacade::requestCompanyInfo);
+
+    RetryMetrics metrics = icFacade.getRetryMetrics();
+    Assertions.assertEquals(4, this.mockServer.getRequestCount());
+    Assertions.assertEquals(3, metrics.getRetries());
+    Assertions.assertEquals(1, metrics.getExhaustedCalls());
+    Assertions.assertEquals(0, metrics.getRecoveredCalls());
+  }
+
+  @Test
+  public void requestCompanyInfo_retriedIntoErrorNotRecovered() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(
+                buildUnavailableResponse(),
+                buildBodiedJsonMockResponse(buildErrorJson(404)).setResponseCode(404))
+            .build();
+
+    Assertions.assertThrows(IcException.class, icFacade::requestCompanyInfo);
+
+    RetryMetrics metrics = icFacade.getRetryMetrics();
+    Assertions.assertEquals(2, this.mockServer.getRequestCount());
+    Assertions.assertEquals(1, metrics.getRetriedCalls());
+    Assertions.assertEquals(0, metrics.getRecoveredCalls());
+  }
+}
@@ -0,0 +1,89 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.tenant.TenantLane;
+import com.invisiblecollector.connection.tenant.TenantScheduler;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class TenantRegistryIT extends IcFacadeTestBase {
+
+  private static final String LARGE_TENANT = "large-tenant-token";
+  private static final String SMALL_TENANT = "small-tenant-token";
+
+  private final List<String> sentTokens = new CopyOnWriteArrayList<>();
+
+  private void initSlowServer(long delayMillis) throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            sentTokens.add(request.getHeader("Authorization"));
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+            return buildBodiedJsonMockResponse(DebtBuilder.buildTestDebtBuilder().buildJson());
+          }
+        });
+    this.mockServer.start();
+  }
+
+  private IcTenantRegistry buildRegistry(TenantScheduler scheduler) {
+    return IcTenantRegistry.builder(scheduler).withBaseUrl(this.mockServer.getBaseUri()).build();
+  }
+
+  @Test
+  public void requestDebtInfo_smallTenantNotStarved() throws Exception {
+    initSlowServer(50);
+    IcTenantRegistry registry = buildRegistry(new TenantScheduler(1));
+    IcAsyncApiFacade largeFacade = registry.getAsyncFacade(LARGE_TENANT);
+
+    List<CompletableFuture<Debt>> results = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      results.add(largeFacade.requestDebtInfo(String.valueOf(i)));
+    }
+    results.add(registry.getAsyncFacade(SMALL_TENANT).requestDebtInfo("1"));
+
+    for (CompletableFuture<Debt> result : results) {
+      Assertions.assertNotNull(result.get(10, TimeUnit.SECONDS));
+    }
+    Assertions.assertEquals(7, sentTokens.size());
+    Assertions.assertTrue(sentTokens.indexOf("Bearer " + SMALL_TENANT) <= 2);
+  }
+
+  @Test
+  public void getFacade_sharedAndCappedPerTenant() throws Exception {
+    initSlowServer(100);
+    IcTenantRegistry registry = buildRegistry(new TenantScheduler(8));
+    TenantLane lane = registry.registerTenant(LARGE_TENANT, 1, 2);
+
+    Assertions.assertSame(registry.getFacade(LARGE_TENANT), registry.getFacade(LARGE_TENANT));
+    Assertions.assertSame(lane, registry.getLane(LARGE_TENANT));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> registry.registerTenant(LARGE_TENANT, 1, 1));
+
+    IcAsyncApiFacade asyncFacade = registry.getAsyncFacade(LARGE_TENANT);
+    List<CompletableFuture<Debt>> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      results.add(asyncFacade.requestDebtInfo(String.valueOf(i)));
+    }
+
+    Assertions.assertEquals(2, lane.getInFlight());
+    Assertions.assertEquals(2, lane.getQueueDepth());
+    for (CompletableFuture<Debt> result : results) {
+      Assertions.assertNotNull(result.get(10, TimeUnit.SECONDS));
+    }
+    Assertions.assertEquals(0, registry.getScheduler().getInFlight());
+    Assertions.assertEquals(1, registry.getTenantCount());
+    Assertions.assertTrue(registry.removeTenant(LARGE_TENANT));
+    Assertions.assertNull(registry.getLane(LARGE_TENANT));
+  }
+}
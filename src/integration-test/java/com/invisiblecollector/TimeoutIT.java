@@ -0,0 +1,115 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.connection.timeout.Timeouts;
+import com.invisiblecollector.exceptions.IcDeadlineExceededException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import okhttp3.mockwebserver.MockResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class TimeoutIT extends IcFacadeTestBase {
+
+  private static final long SLOW_SECONDS = 2;
+
+  private MockResponse buildSlowCustomerResponse() {
+    return buildBodiedJsonMockResponse(CustomerBuilder.buildTestCustomerBuilder().buildJson())
+        .setBodyDelay(SLOW_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private IcApiFacadeBuilder initBuilder(MockResponse... responses) throws Exception {
+    for (MockResponse response : responses) {
+      this.mockServer.addMockResponse(response);
+    }
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN).withBaseUrl(this.mockServer.getBaseUri());
+  }
+
+  private static void assertFasterThanSlowResponse(long start) {
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(SLOW_SECONDS));
+  }
+
+  @Test
+  public void requestCustomerInfo_endpointReadTimeout() throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    IcApiFacade icFacade =
+        initBuilder(
+                buildSlowCustomerResponse(),
+                buildBodiedJsonMockResponse(companyBuilder.buildJson()))
+            .withEndpointTimeouts(
+                IcApiFacade.CUSTOMERS_ENDPOINT,
+                new Timeouts().withReadTimeout(200, TimeUnit.MILLISECONDS))
+            .build();
+
+    long start = System.nanoTime();
+    Assertions.assertThrows(IcException.class, () -> icFacade.requestCustomerInfo("1"));
+    assertFasterThanSlowResponse(start);
+
+    this.assertCorrectModelReturned(companyBuilder, (unused) -> icFacade.requestCompanyInfo());
+  }
+
+  @Test
+  public void requestCompanyInfo_callTimeoutSkipsRetry() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(
+                buildBodiedJsonMockResponse(buildErrorJson(503))
+                    .setResponseCode(503)
+                    .setHeader("Retry-After", "1"))
+            .withRetryPolicy(new RetryPolicy())
+            .withTimeouts(new Timeouts().withCallTimeout(300, TimeUnit.MILLISECONDS))
+            .build();
+
+    long start = System.nanoTime();
+    IcException exception = Assertions.assertThrows(IcException.class, icFacade::requestCompanyInfo);
+
+    Assertions.assertTrue(exception.getMessage().contains("503"));
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void requestCustomersInfo_bulkDeadline() throws Exception {
+    IcApiFacade icFacade =
+        initBuilder(buildSlowCustomerResponse(), buildSlowCustomerResponse()).build();
+    List<BulkResult<Customer>> results;
+
+    long start = System.nanoTime();
+    try (IcBulkApiFacade bulkFacade = new IcBulkApiFacade(icFacade, 1);
+        CallContext.Scope scope = CallContext.ofTimeout(300, TimeUnit.MILLISECONDS).attach()) {
+      results = bulkFacade.requestCustomersInfo(Arrays.asList("1", "2"));
+    }
+    assertFasterThanSlowResponse(start);
+
+    for (BulkResult<Customer> result : results) {
+      Assertions.assertTrue(
+          result.getException() instanceof IcDeadlineExceededException, result.toString());
+    }
+    Assertions.assertEquals(1, this.mockServer.getRequestCount());
+  }
+
+  @Test
+  public void requestCustomerInfo_asyncDeadline() throws Exception {
+    IcAsyncApiFacade icFacade = initBuilder(buildSlowCustomerResponse()).buildAsync();
+
+    long start = System.nanoTime();
+    ExecutionException exception;
+    try (CallContext.Scope scope = CallContext.ofTimeout(300, TimeUnit.MILLISECONDS).attach()) {
+      exception =
+          Assertions.assertThrows(
+              ExecutionException.class,
+              () -> icFacade.requestCustomerInfo("1").get(SLOW_SECONDS * 2, TimeUnit.SECONDS));
+    }
+
+    assertFasterThanSlowResponse(start);
+    Assertions.assertTrue(exception.getCause() instanceof IcDeadlineExceededException);
+  }
+}
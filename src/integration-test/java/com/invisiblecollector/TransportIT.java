@@ -0,0 +1,213 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.RequestType;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.connection.timeout.Timeouts;
+import com.invisiblecollector.connection.transport.JdkHttpClientTransport;
+import com.invisiblecollector.connection.transport.JerseyTransport;
+import com.invisiblecollector.connection.transport.Transport;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.CompanyBuilder;
+import com.invisiblecollector.model.builder.CustomerBuilder;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import com.invisiblecollector.model.builder.FindDebtsBuilderBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class TransportIT extends IcFacadeTestBase {
+
+  private static final String COMPANIES_ENDPOINT = "companies";
+  private static final String CUSTOMERS_ENDPOINT = "customers";
+
+  private IcApiFacadeBuilder initBuilder(MockResponse response, Transport transport)
+      throws Exception {
+    this.mockServer.addMockResponse(response);
+    this.mockServer.start();
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .withTransport(transport);
+  }
+
+  private static void assumeJdkHttpClient() {
+    // set by the multi-release profile, where skipping would hide a broken backend
+    if (Boolean.getBoolean("transport.jdk.required")) {
+      Assertions.assertTrue(
+          JdkHttpClientTransport.isSupported(), "the Java 11+ version of the class isn't loaded");
+    }
+    Assumptions.assumeTrue(
+        JdkHttpClientTransport.isSupported(), "requires the Java 11+ multi-release jar");
+  }
+
+  private void assertRequestCompanyInfo(Transport transport) throws Exception {
+    CompanyBuilder companyBuilder = CompanyBuilder.buildTestCompanyBuilder();
+    IcApiFacade icFacade =
+        initBuilder(buildBodiedJsonMockResponse(companyBuilder.buildJson()), transport).build();
+
+    this.assertCorrectModelReturned(companyBuilder, (unused) -> icFacade.requestCompanyInfo());
+    RecordedRequest request = this.mockServer.getRequest();
+    this.assertSentCorrectCoreHeaders(
+        request, COMPANIES_ENDPOINT, this.mockServer.getBaseUri(), RequestType.GET);
+  }
+
+  private void assertRegisterNewCustomer(Transport transport) throws Exception {
+    CustomerBuilder customerBuilder = CustomerBuilder.buildTestCustomerBuilder();
+    IcApiFacade icFacade =
+        initBuilder(buildBodiedJsonMockResponse(customerBuilder.buildJson()), transport).build();
+
+    this.assertCorrectModelReturned(customerBuilder, icFacade::registerNewCustomer);
+    RecordedRequest request = this.mockServer.getRequest();
+    this.assertSentCorrectJson(
+        request,
+        CUSTOMERS_ENDPOINT,
+        this.mockServer.getBaseUri(),
+        RequestType.POST,
+        customerBuilder.buildSendableJson(true));
+  }
+
+  private void assertConflict(Transport transport) throws Exception {
+    int statusCode = 409;
+    MockResponse mockResponse =
+        buildBodiedJsonMockResponse(buildConflictErrorJson(statusCode)).setResponseCode(statusCode);
+    IcApiFacade icFacade = initBuilder(mockResponse, transport).build();
+    Customer customer = CustomerBuilder.buildTestCustomerBuilder().buildModel();
+
+    IcConflictingException exception =
+        Assertions.assertThrows(
+            IcConflictingException.class, () -> icFacade.registerNewCustomer(customer));
+    Assertions.assertEquals(CONFLICT_GID, exception.getGid());
+  }
+
+  @Test
+  public void requestCompanyInfo_jerseyTransport() throws Exception {
+    try (Transport transport = new JerseyTransport()) {
+      assertRequestCompanyInfo(transport);
+    }
+  }
+
+  @Test
+  public void registerNewCustomer_jerseyTransport() throws Exception {
+    try (Transport transport = new JerseyTransport()) {
+      assertRegisterNewCustomer(transport);
+    }
+  }
+
+  @Test
+  public void requestCompanyInfo_failUnreachable() throws Exception {
+    this.mockServer.start();
+    IcApiFacade icFacade =
+        IcApiFacade.builder(TEST_API_TOKEN).withBaseUrl(this.mockServer.getBaseUri()).build();
+    this.mockServer.close();
+
+    Assertions.assertThrows(IcException.class, icFacade::requestCompanyInfo);
+  }
+
+  @Test
+  public void requestCompanyInfo_jdkTransport() throws Exception {
+    assumeJdkHttpClient();
+    try (Transport transport = new JdkHttpClientTransport()) {
+      assertRequestCompanyInfo(transport);
+    }
+  }
+
+  @Test
+  public void registerNewCustomer_jdkTransport() throws Exception {
+    assumeJdkHttpClient();
+    try (Transport transport = new JdkHttpClientTransport()) {
+      assertRegisterNewCustomer(transport);
+    }
+  }
+
+  @Test
+  public void registerNewCustomer_jdkTransportConflict() throws Exception {
+    assumeJdkHttpClient();
+    try (Transport transport = new JdkHttpClientTransport()) {
+      assertConflict(transport);
+    }
+  }
+
+  @Test
+  public void requestCompanyInfo_jdkTransportConnectTimeoutOnly() throws Exception {
+    assumeJdkHttpClient();
+    MockResponse response =
+        buildBodiedJsonMockResponse(CompanyBuilder.buildTestCompanyBuilder().buildJson());
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            // holds back the headers, which a body delay doesn't
+            TimeUnit.SECONDS.sleep(3);
+            return response;
+          }
+        });
+    this.mockServer.start();
+    Timeouts timeouts =
+        new Timeouts()
+            .withConnectTimeout(300, TimeUnit.MILLISECONDS)
+            .withReadTimeout(0, TimeUnit.MILLISECONDS);
+
+    try (Transport transport = new JdkHttpClientTransport()) {
+      IcApiFacade icFacade =
+          IcApiFacade.builder(TEST_API_TOKEN)
+              .withBaseUrl(this.mockServer.getBaseUri())
+              .withTransport(transport)
+              .withRetryPolicy(new RetryPolicy().withMaxRetries(0))
+              .withTimeouts(timeouts)
+              .build();
+
+      long start = System.nanoTime();
+      Assertions.assertThrows(IcException.class, icFacade::requestCompanyInfo);
+      Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+  }
+
+  @Test
+  public void findDebts_jdkTransportAsync() throws Exception {
+    assumeJdkHttpClient();
+    Pair<List<Debt>, String> pair = DebtBuilder.buildTestDebtList();
+    FindDebtsBuilderBuilder builderBuilder = FindDebtsBuilderBuilder.buildTestBuilder();
+
+    try (Transport transport = new JdkHttpClientTransport()) {
+      IcAsyncApiFacade icFacade =
+          initBuilder(buildBodiedJsonMockResponse(pair.second), transport).buildAsync();
+
+      List<Debt> debts =
+          icFacade.findDebts(builderBuilder.buildModel()).get(10, TimeUnit.SECONDS);
+
+      assertObjectsEquals(pair.first, debts);
+      RecordedRequest request = this.mockServer.getRequest();
+      String endpoint = String.format("debts/find?%s", builderBuilder.buildSendableUrlQuery());
+      this.assertSentCorrectCoreHeaders(
+          request, endpoint, this.mockServer.getBaseUri(), RequestType.GET);
+    }
+  }
+
+  @Test
+  public void requestDebtInfo_jdkTransportAsyncError() throws Exception {
+    assumeJdkHttpClient();
+    int statusCode = 500;
+    MockResponse mockResponse =
+        buildBodiedJsonMockResponse(buildErrorJson(statusCode)).setResponseCode(statusCode);
+
+    try (Transport transport = new JdkHttpClientTransport()) {
+      IcAsyncApiFacade icFacade = initBuilder(mockResponse, transport).buildAsync();
+
+      ExecutionException exception =
+          Assertions.assertThrows(
+              ExecutionException.class,
+              () -> icFacade.requestDebtInfo("1234").get(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(exception.getCause() instanceof IcException);
+      Assertions.assertTrue(exception.getCause().getMessage().contains(JSON_ERROR_MESSAGE));
+    }
+  }
+}
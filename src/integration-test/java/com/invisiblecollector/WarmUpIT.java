@@ -0,0 +1,45 @@
+package com.invisiblecollector;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+public class WarmUpIT extends IcFacadeTestBase {
+
+  private static final int CONNECTIONS = 3;
+
+  @Test
+  public void warmUp_probesBaseUrl() throws Exception {
+    for (int i = 0; i < CONNECTIONS; i++) {
+      this.mockServer.addMockResponse(new MockResponse().setResponseCode(404));
+    }
+    this.mockServer.start();
+    IcApiFacade icFacade =
+        IcApiFacade.builder(TEST_API_TOKEN).withBaseUrl(this.mockServer.getBaseUri()).build();
+
+    WarmUpReport report = icFacade.warmUp(CONNECTIONS, 10);
+
+    Assertions.assertTrue(report.isHealthy(), report.toString());
+    Assertions.assertEquals(CONNECTIONS, report.getAnsweredConnections());
+    Assertions.assertEquals(10, report.getParseCycles());
+    Assertions.assertEquals(CONNECTIONS, this.mockServer.getRequestCount());
+    RecordedRequest probe = this.mockServer.getRequest();
+    Assertions.assertEquals("GET", probe.getMethod());
+    Assertions.assertEquals("/", probe.getPath());
+  }
+
+  @Test
+  public void warmUp_unreachableReported() throws Exception {
+    IcApiFacade icFacade =
+        IcApiFacade.builder(TEST_API_TOKEN).withBaseUrl(URI.create("http://localhost:1")).build();
+
+    WarmUpReport report = icFacade.warmUp(CONNECTIONS, 1);
+
+    Assertions.assertFalse(report.isHealthy());
+    Assertions.assertEquals(0, report.getAnsweredConnections());
+    Assertions.assertEquals(CONNECTIONS, report.getProbedConnections());
+  }
+}
@@ -0,0 +1,187 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.DebtCache;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.exceptions.IcRejectedException;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WriteBehindIT extends IcFacadeTestBase {
+
+  private static final String CONFLICTING_NUMBER = "7";
+
+  private void initEchoServer(long delayMillis) throws Exception {
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+            String body = request.getBody().readUtf8();
+            if (body.contains("\"number\":\"" + CONFLICTING_NUMBER + "\"")) {
+              return buildBodiedJsonMockResponse(buildConflictErrorJson(409)).setResponseCode(409);
+            }
+            return buildBodiedJsonMockResponse(body);
+          }
+        });
+    this.mockServer.start();
+  }
+
+  private IcWriteBehindQueue buildQueue(WriteBehindConfig config) {
+    return IcApiFacade.builder(TEST_API_TOKEN)
+        .withBaseUrl(this.mockServer.getBaseUri())
+        .buildWriteBehindQueue(config);
+  }
+
+  private static Debt buildDebt(int number) {
+    return DebtBuilder.buildTestDebtBuilder().setNumber(String.valueOf(number)).buildModel();
+  }
+
+  @Test
+  public void submit_laterChangesNotSent() throws Exception {
+    initEchoServer(0);
+    WriteBehindConfig config =
+        new WriteBehindConfig().withParallelism(1).withBatching(10, 200, TimeUnit.MILLISECONDS);
+
+    try (IcWriteBehindQueue queue = buildQueue(config)) {
+      Debt debt = buildDebt(1);
+      CompletableFuture<Debt> result = queue.submit(debt);
+      debt.setNumber("2");
+
+      Assertions.assertEquals("1", result.get(10, TimeUnit.SECONDS).getNumber());
+    }
+  }
+
+  @Test
+  public void submit_burstDispatchedInBatches() throws Exception {
+    initEchoServer(0);
+    WriteBehindConfig config =
+        new WriteBehindConfig().withParallelism(1).withBatching(100, 200, TimeUnit.MILLISECONDS);
+
+    try (IcWriteBehindQueue queue = buildQueue(config)) {
+      List<CompletableFuture<Debt>> results = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        results.add(queue.submit(buildDebt(100 + i)));
+      }
+
+      Assertions.assertTrue(queue.awaitDrained(10, TimeUnit.SECONDS));
+      for (int i = 0; i < 50; i++) {
+        Assertions.assertEquals(String.valueOf(100 + i), results.get(i).get().getNumber());
+      }
+      Assertions.assertEquals(50, queue.getDispatchedDebts());
+      Assertions.assertTrue(queue.getDispatchedBatches() < 5);
+      Assertions.assertEquals(50, this.mockServer.getRequestCount());
+    }
+  }
+
+  @Test
+  public void submit_conflictReturnedToItsDebt() throws Exception {
+    initEchoServer(0);
+
+    try (IcWriteBehindQueue queue = buildQueue(new WriteBehindConfig())) {
+      CompletableFuture<Debt> before = queue.submit(buildDebt(6));
+      CompletableFuture<Debt> conflicting = queue.submit(buildDebt(7));
+      CompletableFuture<Debt> after = queue.submit(buildDebt(8));
+
+      ExecutionException exception =
+          Assertions.assertThrows(
+              ExecutionException.class, () -> conflicting.get(10, TimeUnit.SECONDS));
+      Assertions.assertTrue(exception.getCause() instanceof IcConflictingException);
+      Assertions.assertEquals(
+          CONFLICT_GID, ((IcConflictingException) exception.getCause()).getGid());
+      Assertions.assertEquals("6", before.get(10, TimeUnit.SECONDS).getNumber());
+      Assertions.assertEquals("8", after.get(10, TimeUnit.SECONDS).getNumber());
+    }
+  }
+
+  @Test
+  public void submit_rejectedWhileQueueFull() throws Exception {
+    initEchoServer(300);
+    WriteBehindConfig config =
+        new WriteBehindConfig()
+            .withParallelism(1)
+            .withMaxInFlight(1)
+            .withBatching(1, 0, TimeUnit.MILLISECONDS)
+            .withQueue(1, 20, TimeUnit.MILLISECONDS);
+
+    try (IcWriteBehindQueue queue = buildQueue(config)) {
+      List<CompletableFuture<Debt>> results = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        results.add(queue.submit(buildDebt(100 + i)));
+      }
+
+      int rejected = 0;
+      for (CompletableFuture<Debt> result : results) {
+        try {
+          Assertions.assertNotNull(result.get(10, TimeUnit.SECONDS));
+        } catch (ExecutionException e) {
+          Assertions.assertTrue(e.getCause() instanceof IcRejectedException);
+          rejected++;
+        }
+      }
+      Assertions.assertTrue(rejected > 0);
+      Assertions.assertEquals(results.size() - rejected, this.mockServer.getRequestCount());
+    }
+  }
+
+  @Test
+  public void submit_rejectedOnceClosed() throws Exception {
+    initEchoServer(0);
+    IcWriteBehindQueue queue = buildQueue(new WriteBehindConfig());
+    queue.close();
+
+    CompletableFuture<Debt> result = queue.submit(buildDebt(1));
+
+    ExecutionException exception =
+        Assertions.assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcRejectedException);
+  }
+
+  @Test
+  public void submit_refreshesCachedCustomerDebts() throws Exception {
+    DebtBuilder first = DebtBuilder.buildTestDebtBuilder().setId("gid-1").setNumber("1");
+    DebtBuilder second = DebtBuilder.buildTestDebtBuilder().setId("gid-2").setNumber("2");
+    AtomicInteger listRequests = new AtomicInteger();
+    this.mockServer.setDispatcher(
+        new Dispatcher() {
+          @Override
+          public MockResponse dispatch(RecordedRequest request) {
+            if ("POST".equals(request.getMethod())) {
+              return buildBodiedJsonMockResponse(second.buildJson());
+            }
+            return buildBodiedJsonMockResponse(
+                listRequests.getAndIncrement() == 0
+                    ? "[" + first.buildJson() + "]"
+                    : "[" + first.buildJson() + "," + second.buildJson() + "]");
+          }
+        });
+    this.mockServer.start();
+    IcApiFacadeBuilder builder =
+        IcApiFacade.builder(TEST_API_TOKEN)
+            .withBaseUrl(this.mockServer.getBaseUri())
+            .withCaches(new Caches().withDebtCache(new DebtCache(100)));
+    IcApiFacade icFacade = builder.build();
+    String customerId = first.buildModel().getCustomerId();
+
+    try (IcWriteBehindQueue queue = builder.buildWriteBehindQueue(new WriteBehindConfig())) {
+      Assertions.assertEquals(1, icFacade.requestCustomerDebts(customerId).size());
+      queue.submit(second.buildModel()).get(10, TimeUnit.SECONDS);
+
+      Assertions.assertEquals(second.buildModel(), icFacade.requestDebtInfo("gid-2"));
+      Assertions.assertEquals(2, icFacade.requestCustomerDebts(customerId).size());
+      Assertions.assertEquals(3, this.mockServer.getRequestCount());
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.invisiblecollector;
+
+/**
+ * The outcome of a single operation of a bulk request.
+ *
+ * <p>Holds either the operation's return value or the exception it failed with.
+ *
+ * @param <T> the operation's return type
+ * @author ros
+ */
+public class BulkResult<T> {
+
+  private final T value;
+  private final Exception exception;
+
+  private BulkResult(T value, Exception exception) {
+    this.value = value;
+    this.exception = exception;
+  }
+
+  static <T> BulkResult<T> success(T value) {
+    return new BulkResult<>(value, null);
+  }
+
+  static <T> BulkResult<T> failure(Exception exception) {
+    return new BulkResult<>(null, exception);
+  }
+
+  public boolean isSuccess() {
+    return exception == null;
+  }
+
+  /**
+   * Get the operation's return value.
+   *
+   * @return the value, or null if the operation failed
+   */
+  public T getValue() {
+    return value;
+  }
+
+  /**
+   * Get the exception the operation failed with. Usually an {@link
+   * com.invisiblecollector.exceptions.IcException}, or an {@link IllegalArgumentException} for
+   * invalid arguments.
+   *
+   * @return the exception, or null if the operation succeeded
+   */
+  public Exception getException() {
+    return exception;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? "{value: " + value + "}" : "{exception: " + exception + "}";
+  }
+}
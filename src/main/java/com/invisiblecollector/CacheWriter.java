@@ -0,0 +1,79 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.AttributeCache;
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.CustomerCache;
+import com.invisiblecollector.cache.DebtCache;
+import com.invisiblecollector.cache.NotFoundCache;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+
+/**
+ * Writes the customers and debts returned by the API through a facade's caches, the same way for
+ * {@link IcApiFacade} and {@link IcAsyncApiFacade}.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+final class CacheWriter {
+
+  private final CustomerCache customerCache;
+  private final AttributeCache attributeCache;
+  private final NotFoundCache notFoundCache;
+  private final DebtCache debtCache;
+
+  CacheWriter(Caches caches) {
+    this.customerCache = caches.getCustomerCache();
+    this.attributeCache = caches.getAttributeCache();
+    this.notFoundCache = caches.getNotFoundCache();
+    this.debtCache = caches.getDebtCache();
+  }
+
+  Customer customerReturned(Customer customer) {
+    if (customerCache != null) {
+      customerCache.put(customer);
+    }
+    if (attributeCache != null) {
+      attributeCache.putCustomerIds(customer.getId(), customer.getExternalId());
+    }
+    if (notFoundCache != null) {
+      notFoundCache.invalidateCustomer(customer.getId(), customer.getExternalId());
+    }
+    return customer;
+  }
+
+  Debt debtReturned(Debt debt) {
+    if (debtCache != null) {
+      debtCache.put(debt);
+    }
+    if (notFoundCache != null) {
+      notFoundCache.invalidateDebt(debt.getId(), debt.getNumber());
+    }
+    return debt;
+  }
+
+  /**
+   * Drop the lookups of a customer cached as not found, once its registration is answered.
+   * Registered or conflicting, a customer with its externalId exists from now on.
+   *
+   * @param customerInfo the customer sent to be registered
+   */
+  void customerRegistered(Customer customerInfo) {
+    if (notFoundCache != null) {
+      notFoundCache.invalidateCustomer(customerInfo.getExternalId());
+    }
+  }
+
+  /**
+   * Drop the lookups of a debt cached as not found, once its registration is answered. Registered
+   * or conflicting, a debt with its number exists from now on.
+   *
+   * @param debtInfo the debt sent to be registered
+   */
+  void debtRegistered(Debt debtInfo) {
+    if (notFoundCache != null) {
+      notFoundCache.invalidateDebt(debtInfo.getId(), debtInfo.getNumber());
+    }
+  }
+}
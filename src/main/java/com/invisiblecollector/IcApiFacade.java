@@ -1,18 +1,34 @@
 package com.invisiblecollector;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.invisiblecollector.cache.AttributeCache;
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.cache.CompanyCache;
+import com.invisiblecollector.cache.CustomerCache;
+import com.invisiblecollector.cache.DebtCache;
+import com.invisiblecollector.cache.NotFoundCache;
+import com.invisiblecollector.connection.ApiRequest;
 import com.invisiblecollector.connection.ApiRequestFacade;
 import com.invisiblecollector.connection.RequestType;
+import com.invisiblecollector.connection.hedge.HedgeMetrics;
+import com.invisiblecollector.connection.pool.ConnectionPoolStats;
 import com.invisiblecollector.connection.response.ResponseValidator;
+import com.invisiblecollector.connection.retry.RetryMetrics;
 import com.invisiblecollector.exceptions.IcConflictingException;
 import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.exceptions.IcNotFoundException;
 import com.invisiblecollector.model.Company;
 import com.invisiblecollector.model.Customer;
 import com.invisiblecollector.model.Debt;
 import com.invisiblecollector.model.FindDebtsBuilder;
+import com.invisiblecollector.model.Item;
 import com.invisiblecollector.model.serialization.JsonModelFacade;
+import com.invisiblecollector.model.serialization.JsonSingleton;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -27,15 +43,19 @@ import java.util.Map;
  */
 public class IcApiFacade {
 
-  private static final URI PRODUCTION_BASE_URL = URI.create("https://api.invisiblecollector.com");
-  private static final String DEBTS_ENDPOINT = "debts";
-  private static final String ATTRIBUTES_PATH = "attributes";
-  private static final String CUSTOMERS_ENDPOINT = "customers";
-  private static final String DEBTS_PATH = "debts";
-  private static final String COMPANIES_ENDPOINT = "companies";
-  private static final String DISABLE_NOTIFICATIONS_ENDPOINT = "companies/disableNotifications";
-  private static final String ENABLE_NOTIFICATIONS_ENDPOINT = "companies/enableNotifications";
-  private static final String DEBTS_FIND_PATH = "debts/find";
+  static final URI PRODUCTION_BASE_URL = URI.create("https://api.invisiblecollector.com");
+  static final String DEBTS_ENDPOINT = "debts";
+  static final String ATTRIBUTES_PATH = "attributes";
+  static final String CUSTOMERS_ENDPOINT = "customers";
+  static final String DEBTS_PATH = "debts";
+  static final String COMPANIES_ENDPOINT = "companies";
+  static final String DISABLE_NOTIFICATIONS_ENDPOINT = "companies/disableNotifications";
+  static final String ENABLE_NOTIFICATIONS_ENDPOINT = "companies/enableNotifications";
+  static final String DEBTS_FIND_PATH = "debts/find";
+  private static final String CUSTOMER_PREFIX = CUSTOMERS_ENDPOINT + "/";
+  private static final String DEBT_PREFIX = DEBTS_ENDPOINT + "/";
+  private static final String ATTRIBUTES_SUFFIX = "/" + ATTRIBUTES_PATH;
+  private static final String DEBTS_SUFFIX = "/" + DEBTS_PATH;
   private static final String[] CUSTOMER_FIELDS =
       new String[] {
         "name",
@@ -52,6 +72,12 @@ public class IcApiFacade {
 
   private ApiRequestFacade apiFacade;
   private JsonModelFacade jsonFacade;
+  private CustomerCache customerCache;
+  private AttributeCache attributeCache;
+  private CompanyCache companyCache;
+  private NotFoundCache notFoundCache;
+  private DebtCache debtCache;
+  private CacheWriter cacheWriter;
 
   /**
    * Creates an object with the default hostname (https://api.invisiblecollector.com).
@@ -73,6 +99,7 @@ public class IcApiFacade {
     this.jsonFacade = new JsonModelFacade();
     ResponseValidator responseValidator = new ResponseValidator(this.jsonFacade);
     this.apiFacade = new ApiRequestFacade(apiToken, baseUrl, responseValidator);
+    this.cacheWriter = new CacheWriter(new Caches());
   }
 
   /**
@@ -84,16 +111,234 @@ public class IcApiFacade {
    * @param jsonFacade teh json facade
    */
   public IcApiFacade(ApiRequestFacade apiFacade, JsonModelFacade jsonFacade) {
+    this(apiFacade, jsonFacade, new Caches());
+  }
+
+  /**
+   * Creates an IcApiFacade with injection
+   *
+   * <p>Preferably use {@link #builder(String)}
+   *
+   * @param apiFacade the api facade
+   * @param jsonFacade the json facade
+   * @param caches the caches read and written through
+   */
+  public IcApiFacade(ApiRequestFacade apiFacade, JsonModelFacade jsonFacade, Caches caches) {
     this.apiFacade = apiFacade;
     this.jsonFacade = jsonFacade;
+    this.customerCache = caches.getCustomerCache();
+    this.attributeCache = caches.getAttributeCache();
+    this.companyCache = caches.getCompanyCache();
+    this.notFoundCache = caches.getNotFoundCache();
+    this.debtCache = caches.getDebtCache();
+    this.cacheWriter = new CacheWriter(caches);
+  }
+
+  /**
+   * Start building a facade with a custom configuration, such as a connection pool.
+   *
+   * @param apiToken the company's Api Token
+   * @return a builder with the default configuration
+   */
+  public static IcApiFacadeBuilder builder(String apiToken) {
+    return new IcApiFacadeBuilder(apiToken);
+  }
+
+  /**
+   * Get the statistics of the connection pool this facade sends its requests through.
+   *
+   * @return a snapshot of the pool's state
+   * @throws IllegalStateException if the facade wasn't built with a connection pool
+   * @see IcApiFacadeBuilder#withConnectionPool(com.invisiblecollector.connection.pool.ConnectionPool)
+   */
+  public ConnectionPoolStats getConnectionPoolStats() {
+    return apiFacade.getConnectionPoolStats();
+  }
+
+  /**
+   * Get the retry counters of this facade.
+   *
+   * @return the live metrics
+   * @see IcApiFacadeBuilder#withRetryPolicy(com.invisiblecollector.connection.retry.RetryPolicy)
+   */
+  public RetryMetrics getRetryMetrics() {
+    return apiFacade.getRetryMetrics();
+  }
+
+  /**
+   * Get the amount of reads that shared the response of an identical read in flight.
+   *
+   * @return the amount of reads, 0 if the facade wasn't built with request coalescing
+   * @see IcApiFacadeBuilder#withRequestCoalescing(boolean)
+   */
+  public long getCoalescedRequestCount() {
+    return apiFacade.getCoalescedRequestCount();
+  }
+
+  /**
+   * Get the hedging counters of this facade.
+   *
+   * @return the live metrics
+   * @throws IllegalStateException if the facade wasn't built with a hedging policy
+   * @see IcApiFacadeBuilder#withHedgingPolicy(com.invisiblecollector.connection.hedge.HedgingPolicy)
+   */
+  public HedgeMetrics getHedgeMetrics() {
+    return apiFacade.getHedgeMetrics();
+  }
+
+  /**
+   * Warm up the facade before it serves live traffic, for example from a readiness probe.
+   *
+   * <p>Runs three phases, timed separately in the returned report:
+   *
+   * <ol>
+   *   <li>opens connections to the base URL with concurrent probes, which also loads the HTTP
+   *       client and checks that the API is reachable. Each bulkhead connection pool is probed
+   *       too
+   *   <li>builds the JSON serializers and deserializers of every model
+   *   <li>serializes and parses sample models, the way requests and responses are, to get their
+   *       code compiled
+   * </ol>
+   *
+   * <p>No data is sent to the API.
+   *
+   * @param connections the amount of connections to open in each connection pool
+   * @param parseCycles the amount of times the sample models are serialized and parsed
+   * @return the report. Failed probes are reported rather than thrown.
+   * @throws IcException if interrupted or the sample models fail to parse
+   */
+  public WarmUpReport warmUp(int connections, int parseCycles) throws IcException {
+    if (connections < 0 || parseCycles < 0) {
+      throw new IllegalArgumentException("connections and parseCycles cannot be negative");
+    }
+
+    long start = System.nanoTime();
+    int probed = connections * apiFacade.getConnectionPoolCount();
+    int answered = connections == 0 ? 0 : apiFacade.probeConnections(connections);
+    long connected = System.nanoTime();
+    jsonFacade.primeModelTypes();
+    long primed = System.nanoTime();
+    runParseCycles(parseCycles);
+    long end = System.nanoTime();
+
+    return new WarmUpReport(
+        probed, answered, connected - start, primed - connected, parseCycles, end - primed);
+  }
+
+  private void runParseCycles(int parseCycles) throws IcException {
+    Company company = new Company();
+    company.setName("warm-up");
+    company.setVatNumber("000000000");
+    Customer customer = new Customer();
+    customer.setName("warm-up");
+    customer.setVatNumber("000000000");
+    customer.setCountry("PT");
+    Item item = new Item();
+    item.setName("warm-up");
+    item.setPrice(1.0);
+    item.setQuantity(1.0);
+    Debt debt = new Debt();
+    debt.setNumber("warm-up");
+    debt.setCustomerId("warm-up");
+    debt.setType("FT");
+    debt.setDate(new Date(0));
+    debt.setDueDate(new Date(0));
+    debt.setCurrency("EUR");
+    debt.addItem(item);
+    debt.addAttribute("warm-up", "warm-up");
+
+    for (int i = 0; i < parseCycles; i++) {
+      roundTripSample(companyUpdateFields(company), Company.class);
+      roundTripSample(customerRegistrationFields(customer), Customer.class);
+      byte[] debtJson = roundTripSample(debtRegistrationFields(debt), Debt.class);
+      byte[] debtListJson = new byte[debtJson.length + 2];
+      debtListJson[0] = '[';
+      System.arraycopy(debtJson, 0, debtListJson, 1, debtJson.length);
+      debtListJson[debtListJson.length - 1] = ']';
+      jsonFacade.parseStringStreamAsDebtList(new ByteArrayInputStream(debtListJson));
+    }
+  }
+
+  private <T> byte[] roundTripSample(Map<String, Object> fields, Class<T> modelType)
+      throws IcException {
+    byte[] json;
+    try {
+      json = JsonSingleton.getInstance().writeValueAsBytes(fields);
+    } catch (JsonProcessingException e) {
+      throw new IcException("Failed to serialize request body", e);
+    }
+
+    jsonFacade.parseStringStream(new ByteArrayInputStream(json), modelType);
+    return json;
   }
 
-  private void assertCorrectId(String id) throws IllegalArgumentException {
+  private static void assertCorrectId(String id) throws IllegalArgumentException {
     if (id == null || id.isEmpty()) {
       throw new IllegalArgumentException("Id cannot be empty");
     }
   }
 
+  // request preparation shared with IcAsyncApiFacade
+
+  static String notificationsEndpoint(boolean enableNotifications) {
+    return enableNotifications ? ENABLE_NOTIFICATIONS_ENDPOINT : DISABLE_NOTIFICATIONS_ENDPOINT;
+  }
+
+  static Map<String, Object> companyUpdateFields(Company companyInfo) {
+    companyInfo.assertContainsKeys("name", "vatNumber");
+    return companyInfo.getOnlyFields("name", "vatNumber", "address", "zipCode", "city");
+  }
+
+  static Map<String, Object> customerRegistrationFields(Customer customerInfo) {
+    customerInfo.assertContainsKeys("name", "vatNumber", "country");
+    return customerInfo.getOnlyFields(CUSTOMER_FIELDS);
+  }
+
+  static Map<String, Object> customerUpdateFields(Customer customerInfo) {
+    customerInfo.assertContainsKeys("country");
+    return customerInfo.getOnlyFields(CUSTOMER_FIELDS);
+  }
+
+  static Map<String, Object> debtRegistrationFields(Debt debtInfo) {
+    debtInfo.assertContainsKeys("number", "customerId", "type", "date", "dueDate");
+    Map<String, Object> fields =
+        debtInfo.getOnlyFields(
+            "number",
+            "customerId",
+            "type",
+            "status",
+            "date",
+            "dueDate",
+            "netTotal",
+            "tax",
+            "grossTotal",
+            "currency",
+            "items",
+            "attributes");
+    debtInfo.getItems().stream().forEach(item -> item.assertContainsKeys("name"));
+    return fields;
+  }
+
+  static String customerEndpoint(String customerId) {
+    assertCorrectId(customerId);
+    return CUSTOMER_PREFIX + customerId;
+  }
+
+  static String customerAttributesEndpoint(String customerId) {
+    assertCorrectId(customerId);
+    return CUSTOMER_PREFIX + customerId + ATTRIBUTES_SUFFIX;
+  }
+
+  static String customerDebtsEndpoint(String customerId) {
+    assertCorrectId(customerId);
+    return CUSTOMER_PREFIX + customerId + DEBTS_SUFFIX;
+  }
+
+  static String debtEndpoint(String debtId) {
+    assertCorrectId(debtId);
+    return DEBT_PREFIX + debtId;
+  }
+
   //  private <T> T returningRequest(
   //          ThrowingSupplier<InputStream, IcException> requestMethod, Class<T> returnType)
   //      throws IcException {
@@ -104,12 +349,32 @@ public class IcApiFacade {
   /**
    * Request the company info from the database.
    *
+   * <p>Served from the company cache, refreshed in the background, if the facade was built with
+   * one.
+   *
    * @return up-to-date company info.
    * @throws IcException on any general exception
+   * @see Caches#withCompanyCache(CompanyCache)
    */
   public Company requestCompanyInfo() throws IcException {
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.GET, COMPANIES_ENDPOINT, null), Company.class);
+    if (companyCache != null) {
+      return companyCache.get(this::loadCompanyInfo);
+    }
+
+    return loadCompanyInfo();
+  }
+
+  private Company loadCompanyInfo() throws IcException {
+    ApiRequest request =
+        new ApiRequest(RequestType.GET, COMPANIES_ENDPOINT).withEndpointKey(COMPANIES_ENDPOINT);
+    return this.jsonFacade.parseStringStream(apiFacade.request(request), Company.class);
+  }
+
+  private Company cacheCompany(Company company) {
+    if (companyCache != null) {
+      companyCache.put(company);
+    }
+    return company;
   }
 
   /**
@@ -121,11 +386,12 @@ public class IcApiFacade {
    */
   public Company setCompanyNotifications(boolean enableNotifications) throws IcException {
     InputStream inputStream =
-        enableNotifications
-            ? apiFacade.jsonToJsonRequest(RequestType.PUT, ENABLE_NOTIFICATIONS_ENDPOINT, null)
-            : apiFacade.jsonToJsonRequest(RequestType.PUT, DISABLE_NOTIFICATIONS_ENDPOINT, null);
+        apiFacade.request(
+            new ApiRequest(RequestType.PUT, notificationsEndpoint(enableNotifications))
+                .withIdempotent(true)
+                .withEndpointKey(COMPANIES_ENDPOINT));
 
-    return this.jsonFacade.parseStringStream(inputStream, Company.class);
+    return cacheCompany(this.jsonFacade.parseStringStream(inputStream, Company.class));
   }
 
   /**
@@ -140,11 +406,14 @@ public class IcApiFacade {
    * @throws IcException on any general exception
    */
   public Company updateCompanyInfo(Company companyInfo) throws IcException {
-    companyInfo.assertContainsKeys("name", "vatNumber");
-    Map<String, Object> company =
-        companyInfo.getOnlyFields("name", "vatNumber", "address", "zipCode", "city");
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.PUT, COMPANIES_ENDPOINT, company), Company.class);
+    Map<String, Object> company = companyUpdateFields(companyInfo);
+    ApiRequest request =
+        new ApiRequest(RequestType.PUT, COMPANIES_ENDPOINT)
+            .withBody(company)
+            .withIdempotent(true)
+            .withEndpointKey(COMPANIES_ENDPOINT);
+    return cacheCompany(
+        this.jsonFacade.parseStringStream(apiFacade.request(request), Company.class));
   }
 
   /**
@@ -161,11 +430,18 @@ public class IcApiFacade {
    */
   public Customer registerNewCustomer(Customer customerInfo)
       throws IcException, IcConflictingException {
-    customerInfo.assertContainsKeys("name", "vatNumber", "country");
-    Map<String, Object> fields = customerInfo.getOnlyFields(CUSTOMER_FIELDS);
-
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.POST, CUSTOMERS_ENDPOINT, fields), Customer.class);
+    Map<String, Object> fields = customerRegistrationFields(customerInfo);
+
+    ApiRequest request =
+        new ApiRequest(RequestType.POST, CUSTOMERS_ENDPOINT)
+            .withBody(fields)
+            .withEndpointKey(CUSTOMERS_ENDPOINT);
+    try {
+      return cacheWriter.customerReturned(
+          this.jsonFacade.parseStringStream(apiFacade.request(request), Customer.class));
+    } finally {
+      cacheWriter.customerRegistered(customerInfo);
+    }
   }
 
   /**
@@ -174,47 +450,99 @@ public class IcApiFacade {
    * <p>Use {@link #setCustomerAttributes(String, Map)} to set the attributes returned by this
    * method.
    *
+   * <p>Served from the attribute cache while it holds the customer's attributes, if the facade
+   * was built with one.
+   *
    * @param customerId the id of the customer (can be the id or externalId).
    * @return a map containing up-to-date string:string attribute pairs which correspond to the
    *     customer.
    * @throws IcException in case of any error
+   * @see Caches#withAttributeCache(AttributeCache)
    */
   public Map<String, String> requestCustomerAttributes(String customerId) throws IcException {
-    assertCorrectId(customerId);
-    String endpoint = String.join("/", CUSTOMERS_ENDPOINT, customerId, ATTRIBUTES_PATH);
-    InputStream inputStream = apiFacade.jsonToJsonRequest(RequestType.GET, endpoint, null);
+    String endpoint = customerAttributesEndpoint(customerId);
+    Map<String, String> cached = attributeCache == null ? null : attributeCache.get(customerId);
+    if (cached != null) {
+      return cached;
+    }
 
-    return this.jsonFacade.parseStringStreamAsStringMap(inputStream);
+    InputStream inputStream =
+        apiFacade.request(
+            new ApiRequest(RequestType.GET, endpoint).withEndpointKey(CUSTOMERS_ENDPOINT));
+
+    return cacheAttributes(customerId, this.jsonFacade.parseStringStreamAsStringMap(inputStream));
+  }
+
+  private Map<String, String> cacheAttributes(String customerId, Map<String, String> attributes) {
+    if (attributeCache != null) {
+      attributeCache.put(customerId, attributes);
+    }
+    return attributes;
   }
 
   /**
    * Get the customer's debts.
    *
+   * <p>Served from the debt cache while it holds every debt of a previous request, if the facade
+   * was built with one.
+   *
    * @param customerId the id or external id of the customer
    * @return the customer's up-to-date list of debts
    * @throws IcException on any general error
+   * @see Caches#withDebtCache(DebtCache)
    */
   public List<Debt> requestCustomerDebts(String customerId) throws IcException {
-    assertCorrectId(customerId);
-    String endpoint = String.join("/", CUSTOMERS_ENDPOINT, customerId, DEBTS_PATH);
-    InputStream inputStream = apiFacade.jsonToJsonRequest(RequestType.GET, endpoint, null);
+    String endpoint = customerDebtsEndpoint(customerId);
+    List<Debt> cached = debtCache == null ? null : debtCache.getCustomerDebts(customerId);
+    if (cached != null) {
+      return cached;
+    }
 
-    return this.jsonFacade.parseStringStreamAsDebtList(inputStream);
+    InputStream inputStream =
+        apiFacade.request(
+            new ApiRequest(RequestType.GET, endpoint).withEndpointKey(CUSTOMERS_ENDPOINT));
+
+    List<Debt> debts = this.jsonFacade.parseStringStreamAsDebtList(inputStream);
+    if (debtCache != null) {
+      debtCache.putCustomerDebts(customerId, debts);
+    }
+    return debts;
   }
 
   /**
    * Get customer info from the database.
    *
+   * <p>Served from the customer cache while it holds the customer, if the facade was built with
+   * one. Likewise, a lookup held by the not-found cache fails without reaching the API.
+   *
    * @param customerId the id or externalId of the customer.
    * @return the up-to-date customer info
    * @throws IcException any general error
+   * @throws IcNotFoundException if the customer doesn't exist
+   * @see Caches#withCustomerCache(CustomerCache)
    */
   public Customer requestCustomerInfo(String customerId) throws IcException {
-    assertCorrectId(customerId);
-    String endpoint = CUSTOMERS_ENDPOINT + "/" + customerId;
+    String endpoint = customerEndpoint(customerId);
+    Customer cached = customerCache == null ? null : customerCache.get(customerId);
+    if (cached != null) {
+      return cached;
+    }
+    String notFound = notFoundCache == null ? null : notFoundCache.getCustomerNotFound(customerId);
+    if (notFound != null) {
+      throw IcNotFoundException.cached(notFound);
+    }
 
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.GET, endpoint, null), Customer.class);
+    ApiRequest request =
+        new ApiRequest(RequestType.GET, endpoint).withEndpointKey(CUSTOMERS_ENDPOINT);
+    try {
+      return cacheWriter.customerReturned(
+          this.jsonFacade.parseStringStream(apiFacade.request(request), Customer.class));
+    } catch (IcNotFoundException e) {
+      if (notFoundCache != null) {
+        notFoundCache.putCustomerNotFound(customerId, e.getMessage());
+      }
+      throw e;
+    }
   }
 
   /**
@@ -222,20 +550,37 @@ public class IcApiFacade {
    *
    * <p>Use {@link #requestCustomerAttributes(String)}
    *
+   * <p>The attribute cache, if the facade was built with one, is updated under both ids of the
+   * customer.
+   *
    * @param customerId the id or externalId of the customer.
    * @param attributes the map with the attributes to set. Duplicate values in the database are
    *     updated, while pre-existing values in the database are unaffected.
    * @return a map containing up-to-date string:string attribute pairs which correspond to the
    *     customer.
    * @throws IcException any general error
+   * @see AttributeCache#invalidateWritten(String)
    */
   public Map<String, String> setCustomerAttributes(
       String customerId, Map<String, String> attributes) throws IcException {
-    assertCorrectId(customerId);
-    String endpoint = String.join("/", CUSTOMERS_ENDPOINT, customerId, ATTRIBUTES_PATH);
-    InputStream inputStream = apiFacade.jsonToJsonRequest(RequestType.POST, endpoint, attributes);
+    String endpoint = customerAttributesEndpoint(customerId);
+    Map<String, String> updated;
+    try {
+      InputStream inputStream =
+          apiFacade.request(
+              new ApiRequest(RequestType.POST, endpoint)
+                  .withBody(attributes)
+                  .withIdempotent(true)
+                  .withEndpointKey(CUSTOMERS_ENDPOINT));
+      updated = this.jsonFacade.parseStringStreamAsStringMap(inputStream);
+    } finally {
+      // written or not, the cached attributes may be stale, under this id or the other one
+      if (attributeCache != null) {
+        attributeCache.invalidateWritten(customerId);
+      }
+    }
 
-    return this.jsonFacade.parseStringStreamAsStringMap(inputStream);
+    return cacheAttributes(customerId, updated);
   }
 
   /**
@@ -257,13 +602,16 @@ public class IcApiFacade {
    * @see #updateCustomerInfo(Customer)
    */
   public Customer updateCustomerInfo(Customer customerInfo) throws IcException {
-    String customerId = customerInfo.getRoutableId();
-    String endpoint = CUSTOMERS_ENDPOINT + "/" + customerId;
-    customerInfo.assertContainsKeys("country");
-    Map<String, Object> fields = customerInfo.getOnlyFields(CUSTOMER_FIELDS);
-
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.PUT, endpoint, fields), Customer.class);
+    String endpoint = customerEndpoint(customerInfo.getRoutableId());
+    Map<String, Object> fields = customerUpdateFields(customerInfo);
+
+    ApiRequest request =
+        new ApiRequest(RequestType.PUT, endpoint)
+            .withBody(fields)
+            .withIdempotent(true)
+            .withEndpointKey(CUSTOMERS_ENDPOINT);
+    return cacheWriter.customerReturned(
+        this.jsonFacade.parseStringStream(apiFacade.request(request), Customer.class));
   }
 
   /**
@@ -277,55 +625,78 @@ public class IcApiFacade {
    * @see #registerNewDebt(Debt)
    */
   public Debt registerNewDebt(Debt debtInfo) throws IcException {
-    debtInfo.assertContainsKeys("number", "customerId", "type", "date", "dueDate");
-    Map<String, Object> fields =
-        debtInfo.getOnlyFields(
-            "number",
-            "customerId",
-            "type",
-            "status",
-            "date",
-            "dueDate",
-            "netTotal",
-            "tax",
-            "grossTotal",
-            "currency",
-            "items",
-            "attributes");
-    debtInfo.getItems().stream().forEach(item -> item.assertContainsKeys("name"));
-
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.POST, DEBTS_ENDPOINT, fields), Debt.class);
+    Map<String, Object> fields = debtRegistrationFields(debtInfo);
+
+    ApiRequest request =
+        new ApiRequest(RequestType.POST, DEBTS_ENDPOINT)
+            .withBody(fields)
+            .withEndpointKey(DEBTS_ENDPOINT);
+    try {
+      return cacheWriter.debtReturned(
+          this.jsonFacade.parseStringStream(apiFacade.request(request), Debt.class));
+    } finally {
+      cacheWriter.debtRegistered(debtInfo);
+    }
   }
 
   /**
    * Request debt information from the database.
    *
+   * <p>Served from the debt cache while it holds the debt, if the facade was built with one.
+   * Likewise, a lookup held by the not-found cache fails without reaching the API.
+   *
    * @param debtId the id of the debt whose information is requested.
    * @return up-to-date debt information.
    * @throws IcException any general exception
+   * @throws IcNotFoundException if the debt doesn't exist
+   * @see Caches#withDebtCache(DebtCache)
+   * @see Caches#withNotFoundCache(NotFoundCache)
    */
   public Debt requestDebtInfo(String debtId) throws IcException {
-    assertCorrectId(debtId);
+    String endpoint = debtEndpoint(debtId);
+    Debt cached = debtCache == null ? null : debtCache.get(debtId);
+    if (cached != null) {
+      return cached;
+    }
 
-    String endpoint = DEBTS_ENDPOINT + "/" + debtId;
-    return this.jsonFacade.parseStringStream(
-        apiFacade.jsonToJsonRequest(RequestType.GET, endpoint, null), Debt.class);
+    String notFound = notFoundCache == null ? null : notFoundCache.getDebtNotFound(debtId);
+    if (notFound != null) {
+      throw IcNotFoundException.cached(notFound);
+    }
+
+    ApiRequest request = new ApiRequest(RequestType.GET, endpoint).withEndpointKey(DEBTS_ENDPOINT);
+    try {
+      return cacheWriter.debtReturned(
+          this.jsonFacade.parseStringStream(apiFacade.request(request), Debt.class));
+    } catch (IcNotFoundException e) {
+      if (notFoundCache != null) {
+        notFoundCache.putDebtNotFound(debtId, e.getMessage());
+      }
+      throw e;
+    }
   }
 
   /**
    * Search the database for the debts that match the query
    *
+   * <p>The debts found are stored in the debt cache, if the facade was built with one.
+   *
    * @param findDebts the search query
    * @return found debts that match the query
    * @throws IcException on any general exception
+   * @see Caches#withDebtCache(DebtCache)
    */
   public List<Debt> findDebts(FindDebtsBuilder findDebts) throws IcException {
     Map<String, Object> queryParams = findDebts.getFields();
 
     InputStream inputStream =
-        this.apiFacade.uriEncodedToJsonRequest(RequestType.GET, DEBTS_FIND_PATH, queryParams);
-
-    return this.jsonFacade.parseStringStreamAsDebtList(inputStream);
+        this.apiFacade.request(
+            new ApiRequest(RequestType.GET, DEBTS_FIND_PATH)
+                .withQuery(queryParams)
+                .withEndpointKey(DEBTS_FIND_PATH));
+
+    List<Debt> debts = this.jsonFacade.parseStringStreamAsDebtList(inputStream);
+    debts.forEach(cacheWriter::debtReturned);
+    return debts;
   }
 }
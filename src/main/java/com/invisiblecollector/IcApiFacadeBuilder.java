@@ -0,0 +1,403 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.connection.ApiRequestConfig;
+import com.invisiblecollector.connection.ApiRequestFacade;
+import com.invisiblecollector.connection.balance.BaseUrlBalancer;
+import com.invisiblecollector.connection.breaker.CircuitBreakers;
+import com.invisiblecollector.connection.bulkhead.Bulkheads;
+import com.invisiblecollector.connection.concurrency.AdaptiveConcurrencyLimiter;
+import com.invisiblecollector.connection.hedge.HedgingPolicy;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.priority.PriorityScheduler;
+import com.invisiblecollector.connection.ratelimit.RateLimits;
+import com.invisiblecollector.connection.response.ResponseLeakDetector;
+import com.invisiblecollector.connection.response.ResponseValidator;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.connection.timeout.Timeouts;
+import com.invisiblecollector.connection.transport.Transport;
+import com.invisiblecollector.model.serialization.JsonModelFacade;
+import com.invisiblecollector.outbox.OutboxConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds a configured {@link IcApiFacade}.
+ *
+ * <p>Implements a fluent builder API. Use {@link IcApiFacade#builder(String)} to get an instance.
+ *
+ * @author ros
+ */
+public class IcApiFacadeBuilder {
+
+  private final String apiToken;
+  private final ApiRequestConfig requestConfig = new ApiRequestConfig();
+  private URI baseUrl = IcApiFacade.PRODUCTION_BASE_URL;
+  private Executor parseExecutor = ForkJoinPool.commonPool();
+  private Caches caches = new Caches();
+
+  IcApiFacadeBuilder(String apiToken) {
+    if (apiToken == null || apiToken.isEmpty()) {
+      throw new IllegalArgumentException("apiToken cannot be empty");
+    }
+
+    this.apiToken = apiToken;
+  }
+
+  /**
+   * Set a custom hostname or base path.
+   *
+   * @param baseUrl the hostname, scheme and optionally base path for the connection. Default value
+   *     is https://api.invisiblecollector.com
+   * @return this
+   */
+  public IcApiFacadeBuilder withBaseUrl(URI baseUrl) {
+    if (baseUrl == null) {
+      throw new IllegalArgumentException("baseUrl cannot be null");
+    }
+
+    this.baseUrl = baseUrl;
+    return this;
+  }
+
+  /**
+   * Spread the requests across several base URLs, such as regional gateways, ejecting the ones
+   * that fail or are much slower than the others.
+   *
+   * @param baseUrls the base URLs. Replace the one set with {@link #withBaseUrl(URI)}
+   * @return this
+   * @see #withBaseUrlBalancer(BaseUrlBalancer)
+   */
+  public IcApiFacadeBuilder withBaseUrls(List<URI> baseUrls) {
+    return withBaseUrlBalancer(new BaseUrlBalancer(baseUrls));
+  }
+
+  /**
+   * Spread the requests across the base URLs of a balancer.
+   *
+   * @param baseUrlBalancer the balancer. Keep a reference to it to inspect its base URLs. Facades
+   *     built with the same instance share its load and ejections.
+   * @return this
+   * @see BaseUrlBalancer
+   */
+  public IcApiFacadeBuilder withBaseUrlBalancer(BaseUrlBalancer baseUrlBalancer) {
+    if (baseUrlBalancer == null) {
+      throw new IllegalArgumentException("baseUrlBalancer cannot be null");
+    }
+
+    requestConfig.withBaseUrlBalancer(baseUrlBalancer);
+    return this;
+  }
+
+  /**
+   * Send the requests through a custom transport instead of the default Jersey client.
+   *
+   * @param transport the transport, e.g. a {@link
+   *     com.invisiblecollector.connection.transport.JdkHttpClientTransport}. Can be shared between
+   *     facades and must be closed by the caller once no longer needed.
+   * @return this
+   */
+  public IcApiFacadeBuilder withTransport(Transport transport) {
+    if (transport == null) {
+      throw new IllegalArgumentException("transport cannot be null");
+    }
+
+    requestConfig.withTransport(transport);
+    return this;
+  }
+
+  /**
+   * Send the requests through a pool of reusable connections instead of the default client.
+   *
+   * @param connectionPool the pool. Can be shared between facades and must be closed by the
+   *     caller once no longer needed.
+   * @return this
+   * @see ConnectionPool
+   */
+  public IcApiFacadeBuilder withConnectionPool(ConnectionPool connectionPool) {
+    requestConfig.withConnectionPool(connectionPool);
+    return this;
+  }
+
+  /**
+   * Track every received response until its connection is released, reporting the ones that
+   * leak.
+   *
+   * @param leakDetector the detector. Keep a reference to it to inspect unreleased responses.
+   * @return this
+   */
+  public IcApiFacadeBuilder withResponseLeakDetector(ResponseLeakDetector leakDetector) {
+    requestConfig.withResponseLeakDetector(leakDetector);
+    return this;
+  }
+
+  /**
+   * Retry failed requests. GET requests are always retried, POST and PUT requests only when the
+   * operation is idempotent, such as updates.
+   *
+   * @param retryPolicy the policy. By default requests aren't retried
+   * @return this
+   */
+  public IcApiFacadeBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+    requestConfig.withRetryPolicy(retryPolicy);
+    return this;
+  }
+
+  /**
+   * Limit the rate of requests, slowing down when the API answers with 429 Too Many Requests
+   * instead of failing.
+   *
+   * @param rateLimits the limits. Facades built with the same instance and API token share their
+   *     limits.
+   * @return this
+   * @see RateLimits
+   */
+  public IcApiFacadeBuilder withRateLimits(RateLimits rateLimits) {
+    if (rateLimits == null) {
+      throw new IllegalArgumentException("rateLimits cannot be null");
+    }
+
+    requestConfig.withRateLimits(rateLimits);
+    return this;
+  }
+
+  /**
+   * Limit the amount of requests in flight, adapting the limit to the API's latency. Requests over
+   * the limit wait for their turn.
+   *
+   * @param concurrencyLimiter the limiter. Keep a reference to it to inspect its limit, queue and
+   *     rejections. Facades built with the same instance are limited together.
+   * @return this
+   * @see AdaptiveConcurrencyLimiter
+   */
+  public IcApiFacadeBuilder withConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+    if (concurrencyLimiter == null) {
+      throw new IllegalArgumentException("concurrencyLimiter cannot be null");
+    }
+
+    requestConfig.withConcurrencyLimiter(concurrencyLimiter);
+    return this;
+  }
+
+  /**
+   * Isolate reads, writes and debt searches from each other, each with its own permits and
+   * optionally its own connection pool, so that saturating one doesn't slow down the others.
+   *
+   * @param bulkheads the bulkheads. Keep a reference to them to inspect their limiters. Facades
+   *     built with the same instance are isolated together.
+   * @return this
+   * @see Bulkheads
+   */
+  public IcApiFacadeBuilder withBulkheads(Bulkheads bulkheads) {
+    if (bulkheads == null) {
+      throw new IllegalArgumentException("bulkheads cannot be null");
+    }
+
+    requestConfig.withBulkheads(bulkheads);
+    return this;
+  }
+
+  /**
+   * Send interactive requests ahead of batch ones, as set by the priority of the calling {@link
+   * com.invisiblecollector.connection.timeout.CallContext}. Batch requests that waited too long
+   * are sent anyway.
+   *
+   * @param priorityScheduler the scheduler. Keep a reference to it to inspect the wait of each
+   *     priority. Facades built with the same instance are scheduled together.
+   * @return this
+   * @see PriorityScheduler
+   */
+  public IcApiFacadeBuilder withPriorityScheduler(PriorityScheduler priorityScheduler) {
+    if (priorityScheduler == null) {
+      throw new IllegalArgumentException("priorityScheduler cannot be null");
+    }
+
+    requestConfig.withPriorityScheduler(priorityScheduler);
+    return this;
+  }
+
+  /**
+   * Guard each endpoint with a circuit breaker. Calls to an endpoint whose breaker is open fail
+   * right away with an {@link com.invisiblecollector.exceptions.IcCircuitOpenException}.
+   *
+   * @param circuitBreakers the breakers. Keep a reference to them to inspect their state.
+   *     Facades built with the same instance share their breakers.
+   * @return this
+   * @see CircuitBreakers
+   */
+  public IcApiFacadeBuilder withCircuitBreakers(CircuitBreakers circuitBreakers) {
+    if (circuitBreakers == null) {
+      throw new IllegalArgumentException("circuitBreakers cannot be null");
+    }
+
+    requestConfig.withCircuitBreakers(circuitBreakers);
+    return this;
+  }
+
+  /**
+   * Hedge slow read-only requests: a GET that isn't answered within a percentile of the recent
+   * latencies is sent a second time and the first response wins.
+   *
+   * @param hedgingPolicy the policy. By default requests aren't hedged
+   * @return this
+   * @see HedgingPolicy
+   */
+  public IcApiFacadeBuilder withHedgingPolicy(HedgingPolicy hedgingPolicy) {
+    if (hedgingPolicy == null) {
+      throw new IllegalArgumentException("hedgingPolicy cannot be null");
+    }
+
+    requestConfig.withHedgingPolicy(hedgingPolicy);
+    return this;
+  }
+
+  /**
+   * Coalesce concurrent identical reads: a GET for the same endpoint and query as one already in
+   * flight waits for its response instead of sending another request. Every caller still gets its
+   * own copy of the returned model.
+   *
+   * <p>A read coalesced with one sent before a concurrent write may not see that write.
+   *
+   * @param requestCoalescing true to coalesce reads. By default every read is sent
+   * @return this
+   */
+  public IcApiFacadeBuilder withRequestCoalescing(boolean requestCoalescing) {
+    requestConfig.withRequestCoalescing(requestCoalescing);
+    return this;
+  }
+
+  /**
+   * Bound the time requests may take. Calls made under a {@link
+   * com.invisiblecollector.connection.timeout.CallContext} are also bounded by its deadline.
+   *
+   * @param timeouts the timeouts. Default value is {@link Timeouts#Timeouts()}
+   * @return this
+   */
+  public IcApiFacadeBuilder withTimeouts(Timeouts timeouts) {
+    if (timeouts == null) {
+      throw new IllegalArgumentException("timeouts cannot be null");
+    }
+
+    requestConfig.withTimeouts(timeouts);
+    return this;
+  }
+
+  /**
+   * Bound the time the requests to one endpoint may take, instead of the timeouts set with {@link
+   * #withTimeouts(Timeouts)}.
+   *
+   * @param endpointKey the endpoint: "companies", "customers", "debts" or "debts/find"
+   * @param timeouts the endpoint's timeouts
+   * @return this
+   */
+  public IcApiFacadeBuilder withEndpointTimeouts(String endpointKey, Timeouts timeouts) {
+    if (endpointKey == null || timeouts == null) {
+      throw new IllegalArgumentException("endpointKey and timeouts cannot be null");
+    }
+
+    requestConfig.withEndpointTimeouts(endpointKey, timeouts);
+    return this;
+  }
+
+  /**
+   * Set the executor on which {@link IcAsyncApiFacade} parses the returned JSON.
+   *
+   * @param parseExecutor the executor. Default value is {@link ForkJoinPool#commonPool()}
+   * @return this
+   */
+  public IcApiFacadeBuilder withParseExecutor(Executor parseExecutor) {
+    if (parseExecutor == null) {
+      throw new IllegalArgumentException("parseExecutor cannot be null");
+    }
+
+    this.parseExecutor = parseExecutor;
+    return this;
+  }
+
+  /**
+   * Serve reads from local caches, kept up to date with the models the facade's writes return.
+   * Only {@link IcApiFacade} reads from the caches. The customers and debts returned to {@link
+   * IcAsyncApiFacade} and {@link IcWriteBehindQueue} are written through them as well.
+   *
+   * @param caches the caches. Keep a reference to them to inspect their metrics. Facades built with
+   *     the same instance share their caches.
+   * @return this
+   * @see Caches
+   */
+  public IcApiFacadeBuilder withCaches(Caches caches) {
+    if (caches == null) {
+      throw new IllegalArgumentException("caches cannot be null");
+    }
+
+    this.caches = caches;
+    return this;
+  }
+
+  private ApiRequestFacade buildApiRequestFacade(JsonModelFacade jsonFacade) {
+    ResponseValidator responseValidator = new ResponseValidator(jsonFacade);
+    return new ApiRequestFacade(apiToken, baseUrl, responseValidator, requestConfig);
+  }
+
+  /**
+   * Build the facade.
+   *
+   * @return a new facade with this builder's configuration
+   */
+  public IcApiFacade build() {
+    JsonModelFacade jsonFacade = new JsonModelFacade();
+    return new IcApiFacade(buildApiRequestFacade(jsonFacade), jsonFacade, caches);
+  }
+
+  /**
+   * Build the bulk facade.
+   *
+   * @param maxConcurrency the maximum amount of concurrent requests
+   * @return a new bulk facade with this builder's configuration. Must be closed by the caller.
+   * @see IcBulkApiFacade
+   */
+  public IcBulkApiFacade buildBulk(int maxConcurrency) {
+    return new IcBulkApiFacade(build(), maxConcurrency);
+  }
+
+  /**
+   * Build the asynchronous facade.
+   *
+   * @return a new asynchronous facade with this builder's configuration
+   */
+  public IcAsyncApiFacade buildAsync() {
+    JsonModelFacade jsonFacade = new JsonModelFacade();
+    return new IcAsyncApiFacade(
+        buildApiRequestFacade(jsonFacade), jsonFacade, parseExecutor, caches);
+  }
+
+  /**
+   * Build an outbox sending its writes through a facade with this builder's configuration.
+   *
+   * @param journalPath the journal's file, created if missing
+   * @param config the outbox's configuration
+   * @return a new outbox, sending the writes left pending in the journal. Must be closed by the
+   *     caller.
+   * @throws IOException if the journal can't be opened
+   * @see IcOutbox
+   */
+  public IcOutbox buildOutbox(Path journalPath, OutboxConfig config) throws IOException {
+    return new IcOutbox(build(), journalPath, config);
+  }
+
+  /**
+   * Build a write-behind queue registering debts through an asynchronous facade with this
+   * builder's configuration.
+   *
+   * @param config the queue's configuration
+   * @return a new write-behind queue. Must be closed by the caller.
+   * @see IcWriteBehindQueue
+   */
+  public IcWriteBehindQueue buildWriteBehindQueue(WriteBehindConfig config) {
+    return new IcWriteBehindQueue(buildAsync(), config);
+  }
+}
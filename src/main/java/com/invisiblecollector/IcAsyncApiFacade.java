@@ -0,0 +1,383 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.cache.Caches;
+import com.invisiblecollector.connection.ApiRequest;
+import com.invisiblecollector.connection.ApiRequestFacade;
+import com.invisiblecollector.connection.RequestType;
+import com.invisiblecollector.connection.builders.ThrowingFunction;
+import com.invisiblecollector.connection.response.ResponseValidator;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Company;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.FindDebtsBuilder;
+import com.invisiblecollector.model.serialization.JsonModelFacade;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The asynchronous counterpart of {@link IcApiFacade}.
+ *
+ * <p>Every operation returns immediately with a {@link CompletableFuture}, without tying up the
+ * calling thread for the round trip. The returned JSON is parsed on a configurable executor.
+ * Cancelling a returned future aborts its request.
+ *
+ * <p>The customers and debts returned are written through the caches of the builder the facade
+ * was built with, so an {@link IcApiFacade} sharing them sees them as well. Lookups aren't served
+ * from the caches.
+ *
+ * <p>A future that fails completes with the same exception the corresponding {@link IcApiFacade}
+ * method would throw, for example an {@link IcException} or an {@link IcConflictingException}.
+ * Invalid arguments are still reported synchronously with an {@link IllegalArgumentException}.
+ *
+ * <p>Thread-Safe and Immutable.
+ *
+ * @author ros
+ */
+public class IcAsyncApiFacade {
+
+  private final ApiRequestFacade apiFacade;
+  private final JsonModelFacade jsonFacade;
+  private final Executor parseExecutor;
+  private final CacheWriter cacheWriter;
+
+  /**
+   * Creates an object with the default hostname (https://api.invisiblecollector.com).
+   *
+   * @param apiToken the company's Api Token
+   * @see #IcAsyncApiFacade(String, URI)
+   */
+  public IcAsyncApiFacade(String apiToken) {
+    this(apiToken, IcApiFacade.PRODUCTION_BASE_URL);
+  }
+
+  /**
+   * Creates an object with a custom hostname or base path. The JSON is parsed on the {@link
+   * ForkJoinPool#commonPool()}.
+   *
+   * @param apiToken the company's Api Token
+   * @param baseUrl the hostname, scheme and optionally base path for the connection
+   */
+  public IcAsyncApiFacade(String apiToken, URI baseUrl) {
+    JsonModelFacade jsonModelFacade = new JsonModelFacade();
+    ResponseValidator responseValidator = new ResponseValidator(jsonModelFacade);
+    this.apiFacade = new ApiRequestFacade(apiToken, baseUrl, responseValidator);
+    this.jsonFacade = jsonModelFacade;
+    this.parseExecutor = ForkJoinPool.commonPool();
+    this.cacheWriter = new CacheWriter(new Caches());
+  }
+
+  /**
+   * Creates an IcAsyncApiFacade with injection
+   *
+   * <p>Preferably use {@link IcApiFacade#builder(String)}
+   *
+   * @param apiFacade the api facade
+   * @param jsonFacade the json facade
+   * @param parseExecutor the executor on which the returned JSON is parsed
+   */
+  public IcAsyncApiFacade(
+      ApiRequestFacade apiFacade, JsonModelFacade jsonFacade, Executor parseExecutor) {
+    this(apiFacade, jsonFacade, parseExecutor, new Caches());
+  }
+
+  /**
+   * Creates an IcAsyncApiFacade with injection
+   *
+   * <p>Preferably use {@link IcApiFacade#builder(String)}
+   *
+   * @param apiFacade the api facade
+   * @param jsonFacade the json facade
+   * @param parseExecutor the executor on which the returned JSON is parsed
+   * @param caches the caches written through
+   */
+  public IcAsyncApiFacade(
+      ApiRequestFacade apiFacade,
+      JsonModelFacade jsonFacade,
+      Executor parseExecutor,
+      Caches caches) {
+    this.apiFacade = apiFacade;
+    this.jsonFacade = jsonFacade;
+    this.parseExecutor = parseExecutor;
+    this.cacheWriter = new CacheWriter(caches);
+  }
+
+  private <T> CompletableFuture<T> parse(
+      CompletableFuture<InputStream> request, ThrowingFunction<InputStream, T, IcException> parser) {
+    CompletableFuture<T> result =
+        request.thenApplyAsync(
+            inputStream -> {
+              try {
+                return parser.apply(inputStream);
+              } catch (IcException e) {
+                throw new CompletionException(e);
+              }
+            },
+            parseExecutor);
+
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            request.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private <T> CompletableFuture<T> jsonRequest(
+      RequestType requestType,
+      String endpoint,
+      String endpointKey,
+      Object body,
+      Class<T> returnType) {
+    return jsonRequest(
+        new ApiRequest(requestType, endpoint).withBody(body).withEndpointKey(endpointKey),
+        returnType);
+  }
+
+  private <T> CompletableFuture<T> jsonRequest(ApiRequest request, Class<T> returnType) {
+    return parse(
+        apiFacade.requestAsync(request),
+        inputStream -> jsonFacade.parseStringStream(inputStream, returnType));
+  }
+
+  private CompletableFuture<Customer> customerRequest(ApiRequest request) {
+    return parse(
+        apiFacade.requestAsync(request),
+        inputStream ->
+            cacheWriter.customerReturned(jsonFacade.parseStringStream(inputStream, Customer.class)));
+  }
+
+  private CompletableFuture<Debt> debtRequest(ApiRequest request) {
+    return parse(
+        apiFacade.requestAsync(request),
+        inputStream ->
+            cacheWriter.debtReturned(jsonFacade.parseStringStream(inputStream, Debt.class)));
+  }
+
+  private <T> CompletableFuture<T> registration(
+      CompletableFuture<T> registered, Runnable answered) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    registered.whenComplete(
+        (value, throwable) -> {
+          answered.run();
+          if (throwable == null) {
+            result.complete(value);
+          } else {
+            result.completeExceptionally(throwable);
+          }
+        });
+
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            registered.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Request the company info from the database.
+   *
+   * @return the future up-to-date company info.
+   * @see IcApiFacade#requestCompanyInfo()
+   */
+  public CompletableFuture<Company> requestCompanyInfo() {
+    String endpoint = IcApiFacade.COMPANIES_ENDPOINT;
+    return jsonRequest(RequestType.GET, endpoint, endpoint, null, Company.class);
+  }
+
+  /**
+   * Enable or disable notifications for the company's customer.
+   *
+   * @param enableNotifications true: enable notifications, false: disable notifications
+   * @return the future up-to-date company info.
+   * @see IcApiFacade#setCompanyNotifications(boolean)
+   */
+  public CompletableFuture<Company> setCompanyNotifications(boolean enableNotifications) {
+    String endpoint = IcApiFacade.notificationsEndpoint(enableNotifications);
+    return jsonRequest(
+        new ApiRequest(RequestType.PUT, endpoint)
+            .withIdempotent(true)
+            .withEndpointKey(IcApiFacade.COMPANIES_ENDPOINT),
+        Company.class);
+  }
+
+  /**
+   * Update company info.
+   *
+   * @param companyInfo the company info. name and vatNumber are <b>mandatory</b> attributes.
+   * @return the future up-to-date company info
+   * @see IcApiFacade#updateCompanyInfo(Company)
+   */
+  public CompletableFuture<Company> updateCompanyInfo(Company companyInfo) {
+    Map<String, Object> company = IcApiFacade.companyUpdateFields(companyInfo);
+    ApiRequest request =
+        new ApiRequest(RequestType.PUT, IcApiFacade.COMPANIES_ENDPOINT)
+            .withBody(company)
+            .withIdempotent(true)
+            .withEndpointKey(IcApiFacade.COMPANIES_ENDPOINT);
+    return jsonRequest(request, Company.class);
+  }
+
+  /**
+   * Register a new customer in the database.
+   *
+   * @param customerInfo the object containing the customer information. Attributes {@code name},
+   *     {@code country} and {@code vatNumber} are <b>mandatory</b>
+   * @return the future up to date {@link Customer}. Completes with an {@link
+   *     IcConflictingException} if the vatNumber or externalId already exists.
+   * @see IcApiFacade#registerNewCustomer(Customer)
+   */
+  public CompletableFuture<Customer> registerNewCustomer(Customer customerInfo) {
+    Map<String, Object> fields = IcApiFacade.customerRegistrationFields(customerInfo);
+    String endpoint = IcApiFacade.CUSTOMERS_ENDPOINT;
+    return registration(
+        customerRequest(
+            new ApiRequest(RequestType.POST, endpoint).withBody(fields).withEndpointKey(endpoint)),
+        () -> cacheWriter.customerRegistered(customerInfo));
+  }
+
+  /**
+   * Get the customer attributes string map.
+   *
+   * @param customerId the id of the customer (can be the id or externalId).
+   * @return the future map of up-to-date string:string attribute pairs
+   * @see IcApiFacade#requestCustomerAttributes(String)
+   */
+  public CompletableFuture<Map<String, String>> requestCustomerAttributes(String customerId) {
+    String endpoint = IcApiFacade.customerAttributesEndpoint(customerId);
+    return parse(
+        apiFacade.requestAsync(
+            new ApiRequest(RequestType.GET, endpoint)
+                .withEndpointKey(IcApiFacade.CUSTOMERS_ENDPOINT)),
+        jsonFacade::parseStringStreamAsStringMap);
+  }
+
+  /**
+   * Get the customer's debts.
+   *
+   * @param customerId the id or external id of the customer
+   * @return the future up-to-date list of debts
+   * @see IcApiFacade#requestCustomerDebts(String)
+   */
+  public CompletableFuture<List<Debt>> requestCustomerDebts(String customerId) {
+    String endpoint = IcApiFacade.customerDebtsEndpoint(customerId);
+    return parse(
+        apiFacade.requestAsync(
+            new ApiRequest(RequestType.GET, endpoint)
+                .withEndpointKey(IcApiFacade.CUSTOMERS_ENDPOINT)),
+        jsonFacade::parseStringStreamAsDebtList);
+  }
+
+  /**
+   * Get customer info from the database.
+   *
+   * @param customerId the id or externalId of the customer.
+   * @return the future up-to-date customer info
+   * @see IcApiFacade#requestCustomerInfo(String)
+   */
+  public CompletableFuture<Customer> requestCustomerInfo(String customerId) {
+    String endpoint = IcApiFacade.customerEndpoint(customerId);
+    return customerRequest(
+        new ApiRequest(RequestType.GET, endpoint).withEndpointKey(IcApiFacade.CUSTOMERS_ENDPOINT));
+  }
+
+  /**
+   * Set the customer's string map attributes.
+   *
+   * @param customerId the id or externalId of the customer.
+   * @param attributes the map with the attributes to set.
+   * @return the future map of up-to-date string:string attribute pairs
+   * @see IcApiFacade#setCustomerAttributes(String, Map)
+   */
+  public CompletableFuture<Map<String, String>> setCustomerAttributes(
+      String customerId, Map<String, String> attributes) {
+    String endpoint = IcApiFacade.customerAttributesEndpoint(customerId);
+    return parse(
+        apiFacade.requestAsync(
+            new ApiRequest(RequestType.POST, endpoint)
+                .withBody(attributes)
+                .withIdempotent(true)
+                .withEndpointKey(IcApiFacade.CUSTOMERS_ENDPOINT)),
+        jsonFacade::parseStringStreamAsStringMap);
+  }
+
+  /**
+   * Update the customer's info in the database.
+   *
+   * @param customerInfo the customer info. Must contain as well an id or externalId that indicates
+   *     the customer to update. The {@code country} attribute is <b>mandatory</b>.
+   * @return the future up-to-date customer info.
+   * @see IcApiFacade#updateCustomerInfo(Customer)
+   */
+  public CompletableFuture<Customer> updateCustomerInfo(Customer customerInfo) {
+    String endpoint = IcApiFacade.customerEndpoint(customerInfo.getRoutableId());
+    Map<String, Object> fields = IcApiFacade.customerUpdateFields(customerInfo);
+    return customerRequest(
+        new ApiRequest(RequestType.PUT, endpoint)
+            .withBody(fields)
+            .withIdempotent(true)
+            .withEndpointKey(IcApiFacade.CUSTOMERS_ENDPOINT));
+  }
+
+  /**
+   * Register a new debt related to a customer.
+   *
+   * @param debtInfo the debt information to register. The {@code number}, {@code customerId},
+   *     {@code type}, {@code date} and {@code dueDate} are <b>mandatory</b> attributes.
+   * @return the future up-to-date debt information.
+   * @see IcApiFacade#registerNewDebt(Debt)
+   */
+  public CompletableFuture<Debt> registerNewDebt(Debt debtInfo) {
+    Map<String, Object> fields = IcApiFacade.debtRegistrationFields(debtInfo);
+    String endpoint = IcApiFacade.DEBTS_ENDPOINT;
+    return registration(
+        debtRequest(
+            new ApiRequest(RequestType.POST, endpoint).withBody(fields).withEndpointKey(endpoint)),
+        () -> cacheWriter.debtRegistered(debtInfo));
+  }
+
+  /**
+   * Request debt information from the database.
+   *
+   * @param debtId the id of the debt whose information is requested.
+   * @return the future up-to-date debt information.
+   * @see IcApiFacade#requestDebtInfo(String)
+   */
+  public CompletableFuture<Debt> requestDebtInfo(String debtId) {
+    String endpoint = IcApiFacade.debtEndpoint(debtId);
+    return debtRequest(
+        new ApiRequest(RequestType.GET, endpoint).withEndpointKey(IcApiFacade.DEBTS_ENDPOINT));
+  }
+
+  /**
+   * Search the database for the debts that match the query
+   *
+   * @param findDebts the search query
+   * @return the future found debts that match the query
+   * @see IcApiFacade#findDebts(FindDebtsBuilder)
+   */
+  public CompletableFuture<List<Debt>> findDebts(FindDebtsBuilder findDebts) {
+    Map<String, Object> queryParams = findDebts.getFields();
+    return parse(
+        apiFacade.requestAsync(
+            new ApiRequest(RequestType.GET, IcApiFacade.DEBTS_FIND_PATH)
+                .withQuery(queryParams)
+                .withEndpointKey(IcApiFacade.DEBTS_FIND_PATH)),
+        inputStream -> {
+          List<Debt> debts = jsonFacade.parseStringStreamAsDebtList(inputStream);
+          debts.forEach(cacheWriter::debtReturned);
+          return debts;
+        });
+  }
+}
@@ -0,0 +1,179 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.RequestExecutors;
+import com.invisiblecollector.connection.builders.ThrowingFunction;
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.exceptions.IcDeadlineExceededException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many {@link IcApiFacade} operations concurrently and collects their results.
+ *
+ * <p>Each operation is a regular blocking call run on a thread from {@link RequestExecutors}: a
+ * fixed pool of platform threads on Java 8, or a virtual thread per request when the multi-release
+ * JAR runs on Java 21 or later. The amount of concurrent requests is bounded by the configured
+ * maximum concurrency either way.
+ *
+ * <p>Operations run under the {@link CallContext} attached to the thread that started them, so a
+ * deadline set for the whole bulk request also abandons the operations still queued or retrying
+ * once it passes.
+ *
+ * <p>Thread-safe. Should be closed once no longer needed to release its threads.
+ *
+ * @author ros
+ */
+public class IcBulkApiFacade implements Closeable {
+
+  private final IcApiFacade icFacade;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+
+  /**
+   * Creates a bulk facade.
+   *
+   * @param icFacade the facade used to run each operation
+   * @param maxConcurrency the maximum amount of concurrent requests
+   */
+  public IcBulkApiFacade(IcApiFacade icFacade, int maxConcurrency) {
+    this.icFacade = icFacade;
+    this.executor = RequestExecutors.newRequestExecutor("ic-bulk-", maxConcurrency);
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  private <A, R> BulkResult<R> runOne(
+      A argument, ThrowingFunction<A, R, IcException> operation, CallContext context) {
+    try {
+      if (!permits.tryAcquire(context.getRemainingNanos(), TimeUnit.NANOSECONDS)) {
+        return BulkResult.failure(
+            new IcDeadlineExceededException("Deadline exceeded before sending the request"));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return BulkResult.failure(new IcException("Interrupted before sending the request", e));
+    }
+
+    try (CallContext.Scope scope = context.attach()) {
+      return BulkResult.success(operation.apply(argument));
+    } catch (IcException | RuntimeException e) {
+      return BulkResult.failure(e);
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Run an operation concurrently for every argument.
+   *
+   * <p>Every operation runs under the calling thread's {@link CallContext}.
+   *
+   * @param arguments the arguments, one per operation
+   * @param operation the operation, usually a method of {@link IcApiFacade}
+   * @param <A> the argument type
+   * @param <R> the operation's return type
+   * @return the results, in the same order as the arguments
+   * @throws IcException if interrupted while waiting for the results
+   */
+  public <A, R> List<BulkResult<R>> fanOut(
+      List<A> arguments, ThrowingFunction<A, R, IcException> operation) throws IcException {
+    CallContext context = CallContext.current();
+    List<Future<BulkResult<R>>> futures = new ArrayList<>(arguments.size());
+    for (A argument : arguments) {
+      futures.add(executor.submit(() -> runOne(argument, operation, context)));
+    }
+
+    List<BulkResult<R>> results = new ArrayList<>(futures.size());
+    try {
+      for (Future<BulkResult<R>> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new IcException("Interrupted while waiting for the bulk results", e);
+    } catch (ExecutionException e) {
+      throw new IcException(e.getCause());
+    }
+
+    return results;
+  }
+
+  /**
+   * Register new debts.
+   *
+   * @param debts the debts to register
+   * @return the results, in the same order as the debts
+   * @throws IcException if interrupted while waiting for the results
+   * @see IcApiFacade#registerNewDebt(Debt)
+   */
+  public List<BulkResult<Debt>> registerNewDebts(List<Debt> debts) throws IcException {
+    return fanOut(debts, icFacade::registerNewDebt);
+  }
+
+  /**
+   * Register new customers.
+   *
+   * @param customers the customers to register
+   * @return the results, in the same order as the customers
+   * @throws IcException if interrupted while waiting for the results
+   * @see IcApiFacade#registerNewCustomer(Customer)
+   */
+  public List<BulkResult<Customer>> registerNewCustomers(List<Customer> customers)
+      throws IcException {
+    return fanOut(customers, icFacade::registerNewCustomer);
+  }
+
+  /**
+   * Request the info of several customers.
+   *
+   * @param customerIds the ids or externalIds of the customers
+   * @return the results, in the same order as the ids
+   * @throws IcException if interrupted while waiting for the results
+   * @see IcApiFacade#requestCustomerInfo(String)
+   */
+  public List<BulkResult<Customer>> requestCustomersInfo(List<String> customerIds)
+      throws IcException {
+    return fanOut(customerIds, icFacade::requestCustomerInfo);
+  }
+
+  /**
+   * Request the debts of several customers.
+   *
+   * @param customerIds the ids or externalIds of the customers
+   * @return the results, in the same order as the ids
+   * @throws IcException if interrupted while waiting for the results
+   * @see IcApiFacade#requestCustomerDebts(String)
+   */
+  public List<BulkResult<List<Debt>>> requestCustomersDebts(List<String> customerIds)
+      throws IcException {
+    return fanOut(customerIds, icFacade::requestCustomerDebts);
+  }
+
+  /**
+   * Request the info of several debts.
+   *
+   * @param debtIds the ids of the debts
+   * @return the results, in the same order as the ids
+   * @throws IcException if interrupted while waiting for the results
+   * @see IcApiFacade#requestDebtInfo(String)
+   */
+  public List<BulkResult<Debt>> requestDebtsInfo(List<String> debtIds) throws IcException {
+    return fanOut(debtIds, icFacade::requestDebtInfo);
+  }
+
+  /** Stops accepting operations and releases the threads once the running ones finish. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,361 @@
+package com.invisiblecollector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.invisiblecollector.connection.RequestExecutors;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Customer;
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.serialization.JsonModelFacade;
+import com.invisiblecollector.model.serialization.JsonSingleton;
+import com.invisiblecollector.outbox.JournalEntry;
+import com.invisiblecollector.outbox.OutboxConfig;
+import com.invisiblecollector.outbox.OutboxJournal;
+import com.invisiblecollector.outbox.OutboxOperation;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queues writes in a durable local journal and sends them in the background.
+ *
+ * <p>Each write is flushed to the {@link OutboxJournal} before its method returns, then sent
+ * through an {@link IcApiFacade} with bounded concurrency. Failed writes are retried with a
+ * growing delay, up to a maximum amount of attempts. If the process dies first, the writes still
+ * pending are sent again when an outbox is opened on the same journal.
+ *
+ * <p>Writes are delivered at least once: a write sent just before the process died may be sent
+ * again. Registering the same debt or customer twice is rejected by the API with an {@link
+ * IcConflictingException}, which abandons the write.
+ *
+ * <p>Thread-safe. Must be closed once no longer needed to release its threads and journal.
+ *
+ * @author ros
+ */
+public class IcOutbox implements Closeable {
+
+  private static final String ATTRIBUTES_CUSTOMER_ID = "customerId";
+  private static final String ATTRIBUTES = "attributes";
+  private static final TypeReference<Map<String, String>> ATTRIBUTES_TYPE =
+      new TypeReference<Map<String, String>>() {};
+
+  private final IcApiFacade icFacade;
+  private final OutboxConfig config;
+  private final OutboxJournal journal;
+  private final JsonModelFacade jsonFacade = new JsonModelFacade();
+  private final ExecutorService executor;
+  private final ScheduledExecutorService retryScheduler;
+  private final Semaphore permits;
+  private final Map<Long, CompletableFuture<Object>> results = new ConcurrentHashMap<>();
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong abandoned = new AtomicLong();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition completed = lock.newCondition();
+  private final int recovered;
+  private volatile boolean closed;
+
+  /**
+   * Opens an outbox, sending the writes left pending in its journal.
+   *
+   * @param icFacade the facade used to send each write
+   * @param journalPath the journal's file, created if missing
+   * @param config the configuration
+   * @throws IOException if the journal can't be opened
+   */
+  public IcOutbox(IcApiFacade icFacade, Path journalPath, OutboxConfig config)
+      throws IOException {
+    this.icFacade = icFacade;
+    this.config = new OutboxConfig(config);
+    this.journal = OutboxJournal.open(journalPath, this.config.getInitialJournalSize());
+    this.executor =
+        RequestExecutors.newRequestExecutor("ic-outbox-", this.config.getMaxConcurrency());
+    this.retryScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "ic-outbox-retry");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.permits = new Semaphore(this.config.getMaxConcurrency());
+
+    List<JournalEntry> pending = journal.getPending();
+    this.recovered = pending.size();
+    pending.forEach(entry -> dispatch(entry, 1));
+  }
+
+  private static byte[] serialize(Object payload) throws IcException {
+    try {
+      return JsonSingleton.getInstance().writeValueAsBytes(payload);
+    } catch (JsonProcessingException e) {
+      throw new IcException("Failed to serialize the write", e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<T> submit(OutboxOperation operation, Object payload)
+      throws IcException {
+    if (closed) {
+      throw new IllegalStateException("outbox is closed");
+    }
+
+    JournalEntry entry;
+    try {
+      entry = journal.append(operation.getCode(), serialize(payload));
+    } catch (IOException e) {
+      throw new IcException("Failed to write to the outbox journal", e);
+    }
+
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    results.put(entry.getId(), result);
+    dispatch(entry, 1);
+    return (CompletableFuture<T>) result;
+  }
+
+  /**
+   * Queue the registration of a new debt.
+   *
+   * @param debtInfo the debt, see {@link IcApiFacade#registerNewDebt(Debt)}
+   * @return the registered debt, once sent
+   * @throws IcException if the write can't be queued
+   * @throws IllegalArgumentException if a mandatory attribute is missing
+   */
+  public CompletableFuture<Debt> registerNewDebt(Debt debtInfo) throws IcException {
+    return submit(OutboxOperation.REGISTER_DEBT, IcApiFacade.debtRegistrationFields(debtInfo));
+  }
+
+  /**
+   * Queue the registration of a new customer.
+   *
+   * @param customerInfo the customer, see {@link IcApiFacade#registerNewCustomer(Customer)}
+   * @return the registered customer, once sent
+   * @throws IcException if the write can't be queued
+   * @throws IllegalArgumentException if a mandatory attribute is missing
+   */
+  public CompletableFuture<Customer> registerNewCustomer(Customer customerInfo)
+      throws IcException {
+    return submit(
+        OutboxOperation.REGISTER_CUSTOMER, IcApiFacade.customerRegistrationFields(customerInfo));
+  }
+
+  /**
+   * Queue an update of a customer's info.
+   *
+   * @param customerInfo the customer, see {@link IcApiFacade#updateCustomerInfo(Customer)}
+   * @return the updated customer, once sent
+   * @throws IcException if the write can't be queued
+   * @throws IllegalArgumentException if a mandatory attribute or the id is missing
+   */
+  public CompletableFuture<Customer> updateCustomerInfo(Customer customerInfo)
+      throws IcException {
+    customerInfo.getRoutableId();
+    IcApiFacade.customerUpdateFields(customerInfo);
+    return submit(OutboxOperation.UPDATE_CUSTOMER, customerInfo.getFields());
+  }
+
+  /**
+   * Queue setting a customer's attributes.
+   *
+   * @param customerId the id or externalId of the customer
+   * @param attributes the attributes, see {@link IcApiFacade#setCustomerAttributes(String, Map)}
+   * @return the customer's attributes, once sent
+   * @throws IcException if the write can't be queued
+   */
+  public CompletableFuture<Map<String, String>> setCustomerAttributes(
+      String customerId, Map<String, String> attributes) throws IcException {
+    IcApiFacade.customerAttributesEndpoint(customerId);
+    Map<String, Object> payload = new HashMap<>();
+    payload.put(ATTRIBUTES_CUSTOMER_ID, customerId);
+    payload.put(ATTRIBUTES, attributes);
+    return submit(OutboxOperation.SET_CUSTOMER_ATTRIBUTES, payload);
+  }
+
+  private <T> T parse(byte[] payload, Class<T> modelType) throws IcException {
+    return jsonFacade.parseStringStream(new ByteArrayInputStream(payload), modelType);
+  }
+
+  private Map<String, String> setAttributes(byte[] payload) throws IcException {
+    ObjectMapper mapper = JsonSingleton.getInstance();
+    try {
+      JsonNode node = mapper.readTree(payload);
+      Map<String, String> attributes = mapper.convertValue(node.get(ATTRIBUTES), ATTRIBUTES_TYPE);
+      return icFacade.setCustomerAttributes(
+          node.get(ATTRIBUTES_CUSTOMER_ID).asText(), attributes);
+    } catch (IOException e) {
+      throw new IcException("Failed to parse the write", e);
+    }
+  }
+
+  private Object send(JournalEntry entry) throws IcException {
+    byte[] payload = entry.getPayload();
+    switch (OutboxOperation.of(entry.getType())) {
+      case REGISTER_DEBT:
+        return icFacade.registerNewDebt(parse(payload, Debt.class));
+      case REGISTER_CUSTOMER:
+        return icFacade.registerNewCustomer(parse(payload, Customer.class));
+      case UPDATE_CUSTOMER:
+        return icFacade.updateCustomerInfo(parse(payload, Customer.class));
+      case SET_CUSTOMER_ATTRIBUTES:
+        return setAttributes(payload);
+      default:
+        throw new IllegalStateException("Invalid program state");
+    }
+  }
+
+  private void dispatch(JournalEntry entry, int attempt) {
+    executor.execute(() -> run(entry, attempt));
+  }
+
+  private void run(JournalEntry entry, int attempt) {
+    if (closed) {
+      return;
+    }
+
+    Object result;
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      // closing, the write stays pending in the journal
+      Thread.currentThread().interrupt();
+      return;
+    }
+    try {
+      result = send(entry);
+    } catch (IcConflictingException | RuntimeException e) {
+      finish(entry, null, e);
+      return;
+    } catch (IcException e) {
+      if (attempt < config.getMaxAttempts()) {
+        retry(entry, attempt + 1);
+      } else {
+        finish(entry, null, e);
+      }
+      return;
+    } finally {
+      permits.release();
+    }
+    finish(entry, result, null);
+  }
+
+  private void retry(JournalEntry entry, int attempt) {
+    if (closed) {
+      return;
+    }
+
+    retryScheduler.schedule(
+        () -> dispatch(entry, attempt),
+        config.getRetryDelayMillis(attempt - 1),
+        TimeUnit.MILLISECONDS);
+  }
+
+  private void finish(JournalEntry entry, Object value, Exception failure) {
+    Exception reported = failure;
+    try {
+      journal.complete(entry.getId());
+    } catch (IOException e) {
+      // the write is sent again when the journal is reopened
+      reported = new IcException("Failed to record the write in the outbox journal", e);
+    }
+
+    (failure == null ? delivered : abandoned).incrementAndGet();
+    CompletableFuture<Object> result = results.remove(entry.getId());
+    if (result != null) {
+      if (reported == null) {
+        result.complete(value);
+      } else {
+        result.completeExceptionally(reported);
+      }
+    }
+
+    lock.lock();
+    try {
+      completed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait until every queued write was delivered or abandoned.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the time unit
+   * @return true if no write is pending
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+    long remaining = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (journal.getPendingCount() > 0) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = completed.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return the amount of writes waiting to be delivered */
+  public int getPendingCount() {
+    return journal.getPendingCount();
+  }
+
+  /** @return the amount of writes recovered from the journal when the outbox was opened */
+  public int getRecoveredCount() {
+    return recovered;
+  }
+
+  /** @return the amount of writes delivered */
+  public long getDeliveredCount() {
+    return delivered.get();
+  }
+
+  /** @return the amount of writes abandoned after being rejected or failing every attempt */
+  public long getAbandonedCount() {
+    return abandoned.get();
+  }
+
+  /**
+   * Stop sending writes and close the journal. The writes still pending are sent when an outbox is
+   * opened on the same journal.
+   *
+   * @throws IOException if the journal can't be flushed
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    retryScheduler.shutdownNow();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    journal.close();
+
+    IcException pending = new IcException("Outbox closed before the write was delivered");
+    results.values().forEach(result -> result.completeExceptionally(pending));
+    results.clear();
+  }
+}
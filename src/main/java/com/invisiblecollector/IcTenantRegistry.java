@@ -0,0 +1,172 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.ApiRequestConfig;
+import com.invisiblecollector.connection.ApiRequestFacade;
+import com.invisiblecollector.connection.response.ResponseValidator;
+import com.invisiblecollector.connection.tenant.TenantLane;
+import com.invisiblecollector.connection.tenant.TenantScheduler;
+import com.invisiblecollector.model.serialization.JsonModelFacade;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * The facades of many tenants, one per API token, sharing a single transport.
+ *
+ * <p>Every tenant's requests wait for their fair share of a {@link TenantScheduler}, weighted per
+ * tenant and capped by the tenant's own concurrency limit, so a tenant with a large backlog can't
+ * monopolize the shared connections. Rate limits, if configured, are kept per API token.
+ *
+ * <p>Facades are created on first use and cached. They share the registry's transport, JSON
+ * facade and response validator, so creating one is cheap.
+ *
+ * <p>Thread-safe. Use {@link #builder(TenantScheduler)} to get an instance.
+ *
+ * @author ros
+ */
+public class IcTenantRegistry {
+
+  private final URI baseUrl;
+  private final ApiRequestConfig requestConfig;
+  private final TenantScheduler scheduler;
+  private final double defaultWeight;
+  private final int defaultMaxConcurrent;
+  private final Executor parseExecutor;
+  private final JsonModelFacade jsonFacade = new JsonModelFacade();
+  private final ResponseValidator responseValidator = new ResponseValidator(jsonFacade);
+  private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+  IcTenantRegistry(
+      URI baseUrl,
+      ApiRequestConfig requestConfig,
+      TenantScheduler scheduler,
+      double defaultWeight,
+      int defaultMaxConcurrent,
+      Executor parseExecutor) {
+    this.baseUrl = baseUrl;
+    this.requestConfig = requestConfig;
+    this.scheduler = scheduler;
+    this.defaultWeight = defaultWeight;
+    this.defaultMaxConcurrent = defaultMaxConcurrent;
+    this.parseExecutor = parseExecutor;
+  }
+
+  /**
+   * Start building a registry.
+   *
+   * @param scheduler the scheduler that shares the requests in flight between tenants
+   * @return a builder with the default configuration
+   */
+  public static IcTenantRegistryBuilder builder(TenantScheduler scheduler) {
+    return new IcTenantRegistryBuilder(scheduler);
+  }
+
+  private Tenant buildTenant(String apiToken, double weight, int maxConcurrent) {
+    if (apiToken == null || apiToken.isEmpty()) {
+      throw new IllegalArgumentException("apiToken cannot be empty");
+    }
+
+    TenantLane lane = scheduler.newLane(apiToken, weight, maxConcurrent);
+    ApiRequestFacade apiFacade =
+        new ApiRequestFacade(
+            apiToken,
+            baseUrl,
+            responseValidator,
+            new ApiRequestConfig(requestConfig).withTenantLane(lane));
+    return new Tenant(
+        lane,
+        new IcApiFacade(apiFacade, jsonFacade),
+        new IcAsyncApiFacade(apiFacade, jsonFacade, parseExecutor));
+  }
+
+  private Tenant getTenant(String apiToken) {
+    Tenant tenant = apiToken == null ? null : tenants.get(apiToken);
+    if (tenant != null) {
+      return tenant;
+    }
+
+    return tenants.computeIfAbsent(
+        apiToken, key -> buildTenant(key, defaultWeight, defaultMaxConcurrent));
+  }
+
+  /**
+   * Register a tenant with its own share instead of the default one.
+   *
+   * @param apiToken the tenant's API token
+   * @param weight the tenant's share of the requests in flight relative to the other tenants
+   * @param maxConcurrent the maximum amount of the tenant's requests in flight
+   * @return the tenant's lane, to inspect its requests in flight and queue
+   * @throws IllegalArgumentException if the tenant was already registered or used
+   */
+  public TenantLane registerTenant(String apiToken, double weight, int maxConcurrent) {
+    Tenant tenant = buildTenant(apiToken, weight, maxConcurrent);
+    if (tenants.putIfAbsent(apiToken, tenant) != null) {
+      throw new IllegalArgumentException("tenant already registered");
+    }
+
+    return tenant.lane;
+  }
+
+  /**
+   * Get the facade of a tenant, registering it with the default share on first use.
+   *
+   * @param apiToken the tenant's API token
+   * @return the facade
+   */
+  public IcApiFacade getFacade(String apiToken) {
+    return getTenant(apiToken).facade;
+  }
+
+  /**
+   * Get the asynchronous facade of a tenant, registering it with the default share on first use.
+   *
+   * @param apiToken the tenant's API token
+   * @return the facade, sharing its requests with {@link #getFacade(String)}
+   */
+  public IcAsyncApiFacade getAsyncFacade(String apiToken) {
+    return getTenant(apiToken).asyncFacade;
+  }
+
+  /**
+   * Get the lane of a tenant.
+   *
+   * @param apiToken the tenant's API token
+   * @return the lane, or null if the tenant isn't registered
+   */
+  public TenantLane getLane(String apiToken) {
+    Tenant tenant = tenants.get(apiToken);
+    return tenant == null ? null : tenant.lane;
+  }
+
+  /**
+   * Forget a tenant. Its facades keep working, sharing the scheduler with the other tenants.
+   *
+   * @param apiToken the tenant's API token
+   * @return true if the tenant was registered
+   */
+  public boolean removeTenant(String apiToken) {
+    return tenants.remove(apiToken) != null;
+  }
+
+  public int getTenantCount() {
+    return tenants.size();
+  }
+
+  public TenantScheduler getScheduler() {
+    return scheduler;
+  }
+
+  private static final class Tenant {
+    private final TenantLane lane;
+    private final IcApiFacade facade;
+    private final IcAsyncApiFacade asyncFacade;
+
+    private Tenant(TenantLane lane, IcApiFacade facade, IcAsyncApiFacade asyncFacade) {
+      this.lane = lane;
+      this.facade = facade;
+      this.asyncFacade = asyncFacade;
+    }
+  }
+}
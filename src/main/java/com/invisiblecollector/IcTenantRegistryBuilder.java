@@ -0,0 +1,175 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.ApiRequestConfig;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.ratelimit.RateLimits;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.connection.tenant.TenantScheduler;
+import com.invisiblecollector.connection.timeout.Timeouts;
+import com.invisiblecollector.connection.transport.JerseyTransport;
+import com.invisiblecollector.connection.transport.Transport;
+
+import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds a configured {@link IcTenantRegistry}.
+ *
+ * <p>Implements a fluent builder API. Use {@link IcTenantRegistry#builder(TenantScheduler)} to get
+ * an instance.
+ *
+ * @author ros
+ */
+public class IcTenantRegistryBuilder {
+
+  private final TenantScheduler scheduler;
+  private final ApiRequestConfig requestConfig = new ApiRequestConfig();
+  private URI baseUrl = IcApiFacade.PRODUCTION_BASE_URL;
+  private double defaultWeight = 1;
+  private int defaultMaxConcurrent = 4;
+  private Executor parseExecutor = ForkJoinPool.commonPool();
+
+  IcTenantRegistryBuilder(TenantScheduler scheduler) {
+    if (scheduler == null) {
+      throw new IllegalArgumentException("scheduler cannot be null");
+    }
+
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Set a custom hostname or base path.
+   *
+   * @param baseUrl the hostname, scheme and optionally base path for the connection. Default value
+   *     is https://api.invisiblecollector.com
+   * @return this
+   */
+  public IcTenantRegistryBuilder withBaseUrl(URI baseUrl) {
+    if (baseUrl == null) {
+      throw new IllegalArgumentException("baseUrl cannot be null");
+    }
+
+    this.baseUrl = baseUrl;
+    return this;
+  }
+
+  /**
+   * Send every tenant's requests through a custom transport instead of the default Jersey client.
+   *
+   * @param transport the transport. Must be closed by the caller once no longer needed.
+   * @return this
+   */
+  public IcTenantRegistryBuilder withTransport(Transport transport) {
+    if (transport == null) {
+      throw new IllegalArgumentException("transport cannot be null");
+    }
+
+    requestConfig.withTransport(transport);
+    return this;
+  }
+
+  /**
+   * Send every tenant's requests through a pool of reusable connections.
+   *
+   * @param connectionPool the pool. Must be closed by the caller once no longer needed.
+   * @return this
+   */
+  public IcTenantRegistryBuilder withConnectionPool(ConnectionPool connectionPool) {
+    requestConfig.withConnectionPool(connectionPool);
+    return this;
+  }
+
+  /**
+   * Limit the rate of each tenant's requests. Every API token gets its own limiters.
+   *
+   * @param rateLimits the limits
+   * @return this
+   */
+  public IcTenantRegistryBuilder withRateLimits(RateLimits rateLimits) {
+    if (rateLimits == null) {
+      throw new IllegalArgumentException("rateLimits cannot be null");
+    }
+
+    requestConfig.withRateLimits(rateLimits);
+    return this;
+  }
+
+  /**
+   * Retry failed requests.
+   *
+   * @param retryPolicy the policy. By default requests aren't retried
+   * @return this
+   * @see IcApiFacadeBuilder#withRetryPolicy(RetryPolicy)
+   */
+  public IcTenantRegistryBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+    requestConfig.withRetryPolicy(retryPolicy);
+    return this;
+  }
+
+  /**
+   * Bound the time requests may take.
+   *
+   * @param timeouts the timeouts. Default value is {@link Timeouts#Timeouts()}
+   * @return this
+   */
+  public IcTenantRegistryBuilder withTimeouts(Timeouts timeouts) {
+    if (timeouts == null) {
+      throw new IllegalArgumentException("timeouts cannot be null");
+    }
+
+    requestConfig.withTimeouts(timeouts);
+    return this;
+  }
+
+  /**
+   * Set the share of tenants that weren't registered with their own.
+   *
+   * @param weight the share relative to the other tenants. Default value is 1
+   * @param maxConcurrent the maximum amount of a tenant's requests in flight. Default value is 4
+   * @return this
+   */
+  public IcTenantRegistryBuilder withDefaultShare(double weight, int maxConcurrent) {
+    if (weight <= 0 || maxConcurrent < 1) {
+      throw new IllegalArgumentException("weight and maxConcurrent must be positive");
+    }
+
+    this.defaultWeight = weight;
+    this.defaultMaxConcurrent = maxConcurrent;
+    return this;
+  }
+
+  /**
+   * Set the executor on which the asynchronous facades parse the returned JSON.
+   *
+   * @param parseExecutor the executor. Default value is {@link ForkJoinPool#commonPool()}
+   * @return this
+   */
+  public IcTenantRegistryBuilder withParseExecutor(Executor parseExecutor) {
+    if (parseExecutor == null) {
+      throw new IllegalArgumentException("parseExecutor cannot be null");
+    }
+
+    this.parseExecutor = parseExecutor;
+    return this;
+  }
+
+  /**
+   * Build the registry.
+   *
+   * @return a new registry with this builder's configuration
+   */
+  public IcTenantRegistry build() {
+    ApiRequestConfig shared = new ApiRequestConfig(requestConfig);
+    if (shared.getTransport() == null) {
+      // a single transport for every tenant, instead of one per facade
+      shared.withTransport(
+          shared.getConnectionPool() == null
+              ? JerseyTransport.shared()
+              : new JerseyTransport(shared.getConnectionPool().getClient()));
+    }
+
+    return new IcTenantRegistry(
+        baseUrl, shared, scheduler, defaultWeight, defaultMaxConcurrent, parseExecutor);
+  }
+}
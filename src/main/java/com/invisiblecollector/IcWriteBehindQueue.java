@@ -0,0 +1,262 @@
+package com.invisiblecollector;
+
+import com.invisiblecollector.connection.RequestExecutors;
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.exceptions.IcConflictingException;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.exceptions.IcRejectedException;
+import com.invisiblecollector.model.Debt;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registers debts in the background, submitted in bursts without blocking the caller.
+ *
+ * <p>Submitted debts wait in a bounded queue drained by dispatcher threads. Each dispatcher takes
+ * a batch of debts, lingering briefly after the first one so bursts are drained together, and
+ * sends every debt of the batch through an {@link IcAsyncApiFacade} without waiting for the
+ * answers. The requests in flight are bounded: once the bound is reached the dispatchers stop
+ * draining, the queue fills up and {@link #submit(Debt)} blocks its caller.
+ *
+ * <p>Each debt's future completes with the registered debt, or with the exception the API
+ * answered, for example an {@link IcConflictingException} holding the gid of an already registered
+ * debt. Debts are sent under the {@link CallContext} of the thread that submitted them.
+ *
+ * <p>Thread-safe. Should be closed once no longer needed: closing stops accepting debts, sends
+ * the queued ones and then releases the threads.
+ *
+ * @author ros
+ */
+public class IcWriteBehindQueue implements Closeable {
+
+  private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final IcAsyncApiFacade asyncFacade;
+  private final WriteBehindConfig config;
+  private final BlockingQueue<QueuedDebt> queue;
+  private final Semaphore inFlight;
+  private final ExecutorService dispatchers;
+  private final AtomicLong dispatchedBatches = new AtomicLong();
+  private final AtomicLong dispatchedDebts = new AtomicLong();
+  private final AtomicInteger outstanding = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition completed = lock.newCondition();
+  private volatile boolean closed;
+
+  /**
+   * Creates a write-behind queue and starts its dispatchers.
+   *
+   * @param asyncFacade the facade used to send each debt
+   * @param config the configuration
+   */
+  public IcWriteBehindQueue(IcAsyncApiFacade asyncFacade, WriteBehindConfig config) {
+    this.asyncFacade = asyncFacade;
+    this.config = new WriteBehindConfig(config);
+    this.queue = new ArrayBlockingQueue<>(this.config.getQueueCapacity());
+    this.inFlight = new Semaphore(this.config.getMaxInFlight());
+    this.dispatchers =
+        RequestExecutors.newRequestExecutor("ic-write-behind-", this.config.getParallelism());
+    for (int i = 0; i < this.config.getParallelism(); i++) {
+      dispatchers.execute(this::drain);
+    }
+  }
+
+  /**
+   * Queue the registration of a new debt.
+   *
+   * <p>Blocks while the queue is full, up to the configured maximum time.
+   *
+   * @param debtInfo the debt, see {@link IcApiFacade#registerNewDebt(Debt)}. It is copied, later
+   *     changes to it aren't sent
+   * @return the future registered debt. Completes exceptionally with an {@link
+   *     IcRejectedException} if the queue stayed full or the queue is closed
+   * @throws IllegalArgumentException if a mandatory attribute is missing
+   */
+  public CompletableFuture<Debt> submit(Debt debtInfo) {
+    IcApiFacade.debtRegistrationFields(debtInfo);
+    // a copy, so changing or reusing the debt after submitting it doesn't change what is sent
+    QueuedDebt queued = new QueuedDebt(debtInfo.clone(), CallContext.current());
+    if (closed) {
+      queued.result.completeExceptionally(new IcRejectedException("Write-behind queue is closed"));
+      return queued.result;
+    }
+
+    outstanding.incrementAndGet();
+    queued.result.whenComplete((debt, throwable) -> signalCompleted());
+    try {
+      if (!queue.offer(queued, config.getMaxBlockNanos(), TimeUnit.NANOSECONDS)) {
+        queued.result.completeExceptionally(
+            new IcRejectedException("Timed out waiting for room in the write-behind queue"));
+      } else if (closed && queue.remove(queued)) {
+        // closed while queueing, the dispatchers may already be gone
+        queued.result.completeExceptionally(
+            new IcRejectedException("Write-behind queue is closed"));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queued.result.completeExceptionally(
+          new IcException("Interrupted while waiting for room in the write-behind queue", e));
+    }
+    return queued.result;
+  }
+
+  private void drain() {
+    List<QueuedDebt> batch = new ArrayList<>(config.getMaxBatchSize());
+    int sent = 0;
+    try {
+      while (!closed || !queue.isEmpty()) {
+        QueuedDebt first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+
+        batch.add(first);
+        linger(batch);
+        dispatchedBatches.incrementAndGet();
+        for (QueuedDebt queued : batch) {
+          inFlight.acquire();
+          send(queued);
+          sent++;
+        }
+        batch.clear();
+        sent = 0;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // the debts already sent are completed by their answers
+      IcException interrupted = new IcException("Write-behind queue interrupted", e);
+      batch
+          .subList(sent, batch.size())
+          .forEach(queued -> queued.result.completeExceptionally(interrupted));
+    }
+  }
+
+  private void linger(List<QueuedDebt> batch) throws InterruptedException {
+    long deadline = System.nanoTime() + config.getLingerNanos();
+    while (batch.size() < config.getMaxBatchSize()) {
+      if (queue.drainTo(batch, config.getMaxBatchSize() - batch.size()) > 0) {
+        continue;
+      }
+
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return;
+      }
+      QueuedDebt next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void send(QueuedDebt queued) {
+    dispatchedDebts.incrementAndGet();
+    CompletableFuture<Debt> sent;
+    try (CallContext.Scope scope = queued.context.attach()) {
+      sent = asyncFacade.registerNewDebt(queued.debt);
+    } catch (RuntimeException e) {
+      sent = new CompletableFuture<>();
+      sent.completeExceptionally(e);
+    }
+
+    sent.whenComplete(
+        (debt, throwable) -> {
+          inFlight.release();
+          if (throwable == null) {
+            queued.result.complete(debt);
+          } else {
+            queued.result.completeExceptionally(
+                throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable);
+          }
+        });
+  }
+
+  private void signalCompleted() {
+    outstanding.decrementAndGet();
+    lock.lock();
+    try {
+      completed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait until every submitted debt was sent and answered.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the time unit
+   * @return true if no debt is queued or in flight
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+    long remaining = unit.toNanos(timeout);
+    lock.lock();
+    try {
+      while (outstanding.get() > 0) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = completed.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return the amount of debts waiting to be dispatched */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /** @return the amount of debts sent and not yet answered */
+  public int getInFlight() {
+    return config.getMaxInFlight() - inFlight.availablePermits();
+  }
+
+  /** @return the amount of batches dispatched */
+  public long getDispatchedBatches() {
+    return dispatchedBatches.get();
+  }
+
+  /** @return the amount of debts dispatched */
+  public long getDispatchedDebts() {
+    return dispatchedDebts.get();
+  }
+
+  /** Stops accepting debts and releases the threads once the queued debts are dispatched. */
+  @Override
+  public void close() {
+    closed = true;
+    dispatchers.shutdown();
+  }
+
+  private static final class QueuedDebt {
+
+    private final Debt debt;
+    private final CallContext context;
+    private final CompletableFuture<Debt> result = new CompletableFuture<>();
+
+    private QueuedDebt(Debt debt, CallContext context) {
+      this.debt = debt;
+      this.context = context;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.invisiblecollector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of {@link IcApiFacade#warmUp(int, int)}: how long each phase took and whether the
+ * API answered.
+ *
+ * <p>Immutable.
+ *
+ * @author ros
+ */
+public class WarmUpReport {
+
+  private final int probedConnections;
+  private final int answeredConnections;
+  private final long connectionsNanos;
+  private final long jsonPrimingNanos;
+  private final int parseCycles;
+  private final long parseCyclesNanos;
+
+  WarmUpReport(
+      int probedConnections,
+      int answeredConnections,
+      long connectionsNanos,
+      long jsonPrimingNanos,
+      int parseCycles,
+      long parseCyclesNanos) {
+    this.probedConnections = probedConnections;
+    this.answeredConnections = answeredConnections;
+    this.connectionsNanos = connectionsNanos;
+    this.jsonPrimingNanos = jsonPrimingNanos;
+    this.parseCycles = parseCycles;
+    this.parseCyclesNanos = parseCyclesNanos;
+  }
+
+  /**
+   * Check if every connection probe was answered by the API, with any status.
+   *
+   * @return true if the API is reachable
+   */
+  public boolean isHealthy() {
+    return answeredConnections == probedConnections;
+  }
+
+  public int getProbedConnections() {
+    return probedConnections;
+  }
+
+  public int getAnsweredConnections() {
+    return answeredConnections;
+  }
+
+  /** @return the time spent opening connections, in milliseconds */
+  public long getConnectionsMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(connectionsNanos);
+  }
+
+  /** @return the time spent building the JSON serializers and deserializers, in milliseconds */
+  public long getJsonPrimingMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(jsonPrimingNanos);
+  }
+
+  public int getParseCycles() {
+    return parseCycles;
+  }
+
+  /** @return the time spent serializing and parsing sample models, in milliseconds */
+  public long getParseCyclesMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(parseCyclesNanos);
+  }
+
+  /** @return the time spent in every phase, in milliseconds */
+  public long getTotalMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(connectionsNanos + jsonPrimingNanos + parseCyclesNanos);
+  }
+
+  @Override
+  public String toString() {
+    return "{connections: "
+        + answeredConnections
+        + "/"
+        + probedConnections
+        + " in "
+        + getConnectionsMillis()
+        + "ms, jsonPriming: "
+        + getJsonPrimingMillis()
+        + "ms, parseCycles: "
+        + parseCycles
+        + " in "
+        + getParseCyclesMillis()
+        + "ms}";
+  }
+}
@@ -0,0 +1,132 @@
+package com.invisiblecollector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of how an {@link IcWriteBehindQueue} batches and sends its writes.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class WriteBehindConfig {
+
+  private int queueCapacity = 10000;
+  private long maxBlockNanos = TimeUnit.SECONDS.toNanos(30);
+  private int parallelism = 2;
+  private int maxBatchSize = 100;
+  private long lingerNanos = TimeUnit.MILLISECONDS.toNanos(5);
+  private int maxInFlight = 32;
+
+  /** Creates the default configuration. */
+  public WriteBehindConfig() {}
+
+  /**
+   * Creates a copy of a configuration.
+   *
+   * @param other the configuration to copy
+   */
+  public WriteBehindConfig(WriteBehindConfig other) {
+    this.queueCapacity = other.queueCapacity;
+    this.maxBlockNanos = other.maxBlockNanos;
+    this.parallelism = other.parallelism;
+    this.maxBatchSize = other.maxBatchSize;
+    this.lingerNanos = other.lingerNanos;
+    this.maxInFlight = other.maxInFlight;
+  }
+
+  /**
+   * Bound the writes waiting to be sent. Submitting to a full queue blocks the caller until there
+   * is room, up to a maximum time.
+   *
+   * @param queueCapacity the maximum amount of queued writes. Default value is 10000
+   * @param maxBlockTime the maximum time a submit blocks. Default value is 30s
+   * @param unit the unit of the time
+   * @return this
+   */
+  public WriteBehindConfig withQueue(int queueCapacity, long maxBlockTime, TimeUnit unit) {
+    if (queueCapacity < 1 || maxBlockTime < 0) {
+      throw new IllegalArgumentException(
+          "queueCapacity must be positive and maxBlockTime cannot be negative");
+    }
+
+    this.queueCapacity = queueCapacity;
+    this.maxBlockNanos = unit.toNanos(maxBlockTime);
+    return this;
+  }
+
+  /**
+   * Set how many threads drain the queue, each dispatching its own batches.
+   *
+   * @param parallelism the amount of dispatcher threads. Default value is 2
+   * @return this
+   */
+  public WriteBehindConfig withParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Set how writes are grouped in batches. A dispatcher waits up to the linger time after the
+   * first write of a batch for more writes to arrive, unless the batch fills up first.
+   *
+   * @param maxBatchSize the maximum amount of writes in a batch. Default value is 100
+   * @param linger the linger time. Default value is 5ms
+   * @param unit the unit of the time
+   * @return this
+   */
+  public WriteBehindConfig withBatching(int maxBatchSize, long linger, TimeUnit unit) {
+    if (maxBatchSize < 1 || linger < 0) {
+      throw new IllegalArgumentException(
+          "maxBatchSize must be positive and linger cannot be negative");
+    }
+
+    this.maxBatchSize = maxBatchSize;
+    this.lingerNanos = unit.toNanos(linger);
+    return this;
+  }
+
+  /**
+   * Bound the requests in flight. Dispatchers stop draining the queue while the bound is reached.
+   *
+   * @param maxInFlight the maximum amount of concurrent requests. Default value is 32
+   * @return this
+   */
+  public WriteBehindConfig withMaxInFlight(int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive");
+    }
+
+    this.maxInFlight = maxInFlight;
+    return this;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public long getMaxBlockNanos() {
+    return maxBlockNanos;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public long getLingerNanos() {
+    return lingerNanos;
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+}
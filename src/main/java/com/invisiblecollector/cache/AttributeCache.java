@@ -0,0 +1,204 @@
+package com.invisiblecollector.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of customer attribute maps, read through and written through by {@link
+ * com.invisiblecollector.IcApiFacade}.
+ *
+ * <p>Entries are keyed by the customer id the attributes were requested with, gid or externalId.
+ * The facade records both ids of every customer it receives with {@link #putCustomerIds(String,
+ * String)}, so storing or invalidating the attributes of one id does the same for the other. After
+ * a write with an id whose other id isn't known, the entries of every id in the same situation are
+ * dropped, since any of them may be the same customer. Entries expire a fixed time after being
+ * stored, and the least recently used entry is evicted once the cache is full.
+ *
+ * <p>Attribute maps are stored compactly, as arrays of keys and values. Attribute names are
+ * interned in a pool owned by the cache, so customers sharing the same names share their strings.
+ * The pool is bounded, names seen after it fills up are stored as they are.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class AttributeCache {
+
+  private static final int MAX_INTERNED_NAMES = 4096;
+
+  private final ExpiringMap<String[]> entries;
+  private final Map<String, String> aliases;
+  private final Map<String, String> names = new HashMap<>();
+  private final CacheMetrics metrics = new CacheMetrics();
+  private long ttlNanos = TimeUnit.MINUTES.toNanos(5);
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxEntries the maximum amount of attribute maps cached
+   */
+  public AttributeCache(int maxEntries) {
+    this(maxEntries, System::nanoTime);
+  }
+
+  AttributeCache(int maxEntries, LongSupplier clock) {
+    this.entries = new ExpiringMap<>(maxEntries, clock, metrics);
+    this.aliases = new AliasMap(maxEntries * 2);
+  }
+
+  /**
+   * Set how long attribute maps stay cached.
+   *
+   * @param ttl the time to live. Default value is 5min
+   * @param unit the unit of the time
+   * @return this
+   */
+  public synchronized AttributeCache withTtl(long ttl, TimeUnit unit) {
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+
+    this.ttlNanos = unit.toNanos(ttl);
+    return this;
+  }
+
+  /**
+   * Look up the attributes of a customer.
+   *
+   * @param customerId the id the attributes were stored with
+   * @return a copy of the cached attributes, or null on a miss
+   */
+  public synchronized Map<String, String> get(String customerId) {
+    String[] pairs = entries.get(customerId);
+    if (pairs == null) {
+      return null;
+    }
+
+    Map<String, String> attributes = new HashMap<>(pairs.length);
+    for (int i = 0; i < pairs.length; i += 2) {
+      attributes.put(pairs[i], pairs[i + 1]);
+    }
+    return attributes;
+  }
+
+  /**
+   * Store the up-to-date attributes of a customer, as returned by the API, under both of its ids
+   * if they are known.
+   *
+   * @param customerId the id of the customer, gid or externalId
+   * @param attributes every attribute of the customer
+   */
+  public synchronized void put(String customerId, Map<String, String> attributes) {
+    String[] pairs = new String[attributes.size() * 2];
+    int i = 0;
+    for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+      pairs[i++] = intern(attribute.getKey());
+      pairs[i++] = attribute.getValue();
+    }
+    entries.put(customerId, pairs, ttlNanos);
+    String alias = aliases.get(customerId);
+    if (alias != null) {
+      entries.put(alias, pairs, ttlNanos);
+    }
+  }
+
+  /**
+   * Record both ids of a customer, as returned by the API.
+   *
+   * @param gid the gid of the customer
+   * @param externalId the externalId of the customer. Ignored if null
+   */
+  public synchronized void putCustomerIds(String gid, String externalId) {
+    if (gid == null || externalId == null || gid.equals(externalId)) {
+      return;
+    }
+
+    if (entries.containsKey(gid) && entries.containsKey(externalId)
+        && !externalId.equals(aliases.get(gid))) {
+      // stored under each id before they were known to be the same customer, they may differ
+      entries.remove(gid);
+      entries.remove(externalId);
+    }
+    aliases.put(gid, externalId);
+    aliases.put(externalId, gid);
+  }
+
+  private String intern(String name) {
+    String interned = names.get(name);
+    if (interned != null) {
+      return interned;
+    }
+
+    if (names.size() < MAX_INTERNED_NAMES) {
+      names.put(name, name);
+    }
+    return name;
+  }
+
+  /**
+   * Remove the attributes of a customer from the cache, under both of its ids if they are known.
+   *
+   * @param customerId the gid or externalId of the customer
+   */
+  public synchronized void invalidate(String customerId) {
+    entries.remove(customerId);
+    String alias = aliases.get(customerId);
+    if (alias != null) {
+      entries.remove(alias);
+    }
+  }
+
+  /**
+   * Remove the attributes of a customer that were just written through the API, under both of its
+   * ids.
+   *
+   * <p>If the other id of the customer isn't known, the entries of every id whose other id isn't
+   * known are removed too, since any of them may hold the attributes from before the write.
+   *
+   * @param customerId the gid or externalId the attributes were written with
+   */
+  public synchronized void invalidateWritten(String customerId) {
+    invalidate(customerId);
+    if (!aliases.containsKey(customerId)) {
+      entries.removeKeysIf(id -> !aliases.containsKey(id));
+    }
+  }
+
+  /** Remove every attribute map from the cache. */
+  public synchronized void invalidateAll() {
+    entries.clear();
+    aliases.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** @return the amount of distinct attribute names shared between the cached maps */
+  public synchronized int getInternedNameCount() {
+    return names.size();
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  private static final class AliasMap extends LinkedHashMap<String, String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    private AliasMap(int maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
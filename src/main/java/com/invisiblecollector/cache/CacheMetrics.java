@@ -0,0 +1,60 @@
+package com.invisiblecollector.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a cache.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public final class CacheMetrics {
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  void recordHit() {
+    hits.incrementAndGet();
+  }
+
+  void recordMiss() {
+    misses.incrementAndGet();
+  }
+
+  void recordEviction() {
+    evictions.incrementAndGet();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /** @return the amount of entries removed for being expired or to make room for others */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /** @return the fraction of lookups that hit, 0 if there was none */
+  public double getHitRatio() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  @Override
+  public String toString() {
+    return "{hits: "
+        + getHits()
+        + ", misses: "
+        + getMisses()
+        + ", evictions: "
+        + getEvictions()
+        + "}";
+  }
+}
@@ -0,0 +1,97 @@
+package com.invisiblecollector.cache;
+
+/**
+ * The caches an {@link com.invisiblecollector.IcApiFacade} reads through and writes through.
+ *
+ * <p>Implements a fluent builder API. Every cache is optional, and disabled unless set.
+ *
+ * @author ros
+ */
+public class Caches {
+
+  private CustomerCache customerCache;
+  private AttributeCache attributeCache;
+  private CompanyCache companyCache;
+  private NotFoundCache notFoundCache;
+  private DebtCache debtCache;
+
+  /**
+   * Cache the customers returned by the API.
+   *
+   * @param customerCache the cache, shared with every facade using the same instance. Null to not
+   *     cache customers
+   * @return this
+   */
+  public Caches withCustomerCache(CustomerCache customerCache) {
+    this.customerCache = customerCache;
+    return this;
+  }
+
+  /**
+   * Cache the customer attributes returned by the API.
+   *
+   * @param attributeCache the cache, shared with every facade using the same instance. Null to not
+   *     cache attributes
+   * @return this
+   */
+  public Caches withAttributeCache(AttributeCache attributeCache) {
+    this.attributeCache = attributeCache;
+    return this;
+  }
+
+  /**
+   * Hold the company info, refreshed in the background.
+   *
+   * @param companyCache the cache, shared with every facade using the same instance. Null to always
+   *     request the company info
+   * @return this
+   */
+  public Caches withCompanyCache(CompanyCache companyCache) {
+    this.companyCache = companyCache;
+    return this;
+  }
+
+  /**
+   * Cache the customer and debt lookups the API answered with "not found".
+   *
+   * @param notFoundCache the cache, shared with every facade using the same instance. Null to
+   *     always send the lookups
+   * @return this
+   */
+  public Caches withNotFoundCache(NotFoundCache notFoundCache) {
+    this.notFoundCache = notFoundCache;
+    return this;
+  }
+
+  /**
+   * Cache the debts returned by the API.
+   *
+   * @param debtCache the cache, shared with every facade using the same instance. Null to not
+   *     cache debts
+   * @return this
+   */
+  public Caches withDebtCache(DebtCache debtCache) {
+    this.debtCache = debtCache;
+    return this;
+  }
+
+  public DebtCache getDebtCache() {
+    return debtCache;
+  }
+
+  public NotFoundCache getNotFoundCache() {
+    return notFoundCache;
+  }
+
+  public CompanyCache getCompanyCache() {
+    return companyCache;
+  }
+
+  public AttributeCache getAttributeCache() {
+    return attributeCache;
+  }
+
+  public CustomerCache getCustomerCache() {
+    return customerCache;
+  }
+}
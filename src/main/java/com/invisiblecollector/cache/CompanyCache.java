@@ -0,0 +1,254 @@
+package com.invisiblecollector.cache;
+
+import com.invisiblecollector.connection.builders.ThrowingSupplier;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Company;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the company info, refreshed in the background before it expires, for {@link
+ * com.invisiblecollector.IcApiFacade#requestCompanyInfo()}.
+ *
+ * <p>Only the first read, or a read after the company info expired, waits for the API. Once the
+ * company info is older than the refresh time, reads still return it right away and the first of
+ * them starts a refresh in the background, serving the stale value while it runs. The company info
+ * returned by the facade's company updates replaces the held one immediately.
+ *
+ * <p>Concurrent reads waiting for the API share a single load. A refresh that fails is counted and
+ * retried by the next read. A load or refresh that started before the company info was updated or
+ * invalidated is returned to its readers but not held.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class CompanyCache {
+
+  private final LongSupplier clock;
+  private final CacheMetrics metrics = new CacheMetrics();
+  private final AtomicLong refreshes = new AtomicLong();
+  private final AtomicLong failedRefreshes = new AtomicLong();
+  private long refreshAfterNanos = TimeUnit.MINUTES.toNanos(5);
+  private long expireAfterNanos = TimeUnit.HOURS.toNanos(1);
+  private Executor refreshExecutor = ForkJoinPool.commonPool();
+  private Company company;
+  private long storedAt;
+  private long version;
+  private boolean refreshing;
+  private CompletableFuture<Company> loading;
+
+  /** Creates an empty cache. */
+  public CompanyCache() {
+    this(System::nanoTime);
+  }
+
+  CompanyCache(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Set when the company info is refreshed and when it's no longer served.
+   *
+   * @param refreshAfter the age after which a read starts a background refresh. Default value is
+   *     5min
+   * @param expireAfter the age after which reads wait for the API. Default value is 1h
+   * @param unit the unit of both times
+   * @return this
+   */
+  public synchronized CompanyCache withExpiry(long refreshAfter, long expireAfter, TimeUnit unit) {
+    if (refreshAfter <= 0 || expireAfter < refreshAfter) {
+      throw new IllegalArgumentException("times must be positive and refreshAfter <= expireAfter");
+    }
+
+    this.refreshAfterNanos = unit.toNanos(refreshAfter);
+    this.expireAfterNanos = unit.toNanos(expireAfter);
+    return this;
+  }
+
+  /**
+   * Set the executor on which the company info is refreshed.
+   *
+   * @param refreshExecutor the executor. Default value is {@link ForkJoinPool#commonPool()}
+   * @return this
+   */
+  public synchronized CompanyCache withRefreshExecutor(Executor refreshExecutor) {
+    if (refreshExecutor == null) {
+      throw new IllegalArgumentException("refreshExecutor cannot be null");
+    }
+
+    this.refreshExecutor = refreshExecutor;
+    return this;
+  }
+
+  /**
+   * Get the company info, loading it if missing or expired.
+   *
+   * @param loader requests the company info from the API
+   * @return a copy of the company info
+   * @throws IcException if the company info had to be loaded and the loader failed
+   */
+  public Company get(ThrowingSupplier<Company, IcException> loader) throws IcException {
+    Company cached = null;
+    long refreshVersion = -1;
+    Executor executor = null;
+    CompletableFuture<Company> load = null;
+    boolean leads = false;
+    synchronized (this) {
+      long age = clock.getAsLong() - storedAt;
+      if (company != null && age < expireAfterNanos) {
+        cached = company.clone();
+        if (!refreshing && age >= refreshAfterNanos) {
+          refreshing = true;
+          refreshVersion = version;
+          executor = refreshExecutor;
+        }
+      } else {
+        if (company != null) {
+          company = null;
+          metrics.recordEviction();
+        }
+        if (loading == null) {
+          loading = new CompletableFuture<>();
+          refreshVersion = version;
+          leads = true;
+        }
+        load = loading;
+      }
+    }
+
+    if (cached == null) {
+      metrics.recordMiss();
+      return leads ? load(load, loader, refreshVersion) : await(load);
+    }
+
+    metrics.recordHit();
+    if (executor != null) {
+      startRefresh(executor, loader, refreshVersion);
+    }
+    return cached;
+  }
+
+  private Company load(
+      CompletableFuture<Company> load,
+      ThrowingSupplier<Company, IcException> loader,
+      long loadVersion)
+      throws IcException {
+    Company loaded;
+    try {
+      loaded = loader.get();
+    } catch (IcException | RuntimeException e) {
+      endLoad(load);
+      load.completeExceptionally(e);
+      throw e;
+    }
+
+    synchronized (this) {
+      endLoad(load);
+      // an update or invalidation made meanwhile is newer than the loaded company info
+      if (version == loadVersion) {
+        store(loaded);
+      }
+    }
+    load.complete(loaded.clone());
+    return loaded;
+  }
+
+  private synchronized void endLoad(CompletableFuture<Company> load) {
+    // an invalidation may have let a newer load start
+    if (loading == load) {
+      loading = null;
+    }
+  }
+
+  private static Company await(CompletableFuture<Company> load) throws IcException {
+    try {
+      return load.get().clone();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IcException("Interrupted while waiting for the company info", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IcException) {
+        throw (IcException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IcException(cause);
+    }
+  }
+
+  private void startRefresh(
+      Executor executor, ThrowingSupplier<Company, IcException> loader, long refreshVersion) {
+    try {
+      executor.execute(() -> refresh(loader, refreshVersion));
+    } catch (RejectedExecutionException e) {
+      failedRefreshes.incrementAndGet();
+      synchronized (this) {
+        refreshing = false;
+      }
+    }
+  }
+
+  private void refresh(ThrowingSupplier<Company, IcException> loader, long refreshVersion) {
+    Company loaded = null;
+    try {
+      loaded = loader.get();
+    } catch (IcException | RuntimeException e) {
+      // the stale company info is served until the next read retries
+      failedRefreshes.incrementAndGet();
+    }
+
+    synchronized (this) {
+      refreshing = false;
+      if (loaded != null && version == refreshVersion) {
+        store(loaded);
+        refreshes.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Replace the company info with the one returned by the API.
+   *
+   * @param company the up-to-date company info
+   */
+  public synchronized void put(Company company) {
+    store(company);
+  }
+
+  private void store(Company company) {
+    this.company = company.clone();
+    this.storedAt = clock.getAsLong();
+    this.version++;
+  }
+
+  /** Drop the company info, so the next read waits for the API. */
+  public synchronized void invalidate() {
+    company = null;
+    loading = null;
+    version++;
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  /** @return the amount of background refreshes that replaced the company info */
+  public long getRefreshCount() {
+    return refreshes.get();
+  }
+
+  /** @return the amount of background refreshes that failed */
+  public long getFailedRefreshCount() {
+    return failedRefreshes.get();
+  }
+}
@@ -0,0 +1,140 @@
+package com.invisiblecollector.cache;
+
+import com.invisiblecollector.model.Customer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of customers, read through by {@link com.invisiblecollector.IcApiFacade}.
+ *
+ * <p>Each customer is stored once and indexed by its gid, externalId and vatNumber, so a lookup by
+ * any of them hits. Entries expire a fixed time after being stored, and the least recently used
+ * entry is evicted once the cache is full. Customers are copied in and out of the cache, so
+ * changing a returned customer doesn't change the cached one.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class CustomerCache {
+
+  private final ExpiringMap<Customer> byGid;
+  private long ttlNanos = TimeUnit.MINUTES.toNanos(5);
+  private final Map<String, String> gidByExternalId = new HashMap<>();
+  private final Map<String, String> gidByVatNumber = new HashMap<>();
+  private final CacheMetrics metrics = new CacheMetrics();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxEntries the maximum amount of customers cached
+   */
+  public CustomerCache(int maxEntries) {
+    this(maxEntries, System::nanoTime);
+  }
+
+  CustomerCache(int maxEntries, LongSupplier clock) {
+    this.byGid = new ExpiringMap<>(maxEntries, clock, metrics, this::removeIndexes);
+  }
+
+  /**
+   * Set how long customers stay cached.
+   *
+   * @param ttl the time to live. Default value is 5min
+   * @param unit the unit of the time
+   * @return this
+   */
+  public synchronized CustomerCache withTtl(long ttl, TimeUnit unit) {
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+
+    this.ttlNanos = unit.toNanos(ttl);
+    return this;
+  }
+
+  /**
+   * Look up a customer the way the API routes a customer id.
+   *
+   * @param customerId the gid or externalId of the customer
+   * @return a copy of the cached customer, or null on a miss
+   */
+  public synchronized Customer get(String customerId) {
+    return copy(byGid.get(resolve(customerId)));
+  }
+
+  /**
+   * Look up a customer by its vatNumber.
+   *
+   * @param vatNumber the VAT number of the customer
+   * @return a copy of the cached customer, or null on a miss
+   */
+  public synchronized Customer getByVatNumber(String vatNumber) {
+    return copy(byGid.get(gidByVatNumber.get(vatNumber)));
+  }
+
+  private static Customer copy(Customer customer) {
+    return customer == null ? null : customer.clone();
+  }
+
+  private String resolve(String customerId) {
+    return byGid.containsKey(customerId) ? customerId : gidByExternalId.get(customerId);
+  }
+
+  /**
+   * Store a customer returned by the API, replacing any cached customer it shares a key with.
+   *
+   * @param customer the customer. Ignored if it has no gid
+   */
+  public synchronized void put(Customer customer) {
+    String gid = customer.getId();
+    if (gid == null || gid.isEmpty()) {
+      return;
+    }
+
+    Customer copy = customer.clone();
+    byGid.remove(gid);
+    byGid.remove(gidByExternalId.get(copy.getExternalId()));
+    byGid.remove(gidByVatNumber.get(copy.getVatNumber()));
+
+    if (copy.getExternalId() != null) {
+      gidByExternalId.put(copy.getExternalId(), gid);
+    }
+    if (copy.getVatNumber() != null) {
+      gidByVatNumber.put(copy.getVatNumber(), gid);
+    }
+    byGid.put(gid, copy, ttlNanos);
+  }
+
+  /**
+   * Remove a customer from the cache.
+   *
+   * @param customerId the gid or externalId of the customer
+   */
+  public synchronized void invalidate(String customerId) {
+    byGid.remove(resolve(customerId));
+  }
+
+  /** Remove every customer from the cache. */
+  public synchronized void invalidateAll() {
+    byGid.clear();
+    gidByExternalId.clear();
+    gidByVatNumber.clear();
+  }
+
+  private void removeIndexes(String gid, Customer customer) {
+    gidByExternalId.remove(customer.getExternalId(), gid);
+    gidByVatNumber.remove(customer.getVatNumber(), gid);
+  }
+
+  public synchronized int size() {
+    return byGid.size();
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,298 @@
+package com.invisiblecollector.cache;
+
+import com.invisiblecollector.model.Debt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of every debt returned by {@link com.invisiblecollector.IcApiFacade}.
+ *
+ * <p>Each debt is stored once and indexed by its gid, its number and its customerId. The debts
+ * returned by {@link com.invisiblecollector.IcApiFacade#requestCustomerDebts(String)} are also
+ * recorded as the complete list of their customer, so requesting them again is served from the
+ * cache while every debt of the list is cached. A debt of the customer cached after the list, for
+ * example a newly registered one, drops the list. An empty list can't tell which customer it
+ * belongs to, so any new debt drops it.
+ *
+ * <p>Debts and lists expire a fixed time after being stored, and the least recently used one is
+ * evicted once either is full. Debts are copied in and out of the cache, so changing a returned
+ * debt doesn't change the cached one.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class DebtCache {
+
+  private final int maxEntries;
+  private long ttlNanos = TimeUnit.MINUTES.toNanos(5);
+  private final ExpiringMap<Debt> byGid;
+  private final Map<String, String> gidByNumber = new HashMap<>();
+  private final Map<String, Set<String>> gidsByCustomerId = new HashMap<>();
+  private final ExpiringMap<CustomerDebts> customerDebts;
+  private final Map<String, Set<String>> listKeysByCustomerId = new HashMap<>();
+  private final CacheMetrics metrics = new CacheMetrics();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxEntries the maximum amount of debts, and of customer debt lists, cached
+   */
+  public DebtCache(int maxEntries) {
+    this(maxEntries, System::nanoTime);
+  }
+
+  DebtCache(int maxEntries, LongSupplier clock) {
+    this.maxEntries = maxEntries;
+    this.byGid = new ExpiringMap<>(maxEntries, clock, metrics, this::removeIndexes);
+    this.customerDebts = new ExpiringMap<>(maxEntries, clock, metrics, this::unlink);
+  }
+
+  /**
+   * Set how long debts and customer debt lists stay cached.
+   *
+   * @param ttl the time to live. Default value is 5min
+   * @param unit the unit of the time
+   * @return this
+   */
+  public synchronized DebtCache withTtl(long ttl, TimeUnit unit) {
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+
+    this.ttlNanos = unit.toNanos(ttl);
+    return this;
+  }
+
+  /**
+   * Look up a debt by its gid.
+   *
+   * @param gid the gid of the debt
+   * @return a copy of the cached debt, or null on a miss
+   */
+  public synchronized Debt get(String gid) {
+    Debt debt = byGid.get(gid);
+    return debt == null ? null : debt.clone();
+  }
+
+  /**
+   * Look up a debt by its number.
+   *
+   * @param number the number of the debt
+   * @return a copy of the cached debt, or null on a miss
+   */
+  public synchronized Debt getByNumber(String number) {
+    return get(gidByNumber.get(number));
+  }
+
+  /**
+   * Get the cached debts of a customer, which may not be all of them.
+   *
+   * @param customerId the customerId of the debts
+   * @return copies of the cached debts, empty if none is cached
+   */
+  public synchronized List<Debt> getByCustomerId(String customerId) {
+    Set<String> gids = gidsByCustomerId.get(customerId);
+    List<Debt> debts = new ArrayList<>();
+    if (gids != null) {
+      for (String gid : new ArrayList<>(gids)) {
+        Debt debt = byGid.peek(gid);
+        if (debt != null) {
+          debts.add(debt.clone());
+        }
+      }
+    }
+    return debts;
+  }
+
+  /**
+   * Get every debt of a customer, as previously stored with {@link #putCustomerDebts(String,
+   * List)}.
+   *
+   * @param customerId the id the debts were requested with
+   * @return copies of the debts, or null if the complete list isn't cached
+   */
+  public synchronized List<Debt> getCustomerDebts(String customerId) {
+    CustomerDebts list = customerDebts.peek(customerId);
+    List<Debt> debts = list == null ? null : new ArrayList<>(list.gids.size());
+    if (list != null) {
+      for (String gid : list.gids) {
+        Debt debt = byGid.peek(gid);
+        if (debt == null) {
+          // a debt of the list was evicted, the list can't be served anymore
+          customerDebts.remove(customerId);
+          debts = null;
+          break;
+        }
+        debts.add(debt.clone());
+      }
+    }
+
+    if (debts == null) {
+      metrics.recordMiss();
+    } else {
+      metrics.recordHit();
+    }
+    return debts;
+  }
+
+  /**
+   * Store a debt returned by the API.
+   *
+   * @param debt the debt. Ignored if it has no gid
+   */
+  public synchronized void put(Debt debt) {
+    String gid = debt.getId();
+    if (gid == null || gid.isEmpty()) {
+      return;
+    }
+
+    if (!byGid.containsKey(gid)) {
+      // a debt the customer's lists don't know about, nor the lists with no customer to tell
+      invalidateCustomerDebts(debt.getCustomerId());
+      customerDebts.removeValuesIf(list -> list.customerIds.isEmpty());
+    }
+    store(debt);
+  }
+
+  /**
+   * Store every debt of a customer, as returned by the API.
+   *
+   * @param customerId the id the debts were requested with
+   * @param debts every debt of the customer
+   */
+  public synchronized void putCustomerDebts(String customerId, List<Debt> debts) {
+    if (debts.size() > maxEntries) {
+      debts.forEach(this::put);
+      return;
+    }
+
+    invalidateCustomerDebts(customerId);
+    List<String> gids = new ArrayList<>(debts.size());
+    Set<String> customerIds = new HashSet<>();
+    for (Debt debt : debts) {
+      String gid = debt.getId();
+      if (gid == null || gid.isEmpty()) {
+        // can't tell whether the cached debts are complete without their gids
+        debts.forEach(this::put);
+        return;
+      }
+
+      store(debt);
+      gids.add(gid);
+      if (debt.getCustomerId() != null) {
+        customerIds.add(debt.getCustomerId());
+      }
+    }
+
+    customerDebts.removeExpired();
+    customerDebts.put(customerId, new CustomerDebts(gids, customerIds), ttlNanos);
+    for (String debtCustomerId : customerIds) {
+      listKeysByCustomerId
+          .computeIfAbsent(debtCustomerId, unused -> new LinkedHashSet<>())
+          .add(customerId);
+    }
+  }
+
+  private void store(Debt debt) {
+    String gid = debt.getId();
+    Debt copy = debt.clone();
+    byGid.put(gid, copy, ttlNanos);
+    if (copy.getNumber() != null) {
+      gidByNumber.put(copy.getNumber(), gid);
+    }
+    if (copy.getCustomerId() != null) {
+      gidsByCustomerId
+          .computeIfAbsent(copy.getCustomerId(), unused -> new LinkedHashSet<>())
+          .add(gid);
+    }
+  }
+
+  /**
+   * Remove a debt from the cache, and the customer lists it belongs to.
+   *
+   * @param gid the gid of the debt
+   */
+  public synchronized void invalidate(String gid) {
+    Debt debt = byGid.remove(gid);
+    if (debt != null) {
+      invalidateCustomerDebts(debt.getCustomerId());
+    }
+  }
+
+  /**
+   * Remove the complete debt lists of a customer, keeping its debts.
+   *
+   * @param customerId the id the debts were requested with, or the customerId of the debts
+   */
+  public synchronized void invalidateCustomerDebts(String customerId) {
+    if (customerId == null) {
+      return;
+    }
+
+    customerDebts.remove(customerId);
+    Set<String> listKeys = listKeysByCustomerId.remove(customerId);
+    if (listKeys != null) {
+      for (String listKey : listKeys) {
+        customerDebts.remove(listKey);
+      }
+    }
+  }
+
+  /** Remove every debt from the cache. */
+  public synchronized void invalidateAll() {
+    byGid.clear();
+    gidByNumber.clear();
+    gidsByCustomerId.clear();
+    customerDebts.clear();
+    listKeysByCustomerId.clear();
+  }
+
+  private void removeIndexes(String gid, Debt debt) {
+    gidByNumber.remove(debt.getNumber(), gid);
+    removeLink(gidsByCustomerId, debt.getCustomerId(), gid);
+  }
+
+  private void unlink(String listKey, CustomerDebts list) {
+    for (String customerId : list.customerIds) {
+      removeLink(listKeysByCustomerId, customerId, listKey);
+    }
+  }
+
+  private static void removeLink(Map<String, Set<String>> links, String from, String to) {
+    Set<String> linked = links.get(from);
+    if (linked != null) {
+      linked.remove(to);
+      if (linked.isEmpty()) {
+        links.remove(from);
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return byGid.size();
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  private static final class CustomerDebts {
+
+    private final List<String> gids;
+    private final Set<String> customerIds;
+
+    private CustomerDebts(List<String> gids, Set<String> customerIds) {
+      this.gids = gids;
+      this.customerIds = customerIds;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.invisiblecollector.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A bounded map whose entries expire, evicting the least recently used entry once full.
+ *
+ * <p>An optional listener is told about every entry that leaves the map, other than by {@link
+ * #clear()}, so the owner can keep its own indexes of the values in sync.
+ *
+ * <p>Not thread-safe, guarded by the cache that owns it.
+ *
+ * @author ros
+ */
+final class ExpiringMap<V> {
+
+  private final int maxEntries;
+  private final LongSupplier clock;
+  private final CacheMetrics metrics;
+  private final BiConsumer<String, V> onRemoval;
+  private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  ExpiringMap(int maxEntries, LongSupplier clock, CacheMetrics metrics) {
+    this(maxEntries, clock, metrics, (key, value) -> {});
+  }
+
+  ExpiringMap(
+      int maxEntries, LongSupplier clock, CacheMetrics metrics, BiConsumer<String, V> onRemoval) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.maxEntries = maxEntries;
+    this.clock = clock;
+    this.metrics = metrics;
+    this.onRemoval = onRemoval;
+  }
+
+  /**
+   * Look up a value, recording a hit or a miss.
+   *
+   * @param key the key
+   * @return the value, or null if missing or expired
+   */
+  V get(String key) {
+    V value = peek(key);
+    if (value == null) {
+      metrics.recordMiss();
+    } else {
+      metrics.recordHit();
+    }
+    return value;
+  }
+
+  /**
+   * Look up a value without recording a hit or a miss.
+   *
+   * @param key the key
+   * @return the value, or null if missing or expired
+   */
+  V peek(String key) {
+    Entry<V> entry = key == null ? null : entries.get(key);
+    if (entry != null && entry.expiresAt - clock.getAsLong() <= 0) {
+      entries.remove(key);
+      metrics.recordEviction();
+      onRemoval.accept(key, entry.value);
+      return null;
+    }
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Check whether a key is stored, expired or not, without recording a hit or a miss.
+   *
+   * @param key the key
+   * @return true if stored
+   */
+  boolean containsKey(String key) {
+    return entries.containsKey(key);
+  }
+
+  void put(String key, V value, long ttlNanos) {
+    Entry<V> previous = entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+    if (previous != null) {
+      onRemoval.accept(key, previous.value);
+    }
+
+    Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+    while (entries.size() > maxEntries) {
+      Map.Entry<String, Entry<V>> evicted = eldest.next();
+      eldest.remove();
+      metrics.recordEviction();
+      onRemoval.accept(evicted.getKey(), evicted.getValue().value);
+    }
+  }
+
+  /**
+   * Remove an entry, expired or not.
+   *
+   * @param key the key
+   * @return the removed value, or null if missing
+   */
+  V remove(String key) {
+    Entry<V> entry = key == null ? null : entries.remove(key);
+    if (entry == null) {
+      return null;
+    }
+    onRemoval.accept(key, entry.value);
+    return entry.value;
+  }
+
+  /**
+   * Remove every entry whose key matches.
+   *
+   * @param filter the keys to remove
+   */
+  void removeKeysIf(Predicate<String> filter) {
+    removeIf((key, entry) -> filter.test(key));
+  }
+
+  /**
+   * Remove every entry whose value matches.
+   *
+   * @param filter the values to remove
+   */
+  void removeValuesIf(Predicate<V> filter) {
+    removeIf((key, entry) -> filter.test(entry.value));
+  }
+
+  /** Remove every expired entry, without waiting for it to be looked up. */
+  void removeExpired() {
+    long now = clock.getAsLong();
+    Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Entry<V>> entry = iterator.next();
+      if (entry.getValue().expiresAt - now <= 0) {
+        iterator.remove();
+        metrics.recordEviction();
+        onRemoval.accept(entry.getKey(), entry.getValue().value);
+      }
+    }
+  }
+
+  private void removeIf(BiPredicate<String, Entry<V>> filter) {
+    Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Entry<V>> entry = iterator.next();
+      if (filter.test(entry.getKey(), entry.getValue())) {
+        iterator.remove();
+        onRemoval.accept(entry.getKey(), entry.getValue().value);
+      }
+    }
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
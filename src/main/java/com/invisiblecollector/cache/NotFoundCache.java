@@ -0,0 +1,137 @@
+package com.invisiblecollector.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A short-lived cache of the customer and debt lookups the API answered with "not found", checked
+ * by {@link com.invisiblecollector.IcApiFacade#requestCustomerInfo(String)} and {@link
+ * com.invisiblecollector.IcApiFacade#requestDebtInfo(String)}.
+ *
+ * <p>A cached lookup fails right away with an {@link
+ * com.invisiblecollector.exceptions.IcNotFoundException} without a stack trace. Registering a
+ * customer or debt through the facade removes the entries of its ids, so a lookup right after a
+ * registration always reaches the API. Entries expire a fixed time after being stored, and the
+ * least recently used entry is evicted once the cache is full.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class NotFoundCache {
+
+  private static final String CUSTOMER_PREFIX = "customers/";
+  private static final String DEBT_PREFIX = "debts/";
+
+  private final ExpiringMap<String> entries;
+  private final CacheMetrics metrics = new CacheMetrics();
+  private long ttlNanos = TimeUnit.SECONDS.toNanos(30);
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxEntries the maximum amount of lookups cached
+   */
+  public NotFoundCache(int maxEntries) {
+    this(maxEntries, System::nanoTime);
+  }
+
+  NotFoundCache(int maxEntries, LongSupplier clock) {
+    this.entries = new ExpiringMap<>(maxEntries, clock, metrics);
+  }
+
+  /**
+   * Set how long lookups stay cached.
+   *
+   * @param ttl the time to live. Default value is 30s
+   * @param unit the unit of the time
+   * @return this
+   */
+  public synchronized NotFoundCache withTtl(long ttl, TimeUnit unit) {
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+
+    this.ttlNanos = unit.toNanos(ttl);
+    return this;
+  }
+
+  /**
+   * Check whether a customer is known not to exist.
+   *
+   * @param customerId the gid or externalId the customer was looked up with
+   * @return the message the API answered the lookup with, or null on a miss
+   */
+  public synchronized String getCustomerNotFound(String customerId) {
+    return entries.get(CUSTOMER_PREFIX + customerId);
+  }
+
+  /**
+   * Check whether a debt is known not to exist.
+   *
+   * @param debtId the id the debt was looked up with
+   * @return the message the API answered the lookup with, or null on a miss
+   */
+  public synchronized String getDebtNotFound(String debtId) {
+    return entries.get(DEBT_PREFIX + debtId);
+  }
+
+  /**
+   * Store a customer lookup the API answered with "not found".
+   *
+   * @param customerId the gid or externalId the customer was looked up with
+   * @param message the message of the API's answer
+   */
+  public synchronized void putCustomerNotFound(String customerId, String message) {
+    entries.put(CUSTOMER_PREFIX + customerId, message, ttlNanos);
+  }
+
+  /**
+   * Store a debt lookup the API answered with "not found".
+   *
+   * @param debtId the id the debt was looked up with
+   * @param message the message of the API's answer
+   */
+  public synchronized void putDebtNotFound(String debtId, String message) {
+    entries.put(DEBT_PREFIX + debtId, message, ttlNanos);
+  }
+
+  /**
+   * Remove the lookups of a customer from the cache.
+   *
+   * @param customerIds the ids of the customer, null ids are ignored
+   */
+  public synchronized void invalidateCustomer(String... customerIds) {
+    for (String customerId : customerIds) {
+      if (customerId != null) {
+        entries.remove(CUSTOMER_PREFIX + customerId);
+      }
+    }
+  }
+
+  /**
+   * Remove the lookups of a debt from the cache.
+   *
+   * @param debtIds the ids of the debt, null ids are ignored
+   */
+  public synchronized void invalidateDebt(String... debtIds) {
+    for (String debtId : debtIds) {
+      if (debtId != null) {
+        entries.remove(DEBT_PREFIX + debtId);
+      }
+    }
+  }
+
+  /** Remove every lookup from the cache. */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,126 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.timeout.CallContext;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Describes a call to the API: what to send and how it may be handled.
+ *
+ * <p>Implements a fluent builder API. GET requests are idempotent by default, POST and PUT
+ * requests have to be marked as such to be retried.
+ *
+ * @author ros
+ */
+public class ApiRequest {
+
+  private final RequestType requestType;
+  private final String endpoint;
+  private Object body;
+  private Map<String, Object> query = Collections.emptyMap();
+  private boolean idempotent;
+  private String endpointKey;
+  private CallContext callContext;
+
+  /**
+   * Creates a request description.
+   *
+   * @param requestType the HTTP request type
+   * @param endpoint the path, relative to the facade's base URL
+   */
+  public ApiRequest(RequestType requestType, String endpoint) {
+    this.requestType = requestType;
+    this.endpoint = endpoint;
+    this.idempotent = requestType == RequestType.GET;
+  }
+
+  /**
+   * Set the body, serialized to JSON once before the request is first sent.
+   *
+   * @param body the body, null if there is none
+   * @return this
+   */
+  public ApiRequest withBody(Object body) {
+    this.body = body;
+    return this;
+  }
+
+  /**
+   * Set the URI encoded query parameters.
+   *
+   * @param query the query parameters
+   * @return this
+   */
+  public ApiRequest withQuery(Map<String, Object> query) {
+    if (query == null) {
+      throw new IllegalArgumentException("query cannot be null");
+    }
+
+    this.query = query;
+    return this;
+  }
+
+  /**
+   * Mark whether sending the request more than once has the same effect as sending it once.
+   *
+   * @param idempotent true if the request can safely be retried
+   * @return this
+   */
+  public ApiRequest withIdempotent(boolean idempotent) {
+    this.idempotent = idempotent;
+    return this;
+  }
+
+  /**
+   * Set the key that identifies the endpoint regardless of the ids in its path, used to share a
+   * circuit breaker and timeouts between its calls.
+   *
+   * @param endpointKey the key, such as "customers". Null if the request isn't guarded by a
+   *     circuit breaker and uses the default timeouts
+   * @return this
+   */
+  public ApiRequest withEndpointKey(String endpointKey) {
+    this.endpointKey = endpointKey;
+    return this;
+  }
+
+  /**
+   * Set the context whose deadline bounds the request.
+   *
+   * @param callContext the context. Null to use the one attached to the thread sending the request
+   * @return this
+   */
+  public ApiRequest withCallContext(CallContext callContext) {
+    this.callContext = callContext;
+    return this;
+  }
+
+  public CallContext getCallContext() {
+    return callContext;
+  }
+
+  public String getEndpointKey() {
+    return endpointKey;
+  }
+
+  public RequestType getRequestType() {
+    return requestType;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public Object getBody() {
+    return body;
+  }
+
+  public Map<String, Object> getQuery() {
+    return query;
+  }
+
+  public boolean isIdempotent() {
+    return idempotent;
+  }
+}
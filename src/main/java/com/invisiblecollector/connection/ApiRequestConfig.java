@@ -0,0 +1,330 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.balance.BaseUrlBalancer;
+import com.invisiblecollector.connection.breaker.CircuitBreakers;
+import com.invisiblecollector.connection.bulkhead.Bulkheads;
+import com.invisiblecollector.connection.concurrency.AdaptiveConcurrencyLimiter;
+import com.invisiblecollector.connection.hedge.HedgingPolicy;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.priority.PriorityScheduler;
+import com.invisiblecollector.connection.ratelimit.RateLimits;
+import com.invisiblecollector.connection.response.ResponseLeakDetector;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.connection.tenant.TenantLane;
+import com.invisiblecollector.connection.timeout.Timeouts;
+import com.invisiblecollector.connection.transport.Transport;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of how an {@link ApiRequestFacade} sends its requests.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class ApiRequestConfig {
+
+  private Transport transport;
+  private ConnectionPool connectionPool;
+  private ResponseLeakDetector responseLeakDetector = ResponseLeakDetector.disabled();
+  private RetryPolicy retryPolicy = RetryPolicy.disabled();
+  private RateLimits rateLimits;
+  private AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private CircuitBreakers circuitBreakers;
+  private HedgingPolicy hedgingPolicy;
+  private boolean requestCoalescing;
+  private Timeouts timeouts = new Timeouts();
+  private final Map<String, Timeouts> endpointTimeouts = new HashMap<>();
+  private BaseUrlBalancer baseUrlBalancer;
+  private Bulkheads bulkheads;
+  private PriorityScheduler priorityScheduler;
+  private TenantLane tenantLane;
+
+  /** Creates the default configuration. */
+  public ApiRequestConfig() {}
+
+  /**
+   * Creates a copy of a configuration. Shared components, such as limiters and pools, are shared
+   * with the copy.
+   *
+   * @param other the configuration to copy
+   */
+  public ApiRequestConfig(ApiRequestConfig other) {
+    this.transport = other.transport;
+    this.connectionPool = other.connectionPool;
+    this.responseLeakDetector = other.responseLeakDetector;
+    this.retryPolicy = other.retryPolicy;
+    this.rateLimits = other.rateLimits;
+    this.concurrencyLimiter = other.concurrencyLimiter;
+    this.circuitBreakers = other.circuitBreakers;
+    this.hedgingPolicy = other.hedgingPolicy;
+    this.requestCoalescing = other.requestCoalescing;
+    this.timeouts = other.timeouts;
+    this.endpointTimeouts.putAll(other.endpointTimeouts);
+    this.baseUrlBalancer = other.baseUrlBalancer;
+    this.bulkheads = other.bulkheads;
+    this.priorityScheduler = other.priorityScheduler;
+    this.tenantLane = other.tenantLane;
+  }
+
+  /**
+   * Send requests through a custom transport, for example a {@link
+   * com.invisiblecollector.connection.transport.JdkHttpClientTransport}.
+   *
+   * <p>Takes precedence over {@link #withConnectionPool(ConnectionPool)}.
+   *
+   * @param transport the transport. Its lifecycle is managed by the caller. Null to use a {@link
+   *     com.invisiblecollector.connection.transport.JerseyTransport}
+   * @return this
+   */
+  public ApiRequestConfig withTransport(Transport transport) {
+    this.transport = transport;
+    return this;
+  }
+
+  /**
+   * Send requests through a connection pool.
+   *
+   * @param connectionPool the pool, or null to use the default shared client
+   * @return this
+   */
+  public ApiRequestConfig withConnectionPool(ConnectionPool connectionPool) {
+    this.connectionPool = connectionPool;
+    return this;
+  }
+
+  /**
+   * Track every received response until its connection is released.
+   *
+   * @param responseLeakDetector the detector. Default value is {@link
+   *     ResponseLeakDetector#disabled()}
+   * @return this
+   */
+  public ApiRequestConfig withResponseLeakDetector(ResponseLeakDetector responseLeakDetector) {
+    if (responseLeakDetector == null) {
+      throw new IllegalArgumentException("responseLeakDetector cannot be null");
+    }
+
+    this.responseLeakDetector = responseLeakDetector;
+    return this;
+  }
+
+  /**
+   * Retry failed requests.
+   *
+   * @param retryPolicy the policy. Default value is {@link RetryPolicy#disabled()}
+   * @return this
+   */
+  public ApiRequestConfig withRetryPolicy(RetryPolicy retryPolicy) {
+    if (retryPolicy == null) {
+      throw new IllegalArgumentException("retryPolicy cannot be null");
+    }
+
+    this.retryPolicy = retryPolicy;
+    return this;
+  }
+
+  /**
+   * Limit the rate of requests on the client side.
+   *
+   * @param rateLimits the limits, shared with every facade using the same instance. Null to not
+   *     limit requests
+   * @return this
+   */
+  public ApiRequestConfig withRateLimits(RateLimits rateLimits) {
+    this.rateLimits = rateLimits;
+    return this;
+  }
+
+  /**
+   * Limit the amount of requests in flight.
+   *
+   * @param concurrencyLimiter the limiter, shared with every facade using the same instance. Null
+   *     to not limit requests
+   * @return this
+   */
+  public ApiRequestConfig withConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+    this.concurrencyLimiter = concurrencyLimiter;
+    return this;
+  }
+
+  /**
+   * Fail fast the requests to endpoints that keep failing.
+   *
+   * @param circuitBreakers the breakers, shared with every facade using the same instance. Null to
+   *     always send requests
+   * @return this
+   */
+  public ApiRequestConfig withCircuitBreakers(CircuitBreakers circuitBreakers) {
+    this.circuitBreakers = circuitBreakers;
+    return this;
+  }
+
+  /**
+   * Hedge slow GET requests.
+   *
+   * @param hedgingPolicy the policy. Null to never hedge requests
+   * @return this
+   */
+  public ApiRequestConfig withHedgingPolicy(HedgingPolicy hedgingPolicy) {
+    this.hedgingPolicy = hedgingPolicy;
+    return this;
+  }
+
+  /**
+   * Share the response of a GET request between concurrent identical requests.
+   *
+   * @param requestCoalescing true to coalesce requests. Default value is false
+   * @return this
+   */
+  public ApiRequestConfig withRequestCoalescing(boolean requestCoalescing) {
+    this.requestCoalescing = requestCoalescing;
+    return this;
+  }
+
+  /**
+   * Bound the time requests may take.
+   *
+   * @param timeouts the timeouts. Default value is {@link Timeouts#Timeouts()}
+   * @return this
+   */
+  public ApiRequestConfig withTimeouts(Timeouts timeouts) {
+    if (timeouts == null) {
+      throw new IllegalArgumentException("timeouts cannot be null");
+    }
+
+    this.timeouts = timeouts;
+    return this;
+  }
+
+  /**
+   * Bound the time the requests to an endpoint may take, instead of the default timeouts.
+   *
+   * @param endpointKey the key of the endpoint, see {@link ApiRequest#withEndpointKey(String)}
+   * @param timeouts the endpoint's timeouts. Null to use the default timeouts
+   * @return this
+   */
+  public ApiRequestConfig withEndpointTimeouts(String endpointKey, Timeouts timeouts) {
+    if (endpointKey == null) {
+      throw new IllegalArgumentException("endpointKey cannot be null");
+    }
+
+    if (timeouts == null) {
+      endpointTimeouts.remove(endpointKey);
+    } else {
+      endpointTimeouts.put(endpointKey, timeouts);
+    }
+    return this;
+  }
+
+  /**
+   * Spread requests across several base URLs.
+   *
+   * @param baseUrlBalancer the balancer, whose base URLs replace the facade's base URL. Null to
+   *     send every request to the facade's base URL
+   * @return this
+   */
+  public ApiRequestConfig withBaseUrlBalancer(BaseUrlBalancer baseUrlBalancer) {
+    this.baseUrlBalancer = baseUrlBalancer;
+    return this;
+  }
+
+  /**
+   * Isolate reads, writes and searches from each other.
+   *
+   * @param bulkheads the bulkheads, shared with every facade using the same instance. Null to not
+   *     isolate requests
+   * @return this
+   */
+  public ApiRequestConfig withBulkheads(Bulkheads bulkheads) {
+    this.bulkheads = bulkheads;
+    return this;
+  }
+
+  /**
+   * Send requests in order of their call's priority.
+   *
+   * @param priorityScheduler the scheduler, shared with every facade using the same instance. Null
+   *     to send requests in the order they're made
+   * @return this
+   */
+  public ApiRequestConfig withPriorityScheduler(PriorityScheduler priorityScheduler) {
+    this.priorityScheduler = priorityScheduler;
+    return this;
+  }
+
+  /**
+   * Share the requests in flight fairly with other tenants.
+   *
+   * @param tenantLane the lane of the facade's tenant. Null to not wait for a fair share
+   * @return this
+   */
+  public ApiRequestConfig withTenantLane(TenantLane tenantLane) {
+    this.tenantLane = tenantLane;
+    return this;
+  }
+
+  public TenantLane getTenantLane() {
+    return tenantLane;
+  }
+
+  public PriorityScheduler getPriorityScheduler() {
+    return priorityScheduler;
+  }
+
+  public Bulkheads getBulkheads() {
+    return bulkheads;
+  }
+
+  public BaseUrlBalancer getBaseUrlBalancer() {
+    return baseUrlBalancer;
+  }
+
+  public Timeouts getTimeouts() {
+    return timeouts;
+  }
+
+  public Map<String, Timeouts> getEndpointTimeouts() {
+    return Collections.unmodifiableMap(endpointTimeouts);
+  }
+
+  public boolean isRequestCoalescing() {
+    return requestCoalescing;
+  }
+
+  public HedgingPolicy getHedgingPolicy() {
+    return hedgingPolicy;
+  }
+
+  public CircuitBreakers getCircuitBreakers() {
+    return circuitBreakers;
+  }
+
+  public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  public RateLimits getRateLimits() {
+    return rateLimits;
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  public Transport getTransport() {
+    return transport;
+  }
+
+  public ConnectionPool getConnectionPool() {
+    return connectionPool;
+  }
+
+  public ResponseLeakDetector getResponseLeakDetector() {
+    return responseLeakDetector;
+  }
+}
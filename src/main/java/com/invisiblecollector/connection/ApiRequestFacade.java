@@ -1,88 +1,1332 @@
 package com.invisiblecollector.connection;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.invisiblecollector.connection.balance.Backend;
+import com.invisiblecollector.connection.balance.BaseUrlBalancer;
+import com.invisiblecollector.connection.breaker.CircuitBreaker;
+import com.invisiblecollector.connection.breaker.CircuitBreakers;
+import com.invisiblecollector.connection.breaker.CircuitState;
+import com.invisiblecollector.connection.bulkhead.Bulkheads;
+import com.invisiblecollector.connection.bulkhead.TrafficClass;
+import com.invisiblecollector.connection.concurrency.AdaptiveConcurrencyLimiter;
+import com.invisiblecollector.connection.hedge.HedgeMetrics;
+import com.invisiblecollector.connection.hedge.Hedger;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+import com.invisiblecollector.connection.pool.ConnectionPoolStats;
+import com.invisiblecollector.connection.priority.PriorityScheduler;
+import com.invisiblecollector.connection.ratelimit.AdaptiveRateLimiter;
+import com.invisiblecollector.connection.ratelimit.RateLimits;
+import com.invisiblecollector.connection.ratelimit.RequestClass;
+import com.invisiblecollector.connection.response.ResponseLeakDetector;
 import com.invisiblecollector.connection.response.ResponseValidator;
+import com.invisiblecollector.connection.retry.RetryAfter;
+import com.invisiblecollector.connection.retry.RetryAttempts;
+import com.invisiblecollector.connection.retry.RetryMetrics;
+import com.invisiblecollector.connection.retry.RetryPolicy;
+import com.invisiblecollector.connection.tenant.TenantLane;
+import com.invisiblecollector.connection.tenant.TenantScheduler;
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.connection.timeout.Timeouts;
+import com.invisiblecollector.connection.transport.BufferedResponse;
+import com.invisiblecollector.connection.transport.JerseyTransport;
+import com.invisiblecollector.connection.transport.Transport;
+import com.invisiblecollector.connection.transport.TransportRequest;
+import com.invisiblecollector.connection.transport.TransportResponse;
+import com.invisiblecollector.exceptions.IcCircuitOpenException;
+import com.invisiblecollector.exceptions.IcDeadlineExceededException;
 import com.invisiblecollector.exceptions.IcException;
-import org.glassfish.jersey.client.ClientProperties;
+import com.invisiblecollector.exceptions.IcRejectedException;
+import com.invisiblecollector.model.serialization.JsonSingleton;
 
-import javax.ws.rs.client.*;
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
+import javax.ws.rs.client.Client;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class ApiRequestFacade {
 
-  private static final String X_API_TOKEN_NAME = "Authorization";
-  private static final String X_API_TOKEN_PREFIX = "Bearer ";
-  private static final String JSON_TYPE = "application/json";
-  private static final String JSON_WITH_CHARSET_TYPE = JSON_TYPE + "; charset=utf-8";
+  private static final int TOO_MANY_REQUESTS = 429;
 
-  private static Client clientInstance = null; // assumed to be thread-safe
-
-  private final String apiToken;
-  private final URI baseUrl;
-  private final Client client;
+  private final RequestTemplate template;
+  private final BaseUrlBalancer balancer;
+  // one per backend of the balancer, in the same order
+  private final List<RequestTemplate> backendTemplates = new ArrayList<>();
+  private final Transport transport;
   private final ResponseValidator responseValidator;
+  private final ConnectionPool connectionPool;
+  private final ResponseLeakDetector leakDetector;
+  private final RetryPolicy retryPolicy;
+  private final RetryMetrics retryMetrics = new RetryMetrics();
+  private final AdaptiveRateLimiter readLimiter;
+  private final AdaptiveRateLimiter writeLimiter;
+  private final int maxThrottledResends;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final Map<TrafficClass, AdaptiveConcurrencyLimiter> bulkheadLimiters =
+      new EnumMap<>(TrafficClass.class);
+  private final Map<TrafficClass, Transport> bulkheadTransports = new EnumMap<>(TrafficClass.class);
+  private final PriorityScheduler priorityScheduler;
+  private final TenantLane tenantLane;
+  private final CircuitBreakers circuitBreakers;
+  private final Hedger hedger;
+  private final SingleFlight<String, BufferedResponse> singleFlight;
+  private final Timeouts timeouts;
+  private final Map<String, Timeouts> endpointTimeouts = new HashMap<>();
 
   public ApiRequestFacade(String apiToken, URI baseUrl, ResponseValidator responseValidator) {
-    this(apiToken, baseUrl, responseValidator, getClientInstance());
+    this(apiToken, baseUrl, responseValidator, new ApiRequestConfig());
   }
 
   public ApiRequestFacade(
       String apiToken, URI baseUrl, ResponseValidator responseValidator, Client client) {
-    this.apiToken = apiToken;
-    this.baseUrl = baseUrl;
-    this.responseValidator = responseValidator;
-    this.client = client;
+    this(apiToken, baseUrl, responseValidator, new JerseyTransport(client), new ApiRequestConfig());
   }
 
-  private static Client getClientInstance() {
-    if (clientInstance != null) {
-      return clientInstance;
-    }
+  /**
+   * Creates a facade that sends its requests through a connection pool.
+   *
+   * @param apiToken the company's Api Token
+   * @param baseUrl the hostname, scheme and optionally base path for the connection
+   * @param responseValidator the response validator
+   * @param connectionPool the connection pool. Its lifecycle is managed by the caller.
+   */
+  public ApiRequestFacade(
+      String apiToken,
+      URI baseUrl,
+      ResponseValidator responseValidator,
+      ConnectionPool connectionPool) {
+    this(
+        apiToken,
+        baseUrl,
+        responseValidator,
+        new ApiRequestConfig().withConnectionPool(connectionPool));
+  }
 
-    clientInstance = ClientBuilder.newClient();
-    clientInstance.property(ClientProperties.FOLLOW_REDIRECTS, true);
-    return clientInstance;
+  /**
+   * Creates a configured facade.
+   *
+   * @param apiToken the company's Api Token
+   * @param baseUrl the hostname, scheme and optionally base path for the connection
+   * @param responseValidator the response validator
+   * @param config the request configuration. Changes to it after construction have no effect.
+   */
+  public ApiRequestFacade(
+      String apiToken, URI baseUrl, ResponseValidator responseValidator, ApiRequestConfig config) {
+    this(
+        apiToken,
+        baseUrl,
+        responseValidator,
+        selectTransport(config),
+        config);
   }
 
-  private ApiRequestFacade addCommonHeaders(Invocation.Builder requestBuilder) {
-    requestBuilder.header(X_API_TOKEN_NAME, X_API_TOKEN_PREFIX + this.apiToken);
-    String host = this.baseUrl.getHost();
-    final int port = this.baseUrl.getPort();
-    if (port >= 0) {
-      host += ":" + port;
+  private ApiRequestFacade(
+      String apiToken,
+      URI baseUrl,
+      ResponseValidator responseValidator,
+      Transport transport,
+      ApiRequestConfig config) {
+    this.balancer = config.getBaseUrlBalancer();
+    if (balancer == null) {
+      this.template = new RequestTemplate(apiToken, baseUrl);
+    } else {
+      for (Backend backend : balancer.getBackends()) {
+        backendTemplates.add(new RequestTemplate(apiToken, backend.getBaseUrl()));
+      }
+      this.template = backendTemplates.get(0);
+    }
+    this.responseValidator = responseValidator;
+    this.transport = transport;
+    this.connectionPool = config.getConnectionPool();
+    this.leakDetector = config.getResponseLeakDetector();
+    this.retryPolicy = new RetryPolicy(config.getRetryPolicy());
+    this.concurrencyLimiter = config.getConcurrencyLimiter();
+    this.priorityScheduler = config.getPriorityScheduler();
+    this.tenantLane = config.getTenantLane();
+    Bulkheads bulkheads = config.getBulkheads();
+    if (bulkheads != null) {
+      for (TrafficClass trafficClass : TrafficClass.values()) {
+        if (bulkheads.getLimiter(trafficClass) != null) {
+          bulkheadLimiters.put(trafficClass, bulkheads.getLimiter(trafficClass));
+        }
+        if (bulkheads.getConnectionPool(trafficClass) != null) {
+          bulkheadTransports.put(
+              trafficClass,
+              new JerseyTransport(bulkheads.getConnectionPool(trafficClass).getClient()));
+        }
+      }
+    }
+    this.circuitBreakers = config.getCircuitBreakers();
+    this.hedger = config.getHedgingPolicy() == null ? null : new Hedger(config.getHedgingPolicy());
+    this.singleFlight = config.isRequestCoalescing() ? new SingleFlight<>() : null;
+    this.timeouts = new Timeouts(config.getTimeouts());
+    config
+        .getEndpointTimeouts()
+        .forEach((endpointKey, timeouts) -> endpointTimeouts.put(endpointKey, new Timeouts(timeouts)));
+
+    RateLimits rateLimits = config.getRateLimits();
+    if (rateLimits == null) {
+      this.readLimiter = null;
+      this.writeLimiter = null;
+      this.maxThrottledResends = 0;
+    } else {
+      this.readLimiter = rateLimits.getLimiter(apiToken, RequestClass.READ);
+      this.writeLimiter = rateLimits.getLimiter(apiToken, RequestClass.WRITE);
+      this.maxThrottledResends = rateLimits.getMaxThrottledResends();
     }
-    requestBuilder.header("Host", host);
-    requestBuilder.header("Accept", JSON_TYPE);
-    final String sendDate =
-        DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC));
-    requestBuilder.header("Date", sendDate);
-    return this;
   }
 
-  private <T> Response makeRequest(
-      Invocation.Builder request, RequestType requestType, T bodyToSend, String contentType) {
-    if (requestType == RequestType.GET) {
-      return request.get();
+  private static Transport selectTransport(ApiRequestConfig config) {
+    if (config.getTransport() != null) {
+      return config.getTransport();
     }
 
-    Entity entity = Entity.entity(bodyToSend == null ? "" : bodyToSend, contentType);
+    if (config.getConnectionPool() != null) {
+      return new JerseyTransport(config.getConnectionPool().getClient());
+    }
 
+    return JerseyTransport.shared();
+  }
+
+  private <T> byte[] buildBody(RequestType requestType, T bodyToSend) throws IcException {
     switch (requestType) {
+      case GET:
+        return null;
       case PUT:
-        return request.put(entity);
       case POST:
-        return request.post(entity);
+        return bodyToSend == null ? new byte[0] : serialize(bodyToSend);
       default:
         throw new IllegalStateException("Invalid program state");
     }
   }
 
+  private static byte[] serialize(Object bodyToSend) throws IcException {
+    try {
+      return JsonSingleton.getInstance().writeValueAsBytes(bodyToSend);
+    } catch (JsonProcessingException e) {
+      throw new IcException("Failed to serialize request body", e);
+    }
+  }
+
+  private BufferedResponse buffer(TransportResponse response) throws IOException {
+    ResponseLeakDetector.Tracked tracked = leakDetector.track(response);
+    try {
+      return BufferedResponse.of(response);
+    } finally {
+      response.close();
+      leakDetector.release(tracked);
+    }
+  }
+
+  private static boolean isOverloaded(BufferedResponse response) {
+    int status = response.getStatus();
+    return status == TOO_MANY_REQUESTS || status == 502 || status == 503 || status == 504;
+  }
+
+  private static void release(
+      AdaptiveConcurrencyLimiter.Permit permit, BufferedResponse response, Throwable throwable) {
+    if (throwable instanceof IOException) {
+      permit.drop();
+    } else if (throwable != null) {
+      permit.ignore();
+    } else if (isOverloaded(response)) {
+      permit.drop();
+    } else {
+      permit.succeed();
+    }
+  }
+
+  private static TrafficClass classify(ApiRequest request) {
+    return TrafficClass.of(request.getRequestType(), request.getEndpointKey());
+  }
+
+  private AdaptiveConcurrencyLimiter selectBulkhead(ApiRequest request) {
+    return bulkheadLimiters.isEmpty() ? null : bulkheadLimiters.get(classify(request));
+  }
+
+  private Transport selectTransport(ApiRequest request) {
+    Transport selected =
+        bulkheadTransports.isEmpty() ? null : bulkheadTransports.get(classify(request));
+    return selected == null ? transport : selected;
+  }
+
+  // the shared transport, unless every traffic class has a bulkhead pool of its own
+  private Set<Transport> selectableTransports() {
+    Set<Transport> selectable = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (TrafficClass trafficClass : TrafficClass.values()) {
+      selectable.add(bulkheadTransports.getOrDefault(trafficClass, transport));
+    }
+    return selectable;
+  }
+
+  /**
+   * Get the amount of distinct connection pools requests go through: the shared one and one per
+   * bulkhead with its own connection pool.
+   *
+   * @return the amount of pools
+   */
+  public int getConnectionPoolCount() {
+    return selectableTransports().size();
+  }
+
+  private static AdaptiveConcurrencyLimiter.Permit acquirePermit(
+      AdaptiveConcurrencyLimiter limiter, CallContext context) throws IcException {
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiter = limiter.acquire();
+    long maxWait = limiter.getMaxQueueWaitNanos();
+    long wait = Math.min(maxWait, context.getRemainingNanos());
+    try {
+      return waiter.get(wait, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // the caller's deadline passed first, which doesn't count as a rejection
+      if (wait < maxWait) {
+        if (limiter.abandon(waiter)) {
+          throw new IcDeadlineExceededException(
+              "Deadline exceeded while waiting for the concurrency limit");
+        }
+        return waiter.join();
+      }
+
+      // rejects the request, unless a permit was granted in the meantime
+      limiter.expire(waiter);
+      try {
+        return waiter.join();
+      } catch (CompletionException rejected) {
+        throw (IcRejectedException) rejected.getCause();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (!limiter.abandon(waiter)) {
+        waiter.join().ignore();
+      }
+      throw new IcException("Interrupted while waiting for the concurrency limit", e);
+    } catch (ExecutionException e) {
+      throw (IcRejectedException) e.getCause();
+    }
+  }
+
+  private CircuitBreaker selectBreaker(ApiRequest request) {
+    return circuitBreakers == null || request.getEndpointKey() == null
+        ? null
+        : circuitBreakers.getBreaker(request.getEndpointKey());
+  }
+
+  // checked before waiting for the concurrency limiter, so open circuits fail fast
+  private boolean isCircuitOpen(ApiRequest request) {
+    CircuitBreaker breaker = selectBreaker(request);
+    return breaker != null && breaker.getState() == CircuitState.OPEN;
+  }
+
+  private static boolean isServerError(BufferedResponse response) {
+    return response.getStatus() / 100 == 5;
+  }
+
+  private Timeouts selectTimeouts(ApiRequest request) {
+    Timeouts selected =
+        request.getEndpointKey() == null ? null : endpointTimeouts.get(request.getEndpointKey());
+    return selected == null ? timeouts : selected;
+  }
+
+  /** Gets the caller's context, narrowed by the call timeout of the request's endpoint. */
+  private CallContext resolveContext(ApiRequest request) {
+    CallContext context =
+        request.getCallContext() == null ? CallContext.current() : request.getCallContext();
+    long callTimeout = selectTimeouts(request).getCallTimeoutMillis();
+    return callTimeout > 0 ? context.withTimeout(callTimeout, TimeUnit.MILLISECONDS) : context;
+  }
+
+  private static int boundTimeout(long timeoutMillis, CallContext context) {
+    long bounded = timeoutMillis;
+    if (context.hasDeadline()) {
+      // rounded up, as a timeout of 0 means no timeout
+      long remainingMillis =
+          Math.max(1, TimeUnit.NANOSECONDS.toMillis(context.getRemainingNanos() + 999_999));
+      bounded = timeoutMillis == 0 ? remainingMillis : Math.min(timeoutMillis, remainingMillis);
+    }
+    return (int) Math.min(bounded, Integer.MAX_VALUE);
+  }
+
+  /** Sets the attempt's timeouts, bounded by the time left until the caller's deadline. */
+  private TransportRequest applyTimeouts(
+      TransportRequest request, ApiRequest apiRequest, CallContext context)
+      throws IcDeadlineExceededException {
+    if (context.isExpired()) {
+      throw new IcDeadlineExceededException("Deadline exceeded before sending the request");
+    }
+
+    Timeouts selected = selectTimeouts(apiRequest);
+    return request.withTimeouts(
+        boundTimeout(selected.getConnectTimeoutMillis(), context),
+        boundTimeout(selected.getReadTimeoutMillis(), context));
+  }
+
+  /**
+   * Sends a single attempt through the endpoint's circuit breaker and reads its response.
+   *
+   * <p>The body is fully read and the response closed before returning, on success or failure, so
+   * the connection always goes back to the pool regardless of what the caller does with the
+   * returned stream.
+   */
+  private BufferedResponse execute(
+      TransportRequest request, ApiRequest apiRequest, CallContext context)
+      throws IOException, IcException {
+    TransportRequest timed = applyTimeouts(request, apiRequest, context);
+    CircuitBreaker breaker = selectBreaker(apiRequest);
+    if (breaker == null) {
+      return buffer(selectTransport(apiRequest).execute(timed));
+    }
+
+    if (!breaker.tryAcquire()) {
+      throw new IcCircuitOpenException(apiRequest.getEndpointKey());
+    }
+
+    long start = System.nanoTime();
+    BufferedResponse response;
+    try {
+      response = buffer(selectTransport(apiRequest).execute(timed));
+    } catch (IOException e) {
+      breaker.onResult(System.nanoTime() - start, true);
+      throw e;
+    } catch (RuntimeException e) {
+      breaker.onIgnored();
+      throw e;
+    }
+    breaker.onResult(System.nanoTime() - start, isServerError(response));
+    return response;
+  }
+
+  private CompletableFuture<BufferedResponse> executeAsync(
+      TransportRequest request, ApiRequest apiRequest, CallContext context) {
+    TransportRequest timed;
+    try {
+      timed = applyTimeouts(request, apiRequest, context);
+    } catch (IcDeadlineExceededException e) {
+      return failedFuture(e);
+    }
+
+    CircuitBreaker breaker = selectBreaker(apiRequest);
+    if (breaker == null) {
+      return transportExchangeAsync(selectTransport(apiRequest), timed);
+    }
+
+    if (!breaker.tryAcquire()) {
+      return failedFuture(new IcCircuitOpenException(apiRequest.getEndpointKey()));
+    }
+
+    long start = System.nanoTime();
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    CompletableFuture<BufferedResponse> sent =
+        transportExchangeAsync(selectTransport(apiRequest), timed);
+    // the outcome is recorded before the caller sees the result, so its next call observes it
+    sent.whenComplete(
+        (response, throwable) -> {
+          if (throwable == null) {
+            breaker.onResult(System.nanoTime() - start, isServerError(response));
+            result.complete(response);
+            return;
+          }
+
+          if (throwable instanceof IOException) {
+            breaker.onResult(System.nanoTime() - start, true);
+          } else {
+            breaker.onIgnored();
+          }
+          result.completeExceptionally(throwable);
+        });
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            sent.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private boolean isUnlimited(AdaptiveConcurrencyLimiter bulkhead) {
+    return bulkhead == null
+        && priorityScheduler == null
+        && tenantLane == null
+        && concurrencyLimiter == null;
+  }
+
+  /**
+   * Sends a single attempt once its bulkhead, the priority scheduler, the tenant's fair share and
+   * the concurrency limiter allow it.
+   */
+  private BufferedResponse exchange(
+      TransportRequest request, ApiRequest apiRequest, CallContext context)
+      throws IOException, IcException {
+    AdaptiveConcurrencyLimiter bulkhead = selectBulkhead(apiRequest);
+    if (isUnlimited(bulkhead)) {
+      return execute(request, apiRequest, context);
+    }
+
+    if (isCircuitOpen(apiRequest)) {
+      throw new IcCircuitOpenException(apiRequest.getEndpointKey());
+    }
+
+    return permitted(
+        bulkhead,
+        context,
+        () ->
+            prioritized(
+                context,
+                () ->
+                    shared(
+                        context,
+                        () ->
+                            permitted(
+                                concurrencyLimiter,
+                                context,
+                                () -> execute(request, apiRequest, context)))));
+  }
+
+  private static <S> S awaitSlot(
+      CompletableFuture<S> waiter,
+      Predicate<CompletableFuture<S>> abandon,
+      Consumer<S> release,
+      CallContext context)
+      throws IcException {
+    try {
+      return context.hasDeadline()
+          ? waiter.get(context.getRemainingNanos(), TimeUnit.NANOSECONDS)
+          : waiter.get();
+    } catch (TimeoutException e) {
+      if (abandon.test(waiter)) {
+        throw new IcDeadlineExceededException("Deadline exceeded while waiting for its turn");
+      }
+      return waiter.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (!abandon.test(waiter)) {
+        release.accept(waiter.join());
+      }
+      throw new IcException("Interrupted while waiting for its turn", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Invalid program state", e);
+    }
+  }
+
+  /** Sends an attempt holding a slot of a scheduler, once its turn comes. */
+  private static <S> BufferedResponse scheduled(
+      CompletableFuture<S> waiter,
+      Predicate<CompletableFuture<S>> abandon,
+      Consumer<S> release,
+      CallContext context,
+      Attempt attempt)
+      throws IOException, IcException {
+    S slot = awaitSlot(waiter, abandon, release, context);
+    try {
+      return attempt.send();
+    } finally {
+      release.accept(slot);
+    }
+  }
+
+  private static <S> CompletableFuture<BufferedResponse> scheduledAsync(
+      CompletableFuture<S> waiter,
+      Predicate<CompletableFuture<S>> abandon,
+      Consumer<S> release,
+      Supplier<CompletableFuture<BufferedResponse>> attempt) {
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    waiter.thenAccept(
+        slot -> {
+          if (result.isDone()) {
+            release.accept(slot);
+            return;
+          }
+
+          CompletableFuture<BufferedResponse> sent = attempt.get();
+          sent.whenComplete(
+              (response, throwable) -> {
+                release.accept(slot);
+                if (throwable == null) {
+                  result.complete(response);
+                } else {
+                  result.completeExceptionally(throwable);
+                }
+              });
+          result.whenComplete(
+              (unused, throwable) -> {
+                if (result.isCancelled()) {
+                  sent.cancel(true);
+                }
+              });
+        });
+
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            abandon.test(waiter);
+          }
+        });
+    return result;
+  }
+
+  private BufferedResponse prioritized(CallContext context, Attempt attempt)
+      throws IOException, IcException {
+    if (priorityScheduler == null) {
+      return attempt.send();
+    }
+
+    return scheduled(
+        priorityScheduler.acquire(context.getPriority()),
+        priorityScheduler::abandon,
+        PriorityScheduler.Slot::release,
+        context,
+        attempt);
+  }
+
+  private CompletableFuture<BufferedResponse> prioritizedAsync(
+      CallContext context, Supplier<CompletableFuture<BufferedResponse>> attempt) {
+    if (priorityScheduler == null) {
+      return attempt.get();
+    }
+
+    return scheduledAsync(
+        priorityScheduler.acquire(context.getPriority()),
+        priorityScheduler::abandon,
+        PriorityScheduler.Slot::release,
+        attempt);
+  }
+
+  private BufferedResponse shared(CallContext context, Attempt attempt)
+      throws IOException, IcException {
+    if (tenantLane == null) {
+      return attempt.send();
+    }
+
+    return scheduled(
+        tenantLane.acquire(), tenantLane::abandon, TenantScheduler.Slot::release, context, attempt);
+  }
+
+  private CompletableFuture<BufferedResponse> sharedAsync(
+      Supplier<CompletableFuture<BufferedResponse>> attempt) {
+    if (tenantLane == null) {
+      return attempt.get();
+    }
+
+    return scheduledAsync(
+        tenantLane.acquire(), tenantLane::abandon, TenantScheduler.Slot::release, attempt);
+  }
+
+  /** Sends an attempt holding a permit of a limiter, if there is one. */
+  private static BufferedResponse permitted(
+      AdaptiveConcurrencyLimiter limiter, CallContext context, Attempt attempt)
+      throws IOException, IcException {
+    if (limiter == null) {
+      return attempt.send();
+    }
+
+    AdaptiveConcurrencyLimiter.Permit permit = acquirePermit(limiter, context);
+    BufferedResponse response;
+    try {
+      response = attempt.send();
+    } catch (IOException | IcException | RuntimeException e) {
+      release(permit, null, e);
+      throw e;
+    }
+    release(permit, response, null);
+    return response;
+  }
+
+  private CompletableFuture<BufferedResponse> exchangeAsync(
+      TransportRequest request, ApiRequest apiRequest, CallContext context) {
+    AdaptiveConcurrencyLimiter bulkhead = selectBulkhead(apiRequest);
+    if (isUnlimited(bulkhead)) {
+      return executeAsync(request, apiRequest, context);
+    }
+
+    if (isCircuitOpen(apiRequest)) {
+      return failedFuture(new IcCircuitOpenException(apiRequest.getEndpointKey()));
+    }
+
+    return permittedAsync(
+        bulkhead,
+        () ->
+            prioritizedAsync(
+                context,
+                () ->
+                    sharedAsync(
+                        () ->
+                            permittedAsync(
+                                concurrencyLimiter,
+                                () -> executeAsync(request, apiRequest, context)))));
+  }
+
+  private static CompletableFuture<BufferedResponse> permittedAsync(
+      AdaptiveConcurrencyLimiter limiter, Supplier<CompletableFuture<BufferedResponse>> attempt) {
+    if (limiter == null) {
+      return attempt.get();
+    }
+
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiter = limiter.acquire();
+    if (!waiter.isDone()) {
+      ScheduledFuture<?> timeout =
+          SharedScheduler.get()
+              .schedule(
+                  () -> limiter.expire(waiter),
+                  limiter.getMaxQueueWaitNanos(),
+                  TimeUnit.NANOSECONDS);
+      waiter.whenComplete((unused, throwable) -> timeout.cancel(false));
+    }
+
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    waiter.whenComplete(
+        (permit, throwable) -> {
+          if (throwable != null) {
+            result.completeExceptionally(unwrap(throwable));
+            return;
+          }
+
+          if (result.isDone()) {
+            permit.ignore();
+            return;
+          }
+
+          CompletableFuture<BufferedResponse> sent = attempt.get();
+          sent.whenComplete(
+              (response, sendThrowable) -> {
+                release(permit, response, sendThrowable);
+                if (sendThrowable == null) {
+                  result.complete(response);
+                } else {
+                  result.completeExceptionally(sendThrowable);
+                }
+              });
+          result.whenComplete(
+              (unused, resultThrowable) -> {
+                if (result.isCancelled()) {
+                  sent.cancel(true);
+                }
+              });
+        });
+
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            limiter.abandon(waiter);
+          }
+        });
+    return result;
+  }
+
+  private CompletableFuture<BufferedResponse> transportExchangeAsync(
+      Transport selected, TransportRequest request) {
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    CompletableFuture<TransportResponse> sent = selected.executeAsync(request);
+
+    sent.whenComplete(
+        (response, throwable) -> {
+          if (throwable != null) {
+            result.completeExceptionally(unwrap(throwable));
+            return;
+          }
+
+          try {
+            result.complete(buffer(response));
+          } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        });
+
+    // a cancelled result aborts the request, the transport still releases a late response
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            sent.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private boolean isHedgeable(ApiRequest request) {
+    return hedger != null && request.getRequestType() == RequestType.GET && request.isIdempotent();
+  }
+
+  private BufferedResponse attemptExchange(ApiRequest request, byte[] body, CallContext context)
+      throws IOException, IcException {
+    if (!isHedgeable(request)) {
+      return balancedExchange(request, body, context);
+    }
+
+    CompletableFuture<BufferedResponse> hedged = hedgedExchangeAsync(request, body, context);
+    try {
+      return hedged.get(context.getRemainingNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      hedged.cancel(true);
+      throw new IcDeadlineExceededException("Deadline exceeded while waiting for the response", e);
+    } catch (InterruptedException e) {
+      hedged.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IcException("Interrupted while waiting for the response", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof IcException) {
+        throw (IcException) cause;
+      }
+      throw new IcException(cause);
+    }
+  }
+
+  private CompletableFuture<BufferedResponse> attemptExchangeAsync(
+      ApiRequest request, byte[] body, CallContext context) {
+    return isHedgeable(request)
+        ? hedgedExchangeAsync(request, body, context)
+        : balancedExchangeAsync(request, body, context);
+  }
+
+  /** Sends an attempt to the base URL picked by the balancer, and records how it went. */
+  private BufferedResponse balancedExchange(ApiRequest request, byte[] body, CallContext context)
+      throws IOException, IcException {
+    if (balancer == null) {
+      return exchange(buildRequest(template, request, body), request, context);
+    }
+
+    Backend backend = balancer.select();
+    RequestTemplate backendTemplate = backendTemplates.get(backend.getIndex());
+    long start = System.nanoTime();
+    BufferedResponse response;
+    try {
+      response = exchange(buildRequest(backendTemplate, request, body), request, context);
+    } catch (IOException e) {
+      backend.onResult(System.nanoTime() - start, true);
+      throw e;
+    } catch (IcException | RuntimeException e) {
+      backend.onIgnored();
+      throw e;
+    }
+    backend.onResult(System.nanoTime() - start, isServerError(response));
+    return response;
+  }
+
+  private CompletableFuture<BufferedResponse> balancedExchangeAsync(
+      ApiRequest request, byte[] body, CallContext context) {
+    if (balancer == null) {
+      return exchangeAsync(buildRequest(template, request, body), request, context);
+    }
+
+    Backend backend = balancer.select();
+    RequestTemplate backendTemplate = backendTemplates.get(backend.getIndex());
+    long start = System.nanoTime();
+    CompletableFuture<BufferedResponse> sent =
+        exchangeAsync(buildRequest(backendTemplate, request, body), request, context);
+    sent.whenComplete(
+        (response, throwable) -> {
+          Throwable cause = unwrap(throwable);
+          if (throwable == null) {
+            backend.onResult(System.nanoTime() - start, isServerError(response));
+          } else if (cause instanceof IcException || cause instanceof CancellationException) {
+            backend.onIgnored();
+          } else {
+            backend.onResult(System.nanoTime() - start, true);
+          }
+        });
+    return sent;
+  }
+
+  /**
+   * Sends a GET and, if it isn't answered within the hedging delay, an identical hedge. The first
+   * successful response wins and the other request is cancelled, releasing its connection.
+   *
+   * <p>A hedge takes its own rate limiter permit, and isn't sent if none is free right away. A
+   * throttled or server error response only ends the exchange once no other request is pending.
+   */
+  private CompletableFuture<BufferedResponse> hedgedExchangeAsync(
+      ApiRequest request, byte[] body, CallContext context) {
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    long start = System.nanoTime();
+    long delay = hedger.onRequest();
+    AdaptiveRateLimiter limiter = selectLimiter(request);
+    // the primary request and, once sent, the hedge
+    List<CompletableFuture<BufferedResponse>> attempts = new CopyOnWriteArrayList<>();
+    AtomicInteger pending = new AtomicInteger(1);
+    AtomicBoolean answered = new AtomicBoolean();
+    AtomicReference<BufferedResponse> rejected = new AtomicReference<>();
+
+    BiConsumer<CompletableFuture<BufferedResponse>, Boolean> track =
+        (attempt, isHedge) ->
+            attempt.whenComplete(
+                (response, throwable) -> {
+                  boolean last = pending.decrementAndGet() == 0;
+                  if (throwable == null && !last && isRejected(response)) {
+                    // the other request may still succeed, the caller only sees this if it fails
+                    rejected.set(response);
+                    if (limiter != null && isThrottled(response)) {
+                      onThrottled(limiter, response);
+                    }
+                  } else if (throwable == null) {
+                    // the win is recorded before the caller can resume and read the metrics
+                    if (!result.isDone() && answered.compareAndSet(false, true)) {
+                      hedger.onResponse(System.nanoTime() - start, isHedge);
+                      result.complete(response);
+                    }
+                  } else if (last && rejected.get() != null) {
+                    result.complete(rejected.get());
+                  } else if (last) {
+                    result.completeExceptionally(throwable);
+                  }
+                });
+
+    CompletableFuture<BufferedResponse> primary = balancedExchangeAsync(request, body, context);
+    attempts.add(primary);
+    ScheduledFuture<?> hedgeTimer =
+        SharedScheduler.get()
+            .schedule(
+                () -> {
+                  // a failed primary is left to the retry policy, and the hedge isn't worth
+                  // waiting for a permit as the primary may answer meanwhile
+                  if (result.isDone()
+                      || !hedger.tryHedge(
+                          () ->
+                              pending.get() == 1
+                                  && tryReserveNow(limiter)
+                                  && pending.compareAndSet(1, 2))) {
+                    return;
+                  }
+
+                  CompletableFuture<BufferedResponse> hedge =
+                      balancedExchangeAsync(request, body, context);
+                  attempts.add(hedge);
+                  track.accept(hedge, true);
+                },
+                delay,
+                TimeUnit.NANOSECONDS);
+    track.accept(primary, false);
+
+    // the loser, or both requests if the caller gave up, are cancelled
+    result.whenComplete(
+        (unused, throwable) -> {
+          hedgeTimer.cancel(false);
+          attempts.forEach(attempt -> attempt.cancel(true));
+        });
+    return result;
+  }
+
+  private static boolean tryReserveNow(AdaptiveRateLimiter limiter) {
+    return limiter == null || limiter.tryReserve(1) != AdaptiveRateLimiter.UNAVAILABLE;
+  }
+
+  private static boolean isRejected(BufferedResponse response) {
+    return isThrottled(response) || isServerError(response);
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  private static TransportRequest buildRequest(
+      RequestTemplate requestTemplate, ApiRequest request, byte[] body) {
+    return requestTemplate.build(
+        request.getRequestType(), request.getEndpoint(), request.getQuery(), body);
+  }
+
+  private AdaptiveRateLimiter selectLimiter(ApiRequest request) {
+    return RequestClass.of(request.getRequestType()) == RequestClass.READ
+        ? readLimiter
+        : writeLimiter;
+  }
+
+  // a retried call that ends on an error response wasn't recovered
+  private static boolean isSuccessful(BufferedResponse response) {
+    return response.getStatus() >= 200 && response.getStatus() < 300;
+  }
+
+  private static boolean isThrottled(BufferedResponse response) {
+    return response.getStatus() == TOO_MANY_REQUESTS;
+  }
+
+  private static void onThrottled(AdaptiveRateLimiter limiter, BufferedResponse response) {
+    limiter.onThrottled(RetryAfter.parseMillis(response.getHeader(RetryAfter.HEADER_NAME)));
+  }
+
+  /**
+   * Sends a single attempt once the rate limiter allows it.
+   *
+   * <p>Throttled requests weren't processed by the server, so they are sent again after waiting,
+   * idempotent or not.
+   */
+  private BufferedResponse exchangeLimited(ApiRequest request, byte[] body, CallContext context)
+      throws IOException, IcException {
+    AdaptiveRateLimiter limiter = selectLimiter(request);
+    if (limiter == null) {
+      return attemptExchange(request, body, context);
+    }
+
+    for (int resends = 0; ; resends++) {
+      long wait = limiter.tryReserve(context.getRemainingNanos());
+      if (wait == AdaptiveRateLimiter.UNAVAILABLE) {
+        throw new IcDeadlineExceededException(
+            "Deadline exceeded while waiting for the rate limiter");
+      }
+      if (wait > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IcException("Interrupted while waiting for the rate limiter", e);
+        }
+      }
+
+      BufferedResponse response = attemptExchange(request, body, context);
+      if (!isThrottled(response)) {
+        return response;
+      }
+
+      onThrottled(limiter, response);
+      if (resends >= maxThrottledResends) {
+        return response;
+      }
+    }
+  }
+
+  private CompletableFuture<BufferedResponse> exchangeLimitedAsync(
+      ApiRequest request,
+      byte[] body,
+      CallContext context,
+      AtomicReference<Future<?>> inFlight) {
+    AdaptiveRateLimiter limiter = selectLimiter(request);
+    if (limiter == null) {
+      CompletableFuture<BufferedResponse> sent = attemptExchangeAsync(request, body, context);
+      inFlight.set(sent);
+      return sent;
+    }
+
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    throttledAttemptAsync(request, body, context, limiter, 0, result, inFlight);
+    return result;
+  }
+
+  private void throttledAttemptAsync(
+      ApiRequest request,
+      byte[] body,
+      CallContext context,
+      AdaptiveRateLimiter limiter,
+      int resends,
+      CompletableFuture<BufferedResponse> result,
+      AtomicReference<Future<?>> inFlight) {
+    long wait = limiter.tryReserve(context.getRemainingNanos());
+    if (wait == AdaptiveRateLimiter.UNAVAILABLE) {
+      result.completeExceptionally(
+          new IcDeadlineExceededException("Deadline exceeded while waiting for the rate limiter"));
+      return;
+    }
+
+    Runnable attempt =
+        () -> {
+          CompletableFuture<BufferedResponse> sent =
+              attemptExchangeAsync(request, body, context);
+          inFlight.set(sent);
+          sent.whenComplete(
+              (response, throwable) -> {
+                if (throwable != null) {
+                  result.completeExceptionally(throwable);
+                } else if (!isThrottled(response)) {
+                  result.complete(response);
+                } else {
+                  onThrottled(limiter, response);
+                  if (resends >= maxThrottledResends) {
+                    result.complete(response);
+                  } else {
+                    throttledAttemptAsync(
+                        request, body, context, limiter, resends + 1, result, inFlight);
+                  }
+                }
+              });
+        };
+
+    if (wait > 0) {
+      inFlight.set(SharedScheduler.get().schedule(attempt, wait, TimeUnit.NANOSECONDS));
+    } else {
+      attempt.run();
+    }
+  }
+
+  private static IcException failure(Throwable cause, CallContext context) {
+    return context.isExpired()
+        ? new IcDeadlineExceededException("Deadline exceeded while waiting for the response", cause)
+        : new IcException("Request failed", cause);
+  }
+
+  /**
+   * Decide whether to retry after a response. A throttled response of a rate limited request
+   * isn't retried, the rate limiter already resent it as many times as it's allowed to.
+   */
+  private long nextDelayMillis(
+      RetryAttempts attempts, ApiRequest request, BufferedResponse response) {
+    if (isThrottled(response) && selectLimiter(request) != null) {
+      return RetryAttempts.NO_RETRY;
+    }
+    return attempts.nextDelayMillis(response);
+  }
+
+  private static boolean isPastDeadline(long delayMillis, CallContext context) {
+    return TimeUnit.MILLISECONDS.toNanos(delayMillis) >= context.getRemainingNanos();
+  }
+
+  private BufferedResponse send(ApiRequest request, byte[] body, CallContext context)
+      throws IcException {
+    RetryAttempts attempts = retryPolicy.newAttempts(request.isIdempotent());
+    while (true) {
+      BufferedResponse response;
+      long delay;
+      try {
+        response = exchangeLimited(request, body, context);
+        delay = nextDelayMillis(attempts, request, response);
+      } catch (IOException e) {
+        delay = attempts.nextDelayAfterTransportError();
+        if (delay == RetryAttempts.NO_RETRY || isPastDeadline(delay, context)) {
+          retryMetrics.record(attempts, false);
+          throw failure(e, context);
+        }
+        response = null;
+      }
+
+      if (delay == RetryAttempts.NO_RETRY) {
+        retryMetrics.record(attempts, isSuccessful(response));
+        return response;
+      }
+
+      // the caller would no longer be waiting for the retry
+      if (response != null && isPastDeadline(delay, context)) {
+        retryMetrics.record(attempts, false);
+        return response;
+      }
+
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        retryMetrics.record(attempts, false);
+        throw new IcException("Interrupted while waiting to retry", e);
+      }
+    }
+  }
+
+  private CompletableFuture<BufferedResponse> sendAsync(
+      ApiRequest request, byte[] body, CallContext context) {
+    CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+    RetryAttempts attempts = retryPolicy.newAttempts(request.isIdempotent());
+    AtomicReference<Future<?>> inFlight = new AtomicReference<>();
+    if (context.hasDeadline()) {
+      ScheduledFuture<?> deadline =
+          SharedScheduler.get()
+              .schedule(
+                  () -> {
+                    IcException exceeded =
+                        new IcDeadlineExceededException(
+                            "Deadline exceeded while waiting for the response");
+                    if (result.completeExceptionally(exceeded)) {
+                      retryMetrics.record(attempts, false);
+                      Future<?> current = inFlight.get();
+                      if (current != null) {
+                        current.cancel(true);
+                      }
+                    }
+                  },
+                  context.getRemainingNanos(),
+                  TimeUnit.NANOSECONDS);
+      result.whenComplete((unused, throwable) -> deadline.cancel(false));
+    }
+    attemptAsync(request, body, context, attempts, result, inFlight);
+
+    // a cancelled result aborts the attempt in flight or the pending retry
+    result.whenComplete(
+        (unused, throwable) -> {
+          Future<?> current = inFlight.get();
+          if (result.isCancelled() && current != null) {
+            current.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private void attemptAsync(
+      ApiRequest request,
+      byte[] body,
+      CallContext context,
+      RetryAttempts attempts,
+      CompletableFuture<BufferedResponse> result,
+      AtomicReference<Future<?>> inFlight) {
+    if (result.isDone()) {
+      return;
+    }
+
+    CompletableFuture<BufferedResponse> sent =
+        exchangeLimitedAsync(request, body, context, inFlight);
+    sent.whenComplete(
+        (response, throwable) -> {
+          if (result.isDone()) {
+            return;
+          }
+
+          // rejected before being sent, retrying would only add to the load
+          if (throwable instanceof IcException) {
+            retryMetrics.record(attempts, false);
+            result.completeExceptionally(throwable);
+            return;
+          }
+
+          long delay =
+              throwable == null
+                  ? nextDelayMillis(attempts, request, response)
+                  : attempts.nextDelayAfterTransportError();
+          if (delay == RetryAttempts.NO_RETRY) {
+            if (throwable == null) {
+              retryMetrics.record(attempts, isSuccessful(response));
+              result.complete(response);
+            } else {
+              retryMetrics.record(attempts, false);
+              result.completeExceptionally(failure(throwable, context));
+            }
+            return;
+          }
+
+          // the caller would no longer be waiting for the retry
+          if (isPastDeadline(delay, context)) {
+            retryMetrics.record(attempts, false);
+            if (throwable == null) {
+              result.complete(response);
+            } else {
+              result.completeExceptionally(
+                  new IcDeadlineExceededException("Deadline exceeded before retrying", throwable));
+            }
+            return;
+          }
+
+          inFlight.set(
+              SharedScheduler.get()
+                  .schedule(
+                      () -> attemptAsync(request, body, context, attempts, result, inFlight),
+                      delay,
+                      TimeUnit.MILLISECONDS));
+        });
+  }
+
+  private boolean isCoalescable(ApiRequest request) {
+    return singleFlight != null && request.getRequestType() == RequestType.GET;
+  }
+
+  private static String coalescingKey(ApiRequest request) {
+    if (request.getQuery().isEmpty()) {
+      return request.getEndpoint();
+    }
+
+    // sorted so that the same parameters in a different order share the call
+    return request.getEndpoint() + "?" + new TreeMap<>(request.getQuery());
+  }
+
+  private InputStream readValidatedBody(BufferedResponse response) throws IcException {
+    responseValidator.assertApiJsonResponse(response);
+    return response.getBody();
+  }
+
+  /**
+   * Sends a request expecting JSON in return.
+   *
+   * <p>Failed attempts are retried as configured by the facade's {@link RetryPolicy}, until the
+   * deadline of the request's {@link CallContext} or call timeout passes. With request coalescing
+   * enabled, a GET identical to one in flight waits for and shares its response.
+   *
+   * @param request the request to send
+   * @return response body
+   * @throws IcException if the request fails or the API returns an error
+   */
+  public InputStream request(ApiRequest request) throws IcException {
+    byte[] body = buildBody(request.getRequestType(), request.getBody());
+    CallContext context = resolveContext(request);
+
+    BufferedResponse response =
+        isCoalescable(request)
+            ? singleFlight.execute(
+                coalescingKey(request), context, () -> send(request, body, context))
+            : send(request, body, context);
+    return readValidatedBody(response);
+  }
+
+  /**
+   * Asynchronously sends a request expecting JSON in return.
+   *
+   * <p>The request is sent without blocking the calling thread, and so are its retries. The
+   * calling thread's {@link CallContext} is captured and bounds the request. Cancelling the
+   * returned future aborts the request, unless it is shared with other callers.
+   *
+   * @param request the request to send
+   * @return the future response body. Completes exceptionally with an {@link IcException} on
+   *     failure.
+   */
+  public CompletableFuture<InputStream> requestAsync(ApiRequest request) {
+    byte[] body;
+    try {
+      body = buildBody(request.getRequestType(), request.getBody());
+    } catch (IcException e) {
+      return failedFuture(e);
+    }
+
+    CallContext context = resolveContext(request);
+    CompletableFuture<BufferedResponse> sent =
+        isCoalescable(request)
+            ? singleFlight.executeAsync(
+                coalescingKey(request), context, () -> sendAsync(request, body, context))
+            : sendAsync(request, body, context);
+    CompletableFuture<InputStream> result = new CompletableFuture<>();
+    sent.whenComplete(
+        (response, throwable) -> {
+          if (throwable != null) {
+            result.completeExceptionally(unwrap(throwable));
+            return;
+          }
+
+          try {
+            result.complete(readValidatedBody(response));
+          } catch (IcException | RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        });
+
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            sent.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+
   /**
    * Sends a JSON request expecting JSON in return
    *
@@ -91,39 +1335,150 @@ public class ApiRequestFacade {
    * @param bodyToSend can be null if no body present
    * @return response body
    * @throws IcException
+   * @see #request(ApiRequest)
    */
   public <T> InputStream jsonToJsonRequest(
       RequestType requestType, String urlEndpoint, T bodyToSend) throws IcException {
-    Invocation.Builder request =
-        client.target(baseUrl).path(urlEndpoint).request(MediaType.APPLICATION_JSON);
-    this.addCommonHeaders(request);
-
-    Response response = makeRequest(request, requestType, bodyToSend, JSON_WITH_CHARSET_TYPE);
-
-    responseValidator.assertApiJsonResponse(response);
-
-    return response.readEntity(InputStream.class);
+    return request(new ApiRequest(requestType, urlEndpoint).withBody(bodyToSend));
   }
 
   public InputStream uriEncodedToJsonRequest(
       RequestType requestType, String urlEndpoint, Map<String, Object> uriQuery)
       throws IcException {
+    return request(new ApiRequest(requestType, urlEndpoint).withQuery(uriQuery));
+  }
+
+  /**
+   * Asynchronously sends a JSON request expecting JSON in return.
+   *
+   * <p>The request is sent without blocking the calling thread. Cancelling the returned future
+   * aborts the request.
+   *
+   * @param requestType HTTP request type
+   * @param urlEndpoint path
+   * @param bodyToSend can be null if no body present
+   * @return the future response body. Completes exceptionally with an {@link IcException} on
+   *     failure.
+   * @see #requestAsync(ApiRequest)
+   */
+  public <T> CompletableFuture<InputStream> jsonToJsonRequestAsync(
+      RequestType requestType, String urlEndpoint, T bodyToSend) {
+    return requestAsync(new ApiRequest(requestType, urlEndpoint).withBody(bodyToSend));
+  }
+
+  /**
+   * Asynchronously sends a request with an URI encoded query, expecting JSON in return.
+   *
+   * @param requestType HTTP request type
+   * @param urlEndpoint path
+   * @param uriQuery the query parameters
+   * @return the future response body. Completes exceptionally with an {@link IcException} on
+   *     failure.
+   * @see #jsonToJsonRequestAsync(RequestType, String, Object)
+   */
+  public CompletableFuture<InputStream> uriEncodedToJsonRequestAsync(
+      RequestType requestType, String urlEndpoint, Map<String, Object> uriQuery) {
+    return requestAsync(new ApiRequest(requestType, urlEndpoint).withQuery(uriQuery));
+  }
 
-    WebTarget path = client.target(baseUrl).path(urlEndpoint);
-    for (Map.Entry<String, Object> e : uriQuery.entrySet()) {
-      path = path.queryParam(e.getKey(), e.getValue());
+  /**
+   * Open connections to the base URL ahead of the first requests, by sending concurrent GET probes
+   * to it through each of the {@link #getConnectionPoolCount()} connection pools requests use. With
+   * several base URLs the probes of a pool are spread evenly between them. The probes skip the
+   * retry policy, limiters and circuit breakers, and their connections are kept alive for the
+   * following requests.
+   *
+   * @param connections the amount of probes sent at once through each connection pool
+   * @return the amount of probes the API answered, with any status
+   * @throws IcException if interrupted while waiting for the answers
+   */
+  public int probeConnections(int connections) throws IcException {
+    CallContext context = CallContext.current();
+    List<RequestTemplate> probed =
+        balancer == null ? Collections.singletonList(template) : backendTemplates;
+    Set<Transport> pools = selectableTransports();
+    List<CompletableFuture<BufferedResponse>> probes =
+        new ArrayList<>(connections * pools.size());
+    for (Transport pool : pools) {
+      for (int i = 0; i < connections; i++) {
+        TransportRequest probe =
+            probed
+                .get(i % probed.size())
+                .build(RequestType.GET, "", Collections.emptyMap(), null)
+                .withTimeouts(
+                    boundTimeout(timeouts.getConnectTimeoutMillis(), context),
+                    boundTimeout(timeouts.getReadTimeoutMillis(), context));
+        probes.add(transportExchangeAsync(pool, probe));
+      }
     }
 
-    Invocation.Builder request = path.request(MediaType.APPLICATION_JSON);
-    this.addCommonHeaders(request);
+    try {
+      // waits for every probe, answered or failed
+      CompletableFuture.allOf(
+              probes
+                  .stream()
+                  .map(sent -> sent.handle((response, throwable) -> response))
+                  .toArray(CompletableFuture<?>[]::new))
+          .get();
+    } catch (InterruptedException e) {
+      probes.forEach(sent -> sent.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new IcException("Interrupted while probing connections", e);
+    } catch (ExecutionException e) {
+      throw new IcException(e.getCause());
+    }
 
-    Response response = makeRequest(request, requestType, null, JSON_WITH_CHARSET_TYPE);
+    return (int) probes.stream().filter(sent -> !sent.isCompletedExceptionally()).count();
+  }
 
-    responseValidator.assertApiJsonResponse(response);
+  /**
+   * Get the retry counters of this facade.
+   *
+   * @return the live metrics
+   */
+  public RetryMetrics getRetryMetrics() {
+    return retryMetrics;
+  }
 
-    return response.readEntity(InputStream.class);
+  /**
+   * Get the amount of GET requests that shared the response of an identical request in flight.
+   *
+   * @return the amount of requests, 0 if request coalescing isn't enabled
+   */
+  public long getCoalescedRequestCount() {
+    return singleFlight == null ? 0 : singleFlight.getCoalescedCalls();
   }
 
+  /**
+   * Get the hedging counters of this facade.
+   *
+   * @return the live metrics
+   * @throws IllegalStateException if this facade isn't hedging requests
+   */
+  public HedgeMetrics getHedgeMetrics() {
+    if (hedger == null) {
+      throw new IllegalStateException("No hedging policy configured");
+    }
 
+    return hedger.getMetrics();
+  }
 
+  /**
+   * Get the statistics of the connection pool used by this facade.
+   *
+   * @return a snapshot of the pool's state
+   * @throws IllegalStateException if this facade isn't using a connection pool
+   */
+  public ConnectionPoolStats getConnectionPoolStats() {
+    if (connectionPool == null) {
+      throw new IllegalStateException("No connection pool configured");
+    }
+
+    return connectionPool.getStats();
+  }
+
+  /** A single attempt, sent once its permits are acquired. */
+  private interface Attempt {
+    BufferedResponse send() throws IOException, IcException;
+  }
 }
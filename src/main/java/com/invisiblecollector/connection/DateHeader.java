@@ -0,0 +1,54 @@
+package com.invisiblecollector.connection;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats the HTTP Date header value, at most once per second.
+ *
+ * <p>Thread-safe and lock-free. Concurrent callers at the turn of a second may each format the
+ * value, the last one to do so wins.
+ *
+ * @author ros
+ */
+final class DateHeader {
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+  private static final DateHeader SYSTEM = new DateHeader(Clock.systemUTC());
+
+  private final Clock clock;
+  private volatile Entry current = new Entry(Long.MIN_VALUE, null);
+
+  private static final class Entry {
+    private final long epochSecond;
+    private final String value;
+
+    Entry(long epochSecond, String value) {
+      this.epochSecond = epochSecond;
+      this.value = value;
+    }
+  }
+
+  DateHeader(Clock clock) {
+    this.clock = clock;
+  }
+
+  /** @return the header cache that follows the system clock */
+  static DateHeader system() {
+    return SYSTEM;
+  }
+
+  /** @return the current date, formatted as described in RFC 1123 */
+  String now() {
+    long epochSecond = clock.millis() / 1000;
+    Entry entry = current;
+    if (entry.epochSecond != epochSecond) {
+      entry = new Entry(epochSecond, FORMATTER.format(Instant.ofEpochSecond(epochSecond)));
+      current = entry;
+    }
+    return entry.value;
+  }
+}
@@ -0,0 +1,82 @@
+package com.invisiblecollector.connection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A small cache of values derived from endpoints, such as resolved URIs or targets.
+ *
+ * <p>Endpoints that embed ids are unbounded, so the least recently used value is evicted once the
+ * cache is full. The fixed endpoints are hit often enough to stay cached.
+ *
+ * <p>Thread-safe.
+ *
+ * @param <K> the key type
+ * @param <V> the cached value type
+ * @author ros
+ */
+public final class EndpointCache<K, V> {
+
+  private final LruMap<K, V> values;
+
+  /**
+   * Creates a cache.
+   *
+   * @param maxSize the maximum amount of cached values
+   */
+  public EndpointCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+
+    this.values = new LruMap<>(maxSize);
+  }
+
+  /**
+   * Get a cached value, computing it if absent.
+   *
+   * @param key the key
+   * @param mapping computes the value of a key. Must be side-effect free.
+   * @return the value
+   */
+  public V get(K key, Function<K, V> mapping) {
+    synchronized (values) {
+      V value = values.get(key);
+      if (value != null) {
+        return value;
+      }
+    }
+
+    // computed outside the lock, a concurrent miss on the same key just computes it twice
+    V value = mapping.apply(key);
+    synchronized (values) {
+      values.put(key, value);
+    }
+    return value;
+  }
+
+  /** @return the amount of cached values */
+  public int size() {
+    synchronized (values) {
+      return values.size();
+    }
+  }
+
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    private LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
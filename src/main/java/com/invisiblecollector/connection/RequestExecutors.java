@@ -0,0 +1,51 @@
+package com.invisiblecollector.connection;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors on which the bulk and fan-out helpers run their blocking requests.
+ *
+ * <p>This is the Java 8 version, which runs the requests on a fixed pool of platform threads.
+ * When the library is built as a multi-release JAR and runs on Java 21 or later, a version of this
+ * class that runs every request on its own virtual thread is used instead.
+ *
+ * @author ros
+ */
+public class RequestExecutors {
+
+  private RequestExecutors() {}
+
+  /**
+   * Check which kind of threads the executors use.
+   *
+   * @return true if every request runs on its own virtual thread
+   */
+  public static boolean isVirtualThreadMode() {
+    return false;
+  }
+
+  /**
+   * Create an executor for blocking requests.
+   *
+   * @param namePrefix the prefix of the names of the executor's threads
+   * @param parallelism the maximum amount of concurrent requests the caller intends to run
+   * @return the executor. Must be shut down by the caller.
+   */
+  public static ExecutorService newRequestExecutor(String namePrefix, int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> {
+          Thread thread = new Thread(runnable, namePrefix + threadCount.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        };
+    return Executors.newFixedThreadPool(parallelism, threadFactory);
+  }
+}
@@ -0,0 +1,93 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.transport.TransportRequest;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the requests of an {@link ApiRequestFacade}.
+ *
+ * <p>Everything that doesn't change between requests is computed once: the Authorization and Host
+ * header values, the base URI and the resolved endpoint URIs. The Date header is formatted at most
+ * once per second.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+final class RequestTemplate {
+
+  private static final String X_API_TOKEN_NAME = "Authorization";
+  private static final String X_API_TOKEN_PREFIX = "Bearer ";
+  private static final String JSON_TYPE = "application/json";
+  private static final String JSON_WITH_CHARSET_TYPE = JSON_TYPE + "; charset=utf-8";
+  private static final int MAX_CACHED_ENDPOINTS = 64;
+  private static final int HEADER_COUNT = 5;
+
+  private final String basePrefix;
+  private final String authorization;
+  private final String host;
+  private final DateHeader dateHeader;
+  private final EndpointCache<String, URI> resolvedEndpoints =
+      new EndpointCache<>(MAX_CACHED_ENDPOINTS);
+
+  RequestTemplate(String apiToken, URI baseUrl) {
+    this(apiToken, baseUrl, DateHeader.system());
+  }
+
+  RequestTemplate(String apiToken, URI baseUrl, DateHeader dateHeader) {
+    String base = baseUrl.toString();
+    this.basePrefix = base.endsWith("/") ? base : base + "/";
+    this.authorization = X_API_TOKEN_PREFIX + apiToken;
+    this.host =
+        baseUrl.getPort() >= 0 ? baseUrl.getHost() + ":" + baseUrl.getPort() : baseUrl.getHost();
+    this.dateHeader = dateHeader;
+  }
+
+  /**
+   * Build a request.
+   *
+   * @param requestType the HTTP method
+   * @param urlEndpoint the path, relative to the base URI
+   * @param uriQuery the query parameters
+   * @param body the JSON body or null if the request has none
+   * @return the request
+   */
+  TransportRequest build(
+      RequestType requestType, String urlEndpoint, Map<String, Object> uriQuery, byte[] body) {
+    Map<String, String> headers = new LinkedHashMap<>(HEADER_COUNT * 2);
+    headers.put(X_API_TOKEN_NAME, authorization);
+    headers.put("Host", host);
+    headers.put("Accept", JSON_TYPE);
+    headers.put("Date", dateHeader.now());
+    if (body != null) {
+      headers.put("Content-Type", JSON_WITH_CHARSET_TYPE);
+    }
+
+    return new TransportRequest(requestType, resolve(urlEndpoint, uriQuery), headers, body);
+  }
+
+  private URI resolve(String urlEndpoint, Map<String, Object> uriQuery) {
+    if (uriQuery.isEmpty()) {
+      return resolvedEndpoints.get(urlEndpoint, endpoint -> URI.create(appendPath(endpoint)));
+    }
+
+    StringBuilder uri = new StringBuilder(appendPath(urlEndpoint));
+    char separator = '?';
+    for (Map.Entry<String, Object> e : uriQuery.entrySet()) {
+      uri.append(separator)
+          .append(UriEncoder.encodeQueryComponent(e.getKey()))
+          .append('=')
+          .append(UriEncoder.encodeQueryComponent(String.valueOf(e.getValue())));
+      separator = '&';
+    }
+    return URI.create(uri.toString());
+  }
+
+  private String appendPath(String urlEndpoint) {
+    String path = urlEndpoint.startsWith("/") ? urlEndpoint.substring(1) : urlEndpoint;
+    return basePrefix + UriEncoder.encodePath(path);
+  }
+}
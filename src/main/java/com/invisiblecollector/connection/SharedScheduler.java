@@ -0,0 +1,39 @@
+package com.invisiblecollector.connection;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * The timer shared by every facade, used to delay asynchronous retries.
+ *
+ * <p>Scheduled tasks must be short and non-blocking, they only kick off the next asynchronous
+ * step.
+ *
+ * @author ros
+ */
+final class SharedScheduler {
+
+  private SharedScheduler() {}
+
+  // lazily created on first use, the holder's class initialization makes it thread-safe
+  private static final class Holder {
+    private static final ScheduledExecutorService INSTANCE = buildScheduler();
+
+    private static ScheduledExecutorService buildScheduler() {
+      ScheduledThreadPoolExecutor scheduler =
+          new ScheduledThreadPoolExecutor(
+              1,
+              runnable -> {
+                Thread thread = new Thread(runnable, "ic-scheduler");
+                thread.setDaemon(true);
+                return thread;
+              });
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+
+  static ScheduledExecutorService get() {
+    return Holder.INSTANCE;
+  }
+}
@@ -0,0 +1,205 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.builders.ThrowingSupplier;
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.exceptions.IcDeadlineExceededException;
+import com.invisiblecollector.exceptions.IcException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls into a single one whose result is shared by every caller.
+ *
+ * <p>A call is shared only while it is in flight, a call made after it completes starts a new one.
+ * Every caller waits for it no longer than its own {@link CallContext} deadline. The shared value
+ * must be immutable or safe to read concurrently.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+final class SingleFlight<K, V> {
+
+  private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+  private final AtomicLong coalescedCalls = new AtomicLong();
+
+  /**
+   * Make a call, or wait for the identical one in flight.
+   *
+   * <p>A caller waiting for the call in flight gives up once its own deadline passes. If the call
+   * in flight fails because the deadline of the caller that made it passed, a caller whose deadline
+   * hasn't passed makes the call again.
+   *
+   * @param key the call's identity
+   * @param context the caller's context, bounding the wait
+   * @param call the call, made on the calling thread if none is in flight
+   * @return the call's result
+   * @throws IcException the call's failure
+   * @throws IcDeadlineExceededException if the caller's deadline passes while waiting
+   */
+  V execute(K key, CallContext context, ThrowingSupplier<V, IcException> call)
+      throws IcException {
+    while (true) {
+      CompletableFuture<V> led = new CompletableFuture<>();
+      CompletableFuture<V> inFlight = calls.putIfAbsent(key, led);
+      if (inFlight == null) {
+        return lead(key, led, call);
+      }
+
+      coalescedCalls.incrementAndGet();
+      try {
+        return await(inFlight, context);
+      } catch (IcDeadlineExceededException e) {
+        if (context.isExpired()) {
+          throw e;
+        }
+        // the leader's deadline passed, not this caller's
+      }
+    }
+  }
+
+  private V lead(K key, CompletableFuture<V> led, ThrowingSupplier<V, IcException> call)
+      throws IcException {
+    V value = null;
+    Throwable failure = null;
+    try {
+      value = call.get();
+    } catch (IcException | RuntimeException | Error e) {
+      failure = e;
+    }
+
+    // removed before completing, so a follower making the call again doesn't join this one
+    calls.remove(key, led);
+    if (failure == null) {
+      led.complete(value);
+      return value;
+    }
+
+    led.completeExceptionally(failure);
+    if (failure instanceof IcException) {
+      throw (IcException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    throw (RuntimeException) failure;
+  }
+
+  private static <V> V await(CompletableFuture<V> inFlight, CallContext context)
+      throws IcException {
+    try {
+      return context.hasDeadline()
+          ? inFlight.get(context.getRemainingNanos(), TimeUnit.NANOSECONDS)
+          : inFlight.get();
+    } catch (TimeoutException e) {
+      throw new IcDeadlineExceededException(
+          "Deadline exceeded while waiting for the identical request in flight", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IcException("Interrupted while waiting for the response", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IcException) {
+        throw (IcException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IcException(cause);
+    }
+  }
+
+  /**
+   * Asynchronously make a call, or join the identical one in flight.
+   *
+   * <p>A caller joining the call in flight is completed with an {@link
+   * IcDeadlineExceededException} once its own deadline passes. If the call in flight fails because
+   * the deadline of the caller that made it passed, a caller whose deadline hasn't passed makes the
+   * call again.
+   *
+   * <p>Cancelling the returned future doesn't cancel the shared call, other callers may still be
+   * waiting for it.
+   *
+   * @param key the call's identity
+   * @param context the caller's context, bounding the wait
+   * @param call starts the call if none is in flight
+   * @return the call's future result
+   */
+  CompletableFuture<V> executeAsync(
+      K key, CallContext context, Supplier<CompletableFuture<V>> call) {
+    CompletableFuture<V> led = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = calls.putIfAbsent(key, led);
+    if (inFlight == null) {
+      call.get()
+          .whenComplete(
+              (value, throwable) -> {
+                calls.remove(key, led);
+                if (throwable == null) {
+                  led.complete(value);
+                } else {
+                  led.completeExceptionally(throwable);
+                }
+              });
+      return led.thenApply(Function.identity());
+    }
+
+    coalescedCalls.incrementAndGet();
+    CompletableFuture<V> result = new CompletableFuture<>();
+    inFlight.whenComplete(
+        (value, throwable) -> {
+          if (throwable == null) {
+            result.complete(value);
+          } else if (unwrap(throwable) instanceof IcDeadlineExceededException
+              && !context.isExpired()) {
+            // the leader's deadline passed, not this caller's
+            executeAsync(key, context, call)
+                .whenComplete(
+                    (retried, retryThrowable) -> {
+                      if (retryThrowable == null) {
+                        result.complete(retried);
+                      } else {
+                        result.completeExceptionally(unwrap(retryThrowable));
+                      }
+                    });
+          } else {
+            result.completeExceptionally(unwrap(throwable));
+          }
+        });
+
+    if (context.hasDeadline() && !result.isDone()) {
+      ScheduledFuture<?> timeout =
+          SharedScheduler.get()
+              .schedule(
+                  () ->
+                      result.completeExceptionally(
+                          new IcDeadlineExceededException(
+                              "Deadline exceeded while waiting for the identical request in"
+                                  + " flight")),
+                  context.getRemainingNanos(),
+                  TimeUnit.NANOSECONDS);
+      result.whenComplete((unused, throwable) -> timeout.cancel(false));
+    }
+    return result;
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable;
+  }
+
+  /** @return the amount of calls that joined one already in flight */
+  long getCoalescedCalls() {
+    return coalescedCalls.get();
+  }
+}
@@ -0,0 +1,67 @@
+package com.invisiblecollector.connection;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Percent-encodes URI components as described in RFC 3986.
+ *
+ * @author ros
+ */
+final class UriEncoder {
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  private static final String PATH_SAFE_CHARS = "-._~!$&'()*+,;=:@/";
+  private static final String QUERY_SAFE_CHARS = "-._~";
+
+  private UriEncoder() {}
+
+  /**
+   * Encode a path, keeping its '/' separators.
+   *
+   * @param path the decoded path
+   * @return the encoded path
+   */
+  static String encodePath(String path) {
+    return encode(path, PATH_SAFE_CHARS);
+  }
+
+  /**
+   * Encode a query parameter name or value. Only unreserved characters are kept, so the result
+   * can't be mistaken for a separator.
+   *
+   * @param component the decoded name or value
+   * @return the encoded component
+   */
+  static String encodeQueryComponent(String component) {
+    return encode(component, QUERY_SAFE_CHARS);
+  }
+
+  private static boolean isSafe(int c, String safeChars) {
+    return c >= 'a' && c <= 'z'
+        || c >= 'A' && c <= 'Z'
+        || c >= '0' && c <= '9'
+        || safeChars.indexOf(c) >= 0;
+  }
+
+  private static String encode(String value, String safeChars) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    StringBuilder encoded = null;
+    for (int i = 0; i < bytes.length; i++) {
+      int c = bytes[i] & 0xFF;
+      if (isSafe(c, safeChars)) {
+        if (encoded != null) {
+          encoded.append((char) c);
+        }
+        continue;
+      }
+
+      if (encoded == null) {
+        // every byte so far is a safe ASCII char
+        encoded = new StringBuilder(bytes.length + 16).append(value, 0, i);
+      }
+      encoded.append('%').append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+    }
+
+    return encoded == null ? value : encoded.toString();
+  }
+}
@@ -0,0 +1,90 @@
+package com.invisiblecollector.connection.balance;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One of the base URLs of a {@link BaseUrlBalancer}, along with its load and health.
+ *
+ * <p>Every backend returned by {@link BaseUrlBalancer#select()} must be followed by exactly one of
+ * {@link #onResult(long, boolean)} or {@link #onIgnored()}.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public final class Backend {
+
+  private final BaseUrlBalancer balancer;
+  private final URI baseUrl;
+  private final int index;
+  final AtomicInteger outstanding = new AtomicInteger();
+  final AtomicLong ejections = new AtomicLong();
+
+  // guarded by the balancer
+  int consecutiveFailures;
+  int successStreak;
+  int consecutiveEjections;
+  long samples;
+  double latencyNanos;
+
+  // written while holding the balancer's lock, read without it
+  volatile long ejectedUntilNanos;
+  volatile boolean ejected;
+
+  Backend(BaseUrlBalancer balancer, URI baseUrl, int index) {
+    this.balancer = balancer;
+    this.baseUrl = baseUrl;
+    this.index = index;
+  }
+
+  boolean isEjectedAt(long nowNanos) {
+    return ejected && nowNanos - ejectedUntilNanos < 0;
+  }
+
+  /**
+   * Record the outcome of a request sent to this backend.
+   *
+   * @param latencyNanos how long the request took
+   * @param failed whether the request failed: a transport error or a 5xx response
+   */
+  public void onResult(long latencyNanos, boolean failed) {
+    outstanding.decrementAndGet();
+    balancer.record(this, latencyNanos, failed);
+  }
+
+  /** Record that a request ended without telling anything about this backend's health. */
+  public void onIgnored() {
+    outstanding.decrementAndGet();
+  }
+
+  public URI getBaseUrl() {
+    return baseUrl;
+  }
+
+  /** @return the position of the base URL in the list given to the balancer */
+  public int getIndex() {
+    return index;
+  }
+
+  /** @return the amount of requests sent to this backend and not yet answered */
+  public int getOutstanding() {
+    return outstanding.get();
+  }
+
+  /** @return true if the backend is currently left out of the selection */
+  public boolean isEjected() {
+    return balancer.isEjected(this);
+  }
+
+  /** @return the amount of times the backend was ejected */
+  public long getEjections() {
+    return ejections.get();
+  }
+
+  @Override
+  public String toString() {
+    return "{baseUrl: " + baseUrl + ", outstanding: " + outstanding.get() + "}";
+  }
+}
@@ -0,0 +1,193 @@
+package com.invisiblecollector.connection.balance;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads requests across several base URLs, such as regional gateways of the API.
+ *
+ * <p>Each request goes to the least loaded of two base URLs picked at random (power of two
+ * choices), which avoids both the herding of always picking the least loaded one and the
+ * imbalance of picking at random. Base URLs that keep failing or are much slower than the others
+ * are ejected for a while, as configured by {@link OutlierEjection}, so that their load is drained
+ * to the healthy ones.
+ *
+ * <p>Thread-safe. Can be shared between facades so that they all stop using a failing base URL
+ * together.
+ *
+ * @author ros
+ */
+public final class BaseUrlBalancer {
+
+  private static final double LATENCY_SMOOTHING = 0.1;
+
+  private final OutlierEjection config;
+  private final LongSupplier nanoClock;
+  private final List<Backend> backends;
+
+  /**
+   * Creates a balancer with the default outlier ejection.
+   *
+   * @param baseUrls the base URLs, each with the hostname, scheme and optionally base path
+   */
+  public BaseUrlBalancer(List<URI> baseUrls) {
+    this(baseUrls, new OutlierEjection());
+  }
+
+  /**
+   * Creates a balancer.
+   *
+   * @param baseUrls the base URLs, each with the hostname, scheme and optionally base path
+   * @param config the outlier ejection. Changes to it after construction have no effect.
+   */
+  public BaseUrlBalancer(List<URI> baseUrls, OutlierEjection config) {
+    this(baseUrls, new OutlierEjection(config), System::nanoTime);
+  }
+
+  BaseUrlBalancer(List<URI> baseUrls, OutlierEjection config, LongSupplier nanoClock) {
+    if (baseUrls == null || baseUrls.isEmpty()) {
+      throw new IllegalArgumentException("baseUrls cannot be empty");
+    }
+
+    this.config = config;
+    this.nanoClock = nanoClock;
+    List<Backend> created = new ArrayList<>(baseUrls.size());
+    for (URI baseUrl : baseUrls) {
+      if (baseUrl == null) {
+        throw new IllegalArgumentException("baseUrls cannot contain null");
+      }
+      created.add(new Backend(this, baseUrl, created.size()));
+    }
+    this.backends = Collections.unmodifiableList(created);
+  }
+
+  /**
+   * Pick the backend of the next request.
+   *
+   * @return the backend, counted as having one more outstanding request
+   */
+  public Backend select() {
+    Backend selected =
+        backends.size() == 1 ? backends.get(0) : selectOfTwo(nanoClock.getAsLong());
+    selected.outstanding.incrementAndGet();
+    return selected;
+  }
+
+  private Backend selectOfTwo(long now) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int size = backends.size();
+    Backend first = backends.get(random.nextInt(size));
+    Backend second = backends.get((first.getIndex() + 1 + random.nextInt(size - 1)) % size);
+    boolean firstAdmitted = !first.isEjectedAt(now);
+    boolean secondAdmitted = !second.isEjectedAt(now);
+
+    if (firstAdmitted && secondAdmitted) {
+      return second.outstanding.get() < first.outstanding.get() ? second : first;
+    }
+    if (firstAdmitted) {
+      return first;
+    }
+    if (secondAdmitted) {
+      return second;
+    }
+    return selectLeastOutstanding(now);
+  }
+
+  private Backend selectLeastOutstanding(long now) {
+    Backend selected = null;
+    for (Backend backend : backends) {
+      if (!backend.isEjectedAt(now)
+          && (selected == null || backend.outstanding.get() < selected.outstanding.get())) {
+        selected = backend;
+      }
+    }
+    return selected == null ? backends.get(0) : selected;
+  }
+
+  synchronized void record(Backend backend, long latencyNanos, boolean failed) {
+    long now = nanoClock.getAsLong();
+    // a late answer to a request sent before the ejection
+    if (backend.isEjectedAt(now)) {
+      return;
+    }
+
+    if (failed) {
+      backend.successStreak = 0;
+      if (++backend.consecutiveFailures >= config.getConsecutiveFailures()) {
+        eject(backend, now);
+      }
+      return;
+    }
+
+    backend.consecutiveFailures = 0;
+    // healthy for a while since its last ejection, a new ejection starts over from the base time
+    if (++backend.successStreak >= config.getMinSamples()) {
+      backend.consecutiveEjections = 0;
+    }
+    backend.latencyNanos =
+        backend.samples == 0
+            ? latencyNanos
+            : backend.latencyNanos + LATENCY_SMOOTHING * (latencyNanos - backend.latencyNanos);
+    backend.samples++;
+    if (isLatencyOutlier(backend, now)) {
+      eject(backend, now);
+    }
+  }
+
+  private boolean isLatencyOutlier(Backend backend, long now) {
+    if (backend.samples < config.getMinSamples()) {
+      return false;
+    }
+
+    double othersLatency = 0;
+    int others = 0;
+    for (Backend other : backends) {
+      if (other != backend && !other.isEjectedAt(now) && other.samples >= config.getMinSamples()) {
+        othersLatency += other.latencyNanos;
+        others++;
+      }
+    }
+    return others > 0 && backend.latencyNanos > config.getLatencyFactor() * othersLatency / others;
+  }
+
+  private void eject(Backend backend, long now) {
+    int ejected = 0;
+    for (Backend other : backends) {
+      if (other.isEjectedAt(now)) {
+        ejected++;
+      }
+    }
+    int maxEjected =
+        Math.min(backends.size() - 1, (int) (config.getMaxEjectedFraction() * backends.size()));
+    if (ejected >= maxEjected) {
+      return;
+    }
+
+    backend.consecutiveEjections++;
+    long ejectionNanos =
+        Math.min(
+            config.getMaxEjectionNanos(),
+            config.getBaseEjectionNanos() * backend.consecutiveEjections);
+    backend.ejectedUntilNanos = now + ejectionNanos;
+    backend.ejected = true;
+    backend.ejections.incrementAndGet();
+    // re-admitted with a clean slate
+    backend.consecutiveFailures = 0;
+    backend.successStreak = 0;
+    backend.samples = 0;
+    backend.latencyNanos = 0;
+  }
+
+  boolean isEjected(Backend backend) {
+    return backend.isEjectedAt(nanoClock.getAsLong());
+  }
+
+  /** @return the backends, in the same order as the base URLs */
+  public List<Backend> getBackends() {
+    return backends;
+  }
+}
@@ -0,0 +1,138 @@
+package com.invisiblecollector.connection.balance;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of when a base URL is ejected from load balancing and for how long.
+ *
+ * <p>A base URL is ejected after too many consecutive failures, or when its average latency is
+ * far above the average of the others. It is re-admitted automatically once its ejection time
+ * elapses. The ejection time grows each time a base URL is ejected again shortly after being
+ * re-admitted.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class OutlierEjection {
+
+  private int consecutiveFailures = 5;
+  private double latencyFactor = 3;
+  private int minSamples = 20;
+  private long baseEjectionNanos = TimeUnit.SECONDS.toNanos(30);
+  private long maxEjectionNanos = TimeUnit.MINUTES.toNanos(5);
+  private double maxEjectedFraction = 0.5;
+
+  /** Creates the default outlier ejection. */
+  public OutlierEjection() {}
+
+  /**
+   * Creates a copy of an outlier ejection.
+   *
+   * @param other the outlier ejection to copy
+   */
+  public OutlierEjection(OutlierEjection other) {
+    this.consecutiveFailures = other.consecutiveFailures;
+    this.latencyFactor = other.latencyFactor;
+    this.minSamples = other.minSamples;
+    this.baseEjectionNanos = other.baseEjectionNanos;
+    this.maxEjectionNanos = other.maxEjectionNanos;
+    this.maxEjectedFraction = other.maxEjectedFraction;
+  }
+
+  /**
+   * Set the amount of consecutive failures that ejects a base URL. Transport errors and 5xx
+   * responses are failures.
+   *
+   * @param consecutiveFailures the amount. Default value is 5
+   * @return this
+   */
+  public OutlierEjection withConsecutiveFailures(int consecutiveFailures) {
+    if (consecutiveFailures < 1) {
+      throw new IllegalArgumentException("consecutiveFailures must be positive");
+    }
+
+    this.consecutiveFailures = consecutiveFailures;
+    return this;
+  }
+
+  /**
+   * Set when a base URL is ejected for being slow.
+   *
+   * @param latencyFactor how many times its average latency must exceed the average of the other
+   *     base URLs. Default value is 3
+   * @param minSamples the amount of requests each base URL must have answered before their
+   *     latencies are compared. Default value is 20
+   * @return this
+   */
+  public OutlierEjection withLatencyOutlier(double latencyFactor, int minSamples) {
+    if (latencyFactor <= 1 || minSamples < 1) {
+      throw new IllegalArgumentException("latencyFactor must be > 1 and minSamples positive");
+    }
+
+    this.latencyFactor = latencyFactor;
+    this.minSamples = minSamples;
+    return this;
+  }
+
+  /**
+   * Set how long base URLs stay ejected. Each consecutive ejection of a base URL adds the base
+   * time, up to the maximum.
+   *
+   * @param baseEjectionTime the time of a first ejection. Default value is 30s
+   * @param maxEjectionTime the maximum time. Default value is 5min
+   * @param unit the unit of both times
+   * @return this
+   */
+  public OutlierEjection withEjectionTime(
+      long baseEjectionTime, long maxEjectionTime, TimeUnit unit) {
+    if (baseEjectionTime <= 0 || maxEjectionTime < baseEjectionTime) {
+      throw new IllegalArgumentException("times must be positive and base <= max");
+    }
+
+    this.baseEjectionNanos = unit.toNanos(baseEjectionTime);
+    this.maxEjectionNanos = unit.toNanos(maxEjectionTime);
+    return this;
+  }
+
+  /**
+   * Set the maximum fraction of base URLs ejected at once. At least one base URL always stays
+   * admitted.
+   *
+   * @param maxEjectedFraction the fraction, in [0, 1]. Default value is 0.5
+   * @return this
+   */
+  public OutlierEjection withMaxEjectedFraction(double maxEjectedFraction) {
+    if (maxEjectedFraction < 0 || maxEjectedFraction > 1) {
+      throw new IllegalArgumentException("maxEjectedFraction must be in [0, 1]");
+    }
+
+    this.maxEjectedFraction = maxEjectedFraction;
+    return this;
+  }
+
+  public int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  public double getLatencyFactor() {
+    return latencyFactor;
+  }
+
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  public long getBaseEjectionNanos() {
+    return baseEjectionNanos;
+  }
+
+  public long getMaxEjectionNanos() {
+    return maxEjectionNanos;
+  }
+
+  public double getMaxEjectedFraction() {
+    return maxEjectedFraction;
+  }
+}
@@ -0,0 +1,147 @@
+package com.invisiblecollector.connection.breaker;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops sending requests to an endpoint while it is failing.
+ *
+ * <p>Closed, the breaker lets every call through and records its outcome. Open, it rejects every
+ * call until the open duration elapses. It then becomes half open and lets a fixed amount of trial
+ * calls through: it closes once all of them succeed, or opens again as soon as one fails.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ * @see CircuitBreakerConfig
+ */
+public final class CircuitBreaker {
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final CircuitBreakerConfig config;
+  private final LongSupplier nanoClock;
+  private final byte[] window;
+
+  private CircuitState state = CircuitState.CLOSED;
+  private int windowCalls;
+  private int windowNext;
+  private int failures;
+  private int slowCalls;
+  private long openUntilNanos;
+  private int trialsStarted;
+  private int trialsSucceeded;
+
+  CircuitBreaker(CircuitBreakerConfig config, LongSupplier nanoClock) {
+    this.config = config;
+    this.nanoClock = nanoClock;
+    this.window = new byte[config.getWindowSize()];
+  }
+
+  /**
+   * Ask to send a call. A granted call must be followed by exactly one of {@link
+   * #onResult(long, boolean)} or {@link #onIgnored()}.
+   *
+   * @return true if the call can be sent, false if it must fail fast
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == CircuitState.OPEN) {
+      if (nanoClock.getAsLong() - openUntilNanos < 0) {
+        return false;
+      }
+
+      state = CircuitState.HALF_OPEN;
+      trialsStarted = 0;
+      trialsSucceeded = 0;
+    }
+
+    if (state == CircuitState.HALF_OPEN) {
+      if (trialsStarted >= config.getHalfOpenCalls()) {
+        return false;
+      }
+      trialsStarted++;
+    }
+    return true;
+  }
+
+  /**
+   * Record the outcome of a granted call.
+   *
+   * @param durationNanos how long the call took
+   * @param failed whether the call failed
+   */
+  public synchronized void onResult(long durationNanos, boolean failed) {
+    boolean slow = durationNanos >= config.getSlowCallDurationNanos();
+
+    if (state == CircuitState.HALF_OPEN) {
+      if (failed || slow) {
+        open();
+      } else if (++trialsSucceeded >= config.getHalfOpenCalls()) {
+        close();
+      }
+      return;
+    }
+
+    if (state == CircuitState.CLOSED) {
+      record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+      if (windowCalls >= config.getMinimumCalls()
+          && (failures >= config.getFailureRateThreshold() * windowCalls
+              || slowCalls >= config.getSlowCallRateThreshold() * windowCalls)) {
+        open();
+      }
+    }
+  }
+
+  /** Release a granted call that ended without telling anything about the endpoint's health. */
+  public synchronized void onIgnored() {
+    if (state == CircuitState.HALF_OPEN && trialsStarted > trialsSucceeded) {
+      trialsStarted--;
+    }
+  }
+
+  private void record(byte outcome) {
+    if (windowCalls == window.length) {
+      byte evicted = window[windowNext];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      windowCalls++;
+    }
+
+    window[windowNext] = outcome;
+    windowNext = (windowNext + 1) % window.length;
+    failures += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+  }
+
+  private void open() {
+    state = CircuitState.OPEN;
+    openUntilNanos = nanoClock.getAsLong() + config.getOpenDurationNanos();
+  }
+
+  private void close() {
+    state = CircuitState.CLOSED;
+    windowCalls = 0;
+    windowNext = 0;
+    failures = 0;
+    slowCalls = 0;
+  }
+
+  /** @return the current state */
+  public synchronized CircuitState getState() {
+    if (state == CircuitState.OPEN && nanoClock.getAsLong() - openUntilNanos >= 0) {
+      return CircuitState.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /** @return the rate of failed calls in the window, 0 while half open */
+  public synchronized double getFailureRate() {
+    return windowCalls == 0 ? 0 : (double) failures / windowCalls;
+  }
+
+  /** @return the rate of slow calls in the window, 0 while half open */
+  public synchronized double getSlowCallRate() {
+    return windowCalls == 0 ? 0 : (double) slowCalls / windowCalls;
+  }
+}
@@ -0,0 +1,145 @@
+package com.invisiblecollector.connection.breaker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of when circuit breakers open and close.
+ *
+ * <p>A breaker records the outcome of its endpoint's last calls in a sliding window. Once the
+ * window holds enough calls, the breaker opens when either the rate of failed calls or the rate of
+ * slow calls reaches its threshold. After staying open for a while, it lets a few trial calls
+ * through and closes if all of them succeed quickly.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class CircuitBreakerConfig {
+
+  private double failureRateThreshold = 0.5;
+  private double slowCallRateThreshold = 1;
+  private long slowCallDurationNanos = TimeUnit.SECONDS.toNanos(5);
+  private int windowSize = 20;
+  private int minimumCalls = 10;
+  private long openDurationNanos = TimeUnit.SECONDS.toNanos(30);
+  private int halfOpenCalls = 3;
+
+  private static void assertRate(double rate) {
+    if (rate <= 0 || rate > 1) {
+      throw new IllegalArgumentException("rate thresholds must be in ]0, 1]");
+    }
+  }
+
+  /**
+   * Set the rate of failed calls that opens the breaker. Transport errors and 5xx responses are
+   * failures.
+   *
+   * @param failureRateThreshold the rate, in ]0, 1]. Default value is 0.5
+   * @return this
+   */
+  public CircuitBreakerConfig withFailureRateThreshold(double failureRateThreshold) {
+    assertRate(failureRateThreshold);
+
+    this.failureRateThreshold = failureRateThreshold;
+    return this;
+  }
+
+  /**
+   * Set the rate of slow calls that opens the breaker.
+   *
+   * @param slowCallRateThreshold the rate, in ]0, 1]. Default value is 1, only opening when every
+   *     call is slow
+   * @param slowCallDuration the duration over which a call is slow. Default value is 5s
+   * @param unit the time unit
+   * @return this
+   */
+  public CircuitBreakerConfig withSlowCallRateThreshold(
+      double slowCallRateThreshold, long slowCallDuration, TimeUnit unit) {
+    assertRate(slowCallRateThreshold);
+    if (slowCallDuration <= 0) {
+      throw new IllegalArgumentException("slowCallDuration must be positive");
+    }
+
+    this.slowCallRateThreshold = slowCallRateThreshold;
+    this.slowCallDurationNanos = unit.toNanos(slowCallDuration);
+    return this;
+  }
+
+  /**
+   * Set the sliding window of recorded calls.
+   *
+   * @param windowSize the amount of most recent calls recorded. Default value is 20
+   * @param minimumCalls the amount of calls recorded before the breaker can open. Default value is
+   *     10
+   * @return this
+   */
+  public CircuitBreakerConfig withWindow(int windowSize, int minimumCalls) {
+    if (minimumCalls < 1 || windowSize < minimumCalls) {
+      throw new IllegalArgumentException("window sizes must be 1 <= minimumCalls <= windowSize");
+    }
+
+    this.windowSize = windowSize;
+    this.minimumCalls = minimumCalls;
+    return this;
+  }
+
+  /**
+   * Set how long the breaker stays open before trying calls again.
+   *
+   * @param openDuration the time. Default value is 30s
+   * @param unit the time unit
+   * @return this
+   */
+  public CircuitBreakerConfig withOpenDuration(long openDuration, TimeUnit unit) {
+    if (openDuration < 0) {
+      throw new IllegalArgumentException("openDuration cannot be negative");
+    }
+
+    this.openDurationNanos = unit.toNanos(openDuration);
+    return this;
+  }
+
+  /**
+   * Set the amount of trial calls made while half open.
+   *
+   * @param halfOpenCalls the amount of calls. Default value is 3
+   * @return this
+   */
+  public CircuitBreakerConfig withHalfOpenCalls(int halfOpenCalls) {
+    if (halfOpenCalls < 1) {
+      throw new IllegalArgumentException("halfOpenCalls must be at least 1");
+    }
+
+    this.halfOpenCalls = halfOpenCalls;
+    return this;
+  }
+
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  public long getSlowCallDurationNanos() {
+    return slowCallDurationNanos;
+  }
+
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  public int getMinimumCalls() {
+    return minimumCalls;
+  }
+
+  public long getOpenDurationNanos() {
+    return openDurationNanos;
+  }
+
+  public int getHalfOpenCalls() {
+    return halfOpenCalls;
+  }
+}
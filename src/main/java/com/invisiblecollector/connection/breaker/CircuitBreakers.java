@@ -0,0 +1,59 @@
+package com.invisiblecollector.connection.breaker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A circuit breaker per endpoint.
+ *
+ * <p>Endpoints are identified by a stable key, such as "debts/find", rather than by their full
+ * path, so that every call to the same endpoint shares a breaker regardless of the ids in its
+ * path. Requests without an endpoint key aren't guarded.
+ *
+ * <p>Thread-safe. Can be shared between facades so that they all stop calling a failing endpoint
+ * together.
+ *
+ * @author ros
+ */
+public class CircuitBreakers {
+
+  private final CircuitBreakerConfig config;
+  private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+  /** Creates breakers with the default configuration. */
+  public CircuitBreakers() {
+    this(new CircuitBreakerConfig());
+  }
+
+  /**
+   * Creates configured breakers.
+   *
+   * @param config the configuration of every breaker. Changes to it after the first request have
+   *     no effect on the breakers already created.
+   */
+  public CircuitBreakers(CircuitBreakerConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Get the breaker of an endpoint.
+   *
+   * @param endpointKey the endpoint key
+   * @return the breaker, created on first use
+   */
+  public CircuitBreaker getBreaker(String endpointKey) {
+    return breakers.computeIfAbsent(
+        endpointKey, key -> new CircuitBreaker(config, System::nanoTime));
+  }
+
+  /**
+   * Get the state of an endpoint's breaker.
+   *
+   * @param endpointKey the endpoint key
+   * @return the state, {@link CircuitState#CLOSED} if the endpoint wasn't called yet
+   */
+  public CircuitState getState(String endpointKey) {
+    CircuitBreaker breaker = breakers.get(endpointKey);
+    return breaker == null ? CircuitState.CLOSED : breaker.getState();
+  }
+}
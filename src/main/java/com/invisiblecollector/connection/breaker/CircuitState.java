@@ -0,0 +1,15 @@
+package com.invisiblecollector.connection.breaker;
+
+/**
+ * The states of a {@link CircuitBreaker}.
+ *
+ * @author ros
+ */
+public enum CircuitState {
+  /** Requests are sent and their outcome recorded. */
+  CLOSED,
+  /** Requests fail fast without being sent. */
+  OPEN,
+  /** A few trial requests are sent to decide whether to close or open again. */
+  HALF_OPEN
+}
@@ -0,0 +1,5 @@
+package com.invisiblecollector.connection.builders;
+
+public interface ThrowingFunction<Arg, Ret, Ex extends Exception> {
+    Ret apply(Arg arg) throws Ex;
+}
@@ -0,0 +1,99 @@
+package com.invisiblecollector.connection.bulkhead;
+
+import com.invisiblecollector.connection.concurrency.AdaptiveConcurrencyLimiter;
+import com.invisiblecollector.connection.pool.ConnectionPool;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isolates the {@link TrafficClass}es from each other, so that a backfill of writes can't slow
+ * down interactive reads and searches.
+ *
+ * <p>Each isolated class gets its own fixed amount of requests in flight, with its own queue, and
+ * optionally its own connection pool. A class that saturates its bulkhead only queues or rejects
+ * its own requests. Classes without a bulkhead share the facade's default connections and aren't
+ * limited.
+ *
+ * <p>Bulkheads sit in front of the facade's {@link AdaptiveConcurrencyLimiter}, if any. That
+ * limiter is shared by every class, so its limit should stay above the sum of the bulkheads.
+ *
+ * <p>Implements a fluent builder API, the configuration must be set before the first request is
+ * sent. Can be shared between facades to isolate them together.
+ *
+ * @author ros
+ */
+public class Bulkheads {
+
+  private final Map<TrafficClass, AdaptiveConcurrencyLimiter> limiters =
+      new EnumMap<>(TrafficClass.class);
+  private final Map<TrafficClass, ConnectionPool> connectionPools =
+      new EnumMap<>(TrafficClass.class);
+
+  /**
+   * Limit the amount of requests of a class in flight.
+   *
+   * @param trafficClass the class
+   * @param maxConcurrent the maximum amount of requests in flight
+   * @param maxQueueDepth the amount of requests that can wait for their turn, 0 to reject requests
+   *     over the limit right away
+   * @param maxQueueWait the maximum time a request waits before being rejected with an {@link
+   *     com.invisiblecollector.exceptions.IcRejectedException}
+   * @param unit the time unit
+   * @return this
+   */
+  public Bulkheads withBulkhead(
+      TrafficClass trafficClass,
+      int maxConcurrent,
+      int maxQueueDepth,
+      long maxQueueWait,
+      TimeUnit unit) {
+    if (trafficClass == null) {
+      throw new IllegalArgumentException("trafficClass cannot be null");
+    }
+
+    limiters.put(
+        trafficClass,
+        new AdaptiveConcurrencyLimiter()
+            .withLimits(maxConcurrent, maxConcurrent, maxConcurrent)
+            .withQueue(maxQueueDepth, maxQueueWait, unit));
+    return this;
+  }
+
+  /**
+   * Send the requests of a class through their own connection pool, sized for that class.
+   *
+   * @param trafficClass the class
+   * @param connectionPool the pool. Must be closed by the caller once no longer needed.
+   * @return this
+   */
+  public Bulkheads withConnectionPool(TrafficClass trafficClass, ConnectionPool connectionPool) {
+    if (trafficClass == null || connectionPool == null) {
+      throw new IllegalArgumentException("trafficClass and connectionPool cannot be null");
+    }
+
+    connectionPools.put(trafficClass, connectionPool);
+    return this;
+  }
+
+  /**
+   * Get the limiter of a class, to inspect its requests in flight, queue and rejections.
+   *
+   * @param trafficClass the class
+   * @return the limiter, whose limit is fixed, or null if the class isn't limited
+   */
+  public AdaptiveConcurrencyLimiter getLimiter(TrafficClass trafficClass) {
+    return limiters.get(trafficClass);
+  }
+
+  /**
+   * Get the connection pool of a class.
+   *
+   * @param trafficClass the class
+   * @return the pool, or null if the class uses the facade's default connections
+   */
+  public ConnectionPool getConnectionPool(TrafficClass trafficClass) {
+    return connectionPools.get(trafficClass);
+  }
+}
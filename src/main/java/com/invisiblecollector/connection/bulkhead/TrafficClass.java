@@ -0,0 +1,33 @@
+package com.invisiblecollector.connection.bulkhead;
+
+import com.invisiblecollector.connection.RequestType;
+
+/**
+ * The classes of requests that are isolated from each other by {@link Bulkheads}.
+ *
+ * @author ros
+ */
+public enum TrafficClass {
+  READ,
+  WRITE,
+  SEARCH;
+
+  /** The endpoint key of debt searches. */
+  public static final String SEARCH_ENDPOINT_KEY = "debts/find";
+
+  /**
+   * Get the class of a request.
+   *
+   * @param requestType the HTTP request type
+   * @param endpointKey the endpoint key, can be null
+   * @return {@link #SEARCH} for debt searches, {@link #READ} for other GET requests, {@link
+   *     #WRITE} otherwise
+   */
+  public static TrafficClass of(RequestType requestType, String endpointKey) {
+    if (SEARCH_ENDPOINT_KEY.equals(endpointKey)) {
+      return SEARCH;
+    }
+
+    return requestType == RequestType.GET ? READ : WRITE;
+  }
+}
@@ -0,0 +1,330 @@
+package com.invisiblecollector.connection.concurrency;
+
+import com.invisiblecollector.exceptions.IcRejectedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the amount of requests in flight, adapting the limit to the observed latency.
+ *
+ * <p>Every successful request's round trip time is compared to a long term average. While the
+ * latency stays within tolerance the limit grows, by about the square root of the limit, as long as
+ * the requests actually use it. When the latency inflates, a sign that requests are queueing on
+ * the server, the limit shrinks proportionally. Requests that fail because the server is
+ * overloaded shrink the limit multiplicatively.
+ *
+ * <p>Requests over the limit wait in a FIFO queue. Requests that would exceed the maximum queue
+ * depth, or that wait in the queue for too long, are rejected with an {@link
+ * IcRejectedException}.
+ *
+ * <p>Thread-safe. Implements a fluent builder API, the configuration must be set before the first
+ * request is sent. Can be shared between facades to limit them together.
+ *
+ * @author ros
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final double DROP_FACTOR = 0.9;
+  private static final double MIN_GRADIENT = 0.5;
+  private static final int RTT_WINDOW = 100;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ArrayDeque<CompletableFuture<Permit>> queue = new ArrayDeque<>();
+  private final LongSupplier nanoClock;
+
+  private int minLimit = 1;
+  private int maxLimit = 200;
+  private double limit = 20;
+  private int maxQueueDepth = 100;
+  private long maxQueueWaitNanos = TimeUnit.SECONDS.toNanos(10);
+  private double rttTolerance = 2;
+  private double smoothing = 0.2;
+
+  private int inFlight;
+  private double longRttNanos;
+  private long rejections;
+
+  /** Creates a limiter with the default configuration. */
+  public AdaptiveConcurrencyLimiter() {
+    this(System::nanoTime);
+  }
+
+  AdaptiveConcurrencyLimiter(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Set the range of the limit.
+   *
+   * @param initialLimit the limit before any latency is observed. Default value is 20
+   * @param minLimit the minimum limit. Default value is 1
+   * @param maxLimit the maximum limit. Default value is 200
+   * @return this
+   */
+  public AdaptiveConcurrencyLimiter withLimits(int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+      throw new IllegalArgumentException("limits must be 1 <= minLimit <= initialLimit <= maxLimit");
+    }
+
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    return this;
+  }
+
+  /**
+   * Set how many requests can wait for the limit.
+   *
+   * @param maxQueueDepth the amount of requests, 0 to reject requests over the limit right away.
+   *     Default value is 100
+   * @param maxQueueWait the maximum time a request waits. Default value is 10s
+   * @param unit the time unit
+   * @return this
+   */
+  public AdaptiveConcurrencyLimiter withQueue(int maxQueueDepth, long maxQueueWait, TimeUnit unit) {
+    if (maxQueueDepth < 0 || maxQueueWait < 0) {
+      throw new IllegalArgumentException("maxQueueDepth and maxQueueWait cannot be negative");
+    }
+
+    this.maxQueueDepth = maxQueueDepth;
+    this.maxQueueWaitNanos = unit.toNanos(maxQueueWait);
+    return this;
+  }
+
+  /**
+   * Set how much the latency can inflate before the limit shrinks.
+   *
+   * @param rttTolerance the ratio between a request's round trip time and the long term average.
+   *     Default value is 2
+   * @return this
+   */
+  public AdaptiveConcurrencyLimiter withRttTolerance(double rttTolerance) {
+    if (rttTolerance < 1) {
+      throw new IllegalArgumentException("rttTolerance must be at least 1");
+    }
+
+    this.rttTolerance = rttTolerance;
+    return this;
+  }
+
+  /**
+   * Set how fast the limit changes.
+   *
+   * @param smoothing the weight of each new sample, in ]0, 1]. Default value is 0.2
+   * @return this
+   */
+  public AdaptiveConcurrencyLimiter withSmoothing(double smoothing) {
+    if (smoothing <= 0 || smoothing > 1) {
+      throw new IllegalArgumentException("smoothing must be in ]0, 1]");
+    }
+
+    this.smoothing = smoothing;
+    return this;
+  }
+
+  /**
+   * Acquire a permit to send a request.
+   *
+   * @return the permit, once available. Completes exceptionally with an {@link
+   *     IcRejectedException} if the queue is full.
+   */
+  public CompletableFuture<Permit> acquire() {
+    CompletableFuture<Permit> waiter = new CompletableFuture<>();
+    lock.lock();
+    try {
+      if (queue.isEmpty() && inFlight < (int) limit) {
+        inFlight++;
+      } else if (queue.size() < maxQueueDepth) {
+        queue.add(waiter);
+        return waiter;
+      } else {
+        rejections++;
+        waiter.completeExceptionally(new IcRejectedException("Concurrency limit reached"));
+        return waiter;
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    waiter.complete(new Permit(nanoClock.getAsLong()));
+    return waiter;
+  }
+
+  /**
+   * Reject a queued request that waited for too long.
+   *
+   * @param waiter the future returned by {@link #acquire()}
+   * @return true if it was rejected, false if a permit was already granted
+   */
+  public boolean expire(CompletableFuture<Permit> waiter) {
+    lock.lock();
+    try {
+      if (!queue.remove(waiter)) {
+        return false;
+      }
+      rejections++;
+    } finally {
+      lock.unlock();
+    }
+
+    waiter.completeExceptionally(
+        new IcRejectedException("Timed out waiting for the concurrency limit"));
+    return true;
+  }
+
+  /**
+   * Give up on a queued request, without counting it as rejected.
+   *
+   * @param waiter the future returned by {@link #acquire()}
+   * @return true if it was removed from the queue, false if a permit was already granted
+   */
+  public boolean abandon(CompletableFuture<Permit> waiter) {
+    lock.lock();
+    try {
+      return queue.remove(waiter);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void release(long rttNanos, Outcome outcome) {
+    List<CompletableFuture<Permit>> granted = new ArrayList<>();
+    lock.lock();
+    try {
+      updateLimit(rttNanos, outcome);
+      inFlight--;
+
+      while (!queue.isEmpty() && inFlight < (int) limit) {
+        granted.add(queue.poll());
+        inFlight++;
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    // completed outside the lock, the waiters' callbacks can send requests right away
+    for (CompletableFuture<Permit> waiter : granted) {
+      Permit permit = new Permit(nanoClock.getAsLong());
+      if (!waiter.complete(permit)) {
+        permit.ignore();
+      }
+    }
+  }
+
+  private void updateLimit(long rttNanos, Outcome outcome) {
+    if (outcome == Outcome.DROPPED) {
+      limit = Math.max(minLimit, limit * DROP_FACTOR);
+      return;
+    }
+
+    if (outcome == Outcome.IGNORED) {
+      return;
+    }
+
+    longRttNanos =
+        longRttNanos == 0
+            ? rttNanos
+            : longRttNanos + (rttNanos - longRttNanos) / RTT_WINDOW;
+
+    double gradient =
+        Math.max(MIN_GRADIENT, Math.min(1, rttTolerance * longRttNanos / Math.max(1, rttNanos)));
+    // an unused limit isn't proven, only grow it when the requests need it
+    if (gradient >= 1 && inFlight < limit / 2) {
+      return;
+    }
+
+    double newLimit = limit * gradient + Math.sqrt(limit);
+    limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+  }
+
+  /** @return the current limit */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return the amount of requests in flight */
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return the amount of requests waiting for the limit */
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return the amount of rejected requests so far */
+  public long getRejections() {
+    lock.lock();
+    try {
+      return rejections;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getMaxQueueWaitNanos() {
+    return maxQueueWaitNanos;
+  }
+
+  private enum Outcome {
+    SUCCEEDED,
+    DROPPED,
+    IGNORED
+  }
+
+  /**
+   * Allows a single request to be in flight. Must be released exactly once, through one of its
+   * methods, when the request completes.
+   */
+  public final class Permit {
+    private final long startNanos;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    private void release(Outcome outcome) {
+      if (released.compareAndSet(false, true)) {
+        AdaptiveConcurrencyLimiter.this.release(nanoClock.getAsLong() - startNanos, outcome);
+      }
+    }
+
+    /** The request succeeded, its latency is sampled. */
+    public void succeed() {
+      release(Outcome.SUCCEEDED);
+    }
+
+    /** The request failed because the server is overloaded or unreachable. */
+    public void drop() {
+      release(Outcome.DROPPED);
+    }
+
+    /** The request ended without telling anything about the server's load. */
+    public void ignore() {
+      release(Outcome.IGNORED);
+    }
+  }
+}
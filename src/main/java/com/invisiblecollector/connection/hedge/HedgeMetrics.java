@@ -0,0 +1,54 @@
+package com.invisiblecollector.connection.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the hedged requests made by a facade.
+ *
+ * <p>Thread-safe. The counters only ever grow.
+ *
+ * @author ros
+ */
+public class HedgeMetrics {
+
+  private final AtomicLong hedgeableRequests = new AtomicLong();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+  private final AtomicLong budgetDenials = new AtomicLong();
+
+  void onHedgeableRequest() {
+    hedgeableRequests.incrementAndGet();
+  }
+
+  void onHedge() {
+    hedges.incrementAndGet();
+  }
+
+  void onBudgetDenied() {
+    budgetDenials.incrementAndGet();
+  }
+
+  void onHedgeWon() {
+    hedgeWins.incrementAndGet();
+  }
+
+  /** @return the amount of requests that could be hedged */
+  public long getHedgeableRequests() {
+    return hedgeableRequests.get();
+  }
+
+  /** @return the amount of hedges sent */
+  public long getHedges() {
+    return hedges.get();
+  }
+
+  /** @return the amount of hedges whose response won */
+  public long getHedgeWins() {
+    return hedgeWins.get();
+  }
+
+  /** @return the amount of hedges not sent because the budget ran out */
+  public long getBudgetDenials() {
+    return budgetDenials.get();
+  }
+}
@@ -0,0 +1,124 @@
+package com.invisiblecollector.connection.hedge;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decides when to hedge requests, tracking their latency and the hedge budget.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ * @see HedgingPolicy
+ */
+public final class Hedger {
+
+  private static final int WINDOW_SIZE = 256;
+  private static final int RECOMPUTE_INTERVAL = 16;
+
+  private final HedgingPolicy policy;
+  private final HedgeMetrics metrics = new HedgeMetrics();
+  private final long[] latencies = new long[WINDOW_SIZE];
+
+  private int samples;
+  private int nextSample;
+  private double budget;
+  private volatile long delayNanos;
+
+  /**
+   * Creates a hedger.
+   *
+   * @param policy the policy. Copied, changes to it after construction have no effect.
+   */
+  public Hedger(HedgingPolicy policy) {
+    this.policy = new HedgingPolicy(policy);
+    this.delayNanos = policy.getMaxDelayNanos();
+  }
+
+  /**
+   * Start a hedgeable request, earning a fraction of a hedge.
+   *
+   * @return how long to wait for a response before hedging, in nanoseconds
+   */
+  public long onRequest() {
+    metrics.onHedgeableRequest();
+    synchronized (this) {
+      budget = Math.min(policy.getMaxBudget(), budget + policy.getBudgetRatio());
+    }
+    return delayNanos;
+  }
+
+  /**
+   * Ask to send a hedge.
+   *
+   * @return true if the budget allows it
+   */
+  public boolean tryHedge() {
+    return tryHedge(() -> true);
+  }
+
+  /**
+   * Ask to send a hedge that may not be sendable, such as when no rate limiter permit is free. A
+   * hedge that isn't sent neither spends the budget nor counts as a hedge.
+   *
+   * @param send takes what the hedge needs to be sent, called only if the budget allows it
+   * @return true if the budget allows it and it can be sent
+   */
+  public boolean tryHedge(BooleanSupplier send) {
+    synchronized (this) {
+      if (budget < 1) {
+        metrics.onBudgetDenied();
+        return false;
+      }
+      if (!send.getAsBoolean()) {
+        return false;
+      }
+      budget--;
+    }
+
+    metrics.onHedge();
+    return true;
+  }
+
+  /**
+   * Record the latency of a completed request.
+   *
+   * @param latencyNanos the time until its first successful response
+   * @param hedgeWon whether the response came from the hedge
+   */
+  public void onResponse(long latencyNanos, boolean hedgeWon) {
+    if (hedgeWon) {
+      metrics.onHedgeWon();
+    }
+
+    long[] snapshot = null;
+    synchronized (this) {
+      latencies[nextSample] = latencyNanos;
+      nextSample = (nextSample + 1) % WINDOW_SIZE;
+      samples++;
+      boolean recompute =
+          samples == policy.getMinSamples()
+              || samples > policy.getMinSamples() && samples % RECOMPUTE_INTERVAL == 0;
+      if (recompute) {
+        snapshot = Arrays.copyOf(latencies, Math.min(samples, WINDOW_SIZE));
+      }
+    }
+
+    // sorted outside the lock, concurrent recomputations are harmless
+    if (snapshot != null) {
+      Arrays.sort(snapshot);
+      long percentileNanos = snapshot[(int) (policy.getPercentile() * (snapshot.length - 1))];
+      delayNanos =
+          Math.max(policy.getMinDelayNanos(), Math.min(policy.getMaxDelayNanos(), percentileNanos));
+    }
+  }
+
+  /** @return the current hedging delay, in nanoseconds */
+  public long getDelayNanos() {
+    return delayNanos;
+  }
+
+  public HedgeMetrics getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,136 @@
+package com.invisiblecollector.connection.hedge;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of hedged GET requests.
+ *
+ * <p>When a GET request hasn't been answered after a delay, a second identical request is sent and
+ * the first successful response wins. The delay follows a percentile of the recently observed
+ * latencies, so only the slowest requests are hedged.
+ *
+ * <p>Hedges are paid from a budget earned by every request, which caps the extra load to a
+ * fraction of the traffic even when every request is slow, such as during an outage.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class HedgingPolicy {
+
+  private double percentile = 0.95;
+  private long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+  private long maxDelayNanos = TimeUnit.SECONDS.toNanos(1);
+  private int minSamples = 20;
+  private double budgetRatio = 0.1;
+  private int maxBudget = 10;
+
+  /** Creates a policy with the default configuration. */
+  public HedgingPolicy() {}
+
+  /**
+   * Creates a copy of a policy.
+   *
+   * @param other the policy to copy
+   */
+  public HedgingPolicy(HedgingPolicy other) {
+    this.percentile = other.percentile;
+    this.minDelayNanos = other.minDelayNanos;
+    this.maxDelayNanos = other.maxDelayNanos;
+    this.minSamples = other.minSamples;
+    this.budgetRatio = other.budgetRatio;
+    this.maxBudget = other.maxBudget;
+  }
+
+  /**
+   * Set the percentile of the observed latencies after which a request is hedged.
+   *
+   * @param percentile the percentile, in ]0, 1[. Default value is 0.95
+   * @return this
+   */
+  public HedgingPolicy withPercentile(double percentile) {
+    if (percentile <= 0 || percentile >= 1) {
+      throw new IllegalArgumentException("percentile must be in ]0, 1[");
+    }
+
+    this.percentile = percentile;
+    return this;
+  }
+
+  /**
+   * Set the range of the hedging delay.
+   *
+   * @param minDelay the minimum delay. Default value is 10ms
+   * @param maxDelay the maximum delay, also used until enough latencies are observed. Default
+   *     value is 1s
+   * @param unit the unit of both delays
+   * @return this
+   */
+  public HedgingPolicy withDelay(long minDelay, long maxDelay, TimeUnit unit) {
+    if (minDelay < 0 || maxDelay < minDelay) {
+      throw new IllegalArgumentException("delays cannot be negative and minDelay <= maxDelay");
+    }
+
+    this.minDelayNanos = unit.toNanos(minDelay);
+    this.maxDelayNanos = unit.toNanos(maxDelay);
+    return this;
+  }
+
+  /**
+   * Set the amount of latencies observed before the percentile is used.
+   *
+   * @param minSamples the amount of latencies. Default value is 20
+   * @return this
+   */
+  public HedgingPolicy withMinSamples(int minSamples) {
+    if (minSamples < 1) {
+      throw new IllegalArgumentException("minSamples must be at least 1");
+    }
+
+    this.minSamples = minSamples;
+    return this;
+  }
+
+  /**
+   * Set the hedge budget.
+   *
+   * @param budgetRatio the maximum amount of hedges per request. Default value is 0.1
+   * @param maxBudget the maximum amount of hedges saved up while they aren't needed. Default
+   *     value is 10
+   * @return this
+   */
+  public HedgingPolicy withBudget(double budgetRatio, int maxBudget) {
+    if (budgetRatio <= 0 || budgetRatio > 1 || maxBudget < 1) {
+      throw new IllegalArgumentException("budgetRatio must be in ]0, 1] and maxBudget at least 1");
+    }
+
+    this.budgetRatio = budgetRatio;
+    this.maxBudget = maxBudget;
+    return this;
+  }
+
+  public double getPercentile() {
+    return percentile;
+  }
+
+  public long getMinDelayNanos() {
+    return minDelayNanos;
+  }
+
+  public long getMaxDelayNanos() {
+    return maxDelayNanos;
+  }
+
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  public int getMaxBudget() {
+    return maxBudget;
+  }
+}
@@ -0,0 +1,123 @@
+package com.invisiblecollector.connection.pool;
+
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of reusable HTTP connections backed by the Apache HTTP client.
+ *
+ * <p>Thread-safe. A single pool can be shared by several {@link
+ * com.invisiblecollector.IcApiFacade} instances. The pool owns a background thread that evicts
+ * idle and expired connections so it should be closed once it's no longer used.
+ *
+ * @author ros
+ */
+public class ConnectionPool implements Closeable {
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final IdleConnectionEvictor evictor;
+  private final Client client;
+
+  /**
+   * Creates a pool with the default configuration.
+   *
+   * @see #ConnectionPool(ConnectionPoolConfig)
+   */
+  public ConnectionPool() {
+    this(new ConnectionPoolConfig());
+  }
+
+  /**
+   * Creates a pool.
+   *
+   * @param config the pool configuration. Changes to it after construction have no effect.
+   */
+  public ConnectionPool(ConnectionPoolConfig config) {
+    this.connectionManager =
+        new PoolingHttpClientConnectionManager(
+            config.getConnectionTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+    this.connectionManager.setMaxTotal(config.getMaxTotal());
+    this.connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+    this.connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivityMillis());
+    this.connectionManager.setDefaultSocketConfig(
+        SocketConfig.custom()
+            .setSoKeepAlive(config.isSocketKeepAlive())
+            .setTcpNoDelay(config.isTcpNoDelay())
+            .setSndBufSize(config.getSendBufferSize())
+            .setRcvBufSize(config.getReceiveBufferSize())
+            .build());
+    this.connectionManager.setDefaultConnectionConfig(
+        ConnectionConfig.custom().setBufferSize(config.getIoBufferSize()).build());
+
+    this.evictor =
+        new IdleConnectionEvictor(
+            this.connectionManager,
+            config.getEvictionIntervalMillis(),
+            TimeUnit.MILLISECONDS,
+            config.getMaxIdleTimeMillis(),
+            TimeUnit.MILLISECONDS);
+    this.evictor.start();
+
+    this.client = buildClient(this.connectionManager);
+  }
+
+  private static Client buildClient(PoolingHttpClientConnectionManager connectionManager) {
+    ClientConfig clientConfig =
+        new ClientConfig()
+            .connectorProvider(new ApacheConnectorProvider())
+            .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+            // the pool's lifecycle is managed by this class, not by jersey
+            .property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true)
+            // sends Content-Length instead of chunking the (small) json bodies
+            .property(
+                ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED)
+            .property(ClientProperties.FOLLOW_REDIRECTS, true);
+
+    return ClientBuilder.newClient(clientConfig);
+  }
+
+  /**
+   * Get the jersey client that sends requests through this pool.
+   *
+   * @return the client. Thread-safe.
+   */
+  public Client getClient() {
+    return client;
+  }
+
+  /**
+   * Get the current pool statistics.
+   *
+   * @return a snapshot of the pool's state
+   */
+  public ConnectionPoolStats getStats() {
+    PoolStats stats = connectionManager.getTotalStats();
+    return new ConnectionPoolStats(
+        stats.getLeased(),
+        stats.getPending(),
+        stats.getAvailable(),
+        stats.getMax(),
+        connectionManager.getRoutes().size());
+  }
+
+  /** Closes every pooled connection and stops the background evictor. */
+  @Override
+  public void close() {
+    evictor.shutdown();
+    client.close();
+    connectionManager.shutdown();
+  }
+}
@@ -0,0 +1,218 @@
+package com.invisiblecollector.connection.pool;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tuning options for a {@link ConnectionPool}.
+ *
+ * <p>Implements a fluent builder API. Every option has a sensible default so only the values that
+ * need tuning have to be set.
+ *
+ * @author ros
+ */
+public class ConnectionPoolConfig {
+
+  private int maxTotal = 50;
+  private int maxPerRoute = 20;
+  private long connectionTimeToLiveMillis = -1;
+  private long maxIdleTimeMillis = TimeUnit.SECONDS.toMillis(30);
+  private long evictionIntervalMillis = TimeUnit.SECONDS.toMillis(5);
+  private int validateAfterInactivityMillis = 2000;
+  private boolean socketKeepAlive = true;
+  private boolean tcpNoDelay = true;
+  private int sendBufferSize;
+  private int receiveBufferSize;
+  private int ioBufferSize = 8 * 1024;
+
+  private static void assertPositive(long value, String name) {
+    if (value <= 0) {
+      throw new IllegalArgumentException(name + " must be positive");
+    }
+  }
+
+  private static void assertNotNegative(long value, String name) {
+    if (value < 0) {
+      throw new IllegalArgumentException(name + " can't be negative");
+    }
+  }
+
+  /**
+   * Set the maximum amount of open connections across all hosts.
+   *
+   * @param maxTotal the limit. Default value is 50
+   * @return this
+   */
+  public ConnectionPoolConfig withMaxTotal(int maxTotal) {
+    assertPositive(maxTotal, "maxTotal");
+    this.maxTotal = maxTotal;
+    return this;
+  }
+
+  /**
+   * Set the maximum amount of open connections to a single host.
+   *
+   * @param maxPerRoute the limit. Default value is 20
+   * @return this
+   */
+  public ConnectionPoolConfig withMaxPerRoute(int maxPerRoute) {
+    assertPositive(maxPerRoute, "maxPerRoute");
+    this.maxPerRoute = maxPerRoute;
+    return this;
+  }
+
+  /**
+   * Set how long a connection can be kept alive and reused, regardless of activity.
+   *
+   * @param timeToLive the duration. A negative value (the default) means no limit
+   * @param unit the time unit
+   * @return this
+   */
+  public ConnectionPoolConfig withConnectionTimeToLive(long timeToLive, TimeUnit unit) {
+    this.connectionTimeToLiveMillis = timeToLive < 0 ? -1 : unit.toMillis(timeToLive);
+    return this;
+  }
+
+  /**
+   * Set how long a connection can stay idle in the pool before it's evicted by the background
+   * evictor.
+   *
+   * @param maxIdleTime the duration. Default value is 30 seconds
+   * @param unit the time unit
+   * @return this
+   */
+  public ConnectionPoolConfig withMaxIdleTime(long maxIdleTime, TimeUnit unit) {
+    assertPositive(maxIdleTime, "maxIdleTime");
+    this.maxIdleTimeMillis = unit.toMillis(maxIdleTime);
+    return this;
+  }
+
+  /**
+   * Set how often the background evictor checks for idle and expired connections.
+   *
+   * @param interval the interval. Default value is 5 seconds
+   * @param unit the time unit
+   * @return this
+   */
+  public ConnectionPoolConfig withEvictionInterval(long interval, TimeUnit unit) {
+    assertPositive(interval, "interval");
+    this.evictionIntervalMillis = unit.toMillis(interval);
+    return this;
+  }
+
+  /**
+   * Set after how much inactivity a pooled connection is checked for staleness before being
+   * reused.
+   *
+   * @param inactivity the duration. Default value is 2 seconds. Zero disables the check
+   * @param unit the time unit
+   * @return this
+   */
+  public ConnectionPoolConfig withValidateAfterInactivity(long inactivity, TimeUnit unit) {
+    assertNotNegative(inactivity, "inactivity");
+    this.validateAfterInactivityMillis =
+        (int) Math.min(Integer.MAX_VALUE, unit.toMillis(inactivity));
+    return this;
+  }
+
+  /**
+   * Set the SO_KEEPALIVE socket option.
+   *
+   * @param socketKeepAlive the value. Default value is true
+   * @return this
+   */
+  public ConnectionPoolConfig withSocketKeepAlive(boolean socketKeepAlive) {
+    this.socketKeepAlive = socketKeepAlive;
+    return this;
+  }
+
+  /**
+   * Set the TCP_NODELAY socket option.
+   *
+   * @param tcpNoDelay the value. Default value is true
+   * @return this
+   */
+  public ConnectionPoolConfig withTcpNoDelay(boolean tcpNoDelay) {
+    this.tcpNoDelay = tcpNoDelay;
+    return this;
+  }
+
+  /**
+   * Set the SO_SNDBUF socket option.
+   *
+   * @param sendBufferSize the size in bytes. Zero (the default) keeps the system default
+   * @return this
+   */
+  public ConnectionPoolConfig withSendBufferSize(int sendBufferSize) {
+    assertNotNegative(sendBufferSize, "sendBufferSize");
+    this.sendBufferSize = sendBufferSize;
+    return this;
+  }
+
+  /**
+   * Set the SO_RCVBUF socket option.
+   *
+   * @param receiveBufferSize the size in bytes. Zero (the default) keeps the system default
+   * @return this
+   */
+  public ConnectionPoolConfig withReceiveBufferSize(int receiveBufferSize) {
+    assertNotNegative(receiveBufferSize, "receiveBufferSize");
+    this.receiveBufferSize = receiveBufferSize;
+    return this;
+  }
+
+  /**
+   * Set the size of the per connection I/O buffer.
+   *
+   * @param ioBufferSize the size in bytes. Default value is 8KiB
+   * @return this
+   */
+  public ConnectionPoolConfig withIoBufferSize(int ioBufferSize) {
+    assertPositive(ioBufferSize, "ioBufferSize");
+    this.ioBufferSize = ioBufferSize;
+    return this;
+  }
+
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  public int getMaxPerRoute() {
+    return maxPerRoute;
+  }
+
+  public long getConnectionTimeToLiveMillis() {
+    return connectionTimeToLiveMillis;
+  }
+
+  public long getMaxIdleTimeMillis() {
+    return maxIdleTimeMillis;
+  }
+
+  public long getEvictionIntervalMillis() {
+    return evictionIntervalMillis;
+  }
+
+  public int getValidateAfterInactivityMillis() {
+    return validateAfterInactivityMillis;
+  }
+
+  public boolean isSocketKeepAlive() {
+    return socketKeepAlive;
+  }
+
+  public boolean isTcpNoDelay() {
+    return tcpNoDelay;
+  }
+
+  public int getSendBufferSize() {
+    return sendBufferSize;
+  }
+
+  public int getReceiveBufferSize() {
+    return receiveBufferSize;
+  }
+
+  public int getIoBufferSize() {
+    return ioBufferSize;
+  }
+}
@@ -0,0 +1,68 @@
+package com.invisiblecollector.connection.pool;
+
+/**
+ * An immutable snapshot of a {@link ConnectionPool}'s state.
+ *
+ * @author ros
+ */
+public class ConnectionPoolStats {
+
+  private final int leased;
+  private final int pending;
+  private final int available;
+  private final int max;
+  private final int routes;
+
+  public ConnectionPoolStats(int leased, int pending, int available, int max, int routes) {
+    this.leased = leased;
+    this.pending = pending;
+    this.available = available;
+    this.max = max;
+    this.routes = routes;
+  }
+
+  /** @return the amount of connections currently in use by a request */
+  public int getLeased() {
+    return leased;
+  }
+
+  /** @return the amount of requests waiting for a connection */
+  public int getPending() {
+    return pending;
+  }
+
+  /** @return the amount of idle connections that can be reused */
+  public int getAvailable() {
+    return available;
+  }
+
+  /** @return the maximum amount of connections */
+  public int getMax() {
+    return max;
+  }
+
+  /** @return the amount of distinct hosts the pool holds connections to */
+  public int getRoutes() {
+    return routes;
+  }
+
+  /** @return the amount of open connections, leased or idle */
+  public int getOpen() {
+    return leased + available;
+  }
+
+  @Override
+  public String toString() {
+    return "{leased: "
+        + leased
+        + ", pending: "
+        + pending
+        + ", available: "
+        + available
+        + ", max: "
+        + max
+        + ", routes: "
+        + routes
+        + "}";
+  }
+}
@@ -0,0 +1,54 @@
+package com.invisiblecollector.connection.priority;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the time the requests of one {@link Priority} waited for a {@link PriorityScheduler}.
+ *
+ * <p>Thread-safe. The counters only ever grow.
+ *
+ * @author ros
+ */
+public class LaneMetrics {
+
+  private final AtomicLong scheduled = new AtomicLong();
+  private final AtomicLong promotions = new AtomicLong();
+  private final AtomicLong totalWaitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  void onScheduled(long waitNanos, boolean promoted) {
+    scheduled.incrementAndGet();
+    totalWaitNanos.addAndGet(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    if (promoted) {
+      promotions.incrementAndGet();
+    }
+  }
+
+  /** @return the amount of requests sent */
+  public long getScheduled() {
+    return scheduled.get();
+  }
+
+  /** @return the amount of requests sent ahead of higher priorities because they waited too long */
+  public long getPromotions() {
+    return promotions.get();
+  }
+
+  /** @return the total time requests waited, in milliseconds */
+  public long getTotalWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+  }
+
+  /** @return the longest time a request waited, in milliseconds */
+  public long getMaxWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+  }
+
+  /** @return the average time requests waited, in milliseconds */
+  public double getAverageWaitMillis() {
+    long count = scheduled.get();
+    return count == 0 ? 0 : totalWaitNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
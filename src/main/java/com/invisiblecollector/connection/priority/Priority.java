@@ -0,0 +1,13 @@
+package com.invisiblecollector.connection.priority;
+
+/**
+ * How urgently a call's requests should be sent, from highest to lowest.
+ *
+ * @author ros
+ */
+public enum Priority {
+  /** Calls a user is waiting for. The default. */
+  INTERACTIVE,
+  /** Background work such as syncs and backfills, sent once interactive calls are served. */
+  BATCH
+}
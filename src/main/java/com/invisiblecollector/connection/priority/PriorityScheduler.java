@@ -0,0 +1,225 @@
+package com.invisiblecollector.connection.priority;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends requests in order of {@link Priority}, with a fixed amount of requests in flight.
+ *
+ * <p>Requests wait in one FIFO lane per priority. Whenever a slot frees up the highest priority
+ * lane is served first, unless the head of a lower priority lane waited longer than the aging
+ * time: then the oldest such request is sent instead, so batch work is never starved by a steady
+ * stream of interactive calls.
+ *
+ * <p>Requests wait for as long as it takes, bounded only by the deadline of their {@link
+ * com.invisiblecollector.connection.timeout.CallContext}. The wait of each lane is measured by its
+ * {@link LaneMetrics}.
+ *
+ * <p>Thread-safe. Implements a fluent builder API, the configuration must be set before the first
+ * request is sent. Can be shared between facades to schedule them together.
+ *
+ * @author ros
+ */
+public class PriorityScheduler {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<Priority, ArrayDeque<Waiter>> lanes = new EnumMap<>(Priority.class);
+  private final Map<Priority, LaneMetrics> metrics = new EnumMap<>(Priority.class);
+  private final LongSupplier nanoClock;
+  private final int maxConcurrent;
+
+  private long agingNanos = TimeUnit.SECONDS.toNanos(2);
+  private int inFlight;
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param maxConcurrent the maximum amount of requests in flight
+   */
+  public PriorityScheduler(int maxConcurrent) {
+    this(maxConcurrent, System::nanoTime);
+  }
+
+  PriorityScheduler(int maxConcurrent, LongSupplier nanoClock) {
+    if (maxConcurrent < 1) {
+      throw new IllegalArgumentException("maxConcurrent must be positive");
+    }
+
+    this.maxConcurrent = maxConcurrent;
+    this.nanoClock = nanoClock;
+    for (Priority priority : Priority.values()) {
+      lanes.put(priority, new ArrayDeque<>());
+      metrics.put(priority, new LaneMetrics());
+    }
+  }
+
+  /**
+   * Set how long a request waits before it's sent ahead of higher priorities.
+   *
+   * @param aging the time. Default value is 2s
+   * @param unit the time unit
+   * @return this
+   */
+  public PriorityScheduler withAging(long aging, TimeUnit unit) {
+    if (aging < 0) {
+      throw new IllegalArgumentException("aging cannot be negative");
+    }
+
+    this.agingNanos = unit.toNanos(aging);
+    return this;
+  }
+
+  /**
+   * Acquire a slot to send a request.
+   *
+   * @param priority the request's priority
+   * @return the slot, once the request's turn comes. Never completes exceptionally.
+   */
+  public CompletableFuture<Slot> acquire(Priority priority) {
+    Waiter waiter = new Waiter(priority, nanoClock.getAsLong());
+    lock.lock();
+    try {
+      if (inFlight >= maxConcurrent || !isIdle()) {
+        lanes.get(priority).add(waiter);
+        return waiter.future;
+      }
+      inFlight++;
+    } finally {
+      lock.unlock();
+    }
+
+    metrics.get(priority).onScheduled(0, false);
+    waiter.future.complete(new Slot());
+    return waiter.future;
+  }
+
+  /**
+   * Give up on a queued request.
+   *
+   * @param future the future returned by {@link #acquire(Priority)}
+   * @return true if it was removed from its lane, false if a slot was already granted
+   */
+  public boolean abandon(CompletableFuture<Slot> future) {
+    lock.lock();
+    try {
+      for (ArrayDeque<Waiter> lane : lanes.values()) {
+        if (lane.removeIf(waiter -> waiter.future == future)) {
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isIdle() {
+    for (ArrayDeque<Waiter> lane : lanes.values()) {
+      if (!lane.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void release() {
+    Waiter next;
+    boolean promoted;
+    long now = nanoClock.getAsLong();
+    lock.lock();
+    try {
+      Waiter first = null;
+      next = null;
+      for (ArrayDeque<Waiter> lane : lanes.values()) {
+        Waiter head = lane.peek();
+        if (head == null) {
+          continue;
+        }
+        if (first == null) {
+          first = head;
+          next = head;
+        } else if (now - head.enqueuedNanos >= agingNanos
+            && head.enqueuedNanos - next.enqueuedNanos < 0) {
+          next = head;
+        }
+      }
+
+      if (next == null) {
+        inFlight--;
+        return;
+      }
+      lanes.get(next.priority).poll();
+      promoted = next != first;
+    } finally {
+      lock.unlock();
+    }
+
+    metrics.get(next.priority).onScheduled(now - next.enqueuedNanos, promoted);
+    next.future.complete(new Slot());
+  }
+
+  /**
+   * Get the metrics of a priority's lane.
+   *
+   * @param priority the priority
+   * @return the metrics
+   */
+  public LaneMetrics getMetrics(Priority priority) {
+    return metrics.get(priority);
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the amount of requests waiting in a priority's lane.
+   *
+   * @param priority the priority
+   * @return the amount of requests
+   */
+  public int getQueueDepth(Priority priority) {
+    lock.lock();
+    try {
+      return lanes.get(priority).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static final class Waiter {
+    private final Priority priority;
+    private final long enqueuedNanos;
+    private final CompletableFuture<Slot> future = new CompletableFuture<>();
+
+    private Waiter(Priority priority, long enqueuedNanos) {
+      this.priority = priority;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+
+  /** Allows a single request to be in flight. Must be released when the request completes. */
+  public final class Slot {
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Slot() {}
+
+    /** Frees the slot for the next request. Further calls have no effect. */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        PriorityScheduler.this.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.invisiblecollector.connection.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket that slows down when the server rate limits its requests.
+ *
+ * <p>Permits are handed out at the current rate, with up to a burst of them stored while idle.
+ * Instead of failing, callers reserve a permit and wait until it becomes available, so concurrent
+ * callers are spread out evenly over time.
+ *
+ * <p>Every throttled response halves the current rate, down to a minimum, and holds back every
+ * permit for as long as the server's Retry-After asks. The rate then grows back linearly to the
+ * configured rate.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ * @see RateLimits
+ */
+public final class AdaptiveRateLimiter {
+
+  /** Returned by {@link #tryReserve(long)} instead of a wait when no permit was reserved. */
+  public static final long UNAVAILABLE = -1;
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final double maxRatePerNano;
+  private final double minRatePerNano;
+  private final double recoveryPerNano;
+  private final double burst;
+  private final LongSupplier nanoClock;
+
+  private double ratePerNano;
+  private double storedPermits;
+  private long nextFreeNanos;
+  private long lastUpdateNanos;
+  private long throttles;
+
+  AdaptiveRateLimiter(
+      double permitsPerSecond,
+      int burst,
+      double minRateFraction,
+      long recoveryNanos,
+      LongSupplier nanoClock) {
+    this.maxRatePerNano = permitsPerSecond / NANOS_PER_SECOND;
+    this.minRatePerNano = maxRatePerNano * minRateFraction;
+    this.recoveryPerNano = (maxRatePerNano - minRatePerNano) / Math.max(1, recoveryNanos);
+    this.burst = burst;
+    this.nanoClock = nanoClock;
+    this.ratePerNano = maxRatePerNano;
+    this.storedPermits = burst;
+    this.nextFreeNanos = nanoClock.getAsLong();
+    this.lastUpdateNanos = nextFreeNanos;
+  }
+
+  private void update(long now) {
+    long elapsed = now - lastUpdateNanos;
+    if (elapsed > 0) {
+      ratePerNano = Math.min(maxRatePerNano, ratePerNano + elapsed * recoveryPerNano);
+      lastUpdateNanos = now;
+    }
+
+    if (now > nextFreeNanos) {
+      storedPermits = Math.min(burst, storedPermits + (now - nextFreeNanos) * ratePerNano);
+      nextFreeNanos = now;
+    }
+  }
+
+  /**
+   * Reserve a permit.
+   *
+   * @return how long to wait before using the permit, in nanoseconds
+   */
+  public long reserve() {
+    return tryReserve(Long.MAX_VALUE);
+  }
+
+  /**
+   * Reserve a permit, unless it can't be used in time. A caller that would give up waiting doesn't
+   * take a permit from, nor delay, the callers after it.
+   *
+   * @param maxWaitNanos how long the caller can wait for the permit, in nanoseconds
+   * @return how long to wait before using the permit, in nanoseconds, or {@link #UNAVAILABLE} if
+   *     that's not less than {@code maxWaitNanos}
+   */
+  public synchronized long tryReserve(long maxWaitNanos) {
+    long now = nanoClock.getAsLong();
+    update(now);
+
+    // a permit that isn't stored yet is paid for by waiting until it is produced
+    double spent = Math.min(1, storedPermits);
+    long freeNanos = nextFreeNanos + (long) ((1 - spent) / ratePerNano);
+    if (freeNanos - now >= maxWaitNanos) {
+      return UNAVAILABLE;
+    }
+
+    storedPermits -= spent;
+    nextFreeNanos = freeNanos;
+    return freeNanos - now;
+  }
+
+  /**
+   * Slow down after the server rejected a request for exceeding its rate limit.
+   *
+   * @param retryAfterMillis how long the server asked to wait, or a negative value if it didn't
+   */
+  public synchronized void onThrottled(long retryAfterMillis) {
+    long now = nanoClock.getAsLong();
+    update(now);
+
+    throttles++;
+    ratePerNano = Math.max(minRatePerNano, ratePerNano / 2);
+    storedPermits = 0;
+    long pause =
+        retryAfterMillis >= 0
+            ? TimeUnit.MILLISECONDS.toNanos(retryAfterMillis)
+            : (long) (1 / ratePerNano);
+    nextFreeNanos = Math.max(nextFreeNanos, now + pause);
+  }
+
+  /** @return the current rate, in permits per second */
+  public synchronized double getRate() {
+    update(nanoClock.getAsLong());
+    return ratePerNano * NANOS_PER_SECOND;
+  }
+
+  /** @return the amount of throttled responses reported so far */
+  public synchronized long getThrottles() {
+    return throttles;
+  }
+}
@@ -0,0 +1,167 @@
+package com.invisiblecollector.connection.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side rate limits, adapting to the server's 429 responses.
+ *
+ * <p>Requests are limited by an {@link AdaptiveRateLimiter} per API token and {@link
+ * RequestClass}, so reads keep flowing while writes are throttled and vice-versa. The limiters are
+ * shared by every facade configured with the same instance, keep a single instance per
+ * application.
+ *
+ * <p>A request rejected with a 429 status code wasn't processed by the server, so it is sent again
+ * once the limiter allows it, whether it is idempotent or not, up to a maximum amount of times.
+ *
+ * <p>Implements a fluent builder API. The configuration must be set before the first request is
+ * sent, limiters already created keep their configuration.
+ *
+ * @author ros
+ */
+public class RateLimits {
+
+  private final Map<LimiterKey, AdaptiveRateLimiter> limiters = new ConcurrentHashMap<>();
+  private double readRate = 10;
+  private int readBurst = 10;
+  private double writeRate = 5;
+  private int writeBurst = 5;
+  private double minRateFraction = 0.1;
+  private long recoveryNanos = TimeUnit.SECONDS.toNanos(30);
+  private int maxThrottledResends = 5;
+
+  private static void assertRate(double permitsPerSecond, int burst) {
+    if (permitsPerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("rate must be positive and burst at least 1");
+    }
+  }
+
+  /**
+   * Set the rate of read (GET) requests.
+   *
+   * @param permitsPerSecond the maximum rate. Default value is 10
+   * @param burst the maximum amount of requests sent at once after being idle. Default value is 10
+   * @return this
+   */
+  public RateLimits withReadRate(double permitsPerSecond, int burst) {
+    assertRate(permitsPerSecond, burst);
+
+    this.readRate = permitsPerSecond;
+    this.readBurst = burst;
+    return this;
+  }
+
+  /**
+   * Set the rate of write (POST and PUT) requests.
+   *
+   * @param permitsPerSecond the maximum rate. Default value is 5
+   * @param burst the maximum amount of requests sent at once after being idle. Default value is 5
+   * @return this
+   */
+  public RateLimits withWriteRate(double permitsPerSecond, int burst) {
+    assertRate(permitsPerSecond, burst);
+
+    this.writeRate = permitsPerSecond;
+    this.writeBurst = burst;
+    return this;
+  }
+
+  /**
+   * Set how far the rate can drop after throttled responses.
+   *
+   * @param minRateFraction the minimum rate as a fraction of the maximum rate. Default value is 0.1
+   * @return this
+   */
+  public RateLimits withMinRateFraction(double minRateFraction) {
+    if (minRateFraction <= 0 || minRateFraction > 1) {
+      throw new IllegalArgumentException("minRateFraction must be in ]0, 1]");
+    }
+
+    this.minRateFraction = minRateFraction;
+    return this;
+  }
+
+  /**
+   * Set how long the rate takes to grow back from the minimum to the maximum rate.
+   *
+   * @param recoveryTime the time. Default value is 30s
+   * @param unit the time unit
+   * @return this
+   */
+  public RateLimits withRecoveryTime(long recoveryTime, TimeUnit unit) {
+    if (recoveryTime < 0) {
+      throw new IllegalArgumentException("recoveryTime cannot be negative");
+    }
+
+    this.recoveryNanos = unit.toNanos(recoveryTime);
+    return this;
+  }
+
+  /**
+   * Set how many times a request rejected with a 429 status code is sent again. The retry policy
+   * doesn't retry it after that.
+   *
+   * @param maxThrottledResends the amount of times, 0 to fail right away. Default value is 5
+   * @return this
+   */
+  public RateLimits withMaxThrottledResends(int maxThrottledResends) {
+    if (maxThrottledResends < 0) {
+      throw new IllegalArgumentException("maxThrottledResends cannot be negative");
+    }
+
+    this.maxThrottledResends = maxThrottledResends;
+    return this;
+  }
+
+  /**
+   * Get the limiter of an API token's requests.
+   *
+   * @param apiToken the API token
+   * @param requestClass the class of the requests
+   * @return the limiter, created on first use
+   */
+  public AdaptiveRateLimiter getLimiter(String apiToken, RequestClass requestClass) {
+    return limiters.computeIfAbsent(
+        new LimiterKey(apiToken, requestClass), key -> buildLimiter(requestClass));
+  }
+
+  private AdaptiveRateLimiter buildLimiter(RequestClass requestClass) {
+    boolean read = requestClass == RequestClass.READ;
+    return new AdaptiveRateLimiter(
+        read ? readRate : writeRate,
+        read ? readBurst : writeBurst,
+        minRateFraction,
+        recoveryNanos,
+        System::nanoTime);
+  }
+
+  public int getMaxThrottledResends() {
+    return maxThrottledResends;
+  }
+
+  private static final class LimiterKey {
+    private final String apiToken;
+    private final RequestClass requestClass;
+
+    LimiterKey(String apiToken, RequestClass requestClass) {
+      this.apiToken = apiToken;
+      this.requestClass = requestClass;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof LimiterKey)) {
+        return false;
+      }
+
+      LimiterKey key = (LimiterKey) other;
+      return apiToken.equals(key.apiToken) && requestClass == key.requestClass;
+    }
+
+    @Override
+    public int hashCode() {
+      return apiToken.hashCode() * 31 + requestClass.hashCode();
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.invisiblecollector.connection.ratelimit;
+
+import com.invisiblecollector.connection.RequestType;
+
+/**
+ * The classes of endpoints that are rate limited separately.
+ *
+ * @author ros
+ */
+public enum RequestClass {
+  READ,
+  WRITE;
+
+  /**
+   * Get the class of a request.
+   *
+   * @param requestType the HTTP request type
+   * @return {@link #READ} for GET requests, {@link #WRITE} otherwise
+   */
+  public static RequestClass of(RequestType requestType) {
+    return requestType == RequestType.GET ? READ : WRITE;
+  }
+}
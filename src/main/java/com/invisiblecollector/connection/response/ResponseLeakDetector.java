@@ -0,0 +1,142 @@
+package com.invisiblecollector.connection.response;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks HTTP responses from the moment they are received until their connection is released.
+ *
+ * <p>Each tracked response records the call site that opened it. Responses that are garbage
+ * collected without being released are logged as leaks, and the ones still open can be inspected
+ * at any time with {@link #getUnreleasedCallSites()}.
+ *
+ * <p>Thread-safe. A disabled detector doesn't capture call sites and has no overhead besides a
+ * branch per request.
+ *
+ * @author ros
+ */
+public class ResponseLeakDetector {
+
+  private static final Logger LOGGER = Logger.getLogger(ResponseLeakDetector.class.getName());
+  private static final ResponseLeakDetector DISABLED = new ResponseLeakDetector(false);
+
+  private final boolean enabled;
+  private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+  private final Map<Tracked, Boolean> open = new ConcurrentHashMap<>();
+  private final AtomicLong leakCount = new AtomicLong();
+
+  /**
+   * A handle to a tracked response. Must be released once the response's connection is released.
+   */
+  public static final class Tracked extends WeakReference<Object> {
+    private final Throwable callSite;
+
+    private Tracked(Object response, ReferenceQueue<Object> queue, Throwable callSite) {
+      super(response, queue);
+      this.callSite = callSite;
+    }
+
+    Throwable getCallSite() {
+      return callSite;
+    }
+  }
+
+  /**
+   * Creates a detector.
+   *
+   * @param enabled whether responses are tracked
+   */
+  public ResponseLeakDetector(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Get the shared detector that doesn't track anything.
+   *
+   * @return the disabled detector
+   */
+  public static ResponseLeakDetector disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Start tracking a response.
+   *
+   * @param response the response just received
+   * @return the handle to pass to {@link #release(Tracked)}, or null if the detector is disabled
+   */
+  public Tracked track(Object response) {
+    if (!enabled) {
+      return null;
+    }
+
+    reportCollected();
+    Tracked tracked =
+        new Tracked(response, collected, new Throwable("Response received at this call site"));
+    open.put(tracked, Boolean.TRUE);
+    return tracked;
+  }
+
+  /**
+   * Stop tracking a response whose connection has been released.
+   *
+   * @param tracked the handle returned by {@link #track(Object)}. Can be null.
+   */
+  public void release(Tracked tracked) {
+    if (tracked == null) {
+      return;
+    }
+
+    open.remove(tracked);
+    tracked.clear();
+  }
+
+  /**
+   * Get the call sites of every tracked response that hasn't been released yet.
+   *
+   * @return the call sites, one per unreleased response
+   */
+  public List<StackTraceElement[]> getUnreleasedCallSites() {
+    reportCollected();
+    List<StackTraceElement[]> callSites = new ArrayList<>();
+    open.keySet().forEach(tracked -> callSites.add(tracked.getCallSite().getStackTrace()));
+    return callSites;
+  }
+
+  /** @return the amount of tracked responses that haven't been released yet */
+  public int getUnreleasedCount() {
+    reportCollected();
+    return open.size();
+  }
+
+  /** @return the amount of responses that were garbage collected without being released */
+  public long getLeakCount() {
+    reportCollected();
+    return leakCount.get();
+  }
+
+  private void reportCollected() {
+    Object reference;
+    while ((reference = collected.poll()) != null) {
+      Tracked tracked = (Tracked) reference;
+      if (open.remove(tracked) != null) {
+        leakCount.incrementAndGet();
+        LOGGER.log(
+            Level.SEVERE,
+            "HTTP response was garbage collected without releasing its connection",
+            tracked.getCallSite());
+      }
+    }
+  }
+}
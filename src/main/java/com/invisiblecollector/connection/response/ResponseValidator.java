@@ -1,14 +1,21 @@
 package com.invisiblecollector.connection.response;
 
+import com.invisiblecollector.connection.retry.RetryAfter;
+import com.invisiblecollector.connection.transport.TransportResponse;
 import com.invisiblecollector.exceptions.IcConflictingException;
 import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.exceptions.IcNotFoundException;
+import com.invisiblecollector.exceptions.IcRateLimitedException;
 import com.invisiblecollector.model.serialization.JsonModelFacade;
 
-import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
+import java.io.IOException;
 import java.io.InputStream;
 
 public class ResponseValidator {
+  private static final String JSON_TYPE = "application/json";
+  private static final int NOT_FOUND = 404;
+  private static final int TOO_MANY_REQUESTS = 429;
+
   private final JsonModelFacade jsonFacade;
 
   public ResponseValidator(JsonModelFacade jsonFacade) {
@@ -16,32 +23,67 @@ public class ResponseValidator {
     this.jsonFacade = jsonFacade;
   }
 
-  public void assertApiJsonResponse(Response response) throws IcException {
+  /**
+   * Asserts that the response is a successful JSON response.
+   *
+   * <p>The response isn't closed, that is left to the caller.
+   *
+   * @param response the response to validate
+   * @throws IcException with the API's error message if the response isn't successful
+   * @throws IcRateLimitedException if the API rejected the request for exceeding its rate limit
+   * @throws IcNotFoundException if the API answered that the requested model doesn't exist
+   */
+  public void assertApiJsonResponse(TransportResponse response) throws IcException {
+    if (response.getStatus() == TOO_MANY_REQUESTS && !isJsonResponse(response)) {
+      throw buildRateLimitedException("Rate limit exceeded", response);
+    }
+
     assertJsonResponse(response);
 
     if (isValidStatusCode(response)) {
       return;
     }
 
-    InputStream is = response.readEntity(InputStream.class);
+    InputStream is;
+    try {
+      is = response.getBody();
+    } catch (IOException e) {
+      throw new IcException("Failed to read response body", e);
+    }
     ErrorObject errObj = jsonFacade.parseStringStream(is, ErrorObject.class);
-    throwException(errObj);
+    throwException(errObj, response);
+  }
+
+  private IcRateLimitedException buildRateLimitedException(
+      String msg, TransportResponse response) {
+    long retryAfterMillis = RetryAfter.parseMillis(response.getHeader(RetryAfter.HEADER_NAME));
+    return new IcRateLimitedException(
+        msg + " (status code: " + TOO_MANY_REQUESTS + ")", retryAfterMillis);
   }
 
-  private void throwException(ErrorObject errObj) throws IcException {
+  private void throwException(ErrorObject errObj, TransportResponse response)
+      throws IcException {
     if (errObj.getCode() == null || errObj.getMessage() == null) {
       throw new IcException("Invalid error JSON returned");
     }
 
+    if (response.getStatus() == TOO_MANY_REQUESTS) {
+      throw buildRateLimitedException(errObj.getMessage(), response);
+    }
+
     String msg = errObj.getMessage() + " (status code: " + errObj.getCode() + ")";
     if (errObj.hasGid()) {
       throw new IcConflictingException(msg, errObj.getGid());
     }
 
+    if (response.getStatus() == NOT_FOUND) {
+      throw new IcNotFoundException(msg);
+    }
+
     throw new IcException(msg);
   }
 
-  private boolean isValidStatusCode(Response response) {
+  private boolean isValidStatusCode(TransportResponse response) {
     int status = response.getStatus();
     int family = status / 100;
 
@@ -52,9 +94,13 @@ public class ResponseValidator {
     return false;
   }
 
-  private void assertJsonResponse(Response response) throws IcException {
-    String contentTypeHeader = response.getHeaderString("Content-Type");
-    if (contentTypeHeader == null || !contentTypeHeader.contains(MediaType.APPLICATION_JSON)) {
+  private boolean isJsonResponse(TransportResponse response) {
+    String contentTypeHeader = response.getHeader("Content-Type");
+    return contentTypeHeader != null && contentTypeHeader.contains(JSON_TYPE);
+  }
+
+  private void assertJsonResponse(TransportResponse response) throws IcException {
+    if (!isJsonResponse(response)) {
       throw new IcException(
           "Expected JSON response from server. Returned status code: " + response.getStatus());
     }
@@ -0,0 +1,66 @@
+package com.invisiblecollector.connection.retry;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the Retry-After HTTP header, in either of its forms: an amount of seconds or a date.
+ *
+ * @author ros
+ */
+public final class RetryAfter {
+
+  public static final String HEADER_NAME = "Retry-After";
+
+  /** Returned when the header is absent or invalid. */
+  public static final long NOT_SET = -1;
+
+  private RetryAfter() {}
+
+  /**
+   * Get the delay the server asked for.
+   *
+   * @param headerValue the header value, can be null
+   * @return the delay in milliseconds from now, or {@link #NOT_SET}
+   */
+  public static long parseMillis(String headerValue) {
+    return parseMillis(headerValue, System.currentTimeMillis());
+  }
+
+  static long parseMillis(String headerValue, long nowMillis) {
+    if (headerValue == null || headerValue.isEmpty()) {
+      return NOT_SET;
+    }
+
+    String value = headerValue.trim();
+    if (isDigits(value)) {
+      try {
+        return Long.parseLong(value) * 1000;
+      } catch (NumberFormatException e) {
+        return NOT_SET; // overflow
+      }
+    }
+
+    try {
+      Instant date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+      return Math.max(0, date.toEpochMilli() - nowMillis);
+    } catch (DateTimeParseException e) {
+      return NOT_SET;
+    }
+  }
+
+  private static boolean isDigits(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+
+    for (int i = 0; i < value.length(); i++) {
+      if (!Character.isDigit(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,99 @@
+package com.invisiblecollector.connection.retry;
+
+import com.invisiblecollector.connection.transport.TransportResponse;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The retry state of a single call.
+ *
+ * <p>Not thread-safe: a call's attempts are made one after the other.
+ *
+ * @author ros
+ * @see RetryPolicy#newAttempts(boolean)
+ */
+public final class RetryAttempts {
+
+  /** Returned instead of a delay when the call must not be retried. */
+  public static final long NO_RETRY = -1;
+
+  private final RetryPolicy policy;
+  private final boolean retryable;
+  private long budgetLeftMillis;
+  private long previousDelayMillis;
+  private int retries;
+  private boolean exhausted;
+
+  RetryAttempts(RetryPolicy policy, boolean retryable) {
+    this.policy = policy;
+    this.retryable = retryable;
+    this.budgetLeftMillis = policy.getRetryBudgetMillis();
+    this.previousDelayMillis = policy.getBaseDelayMillis();
+  }
+
+  /**
+   * Decide whether to retry after a response.
+   *
+   * @param response the response of the last attempt
+   * @return the delay in milliseconds before retrying, or {@link #NO_RETRY}
+   */
+  public long nextDelayMillis(TransportResponse response) {
+    if (!policy.isRetryableStatus(response.getStatus())) {
+      return NO_RETRY;
+    }
+
+    return nextDelayMillis(RetryAfter.parseMillis(response.getHeader(RetryAfter.HEADER_NAME)));
+  }
+
+  /**
+   * Decide whether to retry after a transport failure.
+   *
+   * @return the delay in milliseconds before retrying, or {@link #NO_RETRY}
+   */
+  public long nextDelayAfterTransportError() {
+    if (!policy.isRetryOnTransportErrors()) {
+      return NO_RETRY;
+    }
+
+    return nextDelayMillis(RetryAfter.NOT_SET);
+  }
+
+  private long nextDelayMillis(long retryAfterMillis) {
+    if (!retryable) {
+      return NO_RETRY;
+    }
+
+    if (retries >= policy.getMaxRetries()) {
+      exhausted = true;
+      return NO_RETRY;
+    }
+
+    // decorrelated jitter: random between the base and three times the previous delay
+    long base = policy.getBaseDelayMillis();
+    long upper = Math.max(base, Math.min(policy.getMaxDelayMillis(), previousDelayMillis * 3));
+    long delay = ThreadLocalRandom.current().nextLong(base, upper + 1);
+    previousDelayMillis = delay;
+    if (retryAfterMillis > delay) {
+      delay = retryAfterMillis;
+    }
+
+    if (delay > budgetLeftMillis) {
+      exhausted = true;
+      return NO_RETRY;
+    }
+
+    budgetLeftMillis -= delay;
+    retries++;
+    return delay;
+  }
+
+  /** @return the amount of retries made so far */
+  public int getRetries() {
+    return retries;
+  }
+
+  /** @return true if a retry was refused because the call's retry budget ran out */
+  public boolean isExhausted() {
+    return exhausted;
+  }
+}
@@ -0,0 +1,60 @@
+package com.invisiblecollector.connection.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the retries made by a facade.
+ *
+ * <p>Thread-safe. The counters only ever grow.
+ *
+ * @author ros
+ */
+public class RetryMetrics {
+
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong retriedCalls = new AtomicLong();
+  private final AtomicLong recoveredCalls = new AtomicLong();
+  private final AtomicLong exhaustedCalls = new AtomicLong();
+
+  /**
+   * Record the outcome of a finished call.
+   *
+   * @param attempts the call's retry state
+   * @param succeeded whether the call's last attempt succeeded
+   */
+  public void record(RetryAttempts attempts, boolean succeeded) {
+    if (attempts.isExhausted()) {
+      exhaustedCalls.incrementAndGet();
+    }
+
+    if (attempts.getRetries() == 0) {
+      return;
+    }
+
+    retries.addAndGet(attempts.getRetries());
+    retriedCalls.incrementAndGet();
+    if (succeeded) {
+      recoveredCalls.incrementAndGet();
+    }
+  }
+
+  /** @return the total amount of retries */
+  public long getRetries() {
+    return retries.get();
+  }
+
+  /** @return the amount of calls retried at least once */
+  public long getRetriedCalls() {
+    return retriedCalls.get();
+  }
+
+  /** @return the amount of retried calls that eventually succeeded */
+  public long getRecoveredCalls() {
+    return recoveredCalls.get();
+  }
+
+  /** @return the amount of calls that failed after running out of retry budget */
+  public long getExhaustedCalls() {
+    return exhaustedCalls.get();
+  }
+}
@@ -0,0 +1,170 @@
+package com.invisiblecollector.connection.retry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of how failed requests are retried.
+ *
+ * <p>Transport failures (connection refused or reset, timeouts) and responses with a retryable
+ * status code are retried. GET requests are always retried, POST and PUT requests only when marked
+ * idempotent. Retries are delayed with decorrelated jitter, or as long as the server asks with a
+ * Retry-After header.
+ *
+ * <p>Each call has a retry budget: a maximum amount of retries and a maximum total time spent
+ * waiting between attempts. A retry that would exceed either is not attempted.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class RetryPolicy {
+
+  private static final Set<Integer> DEFAULT_RETRYABLE_STATUSES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(429, 502, 503, 504)));
+
+  private int maxRetries = 3;
+  private long baseDelayMillis = 100;
+  private long maxDelayMillis = TimeUnit.SECONDS.toMillis(5);
+  private long retryBudgetMillis = TimeUnit.SECONDS.toMillis(30);
+  private Set<Integer> retryableStatuses = DEFAULT_RETRYABLE_STATUSES;
+  private boolean retryOnTransportErrors = true;
+
+  /** Creates a policy with the default configuration. */
+  public RetryPolicy() {}
+
+  /**
+   * Creates a copy of a policy.
+   *
+   * @param other the policy to copy
+   */
+  public RetryPolicy(RetryPolicy other) {
+    this.maxRetries = other.maxRetries;
+    this.baseDelayMillis = other.baseDelayMillis;
+    this.maxDelayMillis = other.maxDelayMillis;
+    this.retryBudgetMillis = other.retryBudgetMillis;
+    this.retryableStatuses = other.retryableStatuses;
+    this.retryOnTransportErrors = other.retryOnTransportErrors;
+  }
+
+  /**
+   * Get a policy that never retries.
+   *
+   * @return a new disabled policy
+   */
+  public static RetryPolicy disabled() {
+    return new RetryPolicy().withMaxRetries(0);
+  }
+
+  /**
+   * Set the maximum amount of retries per call.
+   *
+   * @param maxRetries the amount of retries, 0 disables retrying. Default value is 3
+   * @return this
+   */
+  public RetryPolicy withMaxRetries(int maxRetries) {
+    if (maxRetries < 0) {
+      throw new IllegalArgumentException("maxRetries cannot be negative");
+    }
+
+    this.maxRetries = maxRetries;
+    return this;
+  }
+
+  /**
+   * Set the range of the delay between attempts. Each delay is randomly picked between the base
+   * delay and three times the previous delay, capped at the maximum delay.
+   *
+   * @param baseDelay the minimum delay. Default value is 100ms
+   * @param maxDelay the maximum delay, unless the server asks for more. Default value is 5s
+   * @param unit the unit of both delays
+   * @return this
+   */
+  public RetryPolicy withDelay(long baseDelay, long maxDelay, TimeUnit unit) {
+    if (baseDelay <= 0 || maxDelay < baseDelay) {
+      throw new IllegalArgumentException("delays must be positive and baseDelay <= maxDelay");
+    }
+
+    this.baseDelayMillis = unit.toMillis(baseDelay);
+    this.maxDelayMillis = unit.toMillis(maxDelay);
+    return this;
+  }
+
+  /**
+   * Set the maximum total time a call spends waiting between attempts.
+   *
+   * @param retryBudget the time. Default value is 30s
+   * @param unit the time unit
+   * @return this
+   */
+  public RetryPolicy withRetryBudget(long retryBudget, TimeUnit unit) {
+    if (retryBudget < 0) {
+      throw new IllegalArgumentException("retryBudget cannot be negative");
+    }
+
+    this.retryBudgetMillis = unit.toMillis(retryBudget);
+    return this;
+  }
+
+  /**
+   * Set the HTTP status codes that are retried. A 429 of a rate limited request isn't retried, the
+   * rate limiter resends it instead.
+   *
+   * @param statuses the status codes. Default value is 429, 502, 503 and 504
+   * @return this
+   */
+  public RetryPolicy withRetryableStatuses(Integer... statuses) {
+    this.retryableStatuses =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList(statuses)));
+    return this;
+  }
+
+  /**
+   * Set whether transport failures, such as connection resets and timeouts, are retried.
+   *
+   * @param retryOnTransportErrors true to retry them. Default value is true
+   * @return this
+   */
+  public RetryPolicy withRetryOnTransportErrors(boolean retryOnTransportErrors) {
+    this.retryOnTransportErrors = retryOnTransportErrors;
+    return this;
+  }
+
+  /**
+   * Start tracking the attempts of a call.
+   *
+   * @param idempotent whether the call can safely be sent more than once
+   * @return the per-call retry state. Not thread-safe.
+   */
+  public RetryAttempts newAttempts(boolean idempotent) {
+    return new RetryAttempts(this, idempotent && maxRetries > 0);
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public long getBaseDelayMillis() {
+    return baseDelayMillis;
+  }
+
+  public long getMaxDelayMillis() {
+    return maxDelayMillis;
+  }
+
+  public long getRetryBudgetMillis() {
+    return retryBudgetMillis;
+  }
+
+  public boolean isRetryableStatus(int status) {
+    return retryableStatuses.contains(status);
+  }
+
+  public boolean isRetryOnTransportErrors() {
+    return retryOnTransportErrors;
+  }
+}
@@ -0,0 +1,87 @@
+package com.invisiblecollector.connection.tenant;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The requests of one tenant, scheduled fairly with the other tenants of a {@link
+ * TenantScheduler}.
+ *
+ * <p>Thread-safe. Created with {@link TenantScheduler#newLane(String, double, int)}.
+ *
+ * @author ros
+ */
+public final class TenantLane {
+
+  private final TenantScheduler scheduler;
+  private final String tenant;
+  private final double weight;
+  private final int maxConcurrent;
+
+  // guarded by the scheduler's lock
+  final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+  double lastFinishTag;
+  int inFlight;
+
+  TenantLane(TenantScheduler scheduler, String tenant, double weight, int maxConcurrent) {
+    if (weight <= 0 || maxConcurrent < 1) {
+      throw new IllegalArgumentException("weight and maxConcurrent must be positive");
+    }
+
+    this.scheduler = scheduler;
+    this.tenant = tenant;
+    this.weight = weight;
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /**
+   * Acquire a slot to send one of the tenant's requests.
+   *
+   * @return the slot, once the request's turn comes. Never completes exceptionally.
+   */
+  public CompletableFuture<TenantScheduler.Slot> acquire() {
+    return scheduler.acquire(this);
+  }
+
+  /**
+   * Give up on a queued request.
+   *
+   * @param future the future returned by {@link #acquire()}
+   * @return true if it was removed from the queue, false if a slot was already granted
+   */
+  public boolean abandon(CompletableFuture<TenantScheduler.Slot> future) {
+    return scheduler.abandon(this, future);
+  }
+
+  public String getTenant() {
+    return tenant;
+  }
+
+  public double getWeight() {
+    return weight;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public int getInFlight() {
+    return scheduler.getInFlight(this);
+  }
+
+  public int getQueueDepth() {
+    return scheduler.getQueueDepth(this);
+  }
+
+  static final class Waiter {
+    final double startTag;
+    final double finishTag;
+    final CompletableFuture<TenantScheduler.Slot> future = new CompletableFuture<>();
+    TenantLane lane;
+
+    Waiter(double startTag, double finishTag) {
+      this.startTag = startTag;
+      this.finishTag = finishTag;
+    }
+  }
+}
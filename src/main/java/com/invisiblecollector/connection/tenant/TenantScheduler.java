@@ -0,0 +1,185 @@
+package com.invisiblecollector.connection.tenant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares a fixed amount of requests in flight between tenants, in proportion to their weights.
+ *
+ * <p>Each tenant sends through its own {@link TenantLane}. Requests are tagged as they are queued
+ * with a virtual finish time, which grows by the inverse of the tenant's weight for every request
+ * the tenant queues (start-time fair queueing). Whenever a slot frees up the queued request with
+ * the earliest finish time is sent, so a tenant with a large backlog gets its share but can't
+ * monopolize the slots, and a tenant that was idle doesn't bank credit while idle.
+ *
+ * <p>A tenant never has more requests in flight than its lane's cap, even when slots are free.
+ * Queued requests wait for as long as it takes, bounded only by the deadline of their {@link
+ * com.invisiblecollector.connection.timeout.CallContext}.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class TenantScheduler {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Set<TenantLane> backlogged = new LinkedHashSet<>();
+  private final int maxConcurrent;
+
+  private double virtualTime;
+  private int inFlight;
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param maxConcurrent the maximum amount of requests in flight, across every tenant
+   */
+  public TenantScheduler(int maxConcurrent) {
+    if (maxConcurrent < 1) {
+      throw new IllegalArgumentException("maxConcurrent must be positive");
+    }
+
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /**
+   * Create the lane of a tenant.
+   *
+   * @param tenant the tenant's name, such as its API token
+   * @param weight the tenant's share of the slots relative to the other tenants
+   * @param maxConcurrent the maximum amount of the tenant's requests in flight
+   * @return the lane
+   */
+  public TenantLane newLane(String tenant, double weight, int maxConcurrent) {
+    return new TenantLane(this, tenant, weight, maxConcurrent);
+  }
+
+  CompletableFuture<Slot> acquire(TenantLane lane) {
+    TenantLane.Waiter waiter;
+    List<TenantLane.Waiter> granted;
+    lock.lock();
+    try {
+      double startTag = Math.max(virtualTime, lane.lastFinishTag);
+      lane.lastFinishTag = startTag + 1 / lane.getWeight();
+      waiter = new TenantLane.Waiter(startTag, lane.lastFinishTag);
+      lane.queue.add(waiter);
+      backlogged.add(lane);
+      granted = dispatch();
+    } finally {
+      lock.unlock();
+    }
+
+    grant(granted);
+    return waiter.future;
+  }
+
+  boolean abandon(TenantLane lane, CompletableFuture<Slot> future) {
+    lock.lock();
+    try {
+      boolean removed = lane.queue.removeIf(waiter -> waiter.future == future);
+      if (lane.queue.isEmpty()) {
+        backlogged.remove(lane);
+      }
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void release(TenantLane lane) {
+    List<TenantLane.Waiter> granted;
+    lock.lock();
+    try {
+      inFlight--;
+      lane.inFlight--;
+      granted = dispatch();
+    } finally {
+      lock.unlock();
+    }
+
+    grant(granted);
+  }
+
+  /** Takes the queued requests that can be sent now, earliest finish time first. */
+  private List<TenantLane.Waiter> dispatch() {
+    List<TenantLane.Waiter> granted = new ArrayList<>();
+    while (inFlight < maxConcurrent) {
+      TenantLane next = null;
+      for (TenantLane lane : backlogged) {
+        if (lane.inFlight < lane.getMaxConcurrent()
+            && (next == null || lane.queue.peek().finishTag < next.queue.peek().finishTag)) {
+          next = lane;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+
+      TenantLane.Waiter waiter = next.queue.poll();
+      if (next.queue.isEmpty()) {
+        backlogged.remove(next);
+      }
+      virtualTime = Math.max(virtualTime, waiter.startTag);
+      inFlight++;
+      next.inFlight++;
+      waiter.lane = next;
+      granted.add(waiter);
+    }
+    return granted;
+  }
+
+  private void grant(List<TenantLane.Waiter> granted) {
+    for (TenantLane.Waiter waiter : granted) {
+      waiter.future.complete(new Slot(waiter.lane));
+    }
+  }
+
+  int getInFlight(TenantLane lane) {
+    lock.lock();
+    try {
+      return lane.inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getQueueDepth(TenantLane lane) {
+    lock.lock();
+    try {
+      return lane.queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Allows a single request to be in flight. Must be released when the request completes. */
+  public final class Slot {
+    private final TenantLane lane;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Slot(TenantLane lane) {
+      this.lane = lane;
+    }
+
+    /** Frees the slot for the next request. Further calls have no effect. */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        TenantScheduler.this.release(lane);
+      }
+    }
+  }
+}
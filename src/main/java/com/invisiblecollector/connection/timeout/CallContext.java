@@ -0,0 +1,160 @@
+package com.invisiblecollector.connection.timeout;
+
+import com.invisiblecollector.connection.priority.Priority;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries the deadline and priority of a call down to the requests it makes.
+ *
+ * <p>A context is attached to the current thread with {@link #attach()}; every request made from
+ * that thread, blocking or asynchronous, is abandoned once the deadline passes instead of being
+ * queued, sent or retried for a caller that is no longer waiting. Bulk operations pass the context
+ * on to the threads that run them.
+ *
+ * <p>The priority orders the requests waiting for a {@link
+ * com.invisiblecollector.connection.priority.PriorityScheduler}, such as a nightly sync run under
+ * {@code CallContext.none().withPriority(Priority.BATCH)}.
+ *
+ * <pre>{@code
+ * try (CallContext.Scope scope = CallContext.ofTimeout(5, TimeUnit.SECONDS).attach()) {
+ *   bulkFacade.requestCustomersInfo(customerIds);
+ * }
+ * }</pre>
+ *
+ * <p>Immutable.
+ *
+ * @author ros
+ */
+public final class CallContext {
+
+  private static final CallContext NONE = new CallContext(false, 0, Priority.INTERACTIVE);
+  private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+
+  private final boolean bounded;
+  private final long deadlineNanos;
+  private final Priority priority;
+
+  private CallContext(boolean bounded, long deadlineNanos, Priority priority) {
+    this.bounded = bounded;
+    this.deadlineNanos = deadlineNanos;
+    this.priority = priority;
+  }
+
+  /**
+   * Get a context without a deadline, with {@link Priority#INTERACTIVE} priority.
+   *
+   * @return the unbounded context
+   */
+  public static CallContext none() {
+    return NONE;
+  }
+
+  /**
+   * Create a context whose deadline is some time from now.
+   *
+   * @param timeout the time left until the deadline
+   * @param unit the time unit
+   * @return the new context
+   */
+  public static CallContext ofTimeout(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout cannot be negative");
+    }
+
+    return new CallContext(true, System.nanoTime() + unit.toNanos(timeout), Priority.INTERACTIVE);
+  }
+
+  /**
+   * Get the context attached to the current thread.
+   *
+   * @return the context, or {@link #none()} if none is attached
+   */
+  public static CallContext current() {
+    CallContext context = CURRENT.get();
+    return context == null ? NONE : context;
+  }
+
+  /**
+   * Get a context with the earliest of this context's deadline and a deadline some time from now.
+   *
+   * @param timeout the time left until the new deadline
+   * @param unit the time unit
+   * @return the new context with this context's priority, or this one if its deadline is earlier
+   */
+  public CallContext withTimeout(long timeout, TimeUnit unit) {
+    CallContext other = ofTimeout(timeout, unit);
+    return bounded && deadlineNanos - other.deadlineNanos <= 0
+        ? this
+        : new CallContext(true, other.deadlineNanos, priority);
+  }
+
+  /**
+   * Get a context with this context's deadline and another priority.
+   *
+   * @param priority the priority
+   * @return the new context
+   */
+  public CallContext withPriority(Priority priority) {
+    if (priority == null) {
+      throw new IllegalArgumentException("priority cannot be null");
+    }
+
+    return new CallContext(bounded, deadlineNanos, priority);
+  }
+
+  /**
+   * Attach this context to the current thread until the returned scope is closed.
+   *
+   * @return the scope, which restores the previously attached context when closed
+   */
+  public Scope attach() {
+    CallContext previous = CURRENT.get();
+    CURRENT.set(this);
+    return new Scope(previous);
+  }
+
+  public Priority getPriority() {
+    return priority;
+  }
+
+  public boolean hasDeadline() {
+    return bounded;
+  }
+
+  /**
+   * Get the time left until the deadline.
+   *
+   * @return the time in nanoseconds, 0 if the deadline passed or {@link Long#MAX_VALUE} if there
+   *     is no deadline
+   */
+  public long getRemainingNanos() {
+    if (!bounded) {
+      return Long.MAX_VALUE;
+    }
+
+    return Math.max(0, deadlineNanos - System.nanoTime());
+  }
+
+  public boolean isExpired() {
+    return getRemainingNanos() == 0;
+  }
+
+  /** Keeps a context attached to a thread. Must be closed on the thread that created it. */
+  public static final class Scope implements AutoCloseable {
+    private final CallContext previous;
+
+    private Scope(CallContext previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+}
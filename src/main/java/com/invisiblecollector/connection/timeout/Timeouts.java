@@ -0,0 +1,94 @@
+package com.invisiblecollector.connection.timeout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of how long a request may take.
+ *
+ * <p>The connect and read timeouts bound each attempt: establishing the connection and each wait
+ * for response data. The call timeout bounds the whole call, including the time spent queued,
+ * waiting for the rate limiter and between retries.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set. A timeout of 0 means no timeout.
+ *
+ * @author ros
+ */
+public class Timeouts {
+
+  private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+  private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+  private long callTimeoutMillis;
+
+  /** Creates the default timeouts. */
+  public Timeouts() {}
+
+  /**
+   * Creates a copy of some timeouts.
+   *
+   * @param other the timeouts to copy
+   */
+  public Timeouts(Timeouts other) {
+    this.connectTimeoutMillis = other.connectTimeoutMillis;
+    this.readTimeoutMillis = other.readTimeoutMillis;
+    this.callTimeoutMillis = other.callTimeoutMillis;
+  }
+
+  private static long toMillis(String name, long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException(name + " cannot be negative");
+    }
+
+    return unit.toMillis(timeout);
+  }
+
+  /**
+   * Set the maximum time to establish a connection.
+   *
+   * @param connectTimeout the time. Default value is 10s
+   * @param unit the time unit
+   * @return this
+   */
+  public Timeouts withConnectTimeout(long connectTimeout, TimeUnit unit) {
+    this.connectTimeoutMillis = toMillis("connectTimeout", connectTimeout, unit);
+    return this;
+  }
+
+  /**
+   * Set the maximum time to wait for response data once connected.
+   *
+   * @param readTimeout the time. Default value is 30s
+   * @param unit the time unit
+   * @return this
+   */
+  public Timeouts withReadTimeout(long readTimeout, TimeUnit unit) {
+    this.readTimeoutMillis = toMillis("readTimeout", readTimeout, unit);
+    return this;
+  }
+
+  /**
+   * Set the maximum time of a whole call, retries included. A call that runs out of time fails
+   * with an {@link com.invisiblecollector.exceptions.IcDeadlineExceededException}.
+   *
+   * @param callTimeout the time. Default value is 0, no limit besides the caller's {@link
+   *     CallContext}
+   * @param unit the time unit
+   * @return this
+   */
+  public Timeouts withCallTimeout(long callTimeout, TimeUnit unit) {
+    this.callTimeoutMillis = toMillis("callTimeout", callTimeout, unit);
+    return this;
+  }
+
+  public long getConnectTimeoutMillis() {
+    return connectTimeoutMillis;
+  }
+
+  public long getReadTimeoutMillis() {
+    return readTimeoutMillis;
+  }
+
+  public long getCallTimeoutMillis() {
+    return callTimeoutMillis;
+  }
+}
@@ -0,0 +1,93 @@
+package com.invisiblecollector.connection.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A response fully read into memory, independent of any connection.
+ *
+ * <p>Immutable. The body can be read any amount of times.
+ *
+ * @author ros
+ */
+public final class BufferedResponse implements TransportResponse {
+
+  private static final int READ_BUFFER_SIZE = 4096;
+
+  private final int status;
+  private final Map<String, List<String>> headers;
+  private final byte[] body;
+
+  private BufferedResponse(int status, Map<String, List<String>> headers, byte[] body) {
+    this.status = status;
+    this.headers = headers;
+    this.body = body;
+  }
+
+  /**
+   * Read a response into memory.
+   *
+   * <p>The given response isn't closed, that is left to the caller.
+   *
+   * @param response the response to read
+   * @return the buffered copy
+   * @throws IOException if the body can't be read
+   */
+  public static BufferedResponse of(TransportResponse response) throws IOException {
+    Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+      headers.put(header.getKey(), Collections.unmodifiableList(new ArrayList<>(header.getValue())));
+    }
+
+    return new BufferedResponse(
+        response.getStatus(), Collections.unmodifiableMap(headers), readFully(response.getBody()));
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    if (inputStream == null) {
+      return new byte[0];
+    }
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[READ_BUFFER_SIZE];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      output.write(buffer, 0, read);
+    }
+    return output.toByteArray();
+  }
+
+  @Override
+  public int getStatus() {
+    return status;
+  }
+
+  @Override
+  public String getHeader(String name) {
+    List<String> values = headers.get(name);
+    return values == null || values.isEmpty() ? null : values.get(0);
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  /** @return a new stream over the buffered body */
+  @Override
+  public InputStream getBody() {
+    return new ByteArrayInputStream(body);
+  }
+
+  @Override
+  public void close() {
+    // holds no connection
+  }
+}
@@ -0,0 +1,65 @@
+package com.invisiblecollector.connection.transport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Sends requests through the JDK's {@code java.net.http.HttpClient}, over HTTP/2 when the server
+ * supports it.
+ *
+ * <p>This is the Java 8 placeholder of the class. The working implementation requires Java 11 or
+ * later and is packaged in the multi-release JAR built with the {@code multi-release} profile. Use
+ * {@link #isSupported()} to check which version is loaded.
+ *
+ * @author ros
+ */
+public class JdkHttpClientTransport implements Transport {
+
+  private static final String UNSUPPORTED_MESSAGE =
+      "java.net.http.HttpClient requires Java 11 or later and the multi-release jar";
+
+  /**
+   * Creates a transport with its own client.
+   *
+   * @throws UnsupportedOperationException always, on this version of the class
+   */
+  public JdkHttpClientTransport() {
+    this(null);
+  }
+
+  /**
+   * Creates a transport with its own client.
+   *
+   * @param executor the executor that runs the client's asynchronous tasks, or null for the
+   *     client's default
+   * @throws UnsupportedOperationException always, on this version of the class
+   */
+  @SuppressWarnings("PMD.UnusedFormalParameter")
+  public JdkHttpClientTransport(Executor executor) {
+    throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+  }
+
+  /**
+   * Check if the JDK HttpClient implementation of this class is loaded.
+   *
+   * @return false, on this version of the class
+   */
+  public static boolean isSupported() {
+    return false;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) {
+    throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+    throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+  }
+
+  @Override
+  public void close() {
+    // never constructed
+  }
+}
@@ -0,0 +1,210 @@
+package com.invisiblecollector.connection.transport;
+
+import com.invisiblecollector.connection.EndpointCache;
+import org.glassfish.jersey.client.ClientProperties;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.AsyncInvoker;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Sends requests through a JAX-RS (Jersey) client.
+ *
+ * <p>This is the default transport. Thread-safe.
+ *
+ * @author ros
+ */
+public class JerseyTransport implements Transport {
+
+  private static final String CONTENT_TYPE_HEADER = "Content-Type";
+  private static final int MAX_CACHED_TARGETS = 64;
+
+  private final Client client;
+  private final boolean ownsClient;
+  private final EndpointCache<URI, WebTarget> targets = new EndpointCache<>(MAX_CACHED_TARGETS);
+
+  /** Creates a transport with its own client, closed along with the transport. */
+  public JerseyTransport() {
+    this(buildClient(), true);
+  }
+
+  /**
+   * Creates a transport over an existing client.
+   *
+   * @param client the client. Its lifecycle is managed by the caller.
+   */
+  public JerseyTransport(Client client) {
+    this(client, false);
+  }
+
+  private JerseyTransport(Client client, boolean ownsClient) {
+    this.client = client;
+    this.ownsClient = ownsClient;
+  }
+
+  // lazily created on first use, the holder's class initialization makes it thread-safe
+  private static final class SharedHolder {
+    private static final JerseyTransport INSTANCE = new JerseyTransport(buildClient(), false);
+  }
+
+  /**
+   * Get the transport shared by every facade that isn't configured with its own.
+   *
+   * @return the shared transport. Closing it has no effect.
+   */
+  public static JerseyTransport shared() {
+    return SharedHolder.INSTANCE;
+  }
+
+  private static Client buildClient() {
+    Client client = ClientBuilder.newClient();
+    client.property(ClientProperties.FOLLOW_REDIRECTS, true);
+    return client;
+  }
+
+  Invocation.Builder buildInvocation(TransportRequest request) {
+    Invocation.Builder builder = targets.get(request.getUri(), client::target).request();
+    if (request.getConnectTimeoutMillis() > 0) {
+      builder.property(ClientProperties.CONNECT_TIMEOUT, request.getConnectTimeoutMillis());
+    }
+    if (request.getReadTimeoutMillis() > 0) {
+      builder.property(ClientProperties.READ_TIMEOUT, request.getReadTimeoutMillis());
+    }
+    for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      // set along with the entity
+      if (!CONTENT_TYPE_HEADER.equalsIgnoreCase(header.getKey())) {
+        builder.header(header.getKey(), header.getValue());
+      }
+    }
+    return builder;
+  }
+
+  private static Entity<byte[]> buildEntity(TransportRequest request) {
+    byte[] body = request.getBody();
+    if (body == null) {
+      return null;
+    }
+
+    return Entity.entity(body, request.getHeader(CONTENT_TYPE_HEADER));
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    Invocation.Builder builder = buildInvocation(request);
+    Entity<byte[]> entity = buildEntity(request);
+    String method = request.getMethod().toString();
+
+    try {
+      Response response =
+          entity == null ? builder.method(method) : builder.method(method, entity);
+      return new JerseyResponse(response);
+    } catch (ProcessingException e) {
+      throw new IOException("Request failed: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+    CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+    InvocationCallback<Response> callback =
+        new InvocationCallback<Response>() {
+          @Override
+          public void completed(Response response) {
+            JerseyResponse wrapped = new JerseyResponse(response);
+            if (!result.complete(wrapped)) {
+              wrapped.close();
+            }
+          }
+
+          @Override
+          public void failed(Throwable throwable) {
+            if (throwable instanceof ProcessingException) {
+              result.completeExceptionally(
+                  new IOException("Request failed: " + throwable.getMessage(), throwable));
+            } else {
+              result.completeExceptionally(throwable);
+            }
+          }
+        };
+
+    AsyncInvoker invoker = buildInvocation(request).async();
+    Entity<byte[]> entity = buildEntity(request);
+    String method = request.getMethod().toString();
+    Future<Response> future =
+        entity == null
+            ? invoker.method(method, callback)
+            : invoker.method(method, entity, callback);
+
+    // a cancelled result interrupts the request, the callback still releases a late response
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            future.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  @Override
+  public void close() {
+    if (ownsClient) {
+      client.close();
+    }
+  }
+
+  private static final class JerseyResponse implements TransportResponse {
+    private final Response response;
+
+    JerseyResponse(Response response) {
+      this.response = response;
+    }
+
+    @Override
+    public int getStatus() {
+      return response.getStatus();
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return response.getStringHeaders().getFirst(name);
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaders() {
+      Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      response
+          .getStringHeaders()
+          .forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      try {
+        return response.readEntity(InputStream.class);
+      } catch (ProcessingException | IllegalStateException e) {
+        throw new IOException("Failed to read response body", e);
+      }
+    }
+
+    @Override
+    public void close() {
+      response.close();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.invisiblecollector.connection.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends HTTP requests on behalf of an {@link com.invisiblecollector.connection.ApiRequestFacade}.
+ *
+ * <p>Implementations only move bytes: they don't validate responses or (de)serialize JSON. Every
+ * returned {@link TransportResponse} must be closed by the caller to release its connection.
+ *
+ * <p>Implementations should honour the connect and read timeouts of each {@link TransportRequest}
+ * as closely as their client allows, and must be thread-safe.
+ *
+ * @author ros
+ * @see JerseyTransport
+ * @see JdkHttpClientTransport
+ */
+public interface Transport extends Closeable {
+
+  /**
+   * Send a request, blocking until the response headers are received.
+   *
+   * @param request the request to send
+   * @return the response. Must be closed by the caller.
+   * @throws IOException if the request couldn't be sent or no response was received
+   */
+  TransportResponse execute(TransportRequest request) throws IOException;
+
+  /**
+   * Send a request without blocking the calling thread.
+   *
+   * <p>Cancelling the returned future aborts the request. A response that arrives after the
+   * future was cancelled is closed by the transport.
+   *
+   * @param request the request to send
+   * @return the future response. Must be closed by the caller.
+   */
+  CompletableFuture<TransportResponse> executeAsync(TransportRequest request);
+
+  /** Release the resources owned by this transport. */
+  @Override
+  void close();
+}
@@ -0,0 +1,108 @@
+package com.invisiblecollector.connection.transport;
+
+import com.invisiblecollector.connection.RequestType;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A fully resolved HTTP request.
+ *
+ * <p>Immutable.
+ *
+ * @author ros
+ */
+public final class TransportRequest {
+
+  private final RequestType method;
+  private final URI uri;
+  private final Map<String, String> headers;
+  private final byte[] body;
+  private final int connectTimeoutMillis;
+  private final int readTimeoutMillis;
+
+  /**
+   * Creates a request.
+   *
+   * @param method the HTTP method
+   * @param uri the absolute URI, including the encoded query
+   * @param headers the headers, sent in iteration order
+   * @param body the body, or null if the request has none
+   */
+  public TransportRequest(
+      RequestType method, URI uri, Map<String, String> headers, byte[] body) {
+    this.method = method;
+    this.uri = uri;
+    this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+    this.body = body == null ? null : body.clone();
+    this.connectTimeoutMillis = 0;
+    this.readTimeoutMillis = 0;
+  }
+
+  private TransportRequest(TransportRequest other, int connectTimeoutMillis, int readTimeoutMillis) {
+    this.method = other.method;
+    this.uri = other.uri;
+    this.headers = other.headers;
+    this.body = other.body;
+    this.connectTimeoutMillis = connectTimeoutMillis;
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  /**
+   * Get a copy of this request with different timeouts.
+   *
+   * @param connectTimeoutMillis the maximum time to establish a connection, 0 for the transport's
+   *     default
+   * @param readTimeoutMillis the maximum time to wait for response data, 0 for the transport's
+   *     default
+   * @return the copy
+   */
+  public TransportRequest withTimeouts(int connectTimeoutMillis, int readTimeoutMillis) {
+    return new TransportRequest(this, connectTimeoutMillis, readTimeoutMillis);
+  }
+
+  public RequestType getMethod() {
+    return method;
+  }
+
+  public URI getUri() {
+    return uri;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Get a header value.
+   *
+   * @param name the header name, case-insensitive
+   * @return the value or null if the header isn't set
+   */
+  public String getHeader(String name) {
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      if (header.getKey().equalsIgnoreCase(name)) {
+        return header.getValue();
+      }
+    }
+
+    return null;
+  }
+
+  /** @return the connect timeout in milliseconds, 0 for the transport's default */
+  public int getConnectTimeoutMillis() {
+    return connectTimeoutMillis;
+  }
+
+  /** @return the read timeout in milliseconds, 0 for the transport's default */
+  public int getReadTimeoutMillis() {
+    return readTimeoutMillis;
+  }
+
+  /** @return a copy of the body or null if the request has none */
+  public byte[] getBody() {
+    return body == null ? null : body.clone();
+  }
+}
@@ -0,0 +1,43 @@
+package com.invisiblecollector.connection.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTTP response as returned by a {@link Transport}.
+ *
+ * <p>Holds on to its connection until closed.
+ *
+ * @author ros
+ */
+public interface TransportResponse extends Closeable {
+
+  /** @return the HTTP status code */
+  int getStatus();
+
+  /**
+   * Get a header value.
+   *
+   * @param name the header name, case-insensitive
+   * @return the first value of the header or null if it isn't present
+   */
+  String getHeader(String name);
+
+  /** @return every header, with case-insensitive names */
+  Map<String, List<String>> getHeaders();
+
+  /**
+   * Get the response body.
+   *
+   * @return the body stream, closed along with the response
+   * @throws IOException if the body can't be read
+   */
+  InputStream getBody() throws IOException;
+
+  /** Release the response's connection, discarding any unread body. */
+  @Override
+  void close();
+}
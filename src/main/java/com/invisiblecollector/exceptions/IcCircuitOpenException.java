@@ -0,0 +1,27 @@
+package com.invisiblecollector.exceptions;
+
+/**
+ * Used to indicate that a request wasn't sent because the circuit breaker of its endpoint is open,
+ * after too many of the endpoint's recent requests failed or were slow.
+ *
+ * @author ros
+ */
+public class IcCircuitOpenException extends IcRejectedException {
+
+  private static final long serialVersionUID = 1L;
+  private final String endpointKey;
+
+  public IcCircuitOpenException(String endpointKey) {
+    super("Circuit breaker open for endpoint: " + endpointKey);
+    this.endpointKey = endpointKey;
+  }
+
+  /**
+   * Get the key of the failing endpoint.
+   *
+   * @return the endpoint key
+   */
+  public String getEndpointKey() {
+    return endpointKey;
+  }
+}
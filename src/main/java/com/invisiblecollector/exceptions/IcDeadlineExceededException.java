@@ -0,0 +1,20 @@
+package com.invisiblecollector.exceptions;
+
+/**
+ * Used to indicate that a call was abandoned because its deadline passed, either while waiting to
+ * be sent or retried, or while waiting for the response.
+ *
+ * @author ros
+ */
+public class IcDeadlineExceededException extends IcException {
+
+  private static final long serialVersionUID = 1L;
+
+  public IcDeadlineExceededException(String msg) {
+    super(msg);
+  }
+
+  public IcDeadlineExceededException(String msg, Throwable cause) {
+    super(msg, cause);
+  }
+}
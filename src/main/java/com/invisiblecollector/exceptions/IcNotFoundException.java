@@ -0,0 +1,28 @@
+package com.invisiblecollector.exceptions;
+
+/**
+ * Used to indicate that the requested model doesn't exist in the remote database.
+ *
+ * @author ros
+ */
+public class IcNotFoundException extends IcException {
+
+  private static final long serialVersionUID = 1L;
+
+  public IcNotFoundException(String msg) {
+    super(msg);
+  }
+
+  /**
+   * Creates an exception reporting a lookup already known to miss, without the cost of filling in
+   * a stack trace.
+   *
+   * @param msg the message
+   * @return the exception, without a stack trace
+   */
+  public static IcNotFoundException cached(String msg) {
+    IcNotFoundException exception = new IcNotFoundException(msg);
+    exception.setStackTrace(new StackTraceElement[0]);
+    return exception;
+  }
+}
@@ -0,0 +1,26 @@
+package com.invisiblecollector.exceptions;
+
+/**
+ * Used to indicate that the API rejected a request for exceeding its rate limit.
+ *
+ * @author ros
+ */
+public class IcRateLimitedException extends IcException {
+
+  private static final long serialVersionUID = 1L;
+  private final long retryAfterMillis;
+
+  public IcRateLimitedException(String msg, long retryAfterMillis) {
+    super(msg);
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  /**
+   * Get how long the API asked to wait before sending more requests.
+   *
+   * @return the delay in milliseconds, or a negative value if the API didn't say
+   */
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
@@ -0,0 +1,16 @@
+package com.invisiblecollector.exceptions;
+
+/**
+ * Used to indicate that a request was rejected by the client before being sent, to avoid
+ * overloading the API.
+ *
+ * @author ros
+ */
+public class IcRejectedException extends IcException {
+
+  private static final long serialVersionUID = 1L;
+
+  public IcRejectedException(String msg) {
+    super(msg);
+  }
+}
@@ -1,11 +1,15 @@
 package com.invisiblecollector.model;
 
+import com.invisiblecollector.exceptions.IcRuntimeException;
+
+import java.util.HashMap;
+
 /**
  * A model for the company.
  *
  * @author ros
  */
-public class Company extends Model implements IRoutable {
+public class Company extends Model implements IRoutable, Cloneable {
 
   @Override
   public int hashCode() {
@@ -107,4 +111,21 @@ public class Company extends Model implements IRoutable {
   public void setNotificationsEnabled(Boolean notificationsEnabled) {
     fields.put("notificationsEnabled", notificationsEnabled);
   }
+
+  /**
+   * Create a deep clone
+   *
+   * @return deep clone of the model
+   */
+  @Override
+  public Company clone() {
+    try {
+      super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new IcRuntimeException(e);
+    }
+    Company copy = new Company();
+    copy.fields = new HashMap<>(fields);
+    return copy;
+  }
 }
@@ -1,11 +1,15 @@
 package com.invisiblecollector.model;
 
+import com.invisiblecollector.exceptions.IcRuntimeException;
+
+import java.util.HashMap;
+
 /**
  * A model for the customer.
  *
  * @author ros
  */
-public class Customer extends Model implements IRoutable {
+public class Customer extends Model implements IRoutable, Cloneable {
 
   @Override
   public int hashCode() {
@@ -157,4 +161,21 @@ public class Customer extends Model implements IRoutable {
   public void setZipCode(String zipCode) {
     fields.put("zipCode", zipCode);
   }
+
+  /**
+   * Create a deep clone
+   *
+   * @return deep clone of the model
+   */
+  @Override
+  public Customer clone() {
+    try {
+      super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new IcRuntimeException(e);
+    }
+    Customer copy = new Customer();
+    copy.fields = new HashMap<>(fields);
+    return copy;
+  }
 }
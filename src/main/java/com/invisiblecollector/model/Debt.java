@@ -1,10 +1,12 @@
 package com.invisiblecollector.model;
 
+import com.invisiblecollector.exceptions.IcRuntimeException;
+
 import java.util.*;
 import java.util.stream.Collectors;
 
 /** A model for customer debts. */
-public class Debt extends Model implements IRoutable {
+public class Debt extends Model implements IRoutable, Cloneable {
   public void addAttribute(String key, String value) {
     Map<String, String> attributes = getStringMap("attributes");
 
@@ -283,4 +285,29 @@ public class Debt extends Model implements IRoutable {
   private void assertDateOrder(Date date, Date dueDate) {
     assertDateOrder(date, dueDate, "dueDate must come after the debt date.");
   }
+
+  /**
+   * Create a deep clone
+   *
+   * @return deep clone of the model, including its items and attributes
+   */
+  @Override
+  public Debt clone() {
+    try {
+      super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new IcRuntimeException(e);
+    }
+    Debt copy = new Debt();
+    copy.fields = new HashMap<>(fields);
+    List<Item> items = getItemsInternals();
+    if (items != null) {
+      copy.fields.put("items", copyItemsList(items));
+    }
+    Map<String, String> attributes = getStringMap("attributes");
+    if (attributes != null) {
+      copy.fields.put("attributes", new HashMap<>(attributes));
+    }
+    return copy;
+  }
 }
@@ -1,8 +1,13 @@
 package com.invisiblecollector.model.serialization;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Company;
+import com.invisiblecollector.model.Customer;
 import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.Item;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -17,6 +22,8 @@ import java.util.Map;
 public class JsonModelFacade {
 
   private static final String PARSING_ERROR_MSG = "Failed to parse JSON.";
+  private static final Class<?>[] MODEL_TYPES =
+      new Class<?>[] {Company.class, Customer.class, Debt.class, Item.class};
 
   public <T> T parseStringStream(InputStream inputStream, Class<T> classType) throws IcException {
 
@@ -46,4 +53,23 @@ public class JsonModelFacade {
       throw new IcException(PARSING_ERROR_MSG, e);
     }
   }
+
+  /**
+   * Build and cache the serializers and deserializers of every model type, so that the first
+   * requests don't pay for introspecting them.
+   */
+  public void primeModelTypes() {
+    ObjectMapper mapper = JsonSingleton.getInstance();
+    for (Class<?> modelType : MODEL_TYPES) {
+      mapper.canSerialize(modelType);
+      mapper.canDeserialize(mapper.constructType(modelType));
+    }
+
+    JavaType debtList =
+        mapper.getTypeFactory().constructCollectionType(List.class, Debt.class);
+    JavaType stringMap =
+        mapper.getTypeFactory().constructMapType(Map.class, String.class, String.class);
+    mapper.canDeserialize(debtList);
+    mapper.canDeserialize(stringMap);
+  }
 }
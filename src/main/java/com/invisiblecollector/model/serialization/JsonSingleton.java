@@ -8,18 +8,21 @@ import java.text.SimpleDateFormat;
 
 public class JsonSingleton {
 
-  private static ObjectMapper instance = null;
+  // created on first use. Class initialization makes it thread-safe without locking afterwards,
+  // so callers running on virtual threads are never pinned here
+  private static final class Holder {
+    private static final ObjectMapper INSTANCE = buildMapper();
 
-  public static ObjectMapper getInstance() {
-    if (instance == null) {
+    private static ObjectMapper buildMapper() {
       ObjectMapper mapper = new ObjectMapper();
       mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
       DateFormat df = new SimpleDateFormat(StringUtils.DATE_FORMAT);
       mapper.setDateFormat(df);
-      instance = mapper;
+      return mapper;
     }
-
-    return instance;
   }
 
+  public static ObjectMapper getInstance() {
+    return Holder.INSTANCE;
+  }
 }
@@ -0,0 +1,44 @@
+package com.invisiblecollector.outbox;
+
+import java.util.Arrays;
+
+/**
+ * A pending write in an {@link OutboxJournal}.
+ *
+ * <p>Immutable.
+ *
+ * @author ros
+ */
+public final class JournalEntry {
+
+  private final long id;
+  private final byte type;
+  private final byte[] payload;
+
+  JournalEntry(long id, byte type, byte[] payload) {
+    this.id = id;
+    this.type = type;
+    this.payload = payload;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public byte getType() {
+    return type;
+  }
+
+  /** @return a copy of the payload */
+  public byte[] getPayload() {
+    return Arrays.copyOf(payload, payload.length);
+  }
+
+  int getPayloadLength() {
+    return payload.length;
+  }
+
+  byte[] payload() {
+    return payload;
+  }
+}
@@ -0,0 +1,123 @@
+package com.invisiblecollector.outbox;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of how an outbox delivers its writes.
+ *
+ * <p>Implements a fluent builder API. Every option has a default so only the values that need
+ * changing have to be set.
+ *
+ * @author ros
+ */
+public class OutboxConfig {
+
+  private int maxConcurrency = 4;
+  private int maxAttempts = 10;
+  private long baseRetryDelayMillis = TimeUnit.SECONDS.toMillis(1);
+  private long maxRetryDelayMillis = TimeUnit.MINUTES.toMillis(1);
+  private int initialJournalSize = 1024 * 1024;
+
+  /** Creates the default configuration. */
+  public OutboxConfig() {}
+
+  /**
+   * Creates a copy of a configuration.
+   *
+   * @param other the configuration to copy
+   */
+  public OutboxConfig(OutboxConfig other) {
+    this.maxConcurrency = other.maxConcurrency;
+    this.maxAttempts = other.maxAttempts;
+    this.baseRetryDelayMillis = other.baseRetryDelayMillis;
+    this.maxRetryDelayMillis = other.maxRetryDelayMillis;
+    this.initialJournalSize = other.initialJournalSize;
+  }
+
+  /**
+   * Set how many writes are sent at once.
+   *
+   * @param maxConcurrency the maximum amount of concurrent requests. Default value is 4
+   * @return this
+   */
+  public OutboxConfig withMaxConcurrency(int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be positive");
+    }
+
+    this.maxConcurrency = maxConcurrency;
+    return this;
+  }
+
+  /**
+   * Set how many times a write is sent before it's abandoned. Writes rejected with a conflict are
+   * abandoned right away.
+   *
+   * @param maxAttempts the amount of attempts. Default value is 10
+   * @return this
+   */
+  public OutboxConfig withMaxAttempts(int maxAttempts) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+
+    this.maxAttempts = maxAttempts;
+    return this;
+  }
+
+  /**
+   * Set the delay between the attempts of a write, doubled after each attempt.
+   *
+   * @param baseDelay the delay after the first attempt. Default value is 1s
+   * @param maxDelay the maximum delay. Default value is 1min
+   * @param unit the unit of both delays
+   * @return this
+   */
+  public OutboxConfig withRetryDelay(long baseDelay, long maxDelay, TimeUnit unit) {
+    if (baseDelay < 0 || maxDelay < baseDelay) {
+      throw new IllegalArgumentException("delays cannot be negative and base <= max");
+    }
+
+    this.baseRetryDelayMillis = unit.toMillis(baseDelay);
+    this.maxRetryDelayMillis = unit.toMillis(maxDelay);
+    return this;
+  }
+
+  /**
+   * Set the initial size of the journal's file.
+   *
+   * @param initialJournalSize the size in bytes. Default value is 1MB
+   * @return this
+   */
+  public OutboxConfig withInitialJournalSize(int initialJournalSize) {
+    if (initialJournalSize < 1024) {
+      throw new IllegalArgumentException("initialJournalSize must be at least 1KB");
+    }
+
+    this.initialJournalSize = initialJournalSize;
+    return this;
+  }
+
+  /**
+   * Get the delay before an attempt.
+   *
+   * @param attempt the attempt, 1 for the first retry
+   * @return the delay in milliseconds
+   */
+  public long getRetryDelayMillis(int attempt) {
+    long delay = baseRetryDelayMillis << Math.min(attempt - 1, 30);
+    return delay < 0 ? maxRetryDelayMillis : Math.min(delay, maxRetryDelayMillis);
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public int getInitialJournalSize() {
+    return initialJournalSize;
+  }
+}
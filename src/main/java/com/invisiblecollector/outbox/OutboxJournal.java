@@ -0,0 +1,301 @@
+package com.invisiblecollector.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of pending writes, kept in a memory-mapped file.
+ *
+ * <p>Each write is appended as a pending record and flushed to disk before {@link #append(byte,
+ * byte[])} returns. Concurrent appends share their flushes: while one thread forces the file to
+ * disk, the others append and then find their records already flushed, or flush them all at once.
+ * Completing a write appends a done record that isn't flushed by itself, so after a crash a write
+ * may be reported pending again even though it was sent: writes are delivered at least once.
+ *
+ * <p>Records carry a checksum and the journal's generation. When the journal is opened, the
+ * records that are still pending are copied to a fresh file that atomically replaces the old one.
+ * Once every write is completed the journal starts over from the beginning under a new
+ * generation, so it doesn't grow forever.
+ *
+ * <p>Thread-safe. Must be closed once no longer needed.
+ *
+ * @author ros
+ */
+public final class OutboxJournal implements Closeable {
+
+  private static final int MAGIC = 0x49434f42;
+  private static final int VERSION = 1;
+  private static final int FILE_HEADER_SIZE = 16;
+  // length, checksum, kind, type, generation and id
+  private static final int RECORD_HEADER_SIZE = 4 + 4 + 1 + 1 + 8 + 8;
+  private static final int CHECKSUMMED_OFFSET = 8;
+  private static final int TERMINATOR_SIZE = 4;
+  private static final byte PENDING = 1;
+  private static final byte DONE = 2;
+  private static final byte[] EMPTY = new byte[0];
+
+  private final FileChannel channel;
+  private final Object syncLock = new Object();
+  private final Map<Long, JournalEntry> pending = new LinkedHashMap<>();
+  private final int resetThreshold;
+
+  private MappedByteBuffer buffer;
+  private long generation;
+  private int position;
+  private long nextId;
+  private long written;
+  private long synced;
+
+  private OutboxJournal(
+      FileChannel channel, int size, long generation, int position, List<JournalEntry> entries)
+      throws IOException {
+    this.channel = channel;
+    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    this.resetThreshold = size / 2;
+    this.generation = generation;
+    this.position = position;
+    this.nextId = 1;
+    for (JournalEntry entry : entries) {
+      pending.put(entry.getId(), entry);
+      nextId = Math.max(nextId, entry.getId() + 1);
+    }
+  }
+
+  /**
+   * Open a journal, recovering the writes left pending by a previous process.
+   *
+   * @param path the journal's file, created if missing
+   * @param initialSize the initial size of the file in bytes. It grows as needed
+   * @return the journal
+   * @throws IOException if the file can't be read or written, or isn't a journal
+   */
+  public static OutboxJournal open(Path path, int initialSize) throws IOException {
+    if (initialSize < FILE_HEADER_SIZE + RECORD_HEADER_SIZE + TERMINATOR_SIZE) {
+      throw new IllegalArgumentException("initialSize is too small");
+    }
+
+    long generation = 0;
+    List<JournalEntry> entries = new ArrayList<>();
+    if (Files.exists(path) && Files.size(path) > 0) {
+      ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(path));
+      generation = readHeader(contents);
+      entries = readPending(contents, generation);
+    }
+    generation++;
+
+    // the pending records are copied to a fresh file, which then replaces the old one
+    Path fresh = path.resolveSibling(path.getFileName() + ".tmp");
+    int size = initialSize;
+    try (FileChannel freshChannel =
+        FileChannel.open(
+            fresh,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      writeFully(freshChannel, encodeHeader(generation));
+      for (JournalEntry entry : entries) {
+        writeFully(
+            freshChannel,
+            encode(PENDING, entry.getType(), generation, entry.getId(), entry.payload()));
+      }
+      size = (int) Math.max(size, 2 * freshChannel.position());
+      freshChannel.force(true);
+    }
+    Files.move(fresh, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    int position = FILE_HEADER_SIZE;
+    for (JournalEntry entry : entries) {
+      position += RECORD_HEADER_SIZE + entry.getPayloadLength();
+    }
+    return new OutboxJournal(channel, size, generation, position, entries);
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+    while (source.hasRemaining()) {
+      channel.write(source);
+    }
+  }
+
+  private static ByteBuffer encodeHeader(long generation) {
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).putLong(generation);
+    header.flip();
+    return header;
+  }
+
+  private static long readHeader(ByteBuffer contents) throws IOException {
+    if (contents.remaining() < FILE_HEADER_SIZE
+        || contents.getInt(0) != MAGIC
+        || contents.getInt(4) != VERSION) {
+      throw new IOException("Not an outbox journal");
+    }
+
+    return contents.getLong(8);
+  }
+
+  private static ByteBuffer encode(byte kind, byte type, long generation, long id, byte[] payload) {
+    int length = RECORD_HEADER_SIZE + payload.length;
+    ByteBuffer record = ByteBuffer.allocate(length);
+    record.putInt(length).putInt(0).put(kind).put(type).putLong(generation).putLong(id);
+    record.put(payload);
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), CHECKSUMMED_OFFSET, length - CHECKSUMMED_OFFSET);
+    record.putInt(4, (int) crc.getValue());
+    record.flip();
+    return record;
+  }
+
+  /** Reads the records of the current generation, up to the first invalid one. */
+  private static List<JournalEntry> readPending(ByteBuffer contents, long generation) {
+    Map<Long, JournalEntry> entries = new LinkedHashMap<>();
+    int offset = FILE_HEADER_SIZE;
+    while (offset + RECORD_HEADER_SIZE <= contents.limit()) {
+      int length = contents.getInt(offset);
+      if (length < RECORD_HEADER_SIZE || length > contents.limit() - offset) {
+        break;
+      }
+
+      CRC32 crc = new CRC32();
+      crc.update(contents.array(), offset + CHECKSUMMED_OFFSET, length - CHECKSUMMED_OFFSET);
+      if (contents.getInt(offset + 4) != (int) crc.getValue()
+          || contents.getLong(offset + 10) != generation) {
+        break;
+      }
+
+      byte kind = contents.get(offset + 8);
+      long id = contents.getLong(offset + 18);
+      if (kind == PENDING) {
+        byte[] payload = new byte[length - RECORD_HEADER_SIZE];
+        System.arraycopy(
+            contents.array(), offset + RECORD_HEADER_SIZE, payload, 0, payload.length);
+        entries.put(id, new JournalEntry(id, contents.get(offset + 9), payload));
+      } else {
+        entries.remove(id);
+      }
+      offset += length;
+    }
+    return new ArrayList<>(entries.values());
+  }
+
+  /** Writes a record at the current position, followed by an empty length. */
+  private long write(byte kind, byte type, long id, byte[] payload) throws IOException {
+    ByteBuffer record = encode(kind, type, generation, id, payload);
+    int length = record.remaining();
+    if (position + length + TERMINATOR_SIZE > buffer.capacity()) {
+      buffer.force();
+      int size = Math.max(2 * buffer.capacity(), position + length + TERMINATOR_SIZE);
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    ByteBuffer target = buffer.duplicate();
+    target.position(position);
+    target.put(record);
+    target.putInt(0);
+    position += length;
+    written += length;
+    return written;
+  }
+
+  /** Flushes the file up to a written amount, unless another thread already did. */
+  private void sync(long upTo) {
+    synchronized (syncLock) {
+      if (synced >= upTo) {
+        return;
+      }
+
+      MappedByteBuffer target;
+      long flushed;
+      synchronized (this) {
+        target = buffer;
+        flushed = written;
+      }
+      target.force();
+      synced = flushed;
+    }
+  }
+
+  /**
+   * Append a pending write, flushed to disk before returning.
+   *
+   * @param type the kind of write, known to the caller
+   * @param payload the write's data
+   * @return the pending write
+   * @throws IOException if the journal can't be written
+   */
+  public JournalEntry append(byte type, byte[] payload) throws IOException {
+    JournalEntry entry;
+    long upTo;
+    synchronized (this) {
+      entry = new JournalEntry(nextId++, type, payload.clone());
+      upTo = write(PENDING, type, entry.getId(), entry.payload());
+      pending.put(entry.getId(), entry);
+    }
+
+    sync(upTo);
+    return entry;
+  }
+
+  /**
+   * Mark a write as completed, whether it was delivered or abandoned. The mark is flushed with the
+   * next append or when the journal is closed.
+   *
+   * @param id the id of the write
+   * @throws IOException if the journal can't be written
+   */
+  public synchronized void complete(long id) throws IOException {
+    if (pending.remove(id) == null) {
+      return;
+    }
+
+    write(DONE, (byte) 0, id, EMPTY);
+    if (pending.isEmpty() && position > resetThreshold) {
+      // nothing is pending, the next records overwrite the old ones under a new generation
+      generation++;
+      buffer.putLong(8, generation);
+      buffer.putInt(FILE_HEADER_SIZE, 0);
+      position = FILE_HEADER_SIZE;
+    }
+  }
+
+  /**
+   * Get the writes that are still pending, in the order they were appended.
+   *
+   * @return a snapshot of the pending writes
+   */
+  public synchronized List<JournalEntry> getPending() {
+    return new ArrayList<>(pending.values());
+  }
+
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  /** Flush every record written so far to disk. */
+  public void flush() {
+    long upTo;
+    synchronized (this) {
+      upTo = written;
+    }
+    sync(upTo);
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+    channel.close();
+  }
+}
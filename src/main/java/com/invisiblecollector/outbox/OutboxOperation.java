@@ -0,0 +1,41 @@
+package com.invisiblecollector.outbox;
+
+/**
+ * The writes that can be queued in an outbox.
+ *
+ * @author ros
+ */
+public enum OutboxOperation {
+  REGISTER_DEBT((byte) 1),
+  REGISTER_CUSTOMER((byte) 2),
+  UPDATE_CUSTOMER((byte) 3),
+  SET_CUSTOMER_ATTRIBUTES((byte) 4);
+
+  private final byte code;
+
+  OutboxOperation(byte code) {
+    this.code = code;
+  }
+
+  /** @return the code stored in the journal */
+  public byte getCode() {
+    return code;
+  }
+
+  /**
+   * Get the operation stored in the journal with a code.
+   *
+   * @param code the code
+   * @return the operation
+   * @throws IllegalArgumentException if no operation has the code
+   */
+  public static OutboxOperation of(byte code) {
+    for (OutboxOperation operation : values()) {
+      if (operation.code == code) {
+        return operation;
+      }
+    }
+
+    throw new IllegalArgumentException("Unknown outbox operation: " + code);
+  }
+}
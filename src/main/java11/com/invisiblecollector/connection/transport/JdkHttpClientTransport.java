@@ -0,0 +1,192 @@
+package com.invisiblecollector.connection.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Sends requests through the JDK's {@code java.net.http.HttpClient}, over HTTP/2 when the server
+ * supports it.
+ *
+ * <p>This is the Java 11 version of the class, packaged in the multi-release JAR. Concurrent
+ * requests to the same HTTP/2 server are multiplexed over a single connection, and nothing besides
+ * the JDK is loaded to send them.
+ *
+ * <p>Thread-safe.
+ *
+ * @author ros
+ */
+public class JdkHttpClientTransport implements Transport {
+
+  // set by the client itself from the request URI and body
+  private static final Set<String> CLIENT_MANAGED_HEADERS = Set.of("host", "content-length");
+
+  private final Executor executor;
+  // the connect timeout is a setting of the client, one client per connect timeout requested
+  private final ConcurrentMap<Integer, HttpClient> clients = new ConcurrentHashMap<>();
+
+  /** Creates a transport with its own client. */
+  public JdkHttpClientTransport() {
+    this(null);
+  }
+
+  /**
+   * Creates a transport with its own client.
+   *
+   * @param executor the executor that runs the client's asynchronous tasks, or null for the
+   *     client's default
+   */
+  public JdkHttpClientTransport(Executor executor) {
+    this.executor = executor;
+  }
+
+  private HttpClient getClient(int connectTimeoutMillis) {
+    return clients.computeIfAbsent(connectTimeoutMillis, this::buildClient);
+  }
+
+  private HttpClient buildClient(int connectTimeoutMillis) {
+    HttpClient.Builder builder =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL);
+    if (connectTimeoutMillis > 0) {
+      builder.connectTimeout(Duration.ofMillis(connectTimeoutMillis));
+    }
+    if (executor != null) {
+      builder.executor(executor);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Check if the JDK HttpClient implementation of this class is loaded.
+   *
+   * @return true, on this version of the class
+   */
+  public static boolean isSupported() {
+    return true;
+  }
+
+  private static HttpRequest buildRequest(TransportRequest request) {
+    byte[] bodyBytes = request.getBody();
+    HttpRequest.BodyPublisher body =
+        bodyBytes == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(bodyBytes);
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(request.getUri()).method(request.getMethod().toString(), body);
+    // the request's timeout runs from the start of the exchange, so it covers connecting as well
+    int timeoutMillis = request.getConnectTimeoutMillis() + request.getReadTimeoutMillis();
+    if (timeoutMillis > 0) {
+      builder.timeout(Duration.ofMillis(timeoutMillis));
+    }
+
+    for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      if (CLIENT_MANAGED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+        continue;
+      }
+
+      try {
+        builder.header(header.getKey(), header.getValue());
+      } catch (IllegalArgumentException e) {
+        // restricted by this JDK version (e.g. Date on Java 11), the header is optional
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    try {
+      return new JdkResponse(
+          getClient(request.getConnectTimeoutMillis())
+              .send(buildRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the response");
+    }
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+    CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+    CompletableFuture<HttpResponse<InputStream>> sent =
+        getClient(request.getConnectTimeoutMillis())
+            .sendAsync(buildRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+
+    sent.whenComplete(
+        (response, throwable) -> {
+          if (throwable != null) {
+            result.completeExceptionally(throwable);
+            return;
+          }
+
+          JdkResponse wrapped = new JdkResponse(response);
+          if (!result.complete(wrapped)) {
+            wrapped.close();
+          }
+        });
+
+    result.whenComplete(
+        (unused, throwable) -> {
+          if (result.isCancelled()) {
+            sent.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  @Override
+  public void close() {
+    // the clients' connections and threads are released once they're unreachable
+  }
+
+  private static final class JdkResponse implements TransportResponse {
+    private final HttpResponse<InputStream> response;
+
+    JdkResponse(HttpResponse<InputStream> response) {
+      this.response = response;
+    }
+
+    @Override
+    public int getStatus() {
+      return response.statusCode();
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return response.headers().firstValue(name).orElse(null);
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaders() {
+      return response.headers().map();
+    }
+
+    @Override
+    public InputStream getBody() {
+      return response.body();
+    }
+
+    @Override
+    public void close() {
+      try {
+        response.body().close();
+      } catch (IOException e) {
+        // the stream is discarded either way
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.invisiblecollector.connection;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors on which the bulk and fan-out helpers run their blocking requests.
+ *
+ * <p>This is the Java 21 version of the class, packaged in the multi-release JAR. Every request
+ * runs on its own virtual thread, so blocking on the network doesn't tie up a platform thread.
+ * Callers still bound the amount of concurrent requests themselves.
+ *
+ * @author ros
+ */
+public class RequestExecutors {
+
+  private RequestExecutors() {}
+
+  /**
+   * Check which kind of threads the executors use.
+   *
+   * @return true if every request runs on its own virtual thread
+   */
+  public static boolean isVirtualThreadMode() {
+    return true;
+  }
+
+  /**
+   * Create an executor for blocking requests.
+   *
+   * @param namePrefix the prefix of the names of the executor's threads
+   * @param parallelism the maximum amount of concurrent requests the caller intends to run
+   * @return the executor. Must be shut down by the caller.
+   */
+  public static ExecutorService newRequestExecutor(String namePrefix, int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+  }
+}
@@ -0,0 +1,117 @@
+package com.invisiblecollector.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AttributeCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private AttributeCache buildCache(int maxEntries) {
+    return new AttributeCache(maxEntries, clock::get).withTtl(1, TimeUnit.MINUTES);
+  }
+
+  private static Map<String, String> buildAttributes(String customerId) {
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put(new String("segment"), "retail-" + customerId);
+    attributes.put(new String("region"), "north");
+    return attributes;
+  }
+
+  @Test
+  public void get_returnsCopies() {
+    AttributeCache cache = buildCache(10);
+    Map<String, String> attributes = buildAttributes("1");
+    cache.put("1", attributes);
+
+    attributes.put("segment", "changed after put");
+    cache.get("1").put("segment", "changed after get");
+
+    Assertions.assertEquals(buildAttributes("1"), cache.get("1"));
+    Assertions.assertNull(cache.get("2"));
+    Assertions.assertEquals(2, cache.getMetrics().getHits());
+    Assertions.assertEquals(1, cache.getMetrics().getMisses());
+  }
+
+  @Test
+  public void put_sharesAttributeNames() {
+    AttributeCache cache = buildCache(10);
+    cache.put("1", buildAttributes("1"));
+    cache.put("2", buildAttributes("2"));
+
+    Assertions.assertEquals(2, cache.getInternedNameCount());
+    String first = cache.get("1").keySet().stream().filter("segment"::equals).findFirst().get();
+    String second = cache.get("2").keySet().stream().filter("segment"::equals).findFirst().get();
+    Assertions.assertSame(first, second);
+  }
+
+  @Test
+  public void get_expiresAfterTtl() {
+    AttributeCache cache = buildCache(10);
+    cache.put("1", buildAttributes("1"));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    Assertions.assertNotNull(cache.get("1"));
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertNull(cache.get("1"));
+    Assertions.assertEquals(1, cache.getMetrics().getEvictions());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsed() {
+    AttributeCache cache = buildCache(2);
+    cache.put("1", buildAttributes("1"));
+    cache.put("2", buildAttributes("2"));
+    cache.get("1");
+    cache.put("3", buildAttributes("3"));
+
+    Assertions.assertNotNull(cache.get("1"));
+    Assertions.assertNull(cache.get("2"));
+    Assertions.assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void invalidate_removesEntries() {
+    AttributeCache cache = buildCache(10);
+    cache.put("1", buildAttributes("1"));
+    cache.put("2", buildAttributes("2"));
+
+    cache.invalidate("1");
+    Assertions.assertNull(cache.get("1"));
+    Assertions.assertNotNull(cache.get("2"));
+
+    cache.invalidateAll();
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void put_storesUnderBothIds() {
+    AttributeCache cache = buildCache(10);
+    cache.putCustomerIds("gid-1", "ext-1");
+    cache.put("gid-1", buildAttributes("1"));
+
+    Assertions.assertEquals(buildAttributes("1"), cache.get("ext-1"));
+    cache.invalidate("ext-1");
+    Assertions.assertNull(cache.get("gid-1"));
+  }
+
+  @Test
+  public void invalidateWritten_unknownOtherIdDropsUnlinkedEntries() {
+    AttributeCache cache = buildCache(10);
+    cache.putCustomerIds("gid-1", "ext-1");
+    cache.put("gid-1", buildAttributes("1"));
+    cache.put("ext-2", buildAttributes("2"));
+    cache.put("gid-3", buildAttributes("3"));
+
+    cache.invalidateWritten("gid-2");
+
+    Assertions.assertNotNull(cache.get("ext-1"));
+    Assertions.assertNull(cache.get("ext-2"));
+    Assertions.assertNull(cache.get("gid-3"));
+  }
+}
@@ -0,0 +1,165 @@
+package com.invisiblecollector.cache;
+
+import com.invisiblecollector.connection.builders.ThrowingSupplier;
+import com.invisiblecollector.exceptions.IcException;
+import com.invisiblecollector.model.Company;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CompanyCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<Runnable> refreshes = new ArrayList<>();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private CompanyCache buildCache() {
+    return new CompanyCache(clock::get)
+        .withExpiry(1, 10, TimeUnit.MINUTES)
+        .withRefreshExecutor(refreshes::add);
+  }
+
+  private ThrowingSupplier<Company, IcException> loader(String name) {
+    return () -> {
+      loads.incrementAndGet();
+      Company company = new Company();
+      company.setName(name);
+      return company;
+    };
+  }
+
+  private void runRefreshes() {
+    List<Runnable> pending = new ArrayList<>(refreshes);
+    refreshes.clear();
+    pending.forEach(Runnable::run);
+  }
+
+  @Test
+  public void get_loadsOnce() throws Exception {
+    CompanyCache cache = buildCache();
+
+    Assertions.assertEquals("first", cache.get(loader("first")).getName());
+    Assertions.assertEquals("first", cache.get(loader("second")).getName());
+    Assertions.assertEquals(1, loads.get());
+    Assertions.assertEquals(1, cache.getMetrics().getHits());
+    Assertions.assertTrue(refreshes.isEmpty());
+  }
+
+  @Test
+  public void get_refreshesAheadOfExpiry() throws Exception {
+    CompanyCache cache = buildCache();
+    cache.get(loader("first"));
+
+    clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    Assertions.assertEquals("first", cache.get(loader("second")).getName());
+    Assertions.assertEquals("first", cache.get(loader("third")).getName());
+    Assertions.assertEquals(1, refreshes.size());
+
+    runRefreshes();
+    Assertions.assertEquals("second", cache.get(loader("fourth")).getName());
+    Assertions.assertEquals(2, loads.get());
+    Assertions.assertEquals(1, cache.getRefreshCount());
+  }
+
+  @Test
+  public void get_waitsOnceExpired() throws Exception {
+    CompanyCache cache = buildCache();
+    cache.get(loader("first"));
+
+    clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+    Assertions.assertEquals("second", cache.get(loader("second")).getName());
+    Assertions.assertTrue(refreshes.isEmpty());
+    Assertions.assertEquals(1, cache.getMetrics().getEvictions());
+  }
+
+  @Test
+  public void put_discardsOlderRefresh() throws Exception {
+    CompanyCache cache = buildCache();
+    cache.get(loader("first"));
+    clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    cache.get(loader("refreshed"));
+
+    Company updated = new Company();
+    updated.setName("updated");
+    cache.put(updated);
+    updated.setName("changed after put");
+    runRefreshes();
+
+    Assertions.assertEquals("updated", cache.get(loader("unused")).getName());
+    Assertions.assertEquals(0, cache.getRefreshCount());
+  }
+
+  @Test
+  public void put_discardsOlderLoad() throws Exception {
+    CompanyCache cache = buildCache();
+    Company updated = new Company();
+    updated.setName("updated");
+
+    Company loaded =
+        cache.get(
+            () -> {
+              // the company info is updated while the load is in flight
+              cache.put(updated);
+              return loader("loaded").get();
+            });
+
+    Assertions.assertEquals("loaded", loaded.getName());
+    Assertions.assertEquals("updated", cache.get(loader("unused")).getName());
+  }
+
+  @Test
+  public void get_coldReadsShareLoad() throws Exception {
+    CompanyCache cache = buildCache();
+    AtomicReference<Company> followerRead = new AtomicReference<>();
+    Thread follower = new Thread(() -> followerRead.set(getQuietly(cache, loader("second"))));
+
+    Company read =
+        cache.get(
+            () -> {
+              follower.start();
+              // the follower waits for this load instead of starting its own
+              while (follower.getState() != Thread.State.WAITING) {
+                Thread.yield();
+              }
+              return loader("first").get();
+            });
+    follower.join(TimeUnit.SECONDS.toMillis(5));
+
+    Assertions.assertEquals("first", read.getName());
+    Assertions.assertEquals("first", followerRead.get().getName());
+    Assertions.assertNotSame(read, followerRead.get());
+    Assertions.assertEquals(1, loads.get());
+  }
+
+  private static Company getQuietly(
+      CompanyCache cache, ThrowingSupplier<Company, IcException> loader) {
+    try {
+      return cache.get(loader);
+    } catch (IcException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  public void get_servesStaleWhenRefreshFails() throws Exception {
+    CompanyCache cache = buildCache();
+    cache.get(loader("first"));
+    clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+    cache.get(
+        () -> {
+          throw new IcException("unavailable");
+        });
+    runRefreshes();
+
+    Assertions.assertEquals(1, cache.getFailedRefreshCount());
+    Assertions.assertEquals("first", cache.get(loader("second")).getName());
+    Assertions.assertEquals(1, refreshes.size());
+  }
+}
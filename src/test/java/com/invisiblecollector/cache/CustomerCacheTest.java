@@ -0,0 +1,94 @@
+package com.invisiblecollector.cache;
+
+import com.invisiblecollector.model.Customer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CustomerCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private CustomerCache buildCache(int maxEntries) {
+    return new CustomerCache(maxEntries, clock::get).withTtl(1, TimeUnit.MINUTES);
+  }
+
+  private static Customer buildCustomer(String gid, String externalId, String vatNumber) {
+    Customer customer = new Customer();
+    customer.setGid(gid);
+    customer.setExternalId(externalId);
+    customer.setVatNumber(vatNumber);
+    customer.setName("name-" + gid);
+    return customer;
+  }
+
+  @Test
+  public void get_hitsByEveryKey() {
+    CustomerCache cache = buildCache(10);
+    Customer customer = buildCustomer("gid-1", "ext-1", "vat-1");
+    cache.put(customer);
+
+    Assertions.assertEquals(customer, cache.get("gid-1"));
+    Assertions.assertEquals(customer, cache.get("ext-1"));
+    Assertions.assertEquals(customer, cache.getByVatNumber("vat-1"));
+    Assertions.assertNull(cache.get("vat-1"));
+    Assertions.assertEquals(3, cache.getMetrics().getHits());
+    Assertions.assertEquals(1, cache.getMetrics().getMisses());
+  }
+
+  @Test
+  public void get_returnsCopies() {
+    CustomerCache cache = buildCache(10);
+    Customer customer = buildCustomer("gid-1", "ext-1", "vat-1");
+    cache.put(customer);
+
+    customer.setName("changed after put");
+    cache.get("gid-1").setName("changed after get");
+
+    Assertions.assertEquals("name-gid-1", cache.get("gid-1").getName());
+  }
+
+  @Test
+  public void get_expiresAfterTtl() {
+    CustomerCache cache = buildCache(10);
+    cache.put(buildCustomer("gid-1", "ext-1", "vat-1"));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    Assertions.assertNotNull(cache.get("ext-1"));
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertNull(cache.get("ext-1"));
+    Assertions.assertNull(cache.getByVatNumber("vat-1"));
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsed() {
+    CustomerCache cache = buildCache(2);
+    cache.put(buildCustomer("gid-1", "ext-1", "vat-1"));
+    cache.put(buildCustomer("gid-2", "ext-2", "vat-2"));
+    cache.get("gid-1");
+    cache.put(buildCustomer("gid-3", "ext-3", "vat-3"));
+
+    Assertions.assertNotNull(cache.get("gid-1"));
+    Assertions.assertNull(cache.get("ext-2"));
+    Assertions.assertNull(cache.getByVatNumber("vat-2"));
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(1, cache.getMetrics().getEvictions());
+  }
+
+  @Test
+  public void put_replacesStaleIndexes() {
+    CustomerCache cache = buildCache(10);
+    cache.put(buildCustomer("gid-1", "ext-1", "vat-1"));
+    cache.put(buildCustomer("gid-1", "ext-2", "vat-1"));
+
+    Assertions.assertNull(cache.get("ext-1"));
+    Assertions.assertEquals("ext-2", cache.getByVatNumber("vat-1").getExternalId());
+
+    cache.invalidate("ext-2");
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertNull(cache.get("gid-1"));
+  }
+}
@@ -0,0 +1,126 @@
+package com.invisiblecollector.cache;
+
+import com.invisiblecollector.model.Debt;
+import com.invisiblecollector.model.builder.DebtBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DebtCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private DebtCache buildCache(int maxEntries) {
+    return new DebtCache(maxEntries, clock::get).withTtl(1, TimeUnit.MINUTES);
+  }
+
+  private static Debt buildDebt(String gid, String number, String customerId) {
+    return DebtBuilder.buildTestDebtBuilder()
+        .setId(gid)
+        .setNumber(number)
+        .setCustomerId(customerId)
+        .buildModel();
+  }
+
+  @Test
+  public void get_hitsByEveryKey() {
+    DebtCache cache = buildCache(10);
+    Debt debt = buildDebt("gid-1", "number-1", "customer-1");
+    cache.put(debt);
+    cache.put(buildDebt("gid-2", "number-2", "customer-2"));
+
+    Assertions.assertEquals(debt, cache.get("gid-1"));
+    Assertions.assertEquals(debt, cache.getByNumber("number-1"));
+    Assertions.assertEquals(Arrays.asList(debt), cache.getByCustomerId("customer-1"));
+    Assertions.assertNull(cache.get("number-1"));
+    Assertions.assertEquals(2, cache.getMetrics().getHits());
+  }
+
+  @Test
+  public void get_returnsCopies() {
+    DebtCache cache = buildCache(10);
+    Debt debt = buildDebt("gid-1", "number-1", "customer-1");
+    cache.put(debt);
+
+    debt.setNumber("changed");
+    cache.get("gid-1").setNumber("changed");
+
+    Assertions.assertEquals("number-1", cache.get("gid-1").getNumber());
+  }
+
+  @Test
+  public void getCustomerDebts_servedWhileComplete() {
+    DebtCache cache = buildCache(10);
+    List<Debt> debts =
+        Arrays.asList(
+            buildDebt("gid-1", "number-1", "customer-1"),
+            buildDebt("gid-2", "number-2", "customer-1"));
+    Assertions.assertNull(cache.getCustomerDebts("external-1"));
+    cache.putCustomerDebts("external-1", debts);
+
+    Assertions.assertEquals(debts, cache.getCustomerDebts("external-1"));
+    cache.put(buildDebt("gid-2", "number-2", "customer-1"));
+    Assertions.assertEquals(debts, cache.getCustomerDebts("external-1"));
+
+    cache.put(buildDebt("gid-3", "number-3", "customer-1"));
+    Assertions.assertNull(cache.getCustomerDebts("external-1"));
+    Assertions.assertEquals(3, cache.getByCustomerId("customer-1").size());
+  }
+
+  @Test
+  public void getCustomerDebts_expiresAfterTtl() {
+    DebtCache cache = buildCache(10);
+    cache.putCustomerDebts("customer-1", Arrays.asList(buildDebt("gid-1", "1", "customer-1")));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    Assertions.assertNotNull(cache.getCustomerDebts("customer-1"));
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertNull(cache.getCustomerDebts("customer-1"));
+    Assertions.assertNull(cache.getByNumber("1"));
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsed() {
+    DebtCache cache = buildCache(2);
+    cache.putCustomerDebts(
+        "customer-1",
+        Arrays.asList(buildDebt("gid-1", "1", "customer-1"), buildDebt("gid-2", "2", "customer-1")));
+    cache.get("gid-1");
+    cache.put(buildDebt("gid-3", "3", "customer-2"));
+
+    Assertions.assertNull(cache.getByNumber("2"));
+    Assertions.assertNotNull(cache.get("gid-1"));
+    Assertions.assertNull(cache.getCustomerDebts("customer-1"));
+    Assertions.assertEquals(1, cache.getMetrics().getEvictions());
+  }
+
+  @Test
+  public void put_dropsEmptyCustomerDebts() {
+    DebtCache cache = buildCache(10);
+    cache.putCustomerDebts("external-1", Collections.emptyList());
+    Assertions.assertEquals(Collections.emptyList(), cache.getCustomerDebts("external-1"));
+
+    cache.put(buildDebt("gid-1", "number-1", "customer-1"));
+    Assertions.assertNull(cache.getCustomerDebts("external-1"));
+  }
+
+  @Test
+  public void putCustomerDebts_evictsLeastRecentlyUsedList() {
+    DebtCache cache = buildCache(2);
+    cache.putCustomerDebts("customer-1", Collections.emptyList());
+    cache.putCustomerDebts("customer-2", Collections.emptyList());
+    cache.getCustomerDebts("customer-1");
+    cache.putCustomerDebts("customer-3", Collections.emptyList());
+
+    Assertions.assertNull(cache.getCustomerDebts("customer-2"));
+    Assertions.assertNotNull(cache.getCustomerDebts("customer-1"));
+    Assertions.assertNotNull(cache.getCustomerDebts("customer-3"));
+    Assertions.assertEquals(1, cache.getMetrics().getEvictions());
+  }
+}
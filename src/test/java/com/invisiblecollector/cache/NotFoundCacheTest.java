@@ -0,0 +1,66 @@
+package com.invisiblecollector.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NotFoundCacheTest {
+
+  private static final String MESSAGE = "not found (status code: 404)";
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private NotFoundCache buildCache(int maxEntries) {
+    return new NotFoundCache(maxEntries, clock::get).withTtl(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void get_separatesCustomersAndDebts() {
+    NotFoundCache cache = buildCache(10);
+    cache.putCustomerNotFound("1", MESSAGE);
+
+    Assertions.assertEquals(MESSAGE, cache.getCustomerNotFound("1"));
+    Assertions.assertNull(cache.getDebtNotFound("1"));
+    Assertions.assertNull(cache.getCustomerNotFound("2"));
+  }
+
+  @Test
+  public void get_expiresAfterTtl() {
+    NotFoundCache cache = buildCache(10);
+    cache.putDebtNotFound("1", MESSAGE);
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(9));
+    Assertions.assertNotNull(cache.getDebtNotFound("1"));
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertNull(cache.getDebtNotFound("1"));
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void invalidate_removesEveryId() {
+    NotFoundCache cache = buildCache(10);
+    cache.putCustomerNotFound("gid", MESSAGE);
+    cache.putCustomerNotFound("external", MESSAGE);
+    cache.putDebtNotFound("number", MESSAGE);
+
+    cache.invalidateCustomer("gid", null, "external");
+    cache.invalidateDebt("number");
+
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsed() {
+    NotFoundCache cache = buildCache(2);
+    cache.putCustomerNotFound("1", MESSAGE);
+    cache.putCustomerNotFound("2", MESSAGE);
+    cache.getCustomerNotFound("1");
+    cache.putCustomerNotFound("3", MESSAGE);
+
+    Assertions.assertNotNull(cache.getCustomerNotFound("1"));
+    Assertions.assertNull(cache.getCustomerNotFound("2"));
+    Assertions.assertEquals(1, cache.getMetrics().getEvictions());
+  }
+}
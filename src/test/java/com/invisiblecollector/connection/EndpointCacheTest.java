@@ -0,0 +1,23 @@
+package com.invisiblecollector.connection;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EndpointCacheTest {
+
+  @Test
+  public void get_keepsRecentlyUsedEndpoints() {
+    EndpointCache<String, String> cache = new EndpointCache<>(4);
+    AtomicInteger computed = new AtomicInteger();
+
+    for (int i = 0; i < 100; i++) {
+      cache.get("companies", endpoint -> endpoint + computed.incrementAndGet());
+      cache.get("debts/" + i, endpoint -> endpoint + computed.incrementAndGet());
+    }
+
+    Assertions.assertEquals("companies1", cache.get("companies", endpoint -> endpoint));
+    Assertions.assertEquals(4, cache.size());
+  }
+}
@@ -0,0 +1,26 @@
+package com.invisiblecollector.connection;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+public class RequestExecutorsTest {
+
+  @Test
+  public void newRequestExecutor_failNonPositiveParallelism() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> RequestExecutors.newRequestExecutor("test-", 0));
+  }
+
+  @Test
+  public void newRequestExecutor_namesThreads() throws Exception {
+    ExecutorService executor = RequestExecutors.newRequestExecutor("test-", 2);
+    try {
+      String name = executor.submit(() -> Thread.currentThread().getName()).get();
+      Assertions.assertTrue(name.startsWith("test-"), name);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.transport.JerseyInvocations;
+import com.invisiblecollector.connection.transport.JerseyTransport;
+import org.glassfish.jersey.client.ClientProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.MediaType;
+import java.net.URI;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares preparing a Jersey request the way the facade did before request templates, with
+ * {@code client.target(baseUrl).path(endpoint).request()} and every header computed per call,
+ * against a {@link RequestTemplate} request prepared by {@link JerseyTransport}. Neither sends the
+ * request. Compare the {@code gc.alloc.rate.norm} (bytes per request) of both benchmarks.
+ *
+ * <p>Run with {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * "-Dexec.args=-cp %classpath com.invisiblecollector.connection.RequestTemplateBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestTemplateBenchmark {
+
+  private static final String API_TOKEN = "1234567890abcdef";
+  private static final URI BASE_URL = URI.create("https://api.invisiblecollector.com");
+  private static final String ENDPOINT = "companies";
+
+  private final Client client = buildClient();
+  private final JerseyTransport transport = new JerseyTransport(client);
+  private final RequestTemplate template = new RequestTemplate(API_TOKEN, BASE_URL);
+
+  private static Client buildClient() {
+    Client client = ClientBuilder.newClient();
+    client.property(ClientProperties.FOLLOW_REDIRECTS, true);
+    return client;
+  }
+
+  @Benchmark
+  public Invocation.Builder perCallBuild() {
+    Invocation.Builder request =
+        client.target(BASE_URL).path(ENDPOINT).request(MediaType.APPLICATION_JSON);
+    request.header("Authorization", "Bearer " + API_TOKEN);
+    String host = BASE_URL.getHost();
+    if (BASE_URL.getPort() >= 0) {
+      host += ":" + BASE_URL.getPort();
+    }
+    request.header("Host", host);
+    request.header("Accept", "application/json");
+    request.header(
+        "Date", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+    return request;
+  }
+
+  @Benchmark
+  public Invocation.Builder templateBuild() {
+    return JerseyInvocations.prepare(
+        transport, template.build(RequestType.GET, ENDPOINT, Collections.emptyMap(), null));
+  }
+
+  @TearDown
+  public void closeClient() {
+    client.close();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(RequestTemplateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
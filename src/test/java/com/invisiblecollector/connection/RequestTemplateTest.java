@@ -0,0 +1,64 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.transport.TransportRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RequestTemplateTest {
+
+  private static final String API_TOKEN = "1234567890abcdef";
+
+  @Test
+  public void build_precomputedHeadersAndCachedUri() {
+    RequestTemplate template =
+        new RequestTemplate(API_TOKEN, URI.create("http://localhost:8080/api"));
+
+    TransportRequest first =
+        template.build(RequestType.GET, "customers/1", Collections.emptyMap(), null);
+    TransportRequest second =
+        template.build(RequestType.GET, "customers/1", Collections.emptyMap(), null);
+
+    Assertions.assertEquals(URI.create("http://localhost:8080/api/customers/1"), first.getUri());
+    Assertions.assertSame(first.getUri(), second.getUri());
+    Assertions.assertEquals("Bearer " + API_TOKEN, first.getHeader("authorization"));
+    Assertions.assertEquals("localhost:8080", first.getHeader("Host"));
+    Assertions.assertNull(first.getHeader("Content-Type"));
+  }
+
+  @Test
+  public void build_queryAndBody() {
+    RequestTemplate template = new RequestTemplate(API_TOKEN, URI.create("https://host/"));
+    Map<String, Object> query = new LinkedHashMap<>();
+    query.put("number", "1 2");
+    query.put("to_date", "2011-01-01");
+
+    TransportRequest request = template.build(RequestType.POST, "debts/find", query, new byte[0]);
+
+    Assertions.assertEquals(
+        "https://host/debts/find?number=1%202&to_date=2011-01-01", request.getUri().toString());
+    Assertions.assertTrue(request.getHeader("Content-Type").contains("application/json"));
+    Assertions.assertEquals("host", request.getHeader("Host"));
+  }
+
+  @Test
+  public void dateHeader_formattedOncePerSecond() {
+    Instant instant = Instant.parse("2018-06-01T10:15:30.100Z");
+    DateHeader dateHeader = new DateHeader(Clock.fixed(instant, ZoneOffset.UTC));
+
+    String first = dateHeader.now();
+
+    Assertions.assertEquals("Fri, 1 Jun 2018 10:15:30 GMT", first);
+    Assertions.assertSame(first, dateHeader.now());
+    Assertions.assertEquals(
+        "Fri, 1 Jun 2018 10:15:31 GMT",
+        new DateHeader(Clock.fixed(instant.plusSeconds(1), ZoneOffset.UTC)).now());
+  }
+}
@@ -0,0 +1,186 @@
+package com.invisiblecollector.connection;
+
+import com.invisiblecollector.connection.timeout.CallContext;
+import com.invisiblecollector.exceptions.IcDeadlineExceededException;
+import com.invisiblecollector.exceptions.IcException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+  private static final CallContext NONE = CallContext.none();
+
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void executeAsync_identicalCallsShared() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.executeAsync("a", NONE, () -> countCall(call));
+    CompletableFuture<String> second = singleFlight.executeAsync("a", NONE, () -> countCall(call));
+    CompletableFuture<String> other =
+        singleFlight.executeAsync("b", NONE, () -> countCall(CompletableFuture.completedFuture("b")));
+    call.complete("a");
+
+    Assertions.assertEquals("a", first.get());
+    Assertions.assertEquals("a", second.get());
+    Assertions.assertEquals("b", other.get());
+    Assertions.assertEquals(2, calls.get());
+    Assertions.assertEquals(1, singleFlight.getCoalescedCalls());
+  }
+
+  @Test
+  public void executeAsync_cancelledCallerLeavesSharedCall() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+
+    CompletableFuture<String> first = singleFlight.executeAsync("a", NONE, () -> call);
+    CompletableFuture<String> second = singleFlight.executeAsync("a", NONE, () -> call);
+    first.cancel(true);
+    call.complete("a");
+
+    Assertions.assertFalse(call.isCancelled());
+    Assertions.assertEquals("a", second.get());
+  }
+
+  @Test
+  public void executeAsync_completedCallNotShared() throws Exception {
+    singleFlight.executeAsync("a", NONE, () -> countCall(CompletableFuture.completedFuture("1"))).get();
+    singleFlight.executeAsync("a", NONE, () -> countCall(CompletableFuture.completedFuture("2"))).get();
+
+    Assertions.assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void execute_waitsForCallInFlight() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> leader =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return singleFlight.execute(
+                    "a",
+                    NONE,
+                    () -> {
+                      calls.incrementAndGet();
+                      started.countDown();
+                      awaitUninterruptibly(release);
+                      return "a";
+                    });
+              } catch (IcException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    CompletableFuture<String> follower = singleFlight.executeAsync("a", NONE, () -> countCall(null));
+    release.countDown();
+
+    Assertions.assertEquals("a", leader.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals("a", follower.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void execute_failureShared() {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    CompletableFuture<String> follower = singleFlight.executeAsync("a", NONE, () -> call);
+
+    IcException failure = new IcException("failed");
+    call.completeExceptionally(failure);
+
+    ExecutionException exception = Assertions.assertThrows(ExecutionException.class, follower::get);
+    Assertions.assertSame(failure, exception.getCause());
+  }
+
+  @Test
+  public void execute_followerDeadlineBoundsWait() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    singleFlight.executeAsync("a", NONE, () -> call);
+
+    long start = System.nanoTime();
+    Assertions.assertThrows(
+        IcDeadlineExceededException.class,
+        () ->
+            singleFlight.execute(
+                "a", CallContext.ofTimeout(100, TimeUnit.MILLISECONDS), () -> "b"));
+
+    Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    Assertions.assertFalse(call.isDone());
+  }
+
+  @Test
+  public void executeAsync_followerDeadlineBoundsWait() {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    singleFlight.executeAsync("a", NONE, () -> call);
+
+    CompletableFuture<String> follower =
+        singleFlight.executeAsync(
+            "a", CallContext.ofTimeout(100, TimeUnit.MILLISECONDS), () -> countCall(call));
+
+    ExecutionException exception =
+        Assertions.assertThrows(
+            ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(exception.getCause() instanceof IcDeadlineExceededException);
+    Assertions.assertFalse(call.isDone());
+  }
+
+  @Test
+  public void executeAsync_leaderDeadlineNotShared() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    CompletableFuture<String> leader = singleFlight.executeAsync("a", NONE, () -> call);
+    CompletableFuture<String> follower =
+        singleFlight.executeAsync(
+            "a", NONE, () -> countCall(CompletableFuture.completedFuture("retried")));
+
+    call.completeExceptionally(new IcDeadlineExceededException("leader's deadline"));
+
+    Assertions.assertThrows(ExecutionException.class, leader::get);
+    Assertions.assertEquals("retried", follower.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void execute_leaderDeadlineNotShared() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    singleFlight.executeAsync("a", NONE, () -> call);
+    CompletableFuture<String> follower =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return singleFlight.execute("a", NONE, () -> "retried");
+              } catch (IcException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    // wait for the follower to join the call in flight
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (singleFlight.getCoalescedCalls() == 0 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    call.completeExceptionally(new IcDeadlineExceededException("leader's deadline"));
+
+    Assertions.assertEquals("retried", follower.get(10, TimeUnit.SECONDS));
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private CompletableFuture<String> countCall(CompletableFuture<String> call) {
+    calls.incrementAndGet();
+    return call;
+  }
+}
@@ -0,0 +1,24 @@
+package com.invisiblecollector.connection;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UriEncoderTest {
+
+  @Test
+  public void encodePath_keepsSeparatorsAndUnreserved() {
+    Assertions.assertEquals("customers/ab-1_2.c~d/debts", UriEncoder.encodePath("customers/ab-1_2.c~d/debts"));
+  }
+
+  @Test
+  public void encodePath_encodesReservedAndNonAscii() {
+    Assertions.assertEquals("customers/a%20b%3Fc%23%25", UriEncoder.encodePath("customers/a b?c#%"));
+    Assertions.assertEquals("customers/%C3%A7%E2%82%AC", UriEncoder.encodePath("customers/ç€"));
+  }
+
+  @Test
+  public void encodeQueryComponent_encodesSeparators() {
+    Assertions.assertEquals("2010-01-01", UriEncoder.encodeQueryComponent("2010-01-01"));
+    Assertions.assertEquals("a%26b%3Dc%2Fd%20e%2B", UriEncoder.encodeQueryComponent("a&b=c/d e+"));
+  }
+}
@@ -0,0 +1,114 @@
+package com.invisiblecollector.connection.balance;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BaseUrlBalancerTest {
+
+  private static final List<URI> BASE_URLS =
+      Arrays.asList(URI.create("http://eu.example.com"), URI.create("http://us.example.com"));
+  private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private BaseUrlBalancer buildBalancer(OutlierEjection config) {
+    return new BaseUrlBalancer(BASE_URLS, config, clock::get);
+  }
+
+  private static void fail(Backend backend, int times) {
+    for (int i = 0; i < times; i++) {
+      backend.onResult(LATENCY, true);
+    }
+  }
+
+  @Test
+  public void select_leastOutstandingOfTwo() {
+    BaseUrlBalancer balancer = buildBalancer(new OutlierEjection());
+
+    for (int i = 0; i < 10; i++) {
+      balancer.select();
+    }
+
+    Assertions.assertEquals(5, balancer.getBackends().get(0).getOutstanding());
+    Assertions.assertEquals(5, balancer.getBackends().get(1).getOutstanding());
+  }
+
+  @Test
+  public void onResult_consecutiveFailuresEjectUntilReadmitted() {
+    BaseUrlBalancer balancer =
+        buildBalancer(
+            new OutlierEjection()
+                .withConsecutiveFailures(3)
+                .withEjectionTime(10, 60, TimeUnit.SECONDS));
+    Backend failing = balancer.getBackends().get(0);
+
+    fail(failing, 2);
+    failing.onResult(LATENCY, false);
+    fail(failing, 2);
+    Assertions.assertFalse(failing.isEjected());
+
+    fail(failing, 1);
+    Assertions.assertTrue(failing.isEjected());
+    for (int i = 0; i < 10; i++) {
+      Assertions.assertNotSame(failing, balancer.select());
+    }
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    Assertions.assertFalse(failing.isEjected());
+    Assertions.assertEquals(1, failing.getEjections());
+  }
+
+  @Test
+  public void onResult_ejectedAgainForLonger() {
+    BaseUrlBalancer balancer =
+        buildBalancer(
+            new OutlierEjection()
+                .withConsecutiveFailures(1)
+                .withEjectionTime(10, 60, TimeUnit.SECONDS));
+    Backend failing = balancer.getBackends().get(0);
+
+    fail(failing, 1);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    fail(failing, 1);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+    Assertions.assertTrue(failing.isEjected());
+    Assertions.assertEquals(2, failing.getEjections());
+  }
+
+  @Test
+  public void onResult_neverEjectsMoreThanMaxFraction() {
+    BaseUrlBalancer balancer = buildBalancer(new OutlierEjection().withConsecutiveFailures(1));
+
+    fail(balancer.getBackends().get(0), 1);
+    fail(balancer.getBackends().get(1), 1);
+
+    Assertions.assertTrue(balancer.getBackends().get(0).isEjected());
+    Assertions.assertFalse(balancer.getBackends().get(1).isEjected());
+  }
+
+  @Test
+  public void onResult_slowBackendEjected() {
+    BaseUrlBalancer balancer = buildBalancer(new OutlierEjection().withLatencyOutlier(3, 5));
+    Backend slow = balancer.getBackends().get(0);
+    Backend fast = balancer.getBackends().get(1);
+
+    for (int i = 0; i < 5; i++) {
+      fast.onResult(LATENCY, false);
+      slow.onResult(LATENCY * 2, false);
+    }
+    Assertions.assertFalse(slow.isEjected());
+
+    for (int i = 0; i < 20; i++) {
+      slow.onResult(LATENCY * 10, false);
+    }
+    Assertions.assertTrue(slow.isEjected());
+    Assertions.assertFalse(fast.isEjected());
+  }
+}
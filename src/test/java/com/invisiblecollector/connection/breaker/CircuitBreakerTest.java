@@ -0,0 +1,114 @@
+package com.invisiblecollector.connection.breaker;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CircuitBreakerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+  private final AtomicLong clock = new AtomicLong();
+  private final CircuitBreakerConfig config =
+      new CircuitBreakerConfig()
+          .withWindow(10, 4)
+          .withFailureRateThreshold(0.5)
+          .withSlowCallRateThreshold(0.75, 1, TimeUnit.SECONDS)
+          .withOpenDuration(30, TimeUnit.SECONDS)
+          .withHalfOpenCalls(2);
+
+  private void call(CircuitBreaker breaker, long durationNanos, boolean failed) {
+    Assertions.assertTrue(breaker.tryAcquire());
+    breaker.onResult(durationNanos, failed);
+  }
+
+  private CircuitBreaker buildOpenBreaker() {
+    CircuitBreaker breaker = new CircuitBreaker(config, clock::get);
+    for (int i = 0; i < 4; i++) {
+      call(breaker, FAST, true);
+    }
+    Assertions.assertEquals(CircuitState.OPEN, breaker.getState());
+    return breaker;
+  }
+
+  @Test
+  public void onResult_opensOnFailureRateAfterMinimumCalls() {
+    CircuitBreaker breaker = new CircuitBreaker(config, clock::get);
+
+    call(breaker, FAST, true);
+    call(breaker, FAST, true);
+    call(breaker, FAST, false);
+    Assertions.assertEquals(CircuitState.CLOSED, breaker.getState());
+
+    call(breaker, FAST, false);
+    Assertions.assertEquals(CircuitState.OPEN, breaker.getState());
+    Assertions.assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void onResult_opensOnSlowCallRate() {
+    CircuitBreaker breaker = new CircuitBreaker(config, clock::get);
+
+    call(breaker, SLOW, false);
+    call(breaker, SLOW, false);
+    call(breaker, FAST, false);
+    call(breaker, SLOW, false);
+
+    Assertions.assertEquals(CircuitState.OPEN, breaker.getState());
+  }
+
+  @Test
+  public void onResult_oldCallsLeaveWindow() {
+    CircuitBreaker breaker = new CircuitBreaker(config, clock::get);
+
+    call(breaker, FAST, true);
+    for (int i = 0; i < 10; i++) {
+      call(breaker, FAST, false);
+    }
+
+    Assertions.assertEquals(0, breaker.getFailureRate(), 0.001);
+    Assertions.assertEquals(CircuitState.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void tryAcquire_halfOpenClosesAfterTrials() {
+    CircuitBreaker breaker = buildOpenBreaker();
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    Assertions.assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertFalse(breaker.tryAcquire());
+
+    breaker.onResult(FAST, false);
+    breaker.onResult(FAST, false);
+    Assertions.assertEquals(CircuitState.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void tryAcquire_halfOpenReopensOnFailure() {
+    CircuitBreaker breaker = buildOpenBreaker();
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    Assertions.assertTrue(breaker.tryAcquire());
+    breaker.onResult(FAST, true);
+
+    Assertions.assertEquals(CircuitState.OPEN, breaker.getState());
+    Assertions.assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void onIgnored_releasesTrial() {
+    CircuitBreaker breaker = buildOpenBreaker();
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    Assertions.assertTrue(breaker.tryAcquire());
+    Assertions.assertTrue(breaker.tryAcquire());
+    breaker.onIgnored();
+
+    Assertions.assertTrue(breaker.tryAcquire());
+  }
+}
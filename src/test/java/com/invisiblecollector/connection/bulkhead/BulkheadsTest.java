@@ -0,0 +1,66 @@
+package com.invisiblecollector.connection.bulkhead;
+
+import com.invisiblecollector.connection.RequestType;
+import com.invisiblecollector.connection.concurrency.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadsTest {
+
+  @Test
+  public void of_classifiesRequests() {
+    Assertions.assertEquals(TrafficClass.READ, TrafficClass.of(RequestType.GET, "debts"));
+    Assertions.assertEquals(TrafficClass.READ, TrafficClass.of(RequestType.GET, null));
+    Assertions.assertEquals(TrafficClass.WRITE, TrafficClass.of(RequestType.POST, "debts"));
+    Assertions.assertEquals(TrafficClass.WRITE, TrafficClass.of(RequestType.PUT, "customers"));
+    Assertions.assertEquals(
+        TrafficClass.SEARCH, TrafficClass.of(RequestType.GET, TrafficClass.SEARCH_ENDPOINT_KEY));
+  }
+
+  @Test
+  public void withBulkhead_fixedLimitPerClass() {
+    Bulkheads bulkheads =
+        new Bulkheads()
+            .withBulkhead(TrafficClass.WRITE, 4, 10, 1, TimeUnit.SECONDS)
+            .withBulkhead(TrafficClass.SEARCH, 2, 0, 0, TimeUnit.SECONDS);
+
+    AdaptiveConcurrencyLimiter writes = bulkheads.getLimiter(TrafficClass.WRITE);
+    Assertions.assertEquals(4, writes.getLimit());
+    Assertions.assertEquals(TimeUnit.SECONDS.toNanos(1), writes.getMaxQueueWaitNanos());
+    Assertions.assertEquals(2, bulkheads.getLimiter(TrafficClass.SEARCH).getLimit());
+    Assertions.assertNull(bulkheads.getLimiter(TrafficClass.READ));
+    Assertions.assertNull(bulkheads.getConnectionPool(TrafficClass.WRITE));
+  }
+
+  @Test
+  public void withBulkhead_saturatedClassDoesNotBlockOthers() {
+    Bulkheads bulkheads =
+        new Bulkheads()
+            .withBulkhead(TrafficClass.WRITE, 1, 0, 0, TimeUnit.SECONDS)
+            .withBulkhead(TrafficClass.READ, 1, 0, 0, TimeUnit.SECONDS);
+
+    AdaptiveConcurrencyLimiter writes = bulkheads.getLimiter(TrafficClass.WRITE);
+    Assertions.assertTrue(writes.acquire().isDone());
+    Assertions.assertTrue(writes.acquire().isCompletedExceptionally());
+
+    Assertions.assertFalse(
+        bulkheads.getLimiter(TrafficClass.READ).acquire().isCompletedExceptionally());
+  }
+
+  @Test
+  public void withBulkhead_failWithInvalidConfig() {
+    Bulkheads bulkheads = new Bulkheads();
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> bulkheads.withBulkhead(null, 1, 0, 0, TimeUnit.SECONDS));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> bulkheads.withBulkhead(TrafficClass.READ, 0, 0, 0, TimeUnit.SECONDS));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> bulkheads.withConnectionPool(TrafficClass.READ, null));
+  }
+}
@@ -0,0 +1,126 @@
+package com.invisiblecollector.connection.concurrency;
+
+import com.invisiblecollector.exceptions.IcRejectedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private AdaptiveConcurrencyLimiter.Permit acquireNow(AdaptiveConcurrencyLimiter limiter) {
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiter = limiter.acquire();
+    Assertions.assertTrue(waiter.isDone());
+    return waiter.join();
+  }
+
+  private void succeedAfter(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+    AdaptiveConcurrencyLimiter.Permit permit = acquireNow(limiter);
+    clock.addAndGet(rttNanos);
+    permit.succeed();
+  }
+
+  @Test
+  public void acquire_queuesOverLimitAndRejectsWhenFull() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter(clock::get)
+            .withLimits(1, 1, 1)
+            .withQueue(1, 1, TimeUnit.SECONDS);
+
+    AdaptiveConcurrencyLimiter.Permit permit = acquireNow(limiter);
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire();
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> rejected = limiter.acquire();
+
+    Assertions.assertFalse(queued.isDone());
+    Assertions.assertEquals(1, limiter.getQueueDepth());
+    CompletionException exception =
+        Assertions.assertThrows(CompletionException.class, rejected::join);
+    Assertions.assertTrue(exception.getCause() instanceof IcRejectedException);
+    Assertions.assertEquals(1, limiter.getRejections());
+
+    permit.succeed();
+    // releasing twice has no effect
+    permit.succeed();
+    Assertions.assertTrue(queued.isDone());
+    Assertions.assertEquals(1, limiter.getInFlight());
+    Assertions.assertEquals(0, limiter.getQueueDepth());
+  }
+
+  @Test
+  public void expire_rejectsQueuedOnly() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter(clock::get).withLimits(1, 1, 1);
+
+    AdaptiveConcurrencyLimiter.Permit permit = acquireNow(limiter);
+    CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire();
+
+    Assertions.assertTrue(limiter.expire(queued));
+    Assertions.assertTrue(queued.isCompletedExceptionally());
+    Assertions.assertEquals(1, limiter.getRejections());
+
+    permit.ignore();
+    Assertions.assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  public void release_latencyInflationShrinksLimit() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter(clock::get).withLimits(10, 2, 100);
+    succeedAfter(limiter, RTT);
+
+    for (int i = 0; i < 5; i++) {
+      succeedAfter(limiter, 10 * RTT);
+    }
+
+    Assertions.assertTrue(limiter.getLimit() < 10, "limit: " + limiter.getLimit());
+    Assertions.assertTrue(limiter.getLimit() >= 2, "limit: " + limiter.getLimit());
+  }
+
+  @Test
+  public void release_stableLatencyGrowsSaturatedLimit() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter(clock::get).withLimits(10, 2, 100);
+    List<AdaptiveConcurrencyLimiter.Permit> held = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      held.add(acquireNow(limiter));
+    }
+
+    for (int i = 0; i < 5; i++) {
+      succeedAfter(limiter, RTT);
+    }
+
+    Assertions.assertTrue(limiter.getLimit() > 10, "limit: " + limiter.getLimit());
+    held.forEach(AdaptiveConcurrencyLimiter.Permit::ignore);
+  }
+
+  @Test
+  public void release_stableLatencyKeepsUnusedLimit() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter(clock::get).withLimits(10, 2, 100);
+
+    for (int i = 0; i < 5; i++) {
+      succeedAfter(limiter, RTT);
+    }
+
+    Assertions.assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  public void release_droppedShrinksLimit() {
+    AdaptiveConcurrencyLimiter limiter =
+        new AdaptiveConcurrencyLimiter(clock::get).withLimits(10, 2, 100);
+
+    acquireNow(limiter).drop();
+
+    Assertions.assertEquals(9, limiter.getLimit());
+  }
+}
@@ -0,0 +1,67 @@
+package com.invisiblecollector.connection.hedge;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class HedgerTest {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  public void getDelayNanos_followsPercentileWithinBounds() {
+    Hedger hedger =
+        new Hedger(
+            new HedgingPolicy()
+                .withPercentile(0.9)
+                .withMinSamples(10)
+                .withDelay(5, 500, TimeUnit.MILLISECONDS));
+
+    Assertions.assertEquals(500 * MS, hedger.getDelayNanos());
+    for (int i = 1; i <= 10; i++) {
+      hedger.onResponse(i * 10 * MS, false);
+    }
+    Assertions.assertEquals(90 * MS, hedger.getDelayNanos());
+
+    for (int i = 0; i < 256; i++) {
+      hedger.onResponse(MS, false);
+    }
+    Assertions.assertEquals(5 * MS, hedger.getDelayNanos());
+  }
+
+  @Test
+  public void tryHedge_unsendableKeepsBudget() {
+    Hedger hedger = new Hedger(new HedgingPolicy().withBudget(1, 1));
+    hedger.onRequest();
+
+    Assertions.assertFalse(hedger.tryHedge(() -> false));
+    Assertions.assertTrue(hedger.tryHedge(() -> true));
+    Assertions.assertEquals(1, hedger.getMetrics().getHedges());
+  }
+
+  @Test
+  public void tryHedge_boundedByBudget() {
+    Hedger hedger = new Hedger(new HedgingPolicy().withBudget(0.25, 1));
+
+    for (int i = 0; i < 3; i++) {
+      hedger.onRequest();
+      Assertions.assertFalse(hedger.tryHedge());
+    }
+    hedger.onRequest();
+    Assertions.assertTrue(hedger.tryHedge());
+    Assertions.assertFalse(hedger.tryHedge());
+
+    // unused budget is capped
+    for (int i = 0; i < 40; i++) {
+      hedger.onRequest();
+    }
+    Assertions.assertTrue(hedger.tryHedge());
+    Assertions.assertFalse(hedger.tryHedge());
+
+    HedgeMetrics metrics = hedger.getMetrics();
+    Assertions.assertEquals(44, metrics.getHedgeableRequests());
+    Assertions.assertEquals(2, metrics.getHedges());
+    Assertions.assertEquals(5, metrics.getBudgetDenials());
+  }
+}
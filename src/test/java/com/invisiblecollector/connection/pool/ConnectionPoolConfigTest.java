@@ -0,0 +1,39 @@
+package com.invisiblecollector.connection.pool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPoolConfigTest {
+
+  @Test
+  public void withMaxTotal_failNonPositive() {
+    ConnectionPoolConfig config = new ConnectionPoolConfig();
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> config.withMaxTotal(0));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> config.withMaxPerRoute(-1));
+  }
+
+  @Test
+  public void withConnectionTimeToLive_negativeMeansUnlimited() {
+    ConnectionPoolConfig config =
+        new ConnectionPoolConfig().withConnectionTimeToLive(-5, TimeUnit.SECONDS);
+    Assertions.assertEquals(-1, config.getConnectionTimeToLiveMillis());
+
+    config.withConnectionTimeToLive(2, TimeUnit.SECONDS);
+    Assertions.assertEquals(2000, config.getConnectionTimeToLiveMillis());
+  }
+
+  @Test
+  public void getStats_emptyPool() {
+    try (ConnectionPool pool = new ConnectionPool(new ConnectionPoolConfig().withMaxTotal(7))) {
+      ConnectionPoolStats stats = pool.getStats();
+
+      Assertions.assertEquals(7, stats.getMax());
+      Assertions.assertEquals(0, stats.getOpen());
+      Assertions.assertEquals(0, stats.getPending());
+      Assertions.assertEquals(0, stats.getRoutes());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.invisiblecollector.connection.priority;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PrioritySchedulerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private PriorityScheduler buildScheduler() {
+    return new PriorityScheduler(1, clock::get).withAging(1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void acquire_interactiveBeforeBatch() {
+    PriorityScheduler scheduler = buildScheduler();
+    CompletableFuture<PriorityScheduler.Slot> running = scheduler.acquire(Priority.BATCH);
+    CompletableFuture<PriorityScheduler.Slot> batch = scheduler.acquire(Priority.BATCH);
+    CompletableFuture<PriorityScheduler.Slot> interactive =
+        scheduler.acquire(Priority.INTERACTIVE);
+
+    Assertions.assertTrue(running.isDone());
+    Assertions.assertEquals(1, scheduler.getQueueDepth(Priority.BATCH));
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    running.join().release();
+
+    Assertions.assertTrue(interactive.isDone());
+    Assertions.assertFalse(batch.isDone());
+    interactive.join().release();
+    Assertions.assertTrue(batch.isDone());
+    Assertions.assertEquals(1, scheduler.getInFlight());
+    Assertions.assertEquals(100, scheduler.getMetrics(Priority.INTERACTIVE).getMaxWaitMillis());
+    Assertions.assertEquals(0, scheduler.getMetrics(Priority.BATCH).getPromotions());
+  }
+
+  @Test
+  public void acquire_agedBatchPromoted() {
+    PriorityScheduler scheduler = buildScheduler();
+    CompletableFuture<PriorityScheduler.Slot> running = scheduler.acquire(Priority.INTERACTIVE);
+    CompletableFuture<PriorityScheduler.Slot> batch = scheduler.acquire(Priority.BATCH);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    CompletableFuture<PriorityScheduler.Slot> interactive =
+        scheduler.acquire(Priority.INTERACTIVE);
+
+    running.join().release();
+
+    Assertions.assertTrue(batch.isDone());
+    Assertions.assertFalse(interactive.isDone());
+    LaneMetrics batchMetrics = scheduler.getMetrics(Priority.BATCH);
+    Assertions.assertEquals(1, batchMetrics.getPromotions());
+    Assertions.assertEquals(2000, batchMetrics.getMaxWaitMillis());
+    Assertions.assertEquals(2000, batchMetrics.getAverageWaitMillis(), 0.001);
+  }
+
+  @Test
+  public void abandon_removesWaiter() {
+    PriorityScheduler scheduler = buildScheduler();
+    CompletableFuture<PriorityScheduler.Slot> running = scheduler.acquire(Priority.INTERACTIVE);
+    CompletableFuture<PriorityScheduler.Slot> waiting = scheduler.acquire(Priority.BATCH);
+
+    Assertions.assertTrue(scheduler.abandon(waiting));
+    Assertions.assertFalse(scheduler.abandon(running));
+    running.join().release();
+    running.join().release();
+
+    Assertions.assertFalse(waiting.isDone());
+    Assertions.assertEquals(0, scheduler.getInFlight());
+    Assertions.assertEquals(1, scheduler.getMetrics(Priority.INTERACTIVE).getScheduled());
+  }
+
+  @Test
+  public void constructor_failWithInvalidConfig() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new PriorityScheduler(0));
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> new PriorityScheduler(1).withAging(-1, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,69 @@
+package com.invisiblecollector.connection.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdaptiveRateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private AdaptiveRateLimiter buildLimiter(double permitsPerSecond, int burst) {
+    return new AdaptiveRateLimiter(permitsPerSecond, burst, 0.1, 10 * SECOND, clock::get);
+  }
+
+  @Test
+  public void reserve_spreadsRequestsAfterBurst() {
+    AdaptiveRateLimiter limiter = buildLimiter(10, 2);
+
+    Assertions.assertEquals(0, limiter.reserve());
+    Assertions.assertEquals(0, limiter.reserve());
+    Assertions.assertEquals(SECOND / 10, limiter.reserve());
+    Assertions.assertEquals(2 * SECOND / 10, limiter.reserve());
+
+    clock.addAndGet(SECOND);
+    Assertions.assertEquals(0, limiter.reserve());
+  }
+
+  @Test
+  public void tryReserve_tooLateLeavesPermit() {
+    AdaptiveRateLimiter limiter = buildLimiter(10, 1);
+    Assertions.assertEquals(0, limiter.reserve());
+
+    Assertions.assertEquals(AdaptiveRateLimiter.UNAVAILABLE, limiter.tryReserve(SECOND / 20));
+    Assertions.assertEquals(AdaptiveRateLimiter.UNAVAILABLE, limiter.tryReserve(SECOND / 20));
+    Assertions.assertEquals(SECOND / 10, limiter.tryReserve(SECOND));
+  }
+
+  @Test
+  public void onThrottled_halvesRateAndHonoursRetryAfter() {
+    AdaptiveRateLimiter limiter = buildLimiter(10, 5);
+
+    limiter.onThrottled(2000);
+
+    Assertions.assertEquals(5, limiter.getRate(), 0.001);
+    Assertions.assertEquals(1, limiter.getThrottles());
+    // no permits are stored after being throttled
+    Assertions.assertEquals(2 * SECOND + SECOND / 5, limiter.reserve());
+  }
+
+  @Test
+  public void onThrottled_rateBoundedAndRecovers() {
+    AdaptiveRateLimiter limiter = buildLimiter(10, 1);
+
+    for (int i = 0; i < 10; i++) {
+      limiter.onThrottled(0);
+    }
+    Assertions.assertEquals(1, limiter.getRate(), 0.001);
+
+    clock.addAndGet(5 * SECOND);
+    Assertions.assertEquals(5.5, limiter.getRate(), 0.001);
+
+    clock.addAndGet(60 * SECOND);
+    Assertions.assertEquals(10, limiter.getRate(), 0.001);
+  }
+}
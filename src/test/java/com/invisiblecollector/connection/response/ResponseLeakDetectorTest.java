@@ -0,0 +1,43 @@
+package com.invisiblecollector.connection.response;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ResponseLeakDetectorTest {
+
+  @Test
+  public void track_disabledDoesNothing() {
+    ResponseLeakDetector detector = ResponseLeakDetector.disabled();
+
+    Assertions.assertNull(detector.track(new Object()));
+    Assertions.assertEquals(0, detector.getUnreleasedCount());
+  }
+
+  @Test
+  public void getUnreleasedCallSites_reportsCaller() {
+    ResponseLeakDetector detector = new ResponseLeakDetector(true);
+    Object response = new Object();
+
+    ResponseLeakDetector.Tracked tracked = detector.track(response);
+
+    List<StackTraceElement[]> callSites = detector.getUnreleasedCallSites();
+    Assertions.assertEquals(1, callSites.size());
+    Assertions.assertTrue(
+        Arrays.stream(callSites.get(0))
+            .anyMatch(element -> element.getMethodName().contains("reportsCaller")));
+
+    detector.release(tracked);
+    Assertions.assertEquals(0, detector.getUnreleasedCount());
+    Assertions.assertEquals(0, detector.getLeakCount());
+  }
+
+  @Test
+  public void release_nullHandle() {
+    ResponseLeakDetector detector = new ResponseLeakDetector(true);
+    detector.release(null);
+    Assertions.assertEquals(0, detector.getUnreleasedCount());
+  }
+}
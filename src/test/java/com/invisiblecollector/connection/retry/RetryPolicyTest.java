@@ -0,0 +1,71 @@
+package com.invisiblecollector.connection.retry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RetryPolicyTest {
+
+  @Test
+  public void nextDelay_decorrelatedJitterWithinBounds() {
+    RetryPolicy policy =
+        new RetryPolicy()
+            .withMaxRetries(50)
+            .withDelay(10, 200, TimeUnit.MILLISECONDS)
+            .withRetryBudget(1, TimeUnit.HOURS);
+    RetryAttempts attempts = policy.newAttempts(true);
+
+    long previous = 10;
+    for (int i = 0; i < 50; i++) {
+      long delay = attempts.nextDelayAfterTransportError();
+      Assertions.assertTrue(delay >= 10, "delay below base: " + delay);
+      Assertions.assertTrue(delay <= Math.min(200, previous * 3), "delay above bound: " + delay);
+      previous = delay;
+    }
+    Assertions.assertEquals(50, attempts.getRetries());
+    Assertions.assertEquals(RetryAttempts.NO_RETRY, attempts.nextDelayAfterTransportError());
+    Assertions.assertTrue(attempts.isExhausted());
+  }
+
+  @Test
+  public void nextDelay_notIdempotentNeverRetried() {
+    RetryAttempts attempts = new RetryPolicy().newAttempts(false);
+
+    Assertions.assertEquals(RetryAttempts.NO_RETRY, attempts.nextDelayAfterTransportError());
+    Assertions.assertFalse(attempts.isExhausted());
+  }
+
+  @Test
+  public void nextDelay_budgetExhausted() {
+    RetryPolicy policy =
+        new RetryPolicy()
+            .withDelay(100, 100, TimeUnit.MILLISECONDS)
+            .withRetryBudget(250, TimeUnit.MILLISECONDS);
+    RetryAttempts attempts = policy.newAttempts(true);
+
+    Assertions.assertEquals(100, attempts.nextDelayAfterTransportError());
+    Assertions.assertEquals(100, attempts.nextDelayAfterTransportError());
+    Assertions.assertEquals(RetryAttempts.NO_RETRY, attempts.nextDelayAfterTransportError());
+    Assertions.assertTrue(attempts.isExhausted());
+  }
+
+  @Test
+  public void disabled_neverRetries() {
+    RetryAttempts attempts = RetryPolicy.disabled().newAttempts(true);
+
+    Assertions.assertEquals(RetryAttempts.NO_RETRY, attempts.nextDelayAfterTransportError());
+  }
+
+  @Test
+  public void parseRetryAfter_secondsAndDate() {
+    long now = 1_000_000_000_000L;
+
+    Assertions.assertEquals(3000, RetryAfter.parseMillis(" 3 ", now));
+    Assertions.assertEquals(RetryAfter.NOT_SET, RetryAfter.parseMillis(null, now));
+    Assertions.assertEquals(RetryAfter.NOT_SET, RetryAfter.parseMillis("soon", now));
+    // 2001-09-09T01:46:40Z is the epoch millis above
+    Assertions.assertEquals(
+        2000, RetryAfter.parseMillis("Sun, 9 Sep 2001 01:46:42 GMT", now));
+  }
+}
@@ -0,0 +1,94 @@
+package com.invisiblecollector.connection.tenant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class TenantSchedulerTest {
+
+  private final List<String> order = new ArrayList<>();
+  private final List<TenantScheduler.Slot> granted = new ArrayList<>();
+
+  private void acquire(TenantLane lane, int count) {
+    for (int i = 0; i < count; i++) {
+      lane.acquire()
+          .thenAccept(
+              slot -> {
+                order.add(lane.getTenant());
+                granted.add(slot);
+              });
+    }
+  }
+
+  private void releaseAll() {
+    while (!granted.isEmpty()) {
+      granted.remove(0).release();
+    }
+  }
+
+  @Test
+  public void acquire_sharedByWeight() {
+    TenantScheduler scheduler = new TenantScheduler(1);
+    TenantLane heavy = scheduler.newLane("heavy", 2, 10);
+    TenantLane light = scheduler.newLane("light", 1, 10);
+
+    acquire(heavy, 5);
+    acquire(light, 2);
+    releaseAll();
+
+    Assertions.assertEquals(
+        Arrays.asList("heavy", "heavy", "light", "heavy", "heavy", "light", "heavy"), order);
+    Assertions.assertEquals(0, scheduler.getInFlight());
+  }
+
+  @Test
+  public void acquire_cappedPerTenant() {
+    TenantScheduler scheduler = new TenantScheduler(4);
+    TenantLane capped = scheduler.newLane("capped", 1, 1);
+    TenantLane other = scheduler.newLane("other", 1, 4);
+
+    acquire(capped, 3);
+    acquire(other, 2);
+
+    Assertions.assertEquals(Arrays.asList("capped", "other", "other"), order);
+    Assertions.assertEquals(1, capped.getInFlight());
+    Assertions.assertEquals(2, capped.getQueueDepth());
+    Assertions.assertEquals(3, scheduler.getInFlight());
+
+    granted.remove(0).release();
+    Assertions.assertEquals(1, capped.getInFlight());
+    Assertions.assertEquals(1, capped.getQueueDepth());
+  }
+
+  @Test
+  public void abandon_removesWaiter() {
+    TenantScheduler scheduler = new TenantScheduler(1);
+    TenantLane lane = scheduler.newLane("tenant", 1, 1);
+
+    CompletableFuture<TenantScheduler.Slot> running = lane.acquire();
+    CompletableFuture<TenantScheduler.Slot> waiting = lane.acquire();
+
+    Assertions.assertTrue(lane.abandon(waiting));
+    Assertions.assertFalse(lane.abandon(running));
+    running.join().release();
+
+    Assertions.assertFalse(waiting.isDone());
+    Assertions.assertEquals(0, scheduler.getInFlight());
+    Assertions.assertEquals(0, lane.getQueueDepth());
+  }
+
+  @Test
+  public void newLane_failWithInvalidConfig() {
+    TenantScheduler scheduler = new TenantScheduler(1);
+
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new TenantScheduler(0));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> scheduler.newLane("tenant", 0, 1));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> scheduler.newLane("tenant", 1, 0));
+  }
+}
@@ -0,0 +1,66 @@
+package com.invisiblecollector.connection.timeout;
+
+import com.invisiblecollector.connection.priority.Priority;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class CallContextTest {
+
+  @Test
+  public void none_neverExpires() {
+    CallContext context = CallContext.none();
+
+    Assertions.assertFalse(context.hasDeadline());
+    Assertions.assertFalse(context.isExpired());
+    Assertions.assertEquals(Long.MAX_VALUE, context.getRemainingNanos());
+  }
+
+  @Test
+  public void ofTimeout_expires() {
+    Assertions.assertTrue(CallContext.ofTimeout(0, TimeUnit.SECONDS).isExpired());
+
+    CallContext context = CallContext.ofTimeout(1, TimeUnit.HOURS);
+    Assertions.assertTrue(context.hasDeadline());
+    Assertions.assertFalse(context.isExpired());
+    Assertions.assertTrue(context.getRemainingNanos() <= TimeUnit.HOURS.toNanos(1));
+  }
+
+  @Test
+  public void withTimeout_keepsEarliestDeadline() {
+    CallContext shortContext = CallContext.ofTimeout(1, TimeUnit.SECONDS);
+    CallContext longContext = CallContext.ofTimeout(1, TimeUnit.HOURS);
+
+    Assertions.assertSame(shortContext, shortContext.withTimeout(1, TimeUnit.HOURS));
+    Assertions.assertTrue(
+        longContext.withTimeout(1, TimeUnit.SECONDS).getRemainingNanos()
+            <= TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertTrue(CallContext.none().withTimeout(1, TimeUnit.SECONDS).hasDeadline());
+  }
+
+  @Test
+  public void attach_restoresPreviousContext() {
+    CallContext outer = CallContext.ofTimeout(1, TimeUnit.HOURS);
+    CallContext inner = CallContext.ofTimeout(1, TimeUnit.SECONDS);
+
+    try (CallContext.Scope outerScope = outer.attach()) {
+      try (CallContext.Scope innerScope = inner.attach()) {
+        Assertions.assertSame(inner, CallContext.current());
+      }
+      Assertions.assertSame(outer, CallContext.current());
+    }
+    Assertions.assertSame(CallContext.none(), CallContext.current());
+  }
+
+  @Test
+  public void withPriority_keptByWithTimeout() {
+    CallContext context = CallContext.none().withPriority(Priority.BATCH);
+
+    Assertions.assertEquals(Priority.INTERACTIVE, CallContext.none().getPriority());
+    Assertions.assertEquals(Priority.BATCH, context.getPriority());
+    Assertions.assertFalse(context.hasDeadline());
+    Assertions.assertEquals(
+        Priority.BATCH, context.withTimeout(1, TimeUnit.SECONDS).getPriority());
+  }
+}
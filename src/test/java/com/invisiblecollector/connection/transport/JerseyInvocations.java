@@ -0,0 +1,13 @@
+package com.invisiblecollector.connection.transport;
+
+import javax.ws.rs.client.Invocation;
+
+/** Exposes how a {@link JerseyTransport} prepares a request, without sending it. */
+public final class JerseyInvocations {
+
+  private JerseyInvocations() {}
+
+  public static Invocation.Builder prepare(JerseyTransport transport, TransportRequest request) {
+    return transport.buildInvocation(request);
+  }
+}
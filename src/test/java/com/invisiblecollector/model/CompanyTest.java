@@ -56,4 +56,16 @@ public class CompanyTest {
     Assertions.assertNotEquals(company1.hashCode(), company2.hashCode());
   }
   
+
+  @Test
+  public void clone_correctness() {
+    Company expected = CompanyBuilder.buildTestCompanyBuilder().buildModel();
+    Company expected2 = CompanyBuilder.buildTestCompanyBuilder().buildModel();
+    Company actual = expected.clone();
+
+    Assertions.assertEquals(expected, actual);
+
+    expected.setName("whole new Name MNSWEQWE123");
+    Assertions.assertEquals(expected2, actual);
+  }
 }
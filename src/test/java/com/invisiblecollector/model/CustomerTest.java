@@ -79,4 +79,16 @@ public class CustomerTest {
   }
   
   
+
+  @Test
+  public void clone_correctness() {
+    Customer expected = CustomerBuilder.buildTestCustomerBuilder().buildModel();
+    Customer expected2 = CustomerBuilder.buildTestCustomerBuilder().buildModel();
+    Customer actual = expected.clone();
+
+    Assertions.assertEquals(expected, actual);
+
+    expected.setName("whole new Name MNSWEQWE123");
+    Assertions.assertEquals(expected2, actual);
+  }
 }
@@ -167,4 +167,18 @@ public class DebtTest {
     MatcherAssert.assertThat(e2.getMessage(), CoreMatchers.containsString(errorMsg));
   }
 
+
+  @Test
+  public void clone_correctness() {
+    Debt expected = DebtBuilder.buildTestDebtBuilder().buildModel();
+    Debt expected2 = DebtBuilder.buildTestDebtBuilder().buildModel();
+    Debt actual = expected.clone();
+
+    Assertions.assertEquals(expected, actual);
+
+    expected.setNumber("whole new number 123");
+    expected.addAttribute("new-key", "new-value");
+    expected.addItem(ItemBuilder.buildTestItemBuilder().buildModel());
+    Assertions.assertEquals(expected2, actual);
+  }
 }
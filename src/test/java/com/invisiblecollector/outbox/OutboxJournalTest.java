@@ -0,0 +1,132 @@
+package com.invisiblecollector.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class OutboxJournalTest {
+
+  private static final int INITIAL_SIZE = 1024;
+
+  private Path directory;
+  private Path path;
+
+  @BeforeEach
+  public void createDirectory() throws IOException {
+    directory = Files.createTempDirectory("outbox-journal");
+    path = directory.resolve("journal");
+  }
+
+  @AfterEach
+  public void deleteDirectory() throws IOException {
+    Files.deleteIfExists(path);
+    Files.deleteIfExists(directory);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(JournalEntry entry) {
+    return new String(entry.getPayload(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void open_recoversPendingWrites() throws Exception {
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      JournalEntry first = journal.append((byte) 1, bytes("first"));
+      journal.append((byte) 2, bytes("second"));
+      journal.append((byte) 3, bytes("third"));
+      journal.complete(first.getId());
+    }
+
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      List<JournalEntry> pending = journal.getPending();
+      Assertions.assertEquals(2, pending.size());
+      Assertions.assertEquals("second", string(pending.get(0)));
+      Assertions.assertEquals(2, pending.get(0).getType());
+      Assertions.assertEquals("third", string(pending.get(1)));
+      Assertions.assertEquals(3, pending.get(1).getType());
+    }
+  }
+
+  @Test
+  public void append_growsPastInitialSize() throws Exception {
+    byte[] payload = new byte[300];
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      for (int i = 0; i < 20; i++) {
+        journal.append((byte) 1, payload);
+      }
+    }
+
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      Assertions.assertEquals(20, journal.getPendingCount());
+      Assertions.assertEquals(300, journal.getPending().get(19).getPayload().length);
+    }
+  }
+
+  @Test
+  public void complete_reusesDrainedJournal() throws Exception {
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      for (int i = 0; i < 10; i++) {
+        journal.complete(journal.append((byte) 1, new byte[100]).getId());
+      }
+      journal.append((byte) 1, bytes("last"));
+    }
+
+    Assertions.assertEquals(INITIAL_SIZE, Files.size(path));
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      Assertions.assertEquals(1, journal.getPendingCount());
+      Assertions.assertEquals("last", string(journal.getPending().get(0)));
+    }
+  }
+
+  @Test
+  public void append_concurrentWritesAreDurable() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      List<CompletableFuture<JournalEntry>> appends = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        byte[] payload = bytes("write-" + i);
+        appends.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    return journal.append((byte) 1, payload);
+                  } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                  }
+                },
+                executor));
+      }
+      for (CompletableFuture<JournalEntry> append : appends) {
+        append.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (OutboxJournal journal = OutboxJournal.open(path, INITIAL_SIZE)) {
+      Assertions.assertEquals(200, journal.getPendingCount());
+    }
+  }
+
+  @Test
+  public void open_rejectsOtherFiles() throws Exception {
+    Files.write(path, bytes("not a journal, just some other file"));
+
+    Assertions.assertThrows(IOException.class, () -> OutboxJournal.open(path, INITIAL_SIZE));
+  }
+}